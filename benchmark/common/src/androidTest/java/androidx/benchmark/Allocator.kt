@@ -41,4 +41,17 @@ private class Allocator {
  */
 fun allocate(objectsToAllocate: Int) {
     Allocator.allocate(objectsToAllocate)
+}
+
+// Keeps the last allocated array reachable, so the allocations can't be optimized away
+private var arraySink: ByteArray? = null
+
+/**
+ * Allocates the specified number of byte arrays of the given size, used for allocated bytes
+ * verification.
+ */
+fun allocateArrays(arrayCount: Int, arraySize: Int) {
+    repeat(arrayCount) {
+        arraySink = ByteArray(arraySize)
+    }
 }
\ No newline at end of file
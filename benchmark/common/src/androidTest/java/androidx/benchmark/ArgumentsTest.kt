@@ -0,0 +1,53 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package androidx.benchmark
+
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.filters.SdkSuppress
+import androidx.test.filters.SmallTest
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Test
+import org.junit.runner.RunWith
+
+@SmallTest
+@RunWith(AndroidJUnit4::class)
+class ArgumentsTest {
+    @Test
+    fun metricsError_supported() {
+        assertNull(Arguments.getMetricsError(listOf(CpuTimeCapture.NAME)))
+        assertNull(Arguments.getMetricsError(listOf(AllocatedBytesCapture.NAME)))
+    }
+
+    @Test
+    fun metricsError_unknown() {
+        assertEquals(
+            "Could not parse androidx.benchmark.metrics, unknown metric bogus",
+            Arguments.getMetricsError(listOf(CpuTimeCapture.NAME, "bogus"))
+        )
+    }
+
+    @Test
+    @SdkSuppress(maxSdkVersion = 22) // ART runtime stats
+    fun metricsError_unsupported() {
+        assertEquals(
+            "Metric gcCount from androidx.benchmark.metrics can't be captured on this device",
+            Arguments.getMetricsError(listOf(GcCountCapture.NAME))
+        )
+    }
+}
@@ -17,9 +17,14 @@
 package androidx.benchmark
 
 import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.filters.SdkSuppress
 import androidx.test.filters.SmallTest
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
 import org.junit.Test
 import org.junit.runner.RunWith
+import java.util.concurrent.TimeUnit
 
 @SmallTest
 @RunWith(AndroidJUnit4::class)
@@ -44,6 +49,91 @@ class AllocationCountCaptureTest {
     }
 }
 
+@SmallTest
+@RunWith(AndroidJUnit4::class)
+class AllocatedBytesCaptureTest {
+    @Test
+    fun simple() {
+        // 10 arrays of 1000 bytes, plus their headers and alignment
+        AllocatedBytesCapture().verifyMedian(10_000..10_500) {
+            allocateArrays(10, 1000)
+        }
+    }
+
+    @Test
+    fun pauseResume() {
+        AllocatedBytesCapture().verifyMedian(10_000..10_500) {
+            allocateArrays(10, 1000)
+
+            capturePaused()
+            // these bytes shouldn't be counted, capture is paused!
+            allocateArrays(100, 1000)
+            captureResumed()
+        }
+    }
+}
+
+@SmallTest
+@RunWith(AndroidJUnit4::class)
+class CpuTimeCaptureTest {
+    @Test
+    fun sleepNotCounted() {
+        val capture = CpuTimeCapture()
+        assertTrue(capture.isSupported)
+        capture.captureStart()
+        Thread.sleep(100)
+        val cpuTimeNs = capture.captureStop()
+        assertTrue(cpuTimeNs >= 0)
+        assertTrue(cpuTimeNs < TimeUnit.MILLISECONDS.toNanos(50))
+    }
+}
+
+@SmallTest
+@SdkSuppress(minSdkVersion = 23) // ART runtime stats
+@RunWith(AndroidJUnit4::class)
+class GcCountCaptureTest {
+    @Test
+    fun explicitGcCounted() {
+        val capture = GcCountCapture()
+        assertTrue(capture.isSupported)
+        // collections are rare, so they are reported per repeat rather than per iteration
+        assertFalse(capture.isAveragedPerIteration)
+        capture.captureStart()
+        Runtime.getRuntime().gc()
+        Runtime.getRuntime().gc()
+        assertTrue(capture.captureStop() >= 2)
+    }
+
+    @Test
+    fun pausedGcNotCounted() {
+        val capture = GcCountCapture()
+        capture.captureStart()
+        capture.capturePaused()
+        Runtime.getRuntime().gc()
+        capture.captureResumed()
+        // only a collection started by the runtime meanwhile could be counted
+        assertTrue(capture.captureStop() <= 1)
+    }
+}
+
+@SmallTest
+@SdkSuppress(minSdkVersion = 23) // ART runtime stats
+@RunWith(AndroidJUnit4::class)
+class GcPauseTimeCaptureTest {
+    @Test
+    fun millisecondPrecision() {
+        val capture = GcPauseTimeCapture()
+        assertTrue(capture.isSupported)
+        assertTrue(capture.isAveragedPerIteration)
+        capture.captureStart()
+        allocateArrays(1000, 1000)
+        val pauseTimeNs = capture.captureStop()
+        assertTrue(pauseTimeNs >= 0)
+        // reported by ART in milliseconds
+        assertEquals(0L, pauseTimeNs % TimeUnit.MILLISECONDS.toNanos(1))
+    }
+}
+
 /**
  * Measure many times, and verify the median.
  *
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package androidx.benchmark
+
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.filters.SmallTest
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+
+@SmallTest
+@RunWith(AndroidJUnit4::class)
+class MetricsContainerTest {
+    private class ConstantCapture(
+        override val name: String,
+        private val value: Long,
+        override val isAveragedPerIteration: Boolean
+    ) : MetricCapture() {
+        override fun captureStart() {}
+        override fun captureStop(): Long = value
+        override fun capturePaused() {}
+        override fun captureResumed() {}
+    }
+
+    @Test
+    fun perIterationAndPerRepeat() {
+        val container = MetricsContainer(
+            arrayOf(
+                ConstantCapture("perIteration", 1000, isAveragedPerIteration = true),
+                ConstantCapture("perRepeat", 3, isAveragedPerIteration = false)
+            ),
+            2
+        )
+        container.captureInit()
+        repeat(2) {
+            container.captureStart()
+            container.captureStop()
+        }
+        val stats = container.captureFinished(maxIterations = 100)
+
+        assertEquals(listOf("perIteration", "perRepeat"), stats.map { it.name })
+        // divided by the 100 iterations of each repeat
+        assertEquals(10, stats[0].median)
+        // reported for the whole repeat, 3 events would round down to 0 per iteration
+        assertEquals(3, stats[1].median)
+    }
+
+    @Test
+    fun allocationCountAndAllocatedBytes() {
+        // Both captures start and stop the same Debug allocation counting
+        val container = MetricsContainer(
+            arrayOf(AllocationCountCapture(), AllocatedBytesCapture()),
+            1
+        )
+        container.captureInit()
+        container.captureStart()
+        allocateArrays(100, 1000)
+        container.captureStop()
+        val stats = container.captureFinished(maxIterations = 1)
+
+        val allocationCount = stats[0].median
+        val allocatedBytes = stats[1].median
+        assertTrue("allocation count $allocationCount", allocationCount in 100L..120L)
+        assertTrue("allocated bytes $allocatedBytes", allocatedBytes in 100_000L..110_000L)
+    }
+}
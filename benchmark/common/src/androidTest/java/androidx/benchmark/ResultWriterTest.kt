@@ -105,6 +105,9 @@ public class ResultWriterTest {
                                 "minimum": 100,
                                 "maximum": 102,
                                 "median": 101,
+                                "percentile90": 102,
+                                "percentile99": 102,
+                                "percentile999": 102,
                                 "runs": [
                                     100,
                                     101,
@@ -126,6 +129,9 @@ public class ResultWriterTest {
                                 "minimum": 100,
                                 "maximum": 102,
                                 "median": 101,
+                                "percentile90": 102,
+                                "percentile99": 102,
+                                "percentile999": 102,
                                 "runs": [
                                     100,
                                     101,
@@ -56,6 +56,14 @@ class StatsTest {
         assertEquals(29.01, stats.standardDeviation, 0.05)
     }
 
+    @Test
+    fun percentiles() {
+        val stats = Stats((0L..1000L).toList().shuffled().toLongArray(), "test")
+        assertEquals(900, stats.percentile90)
+        assertEquals(990, stats.percentile99)
+        assertEquals(999, stats.percentile999)
+    }
+
     @Test
     fun lerp() {
         assertEquals(Stats.lerp(0, 1000, 0.5), 500)
@@ -69,5 +77,6 @@ class StatsTest {
         (0..100).forEach {
             assertEquals(it.toLong(), Stats.getPercentile(listOf(0L, 25L, 50L, 75L, 100L), it))
         }
+        assertEquals(9990, Stats.getPercentile(listOf(0L, 10000L), 99.9))
     }
 }
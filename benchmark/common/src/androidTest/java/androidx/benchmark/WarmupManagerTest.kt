@@ -60,6 +60,32 @@ class WarmupManagerTest {
         assertEquals(WarmupManager.MIN_ITERATIONS, warmup.iteration)
     }
 
+    @Test
+    fun compilationTime() {
+        // stable timings aren't enough while the JIT is still compiling
+        val compilationTimes = mutableListOf(10L, 20L, 30L)
+        val warmup = WarmupManager { compilationTimes.removeFirstOrNull() ?: 30L }
+        while (!warmup.onNextIteration(100)) {}
+        // each change in compilation time requires another run of similar iterations, and a run
+        // ends once the count of similar iterations exceeds MIN_SIMILAR_ITERATIONS
+        assertEquals(
+            (WarmupManager.MIN_DURATION_NS / 100).toInt() +
+                2 * (WarmupManager.MIN_SIMILAR_ITERATIONS + 1),
+            warmup.iteration
+        )
+        assertTrue(compilationTimes.isEmpty())
+    }
+
+    @Test
+    fun compilationTimeUnchanged() {
+        // compilation before warmup started doesn't delay it
+        val warmup = WarmupManager { 10L }
+        while (!warmup.onNextIteration(100)) {}
+        val reference = WarmupManager()
+        while (!reference.onNextIteration(100)) {}
+        assertEquals(reference.iteration, warmup.iteration)
+    }
+
     @Test
     fun similarIterationCount() {
         // mock warmup data, and validate we detect convergence
@@ -37,6 +37,7 @@ internal object Arguments {
     val startupMode: Boolean
     val dryRunMode: Boolean
     val suppressedErrors: Set<String>
+    val additionalMetrics: List<String>
     val profiler: Profiler?
     val profilerSampleFrequency: Int
     val profilerSampleDurationSeconds: Long
@@ -63,9 +64,36 @@ internal object Arguments {
         return profiler
     }
 
+    /**
+     * Host JVM runs have no instrumentation arguments, so they are read from system properties,
+     * e.g. set with `android.testOptions.unitTests.all { systemProperty(...) }`.
+     */
+    private fun systemPropertyArguments() = Bundle().apply {
+        System.getProperties().stringPropertyNames()
+            .filter { it.startsWith(prefix) || it == "additionalTestOutputDir" }
+            .forEach { putString(it, System.getProperty(it)) }
+    }
+
+    /**
+     * Returns the error for the first of the given optional metric names which is unknown or
+     * can't be captured, or null if they can all be captured.
+     */
+    internal fun getMetricsError(metrics: List<String>): String? {
+        metrics.forEach { name ->
+            val capture = MetricCapture.createOptional(name)
+                ?: return "Could not parse ${prefix}metrics, unknown metric $name"
+            if (!capture.isSupported) {
+                return "Metric $name from ${prefix}metrics can't be captured on this device"
+            }
+        }
+        return null
+    }
+
     // note: initialization may happen at any time
     init {
-        val arguments = argumentSource ?: InstrumentationRegistry.getArguments()
+        val arguments = argumentSource
+            ?: if (HostJvm.isHostJvm) systemPropertyArguments()
+            else InstrumentationRegistry.getArguments()
 
         dryRunMode = arguments.getArgument("dryRunMode.enable")?.toBoolean() ?: false
 
@@ -83,6 +111,14 @@ internal object Arguments {
             .filter { it.isNotEmpty() }
             .toSet()
 
+        // Optional metrics to capture, e.g. "cpuTimeNs,gcCount"
+        additionalMetrics = arguments.getArgument("metrics")
+            .split(',')
+            .map { it.trim() }
+            .filter { it.isNotEmpty() }
+            .distinct()
+        getMetricsError(additionalMetrics)?.let { error = it }
+
         profiler = arguments.getProfiler(outputEnable)
         profilerSampleFrequency =
             arguments.getArgument("profiling.sampleFrequency")?.ifBlank { null }?.toInt() ?: 10000
@@ -101,6 +137,11 @@ internal object Arguments {
         val additionalTestOutputDir = arguments.getString("additionalTestOutputDir")
         @Suppress("DEPRECATION") // Legacy code path for versions of agp older than 3.6
         testOutputDir = additionalTestOutputDir?.let { File(it) }
-            ?: Environment.getExternalStoragePublicDirectory(Environment.DIRECTORY_DOWNLOADS)
+            ?: if (HostJvm.isHostJvm) {
+                // relative to the module directory when run by gradle
+                File("build/benchmark-results")
+            } else {
+                Environment.getExternalStoragePublicDirectory(Environment.DIRECTORY_DOWNLOADS)
+            }
     }
 }
\ No newline at end of file
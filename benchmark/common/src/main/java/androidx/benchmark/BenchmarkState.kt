@@ -56,8 +56,25 @@ public class BenchmarkState @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP) construc
 
     private var stages = listOf(
         MetricsContainer(arrayOf(TimeCapture()), 1),
-        MetricsContainer(arrayOf(TimeCapture()), REPEAT_COUNT_TIME),
-        MetricsContainer(arrayOf(AllocationCountCapture()), REPEAT_COUNT_ALLOCATION)
+        MetricsContainer(
+            // optional metrics first, as TimeCapture is the most sensitive to capture overhead
+            Arguments.additionalMetrics
+                // captured in the allocation stage rather than the time stage
+                .filter { it != AllocatedBytesCapture.NAME }
+                .mapNotNull { MetricCapture.createOptional(it) }
+                .plus(TimeCapture())
+                .toTypedArray(),
+            REPEAT_COUNT_TIME
+        ),
+        MetricsContainer(
+            when {
+                HostJvm.isHostJvm -> arrayOf<MetricCapture>(AllocatedBytesCapture())
+                AllocatedBytesCapture.NAME in Arguments.additionalMetrics ->
+                    arrayOf(AllocationCountCapture(), AllocatedBytesCapture())
+                else -> arrayOf<MetricCapture>(AllocationCountCapture())
+            },
+            REPEAT_COUNT_ALLOCATION
+        )
     )
 
     private var metrics = stages[0]
@@ -86,7 +103,13 @@ public class BenchmarkState @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP) construc
 
     private var state = NOT_STARTED // Current benchmark state.
 
-    private val warmupManager = WarmupManager()
+    private val warmupManager = WarmupManager(
+        compilationTimeMs = if (HostJvm.isHostJvm && HostJvm.totalCompilationTimeMs() >= 0) {
+            { HostJvm.totalCompilationTimeMs() }
+        } else {
+            null
+        }
+    )
 
     private var paused = false
     private var thermalThrottleSleepSeconds: Long =
@@ -237,6 +260,7 @@ public class BenchmarkState @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP) construc
     private fun endRunningStage(): Boolean {
         if (state != RUNNING_WARMUP_STAGE &&
             !simplifiedTimingOnlyMode &&
+            !HostJvm.isHostJvm &&
             throttleRemainingRetries > 0 &&
             sleepIfThermalThrottled(THROTTLE_BACKOFF_S)
         ) {
@@ -264,11 +288,13 @@ public class BenchmarkState @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP) construc
         state++
         if (state == RUNNING_ALLOCATION_STAGE) {
             // skip allocation stage if we are only doing minimal looping (startupMode, dryRunMode,
-            // profilingMode), or if we only care about timing (checkForThermalThrottling)
+            // profilingMode), if we only care about timing (checkForThermalThrottling), or if the
+            // host JVM can't measure allocations
             if (simplifiedTimingOnlyMode ||
                 Arguments.startupMode ||
                 Arguments.dryRunMode ||
-                Arguments.profiler != null
+                Arguments.profiler != null ||
+                HostJvm.isHostJvm && !HostJvm.allocatedBytesSupported
             ) {
                 state++
             }
@@ -405,7 +431,8 @@ public class BenchmarkState @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP) construc
 
         thermalThrottleSleepSeconds = 0
 
-        if (!simplifiedTimingOnlyMode) {
+        // Thread priorities and thermal throttling are only managed on devices
+        if (!simplifiedTimingOnlyMode && !HostJvm.isHostJvm) {
             if (!CpuInfo.locked &&
                 !IsolationActivity.sustainedPerformanceModeInUse &&
                 !Errors.isEmulator
@@ -424,7 +451,7 @@ public class BenchmarkState @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP) construc
     private fun afterBenchmark() {
         totalRunTimeNs = System.nanoTime() - totalRunTimeStartNs
 
-        if (!simplifiedTimingOnlyMode) {
+        if (!simplifiedTimingOnlyMode && !HostJvm.isHostJvm) {
             // Don't modify thread priority when checking for thermal throttling, since 'outer'
             // BenchmarkState owns thread priority
             ThreadPriority.resetBumpedThread()
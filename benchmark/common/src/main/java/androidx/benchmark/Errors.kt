@@ -97,7 +97,11 @@ internal object Errors {
         val appInfo = context.applicationInfo
         var warningPrefix = ""
         var warningString = ""
-        if (Arguments.profiler?.requiresDebuggable != true &&
+        // Device configuration checks don't apply to host JVM runs, which aren't representative
+        // of device performance anyway.
+        val isDevice = !HostJvm.isHostJvm
+        if (isDevice &&
+            Arguments.profiler?.requiresDebuggable != true &&
             (appInfo.flags and ApplicationInfo.FLAG_DEBUGGABLE != 0)
         ) {
             warningPrefix += "DEBUGGABLE_"
@@ -110,7 +114,7 @@ internal object Errors {
                 |    real user's experience (or even regress release performance).
             """.trimMarginWrapNewlines()
         }
-        if (isEmulator) {
+        if (isDevice && isEmulator) {
             warningPrefix += "EMULATOR_"
             warningString += """
                 |WARNING: Running on Emulator
@@ -120,7 +124,7 @@ internal object Errors {
                 |    experience (or even regress real device performance).
             """.trimMarginWrapNewlines()
         }
-        if (Build.FINGERPRINT.contains(":eng/")) {
+        if (isDevice && Build.FINGERPRINT.contains(":eng/")) {
             warningPrefix += "ENG-BUILD_"
             warningString += """
                 |WARNING: Running on Eng Build
@@ -142,7 +146,7 @@ internal object Errors {
             """.trimMarginWrapNewlines()
         }
 
-        if (isDeviceRooted && !CpuInfo.locked) {
+        if (isDevice && isDeviceRooted && !CpuInfo.locked) {
             warningPrefix += "UNLOCKED_"
             warningString += """
                 |WARNING: Unlocked CPU clocks
@@ -153,7 +157,8 @@ internal object Errors {
             """.trimMarginWrapNewlines()
         }
 
-        if (!CpuInfo.locked &&
+        if (isDevice &&
+            !CpuInfo.locked &&
             IsolationActivity.isSustainedPerformanceModeSupported() &&
             !IsolationActivity.sustainedPerformanceModeInUse
         ) {
@@ -168,7 +173,7 @@ internal object Errors {
                 |        android.defaultConfig.testInstrumentationRunner
                 |            = "androidx.benchmark.junit4.AndroidBenchmarkRunner"
             """.trimMarginWrapNewlines()
-        } else if (IsolationActivity.singleton.get() == null) {
+        } else if (isDevice && IsolationActivity.singleton.get() == null) {
             warningPrefix += "ACTIVITY-MISSING_"
             warningString += """
                 |WARNING: Not using IsolationActivity via AndroidBenchmarkRunner
@@ -208,7 +213,7 @@ internal object Errors {
         }
 
         val filter = IntentFilter(Intent.ACTION_BATTERY_CHANGED)
-        val batteryPercent = context.registerReceiver(null, filter)?.run {
+        val batteryPercent = context.takeIf { isDevice }?.registerReceiver(null, filter)?.run {
             val level = getIntExtra(BatteryManager.EXTRA_LEVEL, 100)
             val scale = getIntExtra(BatteryManager.EXTRA_SCALE, 100)
             level * 100 / scale
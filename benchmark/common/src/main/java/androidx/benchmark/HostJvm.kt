@@ -0,0 +1,181 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.benchmark
+
+import androidx.annotation.RestrictTo
+import java.lang.reflect.Method
+
+/**
+ * Access to the host JVM, when benchmarks run as local unit tests (e.g. with Robolectric) instead
+ * of on a device.
+ *
+ * Management beans are not part of the Android SDK, so they are accessed reflectively.
+ *
+ * @suppress
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+public object HostJvm {
+    /**
+     * True when running on a JVM other than ART/Dalvik, in which case device configuration
+     * (clocks, thermal throttling, IsolationActivity...) doesn't apply.
+     */
+    @JvmStatic
+    public val isHostJvm: Boolean = System.getProperty("java.vm.name") != "Dalvik"
+
+    private val threadMXBean: Any?
+    private val threadAllocatedBytesMethod: Method?
+    private val threadCpuTimeMethod: Method?
+    private val compilationMXBean: Any?
+    private val totalCompilationTimeMethod: Method?
+    private val garbageCollectorMXBeans: List<Any>
+    private val collectionCountMethod: Method?
+    private val collectionTimeMethod: Method?
+
+    /**
+     * Bytes allocated by a call to [currentThreadAllocatedBytes] itself, which is subtracted
+     * from each measurement.
+     */
+    internal val allocatedBytesReadOverhead: Long
+
+    init {
+        var threadBean: Any? = null
+        var allocatedBytesMethod: Method? = null
+        var cpuTimeMethod: Method? = null
+        var compilationBean: Any? = null
+        var compilationTimeMethod: Method? = null
+        var gcBeans: List<Any> = emptyList()
+        var gcCountMethod: Method? = null
+        var gcTimeMethod: Method? = null
+        if (isHostJvm) {
+            try {
+                val factory = Class.forName("java.lang.management.ManagementFactory")
+                threadBean = factory.getMethod("getThreadMXBean").invoke(null)
+                val threadBeanClass = Class.forName("java.lang.management.ThreadMXBean")
+                if (threadBeanClass.getMethod("isCurrentThreadCpuTimeSupported")
+                    .invoke(threadBean) == true
+                ) {
+                    cpuTimeMethod = threadBeanClass.getMethod("getCurrentThreadCpuTime")
+                }
+                // Allocated bytes are only available from HotSpot's extension of ThreadMXBean
+                val sunThreadBeanClass = Class.forName("com.sun.management.ThreadMXBean")
+                if (sunThreadBeanClass.isInstance(threadBean) &&
+                    sunThreadBeanClass.getMethod("isThreadAllocatedMemorySupported")
+                        .invoke(threadBean) == true
+                ) {
+                    sunThreadBeanClass.getMethod(
+                        "setThreadAllocatedMemoryEnabled",
+                        Boolean::class.javaPrimitiveType
+                    ).invoke(threadBean, true)
+                    allocatedBytesMethod = sunThreadBeanClass.getMethod(
+                        "getThreadAllocatedBytes",
+                        Long::class.javaPrimitiveType
+                    )
+                }
+
+                compilationBean = factory.getMethod("getCompilationMXBean").invoke(null)
+                if (compilationBean != null) {
+                    val compilationBeanClass =
+                        Class.forName("java.lang.management.CompilationMXBean")
+                    if (compilationBeanClass.getMethod("isCompilationTimeMonitoringSupported")
+                        .invoke(compilationBean) == true
+                    ) {
+                        compilationTimeMethod =
+                            compilationBeanClass.getMethod("getTotalCompilationTime")
+                    }
+                }
+
+                gcBeans = (factory.getMethod("getGarbageCollectorMXBeans").invoke(null) as List<*>)
+                    .filterNotNull()
+                val gcBeanClass = Class.forName("java.lang.management.GarbageCollectorMXBean")
+                gcCountMethod = gcBeanClass.getMethod("getCollectionCount")
+                gcTimeMethod = gcBeanClass.getMethod("getCollectionTime")
+            } catch (e: Exception) {
+                // Not a HotSpot-like JVM, capture what is available
+            }
+        }
+        threadMXBean = threadBean
+        threadAllocatedBytesMethod = allocatedBytesMethod
+        threadCpuTimeMethod = cpuTimeMethod
+        compilationMXBean = compilationBean
+        totalCompilationTimeMethod = compilationTimeMethod
+        garbageCollectorMXBeans = gcBeans
+        collectionCountMethod = gcCountMethod
+        collectionTimeMethod = gcTimeMethod
+
+        allocatedBytesReadOverhead = if (allocatedBytesMethod != null) {
+            // Repeat to let reflection settle on its final accessor, and keep the lowest overhead
+            val threadId = Thread.currentThread().id
+            (0 until 20).minOf {
+                val start = currentThreadAllocatedBytes(threadId)
+                currentThreadAllocatedBytes(threadId) - start
+            }
+        } else {
+            0
+        }
+    }
+
+    /** True if [currentThreadAllocatedBytes] can be used. */
+    internal val allocatedBytesSupported: Boolean
+        get() = threadAllocatedBytesMethod != null
+
+    /**
+     * Returns the total number of bytes allocated by the thread with the given id, or -1 if
+     * unsupported.
+     */
+    internal fun currentThreadAllocatedBytes(threadId: Long): Long {
+        val method = threadAllocatedBytesMethod ?: return -1
+        return method.invoke(threadMXBean, threadId) as Long
+    }
+
+    /** Returns the CPU time used by the current thread, in nanoseconds, or -1 if unsupported. */
+    internal fun currentThreadCpuTimeNs(): Long {
+        val method = threadCpuTimeMethod ?: return -1
+        return method.invoke(threadMXBean) as Long
+    }
+
+    /** True if [collectionCount] and [collectionTimeMs] can be used. */
+    internal val collectionStatsSupported: Boolean
+        get() = collectionCountMethod != null && garbageCollectorMXBeans.isNotEmpty()
+
+    /** Returns the number of garbage collections of all collectors since the JVM started. */
+    internal fun collectionCount(): Long = sumOverCollectors(collectionCountMethod)
+
+    /**
+     * Returns the accumulated elapsed time of garbage collections of all collectors since the JVM
+     * started, in milliseconds.
+     */
+    internal fun collectionTimeMs(): Long = sumOverCollectors(collectionTimeMethod)
+
+    private fun sumOverCollectors(method: Method?): Long {
+        if (method == null) return -1
+        var sum = 0L
+        for (bean in garbageCollectorMXBeans) {
+            // collectors report -1 for values they don't track
+            sum += (method.invoke(bean) as Long).coerceAtLeast(0)
+        }
+        return sum
+    }
+
+    /**
+     * Returns the accumulated time spent by the JIT compiler, in milliseconds, or -1 if
+     * unsupported.
+     */
+    internal fun totalCompilationTimeMs(): Long {
+        val method = totalCompilationTimeMethod ?: return -1
+        return method.invoke(compilationMXBean) as Long
+    }
+}
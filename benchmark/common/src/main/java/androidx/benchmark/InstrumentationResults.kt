@@ -35,7 +35,7 @@ public class InstrumentationResultScope(public val bundle: Bundle = Bundle()) {
     }
 
     internal companion object {
-        private const val IDE_SUMMARY_KEY = "android.studio.display.benchmark"
+        internal const val IDE_SUMMARY_KEY = "android.studio.display.benchmark"
     }
 }
 
@@ -128,6 +128,11 @@ public object InstrumentationResults {
      * @param bundle The [Bundle] to be reported to [android.app.Instrumentation]
      */
     internal fun reportBundle(bundle: Bundle) {
+        if (HostJvm.isHostJvm) {
+            // No instrumentation to report to, print the summary to the test output instead
+            bundle.getString(InstrumentationResultScope.IDE_SUMMARY_KEY)?.let { println(it) }
+            return
+        }
         InstrumentationRegistry
             .getInstrumentation()
             .sendStatus(2, bundle)
@@ -23,7 +23,9 @@ internal object MemInfo {
 
     init {
         val memInfo = File("/proc/meminfo")
-        val memTotalLine = memInfo.readLines().firstOrNull { it.matches(Regex("MemTotal:.*")) }
+        // not available on every host JVM
+        val memTotalLine = memInfo.takeIf { it.exists() }?.readLines()
+            ?.firstOrNull { it.matches(Regex("MemTotal:.*")) }
         memTotalBytes = memTotalLine?.split(Regex("\\s+"))?.get(1)?.toLong()?.times(1024) ?: -1
     }
 }
\ No newline at end of file
@@ -16,11 +16,23 @@
 
 package androidx.benchmark
 
+import android.os.Build
 import android.os.Debug
+import java.util.concurrent.TimeUnit
 
 internal abstract class MetricCapture {
     abstract val name: String
 
+    /**
+     * Whether values are divided by the number of iterations of a repeat, as opposed to reported
+     * for a whole repeat. Rare events, like garbage collections, would mostly round to 0 per
+     * iteration.
+     */
+    open val isAveragedPerIteration: Boolean get() = true
+
+    /** Whether the metric can be captured on the current device or JVM. */
+    open val isSupported: Boolean get() = true
+
     /**
      * Starts collecting data for a run.
      *
@@ -56,6 +68,55 @@ internal abstract class MetricCapture {
     override fun hashCode(): Int {
         return name.hashCode() // This is the only true state retained, and hashCode must match ==
     }
+
+    companion object {
+        /**
+         * Creates an optional capture by metric name, as passed in the `androidx.benchmark.metrics`
+         * argument, or null if unknown.
+         */
+        fun createOptional(name: String): MetricCapture? = when (name) {
+            CpuTimeCapture.NAME -> CpuTimeCapture()
+            GcCountCapture.NAME -> GcCountCapture()
+            GcPauseTimeCapture.NAME -> GcPauseTimeCapture()
+            AllocatedBytesCapture.NAME -> AllocatedBytesCapture()
+            else -> null
+        }
+    }
+}
+
+/**
+ * Captures the change of a monotonic counter over a run, excluding paused sections.
+ */
+internal abstract class CounterCapture : MetricCapture() {
+    private var currentStarted = 0L
+    private var currentPausedStarted = 0L
+    private var currentTotalPaused = 0L
+
+    abstract fun readCounter(): Long
+
+    override fun captureStart() {
+        currentTotalPaused = 0
+        currentStarted = readCounter()
+    }
+
+    override fun captureStop(): Long {
+        return readCounter() - currentStarted - currentTotalPaused
+    }
+
+    override fun capturePaused() {
+        currentPausedStarted = readCounter()
+    }
+
+    override fun captureResumed() {
+        currentTotalPaused += readCounter() - currentPausedStarted
+    }
+
+    /** Reads a numeric ART runtime statistic, see [Debug.getRuntimeStats]. */
+    protected fun readRuntimeStat(statName: String): Long = if (Build.VERSION.SDK_INT >= 23) {
+        Debug.getRuntimeStat(statName)?.toLongOrNull() ?: 0
+    } else {
+        0
+    }
 }
 
 internal class TimeCapture : MetricCapture() {
@@ -108,3 +169,144 @@ internal class AllocationCountCapture : MetricCapture() {
         currentTotalPaused += Debug.getGlobalAllocCount() - currentPausedStarted
     }
 }
+
+/**
+ * Captures the bytes allocated by the benchmark.
+ *
+ * On a host JVM, allocations of the benchmark thread are read from HotSpot's ThreadMXBean, where
+ * [Debug] allocation counting isn't available.
+ */
+@Suppress("DEPRECATION")
+internal class AllocatedBytesCapture : MetricCapture() {
+    override val name = NAME
+    private var threadId = 0L
+    private var currentStarted = 0L
+    private var currentPausedStarted = 0L
+    private var currentTotalPaused = 0L
+    private var pauseCount = 0
+
+    override val isSupported: Boolean
+        get() = !HostJvm.isHostJvm || HostJvm.allocatedBytesSupported
+
+    override fun captureStart() {
+        currentTotalPaused = 0
+        pauseCount = 0
+        if (HostJvm.isHostJvm) {
+            threadId = Thread.currentThread().id
+            currentStarted = HostJvm.currentThreadAllocatedBytes(threadId)
+        } else {
+            // Counting restarts from 0, shared with AllocationCountCapture if it runs alongside
+            currentStarted = 0
+            Debug.startAllocCounting()
+        }
+    }
+
+    override fun captureStop(): Long {
+        if (!HostJvm.isHostJvm) {
+            Debug.stopAllocCounting()
+            return (Debug.getGlobalAllocSize() - currentTotalPaused)
+        }
+        val allocated = HostJvm.currentThreadAllocatedBytes(threadId) - currentStarted -
+            currentTotalPaused
+        // each pair of reads, including the pause/resume ones, allocates a little itself
+        return (allocated - HostJvm.allocatedBytesReadOverhead * (pauseCount + 1))
+            .coerceAtLeast(0)
+    }
+
+    override fun capturePaused() {
+        currentPausedStarted = readAllocatedBytes()
+    }
+
+    override fun captureResumed() {
+        currentTotalPaused += readAllocatedBytes() - currentPausedStarted
+        pauseCount++
+    }
+
+    private fun readAllocatedBytes(): Long = if (HostJvm.isHostJvm) {
+        HostJvm.currentThreadAllocatedBytes(threadId)
+    } else {
+        Debug.getGlobalAllocSize().toLong()
+    }
+
+    companion object {
+        const val NAME = "allocatedBytes"
+    }
+}
+
+/**
+ * Captures the CPU time used by the benchmark thread, which excludes time spent blocked or
+ * preempted, unlike [TimeCapture].
+ */
+internal class CpuTimeCapture : CounterCapture() {
+    override val name = NAME
+
+    override val isSupported: Boolean
+        get() = readCounter() >= 0
+
+    override fun readCounter(): Long = if (HostJvm.isHostJvm) {
+        HostJvm.currentThreadCpuTimeNs()
+    } else {
+        Debug.threadCpuTimeNanos()
+    }
+
+    companion object {
+        const val NAME = "cpuTimeNs"
+    }
+}
+
+/**
+ * Captures the number of garbage collections of the process during each repeat.
+ */
+internal class GcCountCapture : CounterCapture() {
+    override val name = NAME
+
+    override val isAveragedPerIteration: Boolean get() = false
+
+    override val isSupported: Boolean
+        get() = if (HostJvm.isHostJvm) {
+            HostJvm.collectionStatsSupported
+        } else {
+            Build.VERSION.SDK_INT >= 23
+        }
+
+    override fun readCounter(): Long = if (HostJvm.isHostJvm) {
+        HostJvm.collectionCount()
+    } else {
+        readRuntimeStat("art.gc.gc-count")
+    }
+
+    companion object {
+        const val NAME = "gcCount"
+    }
+}
+
+/**
+ * Captures the time spent in garbage collections that block the app, per iteration.
+ *
+ * On ART this is the time of blocking collections, which pause the threads allocating. On a host
+ * JVM this is the elapsed time of all collections reported by the collectors, which
+ * approximates pauses for stop-the-world collectors. Both are only measured with millisecond
+ * precision, so are best compared over long runs.
+ */
+internal class GcPauseTimeCapture : CounterCapture() {
+    override val name = NAME
+
+    override val isSupported: Boolean
+        get() = if (HostJvm.isHostJvm) {
+            HostJvm.collectionStatsSupported
+        } else {
+            Build.VERSION.SDK_INT >= 23
+        }
+
+    override fun readCounter(): Long = TimeUnit.MILLISECONDS.toNanos(
+        if (HostJvm.isHostJvm) {
+            HostJvm.collectionTimeMs()
+        } else {
+            readRuntimeStat("art.gc.blocking-gc-time")
+        }
+    )
+
+    companion object {
+        const val NAME = "gcPauseTimeNs"
+    }
+}
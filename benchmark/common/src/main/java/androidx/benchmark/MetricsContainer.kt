@@ -93,9 +93,11 @@ internal class MetricsContainer(
      * Call exactly once at the end of a benchmark.
      */
     fun captureFinished(maxIterations: Int): List<Stats> {
-        for (eachArray in data) { // do this at the end for efficiency
-            for (i in 0..eachArray.lastIndex) {
-                eachArray[i] = eachArray[i] / maxIterations
+        data.forEachIndexed { index, eachArray -> // do this at the end for efficiency
+            if (metrics[index].isAveragedPerIteration) {
+                for (i in 0..eachArray.lastIndex) {
+                    eachArray[i] = eachArray[i] / maxIterations
+                }
             }
         }
         doLog()
@@ -138,6 +138,9 @@ public object ResultWriter {
         name("minimum").value(stats.min)
         name("maximum").value(stats.max)
         name("median").value(stats.median)
+        name("percentile90").value(stats.percentile90)
+        name("percentile99").value(stats.percentile99)
+        name("percentile999").value(stats.percentile999)
         return this
     }
 
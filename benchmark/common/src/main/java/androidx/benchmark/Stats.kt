@@ -34,6 +34,18 @@ public class Stats(data: LongArray, public val name: String) {
     public val mean: Double = data.average()
     public val standardDeviation: Double
 
+    /**
+     * Tail percentiles of the data, to surface regressions that don't move the median.
+     *
+     * These are exact percentiles of the measurements, interpolated between the closest values.
+     * Each measurement is already an average over a repeat of iterations, and the tail is
+     * limited by the number of measurements (e.g. [percentile999] is close to [max] with fewer
+     * than 1000 of them).
+     */
+    internal val percentile90: Long
+    internal val percentile99: Long
+    internal val percentile999: Long
+
     init {
         val values = data.sorted()
         val size = values.size
@@ -44,6 +56,9 @@ public class Stats(data: LongArray, public val name: String) {
         min = values.first()
         max = values.last()
         median = getPercentile(values, 50)
+        percentile90 = getPercentile(values, 90.0)
+        percentile99 = getPercentile(values, 99.0)
+        percentile999 = getPercentile(values, 99.9)
         standardDeviation = if (size == 1) {
             NaN
         } else {
@@ -54,7 +69,8 @@ public class Stats(data: LongArray, public val name: String) {
 
     internal fun getSummary(): String {
         return "Stats for $name: median $median, min $min, max $max, mean $mean, " +
-            "standardDeviation: $standardDeviation"
+            "standardDeviation: $standardDeviation, p90 $percentile90, p99 $percentile99, " +
+            "p99.9 $percentile999"
     }
 
     public fun putInBundle(status: Bundle, prefix: String) {
@@ -88,8 +104,11 @@ public class Stats(data: LongArray, public val name: String) {
             return (a * (1 - ratio) + b * (ratio)).roundToLong()
         }
 
-        internal fun getPercentile(data: List<Long>, percentile: Int): Long {
-            val idealIndex = percentile.coerceIn(0, 100) / 100.0 * (data.size - 1)
+        internal fun getPercentile(data: List<Long>, percentile: Int): Long =
+            getPercentile(data, percentile.toDouble())
+
+        internal fun getPercentile(data: List<Long>, percentile: Double): Long {
+            val idealIndex = percentile.coerceIn(0.0, 100.0) / 100.0 * (data.size - 1)
             val firstIndex = idealIndex.toInt()
             val secondIndex = firstIndex + 1
 
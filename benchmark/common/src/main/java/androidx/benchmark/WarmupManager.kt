@@ -26,11 +26,17 @@ import java.util.concurrent.TimeUnit
  * exponential moving averages.
  *
  * Tuned to do minimal amount of intrusive work in onNextIteration to avoid polluting the benchmark.
+ *
+ * @param compilationTimeMs Source of the total JIT compilation time, if the runtime exposes it
+ * (see [HostJvm.totalCompilationTimeMs]). When present, the timings are only considered stable
+ * once no compilation happened over a full run of similar iterations, since tiered JITs like
+ * HotSpot's keep recompiling hot code well after the first iterations look stable.
  */
-internal class WarmupManager {
+internal class WarmupManager(private val compilationTimeMs: (() -> Long)? = null) {
     private var fastMovingAvg: Float = 0f
     private var slowMovingAvg: Float = 0f
     private var similarIterationCount: Int = 0
+    private var lastCompilationTimeMs: Long = compilationTimeMs?.invoke() ?: -1
 
     val estimatedIterationTimeNs: Float get() = fastMovingAvg
 
@@ -72,10 +78,21 @@ internal class WarmupManager {
         }
 
         if (iteration >= MIN_ITERATIONS && totalDurationNs >= MIN_DURATION_NS) {
-            if (similarIterationCount > MIN_SIMILAR_ITERATIONS ||
-                totalDurationNs >= MAX_DURATION_NS
-            ) {
-                // benchmark has stabilized, or we're out of time
+            if (totalDurationNs >= MAX_DURATION_NS) {
+                // we're out of time
+                return true
+            }
+            if (similarIterationCount > MIN_SIMILAR_ITERATIONS) {
+                // benchmark has stabilized, unless the JIT was still compiling meanwhile.
+                // Only checked here to keep the per iteration work minimal.
+                if (compilationTimeMs != null) {
+                    val currentCompilationTimeMs = compilationTimeMs.invoke()
+                    if (currentCompilationTimeMs != lastCompilationTimeMs) {
+                        lastCompilationTimeMs = currentCompilationTimeMs
+                        similarIterationCount = 0
+                        return false
+                    }
+                }
                 return true
             }
         }
@@ -101,7 +118,7 @@ internal class WarmupManager {
         val MIN_DURATION_NS = TimeUnit.MILLISECONDS.toNanos(250)
         val MAX_DURATION_NS = TimeUnit.SECONDS.toNanos(8)
         const val MIN_ITERATIONS = 30
-        private const val MIN_SIMILAR_ITERATIONS = 40
+        const val MIN_SIMILAR_ITERATIONS = 40
 
         private const val FAST_RATIO = 0.1f
         private const val SLOW_RATIO = 0.005f
@@ -20,6 +20,7 @@ import android.Manifest
 import android.util.Log
 import androidx.annotation.RestrictTo
 import androidx.benchmark.BenchmarkState
+import androidx.benchmark.HostJvm
 import androidx.test.rule.GrantPermissionRule
 import androidx.tracing.Trace
 import androidx.tracing.trace
@@ -71,6 +72,13 @@ import org.junit.runners.model.Statement
  * - In simple form in Logcat with the tag "Benchmark"
  * - To the instrumentation status result Bundle on the gradle command line
  *
+ * Benchmarks can also run on the host JVM as local unit tests, e.g. with Robolectric, to track
+ * relative performance without a device. Device configuration checks are skipped, allocations
+ * are reported in bytes as `allocatedBytes`, and the JSON output is written to
+ * `build/benchmark-results` unless `additionalTestOutputDir` is set. Arguments are read from
+ * system properties, such as `androidx.benchmark.output.enable`. Host measurements are not
+ * representative of device performance.
+ *
  * Every test in the Class using this @Rule must contain a single benchmark.
  */
 public class BenchmarkRule internal constructor(
@@ -172,6 +180,10 @@ public class BenchmarkRule internal constructor(
     }
 
     override fun apply(base: Statement, description: Description): Statement {
+        if (HostJvm.isHostJvm) {
+            // output is written to the host file system, no permission needed
+            return applyInternal(base, description)
+        }
         return RuleChain
             .outerRule(GrantPermissionRule.grant(Manifest.permission.WRITE_EXTERNAL_STORAGE))
             .around(::applyInternal)
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.benchmark.junit4
+
+import android.os.Build
+import androidx.test.platform.app.InstrumentationRegistry
+import org.json.JSONObject
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.Description
+import org.junit.runner.RunWith
+import org.junit.runners.model.Statement
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+import java.io.File
+
+/**
+ * Runs a benchmark on the host JVM, with androidx.benchmark.output.enable set as a system property
+ * by the build.
+ */
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [Build.VERSION_CODES.P], manifest = Config.NONE)
+class BenchmarkRuleHostTest {
+    private var sink: ByteArray? = null
+
+    @Test
+    fun measureRepeated_writesResults() {
+        val packageName = InstrumentationRegistry.getInstrumentation().targetContext.packageName
+        // additionalTestOutputDir isn't set, so results go to the module build directory
+        val file = File("build/benchmark-results", "$packageName-benchmarkData.json")
+        file.delete()
+
+        val benchmarkRule = BenchmarkRule()
+        benchmarkRule.apply(
+            object : Statement() {
+                override fun evaluate() {
+                    benchmarkRule.measureRepeated {
+                        sink = ByteArray(64)
+                    }
+                }
+            },
+            Description.createTestDescription(BenchmarkRuleHostTest::class.java, "allocate")
+        ).evaluate()
+
+        assertTrue("${file.absolutePath} should be written", file.exists())
+        val benchmark = JSONObject(file.readText()).getJSONArray("benchmarks").getJSONObject(0)
+        // device configuration errors would prefix the name, e.g. EMULATOR_allocate
+        assertEquals("allocate", benchmark.getString("name"))
+        assertEquals(BenchmarkRuleHostTest::class.java.name, benchmark.getString("className"))
+
+        val metrics = benchmark.getJSONObject("metrics")
+        assertTrue(metrics.getJSONObject("timeNs").getLong("minimum") > 0)
+        // allocations are measured in bytes by the ThreadMXBean, instead of Debug alloc counting
+        assertFalse(metrics.has("allocationCount"))
+        assertTrue(metrics.getJSONObject("allocatedBytes").getDouble("median") >= 64)
+    }
+}
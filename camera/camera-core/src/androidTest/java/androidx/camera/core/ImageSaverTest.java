@@ -22,6 +22,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -42,6 +43,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.camera.core.ImageSaver.OnImageSavedCallback;
 import androidx.camera.core.ImageSaver.SaveError;
+import androidx.camera.core.internal.utils.ByteArrayPool;
 import androidx.test.core.app.ApplicationProvider;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import androidx.test.filters.MediumTest;
@@ -148,6 +150,7 @@ public class ImageSaverTest {
             };
 
     private ExecutorService mBackgroundExecutor;
+    private final ByteArrayPool mBufferPool = new ByteArrayPool(1);
     private ContentResolver mContentResolver;
 
     @Before
@@ -229,6 +232,7 @@ public class ImageSaverTest {
                 /*orientation=*/ 0,
                 mBackgroundExecutor,
                 mBackgroundExecutor,
+                mBufferPool,
                 mSyncCallback);
     }
 
@@ -243,6 +247,20 @@ public class ImageSaverTest {
         verify(mMockCallback).onImageSaved(any());
     }
 
+    @Test
+    public void canSaveYuvImagesWithSharedBufferPool() throws InterruptedException, IOException {
+        // The second image is encoded with the arrays released by the first one
+        for (int i = 0; i < 2; i++) {
+            File saveLocation = File.createTempFile("test", ".jpg");
+            saveLocation.deleteOnExit();
+
+            getDefaultImageSaver(mMockYuvImage, saveLocation).run();
+            mSemaphore.acquire();
+        }
+
+        verify(mMockCallback, times(2)).onImageSaved(any());
+    }
+
     @Test
     public void saveToUri() throws InterruptedException, FileNotFoundException {
         // Act.
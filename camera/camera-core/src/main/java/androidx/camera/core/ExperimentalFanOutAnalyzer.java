@@ -0,0 +1,35 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.camera.core;
+
+import static java.lang.annotation.RetentionPolicy.CLASS;
+
+import androidx.annotation.experimental.Experimental;
+
+import java.lang.annotation.Retention;
+
+/**
+ * Denotes that the annotated classes and methods uses the experimental feature which shares the
+ * images of a single {@link ImageAnalysis} between several {@link ImageAnalysis.Analyzer}s.
+ *
+ * <p>The {@link FanOutAnalyzer} is an {@link ImageAnalysis.Analyzer} which dispatches each image
+ * to multiple analyzers, each running on its own executor with its own backpressure strategy.
+ */
+@Retention(CLASS)
+@Experimental
+public @interface ExperimentalFanOutAnalyzer {
+}
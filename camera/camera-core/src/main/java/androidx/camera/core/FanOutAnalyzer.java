@@ -0,0 +1,317 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.camera.core;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.util.Preconditions;
+
+import com.google.auto.value.AutoValue;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * An {@link ImageAnalysis.Analyzer} which shares each image between several analyzers.
+ *
+ * <p>Each image received by the FanOutAnalyzer is reference counted and handed to every added
+ * analyzer on the analyzer's own executor. The image is only closed once all analyzers closed
+ * the copy they received, so analyzers don't have to wait for each other: a slow analyzer only
+ * causes frames to be dropped for itself, as determined by its own backpressure strategy, while
+ * faster analyzers keep receiving every frame.
+ *
+ * <p>Analyzers can also be throttled to only receive every n-th frame, and the FanOutAnalyzer
+ * keeps per analyzer latency and drop {@link Metrics}.
+ *
+ * <p>Since images are held until the slowest analyzer is done with them, the FanOutAnalyzer
+ * should be set on an {@link ImageAnalysis} using
+ * {@link ImageAnalysis#STRATEGY_BLOCK_PRODUCER}, with an
+ * {@link ImageAnalysis.Builder#setImageQueueDepth(int) image queue depth} of at least twice the
+ * number of analyzers plus one, and with a direct executor:
+ *
+ * <pre>
+ * FanOutAnalyzer fanOut = new FanOutAnalyzer();
+ * fanOut.addAnalyzer(faceExecutor, faceAnalyzer);
+ * fanOut.addAnalyzer(labelExecutor, labelAnalyzer, STRATEGY_KEEP_ONLY_LATEST, 3);
+ * imageAnalysis.setAnalyzer(CameraXExecutors.directExecutor(), fanOut);
+ * </pre>
+ */
+@ExperimentalFanOutAnalyzer
+public final class FanOutAnalyzer implements ImageAnalysis.Analyzer {
+    private final List<Branch> mBranches = new CopyOnWriteArrayList<>();
+
+    /**
+     * Adds an analyzer which receives every frame and only keeps the latest frame while it is
+     * busy.
+     *
+     * @param executor The executor in which {@link ImageAnalysis.Analyzer#analyze(ImageProxy)}
+     *                 will be run.
+     * @param analyzer The analyzer to add.
+     */
+    public void addAnalyzer(@NonNull Executor executor, @NonNull ImageAnalysis.Analyzer analyzer) {
+        addAnalyzer(executor, analyzer, ImageAnalysis.STRATEGY_KEEP_ONLY_LATEST, 1);
+    }
+
+    /**
+     * Adds an analyzer.
+     *
+     * <p>With {@link ImageAnalysis#STRATEGY_KEEP_ONLY_LATEST}, frames arriving while the analyzer
+     * still holds an image replace any frame waiting for it, and the replaced frame counts as
+     * dropped. With {@link ImageAnalysis#STRATEGY_BLOCK_PRODUCER}, frames are queued for the
+     * analyzer, which eventually stalls the camera if the analyzer can't keep up.
+     *
+     * @param executor      The executor in which
+     *                      {@link ImageAnalysis.Analyzer#analyze(ImageProxy)} will be run.
+     * @param analyzer      The analyzer to add.
+     * @param strategy      The backpressure strategy for this analyzer.
+     * @param frameInterval The analyzer only receives one of every {@code frameInterval}
+     *                      frames. 1 means every frame.
+     */
+    public void addAnalyzer(@NonNull Executor executor, @NonNull ImageAnalysis.Analyzer analyzer,
+            @ImageAnalysis.BackpressureStrategy int strategy,
+            @IntRange(from = 1) int frameInterval) {
+        Preconditions.checkArgument(frameInterval >= 1, "frameInterval must be at least 1.");
+        Preconditions.checkArgument(findBranch(analyzer) == null, "Analyzer already added.");
+        mBranches.add(new Branch(executor, analyzer, strategy, frameInterval));
+    }
+
+    /**
+     * Removes a previously added analyzer. Frames waiting for the analyzer are closed.
+     *
+     * @param analyzer The analyzer to remove.
+     */
+    public void removeAnalyzer(@NonNull ImageAnalysis.Analyzer analyzer) {
+        Branch branch = findBranch(analyzer);
+        if (branch != null) {
+            mBranches.remove(branch);
+            branch.clearPendingFrames();
+        }
+    }
+
+    /**
+     * Returns a snapshot of the metrics of an analyzer, or null if the analyzer wasn't added.
+     *
+     * @param analyzer The analyzer to return metrics for.
+     */
+    @Nullable
+    public Metrics getMetrics(@NonNull ImageAnalysis.Analyzer analyzer) {
+        Branch branch = findBranch(analyzer);
+        return branch == null ? null : branch.getMetrics();
+    }
+
+    @Override
+    public void analyze(@NonNull ImageProxy image) {
+        long arrivalTimeNanos = System.nanoTime();
+        ReferenceCountedImageProxy sharedImage = new ReferenceCountedImageProxy(image);
+        try {
+            for (Branch branch : mBranches) {
+                branch.offer(sharedImage, arrivalTimeNanos);
+            }
+        } finally {
+            // Release the reference held while dispatching.
+            sharedImage.close();
+        }
+    }
+
+    @Nullable
+    private Branch findBranch(@NonNull ImageAnalysis.Analyzer analyzer) {
+        for (Branch branch : mBranches) {
+            if (branch.mAnalyzer == analyzer) {
+                return branch;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Latency and drop metrics of a single analyzer of a {@link FanOutAnalyzer}.
+     */
+    @ExperimentalFanOutAnalyzer
+    @AutoValue
+    public abstract static class Metrics {
+        /** Returns the number of frames the analyzer received and closed. */
+        public abstract long getAnalyzedFrameCount();
+
+        /**
+         * Returns the number of frames which were not delivered to the analyzer because it was
+         * busy with a previous frame.
+         */
+        public abstract long getDroppedFrameCount();
+
+        /**
+         * Returns the number of frames which were not delivered to the analyzer because of its
+         * frame interval.
+         */
+        public abstract long getSkippedFrameCount();
+
+        /**
+         * Returns the average time from a frame arriving at the {@link FanOutAnalyzer} until
+         * the analyzer closed it, in nanoseconds, or 0 if no frame was analyzed yet.
+         */
+        public abstract long getAverageLatencyNanos();
+
+        /**
+         * Returns the longest time from a frame arriving at the {@link FanOutAnalyzer} until
+         * the analyzer closed it, in nanoseconds, or 0 if no frame was analyzed yet.
+         */
+        public abstract long getMaxLatencyNanos();
+
+        @NonNull
+        static Metrics create(long analyzedFrameCount, long droppedFrameCount,
+                long skippedFrameCount, long averageLatencyNanos, long maxLatencyNanos) {
+            return new AutoValue_FanOutAnalyzer_Metrics(analyzedFrameCount, droppedFrameCount,
+                    skippedFrameCount, averageLatencyNanos, maxLatencyNanos);
+        }
+
+        // Hides public constructor.
+        Metrics() {
+        }
+    }
+
+    /** A frame waiting to be analyzed by a branch. */
+    private static final class PendingFrame {
+        final ImageProxy mImage;
+        final long mArrivalTimeNanos;
+
+        PendingFrame(ImageProxy image, long arrivalTimeNanos) {
+            mImage = image;
+            mArrivalTimeNanos = arrivalTimeNanos;
+        }
+    }
+
+    /** The state of a single analyzer. */
+    private static final class Branch {
+        final Executor mExecutor;
+        final ImageAnalysis.Analyzer mAnalyzer;
+        @ImageAnalysis.BackpressureStrategy
+        final int mStrategy;
+        final int mFrameInterval;
+
+        @GuardedBy("this")
+        private final ArrayDeque<PendingFrame> mPendingFrames = new ArrayDeque<>();
+        @GuardedBy("this")
+        private boolean mBusy = false;
+        @GuardedBy("this")
+        private long mFrameCount = 0;
+        @GuardedBy("this")
+        private long mAnalyzedFrameCount = 0;
+        @GuardedBy("this")
+        private long mDroppedFrameCount = 0;
+        @GuardedBy("this")
+        private long mSkippedFrameCount = 0;
+        @GuardedBy("this")
+        private long mTotalLatencyNanos = 0;
+        @GuardedBy("this")
+        private long mMaxLatencyNanos = 0;
+
+        Branch(Executor executor, ImageAnalysis.Analyzer analyzer,
+                @ImageAnalysis.BackpressureStrategy int strategy, int frameInterval) {
+            mExecutor = executor;
+            mAnalyzer = analyzer;
+            mStrategy = strategy;
+            mFrameInterval = frameInterval;
+        }
+
+        void offer(@NonNull ReferenceCountedImageProxy sharedImage, long arrivalTimeNanos) {
+            PendingFrame frameToAnalyze = null;
+            PendingFrame frameToDrop = null;
+            synchronized (this) {
+                if (mFrameCount++ % mFrameInterval != 0) {
+                    mSkippedFrameCount++;
+                    return;
+                }
+                ImageProxy reference = sharedImage.fork();
+                if (reference == null) {
+                    return;
+                }
+                PendingFrame frame = new PendingFrame(reference, arrivalTimeNanos);
+                if (!mBusy) {
+                    mBusy = true;
+                    frameToAnalyze = frame;
+                } else {
+                    if (mStrategy == ImageAnalysis.STRATEGY_KEEP_ONLY_LATEST) {
+                        frameToDrop = mPendingFrames.poll();
+                        if (frameToDrop != null) {
+                            mDroppedFrameCount++;
+                        }
+                    }
+                    mPendingFrames.add(frame);
+                }
+            }
+            if (frameToDrop != null) {
+                frameToDrop.mImage.close();
+            }
+            if (frameToAnalyze != null) {
+                dispatch(frameToAnalyze);
+            }
+        }
+
+        private void dispatch(@NonNull PendingFrame frame) {
+            ImageProxy reference = frame.mImage;
+            // Give the analyzer its own crop rect, and get notified once it's done with the frame.
+            SettableImageProxy image = new SettableImageProxy(reference,
+                    reference.getImageInfo());
+            image.setCropRect(reference.getCropRect());
+            ((ForwardingImageProxy) reference).addOnImageCloseListener(
+                    closedImage -> onFrameClosed(frame));
+            try {
+                mExecutor.execute(() -> mAnalyzer.analyze(image));
+            } catch (RejectedExecutionException e) {
+                Logger.e("FanOutAnalyzer", "Analyzer executor rejected the frame.", e);
+                reference.close();
+            }
+        }
+
+        private void onFrameClosed(@NonNull PendingFrame frame) {
+            PendingFrame next;
+            synchronized (this) {
+                long latencyNanos = System.nanoTime() - frame.mArrivalTimeNanos;
+                mAnalyzedFrameCount++;
+                mTotalLatencyNanos += latencyNanos;
+                mMaxLatencyNanos = Math.max(mMaxLatencyNanos, latencyNanos);
+                next = mPendingFrames.poll();
+                mBusy = next != null;
+            }
+            if (next != null) {
+                dispatch(next);
+            }
+        }
+
+        void clearPendingFrames() {
+            ArrayDeque<PendingFrame> pendingFrames;
+            synchronized (this) {
+                pendingFrames = new ArrayDeque<>(mPendingFrames);
+                mPendingFrames.clear();
+            }
+            for (PendingFrame frame : pendingFrames) {
+                frame.mImage.close();
+            }
+        }
+
+        @NonNull
+        synchronized Metrics getMetrics() {
+            return Metrics.create(mAnalyzedFrameCount, mDroppedFrameCount, mSkippedFrameCount,
+                    mAnalyzedFrameCount == 0 ? 0 : mTotalLatencyNanos / mAnalyzedFrameCount,
+                    mMaxLatencyNanos);
+        }
+    }
+}
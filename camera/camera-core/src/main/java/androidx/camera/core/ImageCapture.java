@@ -114,6 +114,7 @@ import androidx.camera.core.internal.TargetConfig;
 import androidx.camera.core.internal.YuvToJpegProcessor;
 import androidx.camera.core.internal.compat.quirk.SoftwareJpegEncodingPreferredQuirk;
 import androidx.camera.core.internal.compat.workaround.ExifRotationAvailability;
+import androidx.camera.core.internal.utils.ByteArrayPool;
 import androidx.camera.core.internal.utils.ImageUtil;
 import androidx.concurrent.futures.CallbackToFutureAdapter;
 import androidx.core.util.Preconditions;
@@ -322,6 +323,13 @@ public final class ImageCapture extends UseCase {
     @SuppressWarnings("WeakerAccess")
     final Executor mSequentialIoExecutor;
 
+    // Intermediate arrays used to encode captured YUV images to JPEG. Only a single array per
+    // length is kept since captures are typically processed one at a time. Cleared with the
+    // pipeline so the arrays don't outlive the use case's session.
+    // Synthetic access
+    @SuppressWarnings("WeakerAccess")
+    final ByteArrayPool mJpegBufferPool = new ByteArrayPool(1);
+
     /**
      * Creates a new image capture use case from the given configuration.
      *
@@ -461,6 +469,7 @@ public final class ImageCapture extends UseCase {
         mDeferrableSurface = null;
         mImageReader = null;
         mProcessingImageReader = null;
+        mJpegBufferPool.clear();
 
         if (deferrableSurface != null) {
             deferrableSurface.close();
@@ -875,6 +884,7 @@ public final class ImageCapture extends UseCase {
                                         image.getImageInfo().getRotationDegrees(),
                                         executor,
                                         mSequentialIoExecutor,
+                                        mJpegBufferPool,
                                         imageSavedCallbackWrapper));
                     }
 
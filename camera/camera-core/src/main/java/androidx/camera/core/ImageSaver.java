@@ -25,6 +25,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.camera.core.impl.utils.Exif;
 import androidx.camera.core.internal.compat.workaround.ExifRotationAvailability;
+import androidx.camera.core.internal.utils.ByteArrayPool;
 import androidx.camera.core.internal.utils.ImageUtil;
 import androidx.camera.core.internal.utils.ImageUtil.CodecFailedException;
 import androidx.core.util.Preconditions;
@@ -62,6 +63,9 @@ final class ImageSaver implements Runnable {
     // The callback to call on completion
     private final OnImageSavedCallback mCallback;
     private final Executor mSequentialIoExecutor;
+    // Intermediate arrays of the JPEG encoding, owned by the capture pipeline
+    @Nullable
+    private final ByteArrayPool mBufferPool;
 
     ImageSaver(
             ImageProxy image,
@@ -69,8 +73,10 @@ final class ImageSaver implements Runnable {
             int orientation,
             Executor userCallbackExecutor,
             Executor sequentialIoExecutor,
+            @Nullable ByteArrayPool bufferPool,
             OnImageSavedCallback callback) {
         mImage = image;
+        mBufferPool = bufferPool;
         mOutputFileOptions = outputFileOptions;
         mOrientation = orientation;
         mCallback = callback;
@@ -110,7 +116,7 @@ final class ImageSaver implements Runnable {
         Exception exception = null;
         try (ImageProxy imageToClose = mImage;
              FileOutputStream output = new FileOutputStream(tempFile)) {
-            byte[] bytes = ImageUtil.imageToJpegByteArray(mImage);
+            byte[] bytes = ImageUtil.imageToJpegByteArray(mImage, mBufferPool);
             output.write(bytes);
 
             Exif exif = Exif.createFromFile(tempFile);
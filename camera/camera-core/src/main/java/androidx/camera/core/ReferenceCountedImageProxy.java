@@ -0,0 +1,71 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.camera.core;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.Nullable;
+
+/**
+ * An {@link ImageProxy} which is shared by several consumers and only closes the wrapped image
+ * once all of them closed their reference.
+ *
+ * <p>The instance itself holds the first reference, additional references are obtained through
+ * {@link #fork()}.
+ */
+final class ReferenceCountedImageProxy extends ForwardingImageProxy {
+    @GuardedBy("this")
+    private int mReferenceCount = 1;
+
+    /**
+     * Creates a new instance which wraps the given image and holds a single reference to it.
+     *
+     * @param image to wrap
+     */
+    ReferenceCountedImageProxy(ImageProxy image) {
+        super(image);
+    }
+
+    /**
+     * Returns a new reference to the image, or null if all references have already been closed.
+     *
+     * <p>Closing the returned image releases the reference. Redundant close calls are ignored.
+     */
+    @Nullable
+    synchronized ImageProxy fork() {
+        if (mReferenceCount <= 0) {
+            return null;
+        }
+        mReferenceCount++;
+        return new SingleCloseImageProxy(this);
+    }
+
+    /** Returns the number of references which haven't been closed yet. */
+    synchronized int getReferenceCount() {
+        return mReferenceCount;
+    }
+
+    @Override
+    public void close() {
+        boolean closeImage;
+        synchronized (this) {
+            closeImage = mReferenceCount > 0 && --mReferenceCount == 0;
+        }
+        if (closeImage) {
+            super.close();
+        }
+    }
+}
@@ -16,15 +16,10 @@
 
 package androidx.camera.core.impl;
 
-import android.util.ArrayMap;
-
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import java.util.Collections;
-import java.util.Map;
-import java.util.Set;
-import java.util.TreeMap;
+import java.util.Objects;
 
 /**
  * A MutableOptionsBundle is an {@link OptionsBundle} which allows for insertion/removal.
@@ -33,9 +28,8 @@ public final class MutableOptionsBundle extends OptionsBundle implements Mutable
     @NonNull
     private static final OptionPriority DEFAULT_PRIORITY = OptionPriority.OPTIONAL;
 
-    private MutableOptionsBundle(
-            TreeMap<Option<?>, Map<OptionPriority, Object>> persistentOptions) {
-        super(persistentOptions);
+    private MutableOptionsBundle(@NonNull OptionTable table) {
+        super(table);
     }
 
     /**
@@ -45,7 +39,7 @@ public final class MutableOptionsBundle extends OptionsBundle implements Mutable
      */
     @NonNull
     public static MutableOptionsBundle create() {
-        return new MutableOptionsBundle(new TreeMap<>(ID_COMPARE));
+        return new MutableOptionsBundle(OptionTable.create());
     }
 
     /**
@@ -56,25 +50,19 @@ public final class MutableOptionsBundle extends OptionsBundle implements Mutable
      */
     @NonNull
     public static MutableOptionsBundle from(@NonNull Config otherConfig) {
-        TreeMap<Option<?>, Map<OptionPriority, Object>> persistentOptions =
-                new TreeMap<>(ID_COMPARE);
-        for (Option<?> opt : otherConfig.listOptions()) {
-            Set<OptionPriority> priorities = otherConfig.getPriorities(opt);
-            Map<OptionPriority, Object> valuesMap = new ArrayMap<>();
-            for (OptionPriority priority : priorities) {
-                valuesMap.put(priority, otherConfig.retrieveOptionWithPriority(opt, priority));
-            }
-            persistentOptions.put(opt, valuesMap);
-        }
-
-        return new MutableOptionsBundle(persistentOptions);
+        return new MutableOptionsBundle(OptionTable.copyOf(otherConfig));
     }
 
     @Nullable
     @Override
     public <ValueT> ValueT removeOption(@NonNull Option<ValueT> opt) {
+        int position = mTable.indexOf(opt);
+        if (position < 0) {
+            return null;
+        }
         @SuppressWarnings("unchecked") // Options should have only been inserted via insertOption()
-                ValueT value = (ValueT) mOptions.remove(opt);
+                ValueT value = (ValueT) mTable.valueAt(position);
+        mTable.removeAt(position);
 
         return value;
     }
@@ -87,27 +75,25 @@ public final class MutableOptionsBundle extends OptionsBundle implements Mutable
     @Override
     public <ValueT> void insertOption(@NonNull Option<ValueT> opt,
             @NonNull OptionPriority priority, @Nullable ValueT value) {
-        Map<OptionPriority, Object> values = mOptions.get(opt);
+        int position = mTable.indexOf(opt);
 
-        if (values == null) {
+        if (position < 0) {
             // the option is first added
-            values = new ArrayMap<>();
-            mOptions.put(opt, values);
-            values.put(priority, value);
+            mTable.put(opt, priority, value);
             return;
         }
 
         // get the highest priority.
-        OptionPriority priority1 = Collections.min(values.keySet());
+        OptionPriority priority1 = mTable.highestPriorityAt(position);
         OptionPriority priority2 = priority;
-        Object value1 = values.get(priority1);
+        Object value1 = mTable.valueAt(position);
         ValueT value2 = value;
-        if (!value1.equals(value2) && Config.hasConflict(priority1, priority2)) {
+        if (!Objects.equals(value1, value2) && Config.hasConflict(priority1, priority2)) {
             throw new IllegalArgumentException("Option values conflicts: " + opt.getId()
-                    + ", existing value (" + priority1 + ")=" + values.get(priority1)
+                    + ", existing value (" + priority1 + ")=" + value1
                     + ", conflicting (" + priority2 + ")=" + value);
         }
 
-        values.put(priority, value);
+        mTable.put(opt, priority, value);
     }
 }
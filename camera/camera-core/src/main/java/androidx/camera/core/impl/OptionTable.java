@@ -0,0 +1,306 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.camera.core.impl;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.camera.core.impl.Config.Option;
+import androidx.camera.core.impl.Config.OptionPriority;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Flat storage for the options of an {@link OptionsBundle}.
+ *
+ * <p>Option ids are interned process-wide to small integers the first time an option is stored.
+ * Each table maps interned ids to the position of the option through an int array, so looking up
+ * an option costs a hash lookup on its (cached) id hash code plus two array reads. Options are kept
+ * sorted by id in parallel arrays, with one value slot per {@link OptionPriority}, so copying a
+ * table is a handful of array copies.
+ *
+ * <p>This class is not thread safe. Immutable {@link OptionsBundle}s never modify their table
+ * after construction.
+ */
+final class OptionTable {
+    private static final OptionPriority[] PRIORITIES = OptionPriority.values();
+    private static final int PRIORITY_COUNT = PRIORITIES.length;
+    private static final int INITIAL_CAPACITY = 8;
+
+    private static final ConcurrentHashMap<String, Integer> sInternedIds =
+            new ConcurrentHashMap<>();
+    private static final AtomicInteger sNextInternedId = new AtomicInteger();
+
+    // Options sorted by id.
+    private Option<?>[] mOptions;
+    // Interned id of each option, parallel to mOptions.
+    private int[] mInternedIds;
+    // Bit mask of the priorities set for each option, parallel to mOptions.
+    private int[] mPriorityMasks;
+    // PRIORITY_COUNT values per option, indexed by position * PRIORITY_COUNT + priority ordinal.
+    private Object[] mValues;
+    // Position + 1 of the option for each interned id, 0 if the option is absent.
+    private int[] mPositions;
+    private int mSize;
+    // Incremented whenever an option is added or removed, so iterators can fail fast.
+    private int mModCount;
+
+    private OptionTable(int capacity, int positionsLength) {
+        mOptions = new Option<?>[capacity];
+        mInternedIds = new int[capacity];
+        mPriorityMasks = new int[capacity];
+        mValues = new Object[capacity * PRIORITY_COUNT];
+        mPositions = new int[positionsLength];
+    }
+
+    /** Creates an empty table. */
+    @NonNull
+    static OptionTable create() {
+        return new OptionTable(INITIAL_CAPACITY, 0);
+    }
+
+    /** Creates a table holding the same options and values as the given one. */
+    @NonNull
+    static OptionTable copyOf(@NonNull OptionTable other) {
+        OptionTable table = new OptionTable(0, 0);
+        table.mOptions = Arrays.copyOf(other.mOptions, other.mSize);
+        table.mInternedIds = Arrays.copyOf(other.mInternedIds, other.mSize);
+        table.mPriorityMasks = Arrays.copyOf(other.mPriorityMasks, other.mSize);
+        table.mValues = Arrays.copyOf(other.mValues, other.mSize * PRIORITY_COUNT);
+        table.mPositions = other.mPositions.clone();
+        table.mSize = other.mSize;
+        return table;
+    }
+
+    /** Creates a table holding the options and values of any {@link Config}. */
+    @NonNull
+    static OptionTable copyOf(@NonNull Config config) {
+        if (config instanceof OptionsBundle) {
+            return copyOf(((OptionsBundle) config).mTable);
+        }
+        OptionTable table = create();
+        for (Option<?> opt : config.listOptions()) {
+            @SuppressWarnings("unchecked") // Options/values are being copied directly
+            Option<Object> objectOpt = (Option<Object>) opt;
+            for (OptionPriority priority : config.getPriorities(opt)) {
+                table.put(objectOpt, priority,
+                        config.retrieveOptionWithPriority(objectOpt, priority));
+            }
+        }
+        return table;
+    }
+
+    int size() {
+        return mSize;
+    }
+
+    /** Returns the position of the option with the same id, or -1 if absent. */
+    int indexOf(@NonNull Option<?> opt) {
+        Integer internedId = sInternedIds.get(opt.getId());
+        if (internedId == null || internedId >= mPositions.length) {
+            return -1;
+        }
+        return mPositions[internedId] - 1;
+    }
+
+    @NonNull
+    Option<?> optionAt(int position) {
+        return mOptions[position];
+    }
+
+    /** Returns the highest priority set for the option at the given position. */
+    @NonNull
+    OptionPriority highestPriorityAt(int position) {
+        return PRIORITIES[Integer.numberOfTrailingZeros(mPriorityMasks[position])];
+    }
+
+    /** Returns the value with the highest priority of the option at the given position. */
+    @Nullable
+    Object valueAt(int position) {
+        return mValues[position * PRIORITY_COUNT
+                + Integer.numberOfTrailingZeros(mPriorityMasks[position])];
+    }
+
+    boolean hasPriorityAt(int position, @NonNull OptionPriority priority) {
+        return (mPriorityMasks[position] & (1 << priority.ordinal())) != 0;
+    }
+
+    @Nullable
+    Object valueAt(int position, @NonNull OptionPriority priority) {
+        return mValues[position * PRIORITY_COUNT + priority.ordinal()];
+    }
+
+    @NonNull
+    Set<OptionPriority> prioritiesAt(int position) {
+        Set<OptionPriority> priorities = EnumSet.noneOf(OptionPriority.class);
+        int mask = mPriorityMasks[position];
+        for (OptionPriority priority : PRIORITIES) {
+            if ((mask & (1 << priority.ordinal())) != 0) {
+                priorities.add(priority);
+            }
+        }
+        return Collections.unmodifiableSet(priorities);
+    }
+
+    /** Returns the position of the first option whose id is not less than the given id. */
+    int lowerBound(@NonNull String id) {
+        int low = 0;
+        int high = mSize;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (mOptions[mid].getId().compareTo(id) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Stores a value for an option and priority, adding the option if absent. Options are
+     * identified by id, so an option with the same id as a stored one replaces its value but
+     * keeps the stored {@link Option} instance.
+     *
+     * @return the position of the option.
+     */
+    int put(@NonNull Option<?> opt, @NonNull OptionPriority priority, @Nullable Object value) {
+        int position = indexOf(opt);
+        if (position < 0) {
+            position = insertOptionAt(lowerBound(opt.getId()), opt);
+        }
+        mPriorityMasks[position] |= 1 << priority.ordinal();
+        mValues[position * PRIORITY_COUNT + priority.ordinal()] = value;
+        return position;
+    }
+
+    /** Removes the option at the given position. */
+    void removeAt(int position) {
+        mPositions[mInternedIds[position]] = 0;
+        int moved = mSize - position - 1;
+        System.arraycopy(mOptions, position + 1, mOptions, position, moved);
+        System.arraycopy(mInternedIds, position + 1, mInternedIds, position, moved);
+        System.arraycopy(mPriorityMasks, position + 1, mPriorityMasks, position, moved);
+        System.arraycopy(mValues, (position + 1) * PRIORITY_COUNT, mValues,
+                position * PRIORITY_COUNT, moved * PRIORITY_COUNT);
+        mSize--;
+        mModCount++;
+        mOptions[mSize] = null;
+        Arrays.fill(mValues, mSize * PRIORITY_COUNT, (mSize + 1) * PRIORITY_COUNT, null);
+        updatePositions(position);
+    }
+
+    /**
+     * Returns an unmodifiable, id ordered view of the options in the table. The view reflects
+     * later changes to the table, and its iterators throw {@link ConcurrentModificationException}
+     * if an option is added or removed while iterating.
+     */
+    @NonNull
+    Set<Option<?>> optionSet() {
+        return new AbstractSet<Option<?>>() {
+            @NonNull
+            @Override
+            public Iterator<Option<?>> iterator() {
+                return new Iterator<Option<?>>() {
+                    private final int mExpectedModCount = mModCount;
+                    private int mNext = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return mNext < mSize;
+                    }
+
+                    @Override
+                    public Option<?> next() {
+                        if (mModCount != mExpectedModCount) {
+                            throw new ConcurrentModificationException();
+                        }
+                        if (mNext >= mSize) {
+                            throw new NoSuchElementException();
+                        }
+                        return mOptions[mNext++];
+                    }
+                };
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof Option && indexOf((Option<?>) o) >= 0;
+            }
+
+            @Override
+            public int size() {
+                return mSize;
+            }
+        };
+    }
+
+    private int insertOptionAt(int position, @NonNull Option<?> opt) {
+        if (mSize == mOptions.length) {
+            int capacity = Math.max(INITIAL_CAPACITY, mSize * 2);
+            mOptions = Arrays.copyOf(mOptions, capacity);
+            mInternedIds = Arrays.copyOf(mInternedIds, capacity);
+            mPriorityMasks = Arrays.copyOf(mPriorityMasks, capacity);
+            mValues = Arrays.copyOf(mValues, capacity * PRIORITY_COUNT);
+        }
+        int moved = mSize - position;
+        System.arraycopy(mOptions, position, mOptions, position + 1, moved);
+        System.arraycopy(mInternedIds, position, mInternedIds, position + 1, moved);
+        System.arraycopy(mPriorityMasks, position, mPriorityMasks, position + 1, moved);
+        System.arraycopy(mValues, position * PRIORITY_COUNT, mValues,
+                (position + 1) * PRIORITY_COUNT, moved * PRIORITY_COUNT);
+        int internedId = intern(opt.getId());
+        mOptions[position] = opt;
+        mInternedIds[position] = internedId;
+        mPriorityMasks[position] = 0;
+        Arrays.fill(mValues, position * PRIORITY_COUNT, (position + 1) * PRIORITY_COUNT, null);
+        mSize++;
+        mModCount++;
+        if (internedId >= mPositions.length) {
+            mPositions = Arrays.copyOf(mPositions,
+                    Math.max(internedId + 1, sNextInternedId.get()));
+        }
+        updatePositions(position);
+        return position;
+    }
+
+    private void updatePositions(int from) {
+        for (int i = from; i < mSize; i++) {
+            mPositions[mInternedIds[i]] = i + 1;
+        }
+    }
+
+    private static int intern(@NonNull String id) {
+        Integer internedId = sInternedIds.get(id);
+        if (internedId == null) {
+            Integer newId = sNextInternedId.getAndIncrement();
+            internedId = sInternedIds.putIfAbsent(id, newId);
+            if (internedId == null) {
+                internedId = newId;
+            }
+        }
+        return internedId;
+    }
+}
@@ -16,36 +16,29 @@
 
 package androidx.camera.core.impl;
 
-import android.util.ArrayMap;
-
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import java.util.Collections;
-import java.util.Comparator;
-import java.util.Map;
 import java.util.Set;
-import java.util.TreeMap;
 
 /**
  * An immutable implementation of {@link Config}.
  *
  * <p>OptionsBundle is a collection of {@link Config.Option}s and their values which can be
  * queried based on exact {@link Config.Option} objects or based on Option ids.
+ *
+ * <p>Options are stored in a flat {@link OptionTable}, so retrieving an option is an array lookup
+ * and copying a bundle is an array copy.
  */
 public class OptionsBundle implements Config {
-    protected static final Comparator<Option<?>> ID_COMPARE =
-            (o1, o2) -> {
-                return o1.getId().compareTo(o2.getId());
-            };
-    private static final OptionsBundle EMPTY_BUNDLE =
-            new OptionsBundle(new TreeMap<>(ID_COMPARE));
+    private static final OptionsBundle EMPTY_BUNDLE = new OptionsBundle(OptionTable.create());
 
     // TODO: Make these options parcelable
-    protected final TreeMap<Option<?>, Map<OptionPriority, Object>> mOptions;
+    final OptionTable mTable;
 
-    OptionsBundle(TreeMap<Option<?>, Map<OptionPriority, Object>> options) {
-        mOptions = options;
+    OptionsBundle(@NonNull OptionTable table) {
+        mTable = table;
     }
 
     /**
@@ -63,18 +56,7 @@ public class OptionsBundle implements Config {
             return (OptionsBundle) otherConfig;
         }
 
-        TreeMap<Option<?>, Map<OptionPriority, Object>> persistentOptions =
-                new TreeMap<>(ID_COMPARE);
-        for (Option<?> opt : otherConfig.listOptions()) {
-            Set<OptionPriority> priorities = otherConfig.getPriorities(opt);
-            Map<OptionPriority, Object> valuesMap = new ArrayMap<>();
-            for (OptionPriority priority : priorities) {
-                valuesMap.put(priority, otherConfig.retrieveOptionWithPriority(opt, priority));
-            }
-            persistentOptions.put(opt, valuesMap);
-        }
-
-        return new OptionsBundle(persistentOptions);
+        return new OptionsBundle(OptionTable.copyOf(otherConfig));
     }
 
     /**
@@ -92,25 +74,24 @@ public class OptionsBundle implements Config {
     @Override
     @NonNull
     public Set<Option<?>> listOptions() {
-        return Collections.unmodifiableSet(mOptions.keySet());
+        return mTable.optionSet();
     }
 
     @Override
     public boolean containsOption(@NonNull Option<?> id) {
-        return mOptions.containsKey(id);
+        return mTable.indexOf(id) >= 0;
     }
 
     @Override
     @Nullable
     public <ValueT> ValueT retrieveOption(@NonNull Option<ValueT> id) {
-        Map<OptionPriority, Object> values = mOptions.get(id);
-        if (values == null) {
+        int position = mTable.indexOf(id);
+        if (position < 0) {
             throw new IllegalArgumentException("Option does not exist: " + id);
         }
-        OptionPriority highestPrirotiy = Collections.min(values.keySet());
 
         @SuppressWarnings("unchecked")
-        ValueT value = (ValueT) values.get(highestPrirotiy);
+        ValueT value = (ValueT) mTable.valueAt(position);
         return value;
     }
 
@@ -119,52 +100,49 @@ public class OptionsBundle implements Config {
     @SuppressWarnings("unchecked")
     public <ValueT> ValueT retrieveOption(@NonNull Option<ValueT> id,
             @Nullable ValueT valueIfMissing) {
-        try {
-            return retrieveOption(id);
-        } catch (IllegalArgumentException e) {
+        int position = mTable.indexOf(id);
+        if (position < 0) {
             return valueIfMissing;
         }
+        return (ValueT) mTable.valueAt(position);
     }
 
     @Override
     @Nullable
     public <ValueT> ValueT retrieveOptionWithPriority(@NonNull Option<ValueT> id,
             @NonNull OptionPriority priority) {
-        Map<OptionPriority, Object> values = mOptions.get(id);
-        if (values == null) {
+        int position = mTable.indexOf(id);
+        if (position < 0) {
             throw new IllegalArgumentException("Option does not exist: " + id);
         }
-        if (!values.containsKey(priority)) {
+        if (!mTable.hasPriorityAt(position, priority)) {
             throw new IllegalArgumentException("Option does not exist: " + id + " with priority="
                     + priority);
         }
         @SuppressWarnings("unchecked")
-        ValueT value = (ValueT) values.get(priority);
+        ValueT value = (ValueT) mTable.valueAt(position, priority);
         return value;
     }
 
     @Override
     @NonNull
     public OptionPriority getOptionPriority(@NonNull Option<?> opt) {
-        Map<OptionPriority, Object> values = mOptions.get(opt);
-        if (values == null) {
+        int position = mTable.indexOf(opt);
+        if (position < 0) {
             throw new IllegalArgumentException("Option does not exist: " + opt);
         }
-        OptionPriority highestPrirotiy = Collections.min(values.keySet());
-        return highestPrirotiy;
+        return mTable.highestPriorityAt(position);
     }
 
     @Override
     public void findOptions(@NonNull String idStem, @NonNull OptionMatcher matcher) {
-        Option<Void> query = Option.create(idStem, Void.class);
-        for (Map.Entry<Option<?>, Map<OptionPriority, Object>> entry :
-                mOptions.tailMap(query).entrySet()) {
-            if (!entry.getKey().getId().startsWith(idStem)) {
+        for (int i = mTable.lowerBound(idStem); i < mTable.size(); i++) {
+            Option<?> option = mTable.optionAt(i);
+            if (!option.getId().startsWith(idStem)) {
                 // We've reached the end of the range that contains our search stem.
                 break;
             }
 
-            Option<?> option = entry.getKey();
             if (!matcher.onOptionMatched(option)) {
                 // Caller does not need further results
                 break;
@@ -175,11 +153,11 @@ public class OptionsBundle implements Config {
     @NonNull
     @Override
     public Set<OptionPriority> getPriorities(@NonNull Option<?> opt) {
-        Map<OptionPriority, Object> values = mOptions.get(opt);
-        if (values == null) {
+        int position = mTable.indexOf(opt);
+        if (position < 0) {
             return Collections.emptySet();
         }
 
-        return Collections.unmodifiableSet(values.keySet());
+        return mTable.prioritiesAt(position);
     }
 }
@@ -35,6 +35,7 @@ import androidx.camera.core.impl.ImageProxyBundle;
 import androidx.camera.core.impl.utils.ExifData;
 import androidx.camera.core.impl.utils.ExifOutputStream;
 import androidx.camera.core.internal.compat.ImageWriterCompat;
+import androidx.camera.core.internal.utils.ByteArrayPool;
 import androidx.camera.core.internal.utils.ImageUtil;
 import androidx.core.util.Preconditions;
 
@@ -70,10 +71,18 @@ public class YuvToJpegProcessor implements CaptureProcessor {
     private ImageWriter mImageWriter;
     @GuardedBy("mLock")
     private Rect mImageRect = UNINITIALIZED_RECT;
+    // The YuvImage wrapping the most recently converted frame. Since the NV21 arrays are pooled,
+    // consecutive frames usually convert into the same array and can share the YuvImage too.
+    @GuardedBy("mLock")
+    private YuvImage mLastYuvImage;
+
+    // Pool of NV21 arrays, at most one per image that can be in flight.
+    private final ByteArrayPool mBufferPool;
 
     public YuvToJpegProcessor(@IntRange(from = 0, to = 100) int quality, int maxImages) {
         mQuality = quality;
         mMaxImages = maxImages;
+        mBufferPool = new ByteArrayPool(maxImages);
     }
 
     @Override
@@ -115,6 +124,7 @@ public class YuvToJpegProcessor implements CaptureProcessor {
 
         ImageProxy imageProxy = null;
         Image jpegImage = null;
+        byte[] yuvBytes = null;
         try {
             imageProxy = imageProxyListenableFuture.get();
             if (!processing) {
@@ -129,10 +139,10 @@ public class YuvToJpegProcessor implements CaptureProcessor {
             imageProxy = imageProxyListenableFuture.get();
             Preconditions.checkState(imageProxy.getFormat() == ImageFormat.YUV_420_888,
                     "Input image is not expected YUV_420_888 image format");
-            byte[] yuvBytes = ImageUtil.yuv_420_888toNv21(imageProxy);
+            yuvBytes = ImageUtil.yuv_420_888toNv21(imageProxy, mBufferPool);
 
-            YuvImage yuvImage = new YuvImage(yuvBytes, ImageFormat.NV21, imageProxy.getWidth(),
-                    imageProxy.getHeight(), null);
+            YuvImage yuvImage = obtainYuvImage(yuvBytes, imageProxy.getWidth(),
+                    imageProxy.getHeight());
 
             ByteBuffer jpegBuf = jpegImage.getPlanes()[0].getBuffer();
             int initialPos = jpegBuf.position();
@@ -172,6 +182,10 @@ public class YuvToJpegProcessor implements CaptureProcessor {
                 shouldCloseImageWriter = processing && (mProcessingImages-- == 0) && mClosed;
             }
 
+            if (yuvBytes != null) {
+                mBufferPool.release(yuvBytes);
+            }
+
             // Fallback in case something went wrong during processing.
             if (jpegImage != null) {
                 jpegImage.close();
@@ -205,7 +219,26 @@ public class YuvToJpegProcessor implements CaptureProcessor {
                 } else {
                     Logger.d(TAG, "close() called while processing. Will close after completion.");
                 }
+                mLastYuvImage = null;
+                mBufferPool.clear();
+            }
+        }
+    }
+
+    /**
+     * Returns a YuvImage wrapping the given NV21 array, reusing the previous one when it wraps the
+     * same array with the same dimensions.
+     */
+    @NonNull
+    private YuvImage obtainYuvImage(@NonNull byte[] nv21, int width, int height) {
+        synchronized (mLock) {
+            YuvImage yuvImage = mLastYuvImage;
+            if (yuvImage == null || yuvImage.getYuvData() != nv21
+                    || yuvImage.getWidth() != width || yuvImage.getHeight() != height) {
+                yuvImage = new YuvImage(nv21, ImageFormat.NV21, width, height, null);
+                mLastYuvImage = yuvImage;
             }
+            return yuvImage;
         }
     }
 
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.camera.core.internal.utils;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.NonNull;
+import androidx.core.util.Preconditions;
+
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A thread-safe pool of byte arrays keyed by their length.
+ *
+ * <p>Image conversions produce buffers whose length only depends on the frame geometry, so
+ * consecutive frames of a stream can reuse the same arrays instead of allocating new ones for
+ * every frame. Arrays that are not released back to the pool are simply garbage collected.
+ *
+ * <p>Only arrays of the {@link #MAX_RETAINED_LENGTHS} most recently used lengths are retained, so
+ * arrays sized for a previous geometry are dropped once the stream's geometry changes.
+ */
+public final class ByteArrayPool {
+    // A NV21 conversion uses two lengths per geometry: the output array and the chroma row buffer.
+    static final int MAX_RETAINED_LENGTHS = 2;
+
+    private final Object mLock = new Object();
+    private final int mMaxArraysPerLength;
+
+    @GuardedBy("mLock")
+    private final Map<Integer, ArrayDeque<byte[]>> mArrays =
+            new LinkedHashMap<Integer, ArrayDeque<byte[]>>(MAX_RETAINED_LENGTHS + 1, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, ArrayDeque<byte[]>> eldest) {
+                    return size() > MAX_RETAINED_LENGTHS;
+                }
+            };
+
+    /**
+     * Creates a pool.
+     *
+     * @param maxArraysPerLength the maximum number of released arrays retained per length. Arrays
+     *                           released when the pool already holds this many arrays of the same
+     *                           length are dropped.
+     */
+    public ByteArrayPool(int maxArraysPerLength) {
+        Preconditions.checkArgument(maxArraysPerLength > 0,
+                "maxArraysPerLength must be positive.");
+        mMaxArraysPerLength = maxArraysPerLength;
+    }
+
+    /**
+     * Returns an array of exactly the given length, reusing a released one when available. The
+     * content of a reused array is undefined.
+     */
+    @NonNull
+    public byte[] acquire(int length) {
+        synchronized (mLock) {
+            ArrayDeque<byte[]> arrays = mArrays.get(length);
+            if (arrays != null && !arrays.isEmpty()) {
+                return arrays.pop();
+            }
+        }
+        return new byte[length];
+    }
+
+    /**
+     * Returns an array to the pool. The array must not be used by the caller afterwards.
+     */
+    public void release(@NonNull byte[] array) {
+        synchronized (mLock) {
+            ArrayDeque<byte[]> arrays = mArrays.get(array.length);
+            if (arrays == null) {
+                arrays = new ArrayDeque<>(mMaxArraysPerLength);
+                mArrays.put(array.length, arrays);
+            }
+            if (arrays.size() < mMaxArraysPerLength) {
+                arrays.push(array);
+            }
+        }
+    }
+
+    /** Drops all retained arrays. */
+    public void clear() {
+        synchronized (mLock) {
+            mArrays.clear();
+        }
+    }
+
+    /** Returns the number of arrays of the given length currently retained by the pool. */
+    int getRetainedCount(int length) {
+        synchronized (mLock) {
+            ArrayDeque<byte[]> arrays = mArrays.get(length);
+            return arrays == null ? 0 : arrays.size();
+        }
+    }
+}
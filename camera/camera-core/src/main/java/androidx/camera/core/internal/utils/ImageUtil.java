@@ -78,11 +78,21 @@ public final class ImageUtil {
     @Nullable
     public static byte[] imageToJpegByteArray(@NonNull ImageProxy image)
             throws CodecFailedException {
+        return imageToJpegByteArray(image, null);
+    }
+
+    /**
+     * {@link android.media.Image} to JPEG byte array, converting YUV images with intermediate
+     * arrays from the given pool, if any.
+     */
+    @Nullable
+    public static byte[] imageToJpegByteArray(@NonNull ImageProxy image,
+            @Nullable ByteArrayPool pool) throws CodecFailedException {
         byte[] data = null;
         if (image.getFormat() == ImageFormat.JPEG) {
             data = jpegImageToJpegByteArray(image);
         } else if (image.getFormat() == ImageFormat.YUV_420_888) {
-            data = yuvImageToJpegByteArray(image);
+            data = yuvImageToJpegByteArray(image, pool);
         } else {
             Logger.w(TAG, "Unrecognized image format: " + image.getFormat());
         }
@@ -92,6 +102,48 @@ public final class ImageUtil {
     /** {@link android.media.Image} to NV21 byte array. */
     @NonNull
     public static byte[] yuv_420_888toNv21(@NonNull ImageProxy image) {
+        byte[] nv21 = new byte[getNv21Size(image.getWidth(), image.getHeight())];
+        byte[] rowBuffer = new byte[getChromaRowBufferSize(image)];
+        yuv_420_888toNv21(image, nv21, rowBuffer);
+        return nv21;
+    }
+
+    /**
+     * {@link android.media.Image} to NV21 byte array, using arrays from the given pool.
+     *
+     * <p>The returned array comes from the pool and should be released back to it once the caller
+     * is done with it, so the next frame with the same geometry can reuse it.
+     */
+    @NonNull
+    public static byte[] yuv_420_888toNv21(@NonNull ImageProxy image,
+            @NonNull ByteArrayPool pool) {
+        byte[] nv21 = pool.acquire(getNv21Size(image.getWidth(), image.getHeight()));
+        byte[] rowBuffer = pool.acquire(getChromaRowBufferSize(image));
+        try {
+            yuv_420_888toNv21(image, nv21, rowBuffer);
+        } finally {
+            pool.release(rowBuffer);
+        }
+        return nv21;
+    }
+
+    /** Returns the size in bytes of a NV21 image of the given dimensions. */
+    public static int getNv21Size(int width, int height) {
+        return width * height + (width / 2) * (height / 2) * 2;
+    }
+
+    private static int getChromaRowBufferSize(@NonNull ImageProxy image) {
+        int chromaWidth = image.getWidth() / 2;
+        if (chromaWidth == 0) {
+            return 0;
+        }
+        ImageProxy.PlaneProxy[] planes = image.getPlanes();
+        return (chromaWidth - 1) * Math.max(planes[1].getPixelStride(), planes[2].getPixelStride())
+                + 1;
+    }
+
+    private static void yuv_420_888toNv21(@NonNull ImageProxy image, @NonNull byte[] nv21,
+            @NonNull byte[] rowBuffer) {
         ImageProxy.PlaneProxy yPlane = image.getPlanes()[0];
         ImageProxy.PlaneProxy uPlane = image.getPlanes()[1];
         ImageProxy.PlaneProxy vPlane = image.getPlanes()[2];
@@ -103,45 +155,55 @@ public final class ImageUtil {
         uBuffer.rewind();
         vBuffer.rewind();
 
-        int ySize = yBuffer.remaining();
-
-        int position = 0;
-        // TODO(b/115743986): Pull these bytes from a pool instead of allocating for every image.
-        byte[] nv21 = new byte[ySize + (image.getWidth() * image.getHeight() / 2)];
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int yRowStride = yPlane.getRowStride();
 
-        // Add the full y buffer to the array. If rowStride > 1, some padding may be skipped.
-        for (int row = 0; row < image.getHeight(); row++) {
-            yBuffer.get(nv21, position, image.getWidth());
-            position += image.getWidth();
-            yBuffer.position(
-                    Math.min(ySize, yBuffer.position() - image.getWidth() + yPlane.getRowStride()));
+        // Add the full y buffer to the array. If rowStride > width, the padding is skipped by
+        // positioning the buffer at the start of each row.
+        if (yRowStride == width) {
+            yBuffer.get(nv21, 0, width * height);
+        } else {
+            for (int row = 0; row < height; row++) {
+                yBuffer.position(row * yRowStride);
+                yBuffer.get(nv21, row * width, width);
+            }
         }
 
-        int chromaHeight = image.getHeight() / 2;
-        int chromaWidth = image.getWidth() / 2;
+        int position = width * height;
+        int chromaHeight = height / 2;
+        int chromaWidth = width / 2;
+        if (chromaWidth == 0) {
+            return;
+        }
         int vRowStride = vPlane.getRowStride();
         int uRowStride = uPlane.getRowStride();
         int vPixelStride = vPlane.getPixelStride();
         int uPixelStride = uPlane.getPixelStride();
+        int vRowLength = (chromaWidth - 1) * vPixelStride + 1;
+        int uRowLength = (chromaWidth - 1) * uPixelStride + 1;
 
-        // Interleave the u and v frames, filling up the rest of the buffer. Use two line buffers to
-        // perform faster bulk gets from the byte buffers.
-        byte[] vLineBuffer = new byte[vRowStride];
-        byte[] uLineBuffer = new byte[uRowStride];
+        // Interleave the u and v planes, filling up the rest of the array. Each row is read with a
+        // single bulk get instead of per pixel gets.
         for (int row = 0; row < chromaHeight; row++) {
-            vBuffer.get(vLineBuffer, 0, Math.min(vRowStride, vBuffer.remaining()));
-            uBuffer.get(uLineBuffer, 0, Math.min(uRowStride, uBuffer.remaining()));
-            int vLineBufferPosition = 0;
-            int uLineBufferPosition = 0;
+            vBuffer.position(row * vRowStride);
+            uBuffer.position(row * uRowStride);
+            if (vPixelStride == 2) {
+                // The v samples are already at the even offsets NV21 expects them at. Copy the row
+                // straight into the output and only fill the odd offsets with u samples.
+                vBuffer.get(nv21, position, vRowLength);
+            } else {
+                vBuffer.get(rowBuffer, 0, vRowLength);
+                for (int col = 0; col < chromaWidth; col++) {
+                    nv21[position + col * 2] = rowBuffer[col * vPixelStride];
+                }
+            }
+            uBuffer.get(rowBuffer, 0, uRowLength);
             for (int col = 0; col < chromaWidth; col++) {
-                nv21[position++] = vLineBuffer[vLineBufferPosition];
-                nv21[position++] = uLineBuffer[uLineBufferPosition];
-                vLineBufferPosition += vPixelStride;
-                uLineBufferPosition += uPixelStride;
+                nv21[position + col * 2 + 1] = rowBuffer[col * uPixelStride];
             }
+            position += chromaWidth * 2;
         }
-
-        return nv21;
     }
 
     /** Crops byte array with given {@link android.graphics.Rect}. */
@@ -281,13 +343,21 @@ public final class ImageUtil {
         return data;
     }
 
-    private static byte[] yuvImageToJpegByteArray(ImageProxy image)
+    private static byte[] yuvImageToJpegByteArray(ImageProxy image, @Nullable ByteArrayPool pool)
             throws CodecFailedException {
-        return ImageUtil.nv21ToJpeg(
-                ImageUtil.yuv_420_888toNv21(image),
-                image.getWidth(),
-                image.getHeight(),
-                shouldCropImage(image) ? image.getCropRect() : null);
+        byte[] nv21 = pool == null ? ImageUtil.yuv_420_888toNv21(image)
+                : ImageUtil.yuv_420_888toNv21(image, pool);
+        try {
+            return ImageUtil.nv21ToJpeg(
+                    nv21,
+                    image.getWidth(),
+                    image.getHeight(),
+                    shouldCropImage(image) ? image.getCropRect() : null);
+        } finally {
+            if (pool != null) {
+                pool.release(nv21);
+            }
+        }
     }
 
     /** Exception for error during transcoding image. */
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.camera.core;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.os.Build;
+
+import androidx.annotation.NonNull;
+import androidx.camera.core.impl.utils.executor.CameraXExecutors;
+import androidx.camera.testing.fakes.FakeImageInfo;
+import androidx.camera.testing.fakes.FakeImageProxy;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.internal.DoNotInstrument;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+@DoNotInstrument
+@Config(minSdk = Build.VERSION_CODES.LOLLIPOP)
+@ExperimentalFanOutAnalyzer
+public class FanOutAnalyzerTest {
+    private final FanOutAnalyzer mFanOutAnalyzer = new FanOutAnalyzer();
+
+    @Test
+    public void imageIsClosed_onlyAfterAllAnalyzersClosedIt() {
+        HoldingAnalyzer first = new HoldingAnalyzer();
+        HoldingAnalyzer second = new HoldingAnalyzer();
+        mFanOutAnalyzer.addAnalyzer(CameraXExecutors.directExecutor(), first);
+        mFanOutAnalyzer.addAnalyzer(CameraXExecutors.directExecutor(), second);
+        FakeImageProxy image = new FakeImageProxy(new FakeImageInfo());
+
+        mFanOutAnalyzer.analyze(image);
+        assertThat(first.mImages).hasSize(1);
+        assertThat(second.mImages).hasSize(1);
+
+        first.closeAll();
+        assertThat(image.getCloseFuture().isDone()).isFalse();
+        second.closeAll();
+        assertThat(image.getCloseFuture().isDone()).isTrue();
+    }
+
+    @Test
+    public void busyAnalyzer_keepsOnlyLatestFrame() {
+        HoldingAnalyzer slow = new HoldingAnalyzer();
+        HoldingAnalyzer fast = new HoldingAnalyzer();
+        fast.mCloseImmediately = true;
+        mFanOutAnalyzer.addAnalyzer(CameraXExecutors.directExecutor(), slow);
+        mFanOutAnalyzer.addAnalyzer(CameraXExecutors.directExecutor(), fast);
+        List<FakeImageProxy> images = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            FakeImageProxy image = new FakeImageProxy(new FakeImageInfo());
+            images.add(image);
+            mFanOutAnalyzer.analyze(image);
+        }
+
+        // The fast analyzer got every frame, the slow one only the first so far.
+        assertThat(fast.mAnalyzedCount).isEqualTo(3);
+        assertThat(slow.mImages).hasSize(1);
+        // The second frame was replaced by the third one while the slow analyzer was busy.
+        assertThat(images.get(1).getCloseFuture().isDone()).isTrue();
+        assertThat(images.get(2).getCloseFuture().isDone()).isFalse();
+
+        slow.closeAll();
+        assertThat(slow.mImages).hasSize(1);
+        slow.closeAll();
+        for (FakeImageProxy image : images) {
+            assertThat(image.getCloseFuture().isDone()).isTrue();
+        }
+
+        FanOutAnalyzer.Metrics metrics = mFanOutAnalyzer.getMetrics(slow);
+        assertThat(metrics.getAnalyzedFrameCount()).isEqualTo(2);
+        assertThat(metrics.getDroppedFrameCount()).isEqualTo(1);
+        assertThat(mFanOutAnalyzer.getMetrics(fast).getDroppedFrameCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void blockProducerAnalyzer_receivesQueuedFrames() {
+        HoldingAnalyzer analyzer = new HoldingAnalyzer();
+        mFanOutAnalyzer.addAnalyzer(CameraXExecutors.directExecutor(), analyzer,
+                ImageAnalysis.STRATEGY_BLOCK_PRODUCER, 1);
+        for (int i = 0; i < 3; i++) {
+            mFanOutAnalyzer.analyze(new FakeImageProxy(new FakeImageInfo()));
+        }
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(analyzer.mImages).hasSize(1);
+            analyzer.closeAll();
+        }
+        assertThat(analyzer.mImages).isEmpty();
+        assertThat(mFanOutAnalyzer.getMetrics(analyzer).getAnalyzedFrameCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void frameInterval_skipsFrames() {
+        HoldingAnalyzer analyzer = new HoldingAnalyzer();
+        analyzer.mCloseImmediately = true;
+        mFanOutAnalyzer.addAnalyzer(CameraXExecutors.directExecutor(), analyzer,
+                ImageAnalysis.STRATEGY_KEEP_ONLY_LATEST, 3);
+        for (int i = 0; i < 7; i++) {
+            mFanOutAnalyzer.analyze(new FakeImageProxy(new FakeImageInfo()));
+        }
+
+        assertThat(analyzer.mAnalyzedCount).isEqualTo(3);
+        assertThat(mFanOutAnalyzer.getMetrics(analyzer).getSkippedFrameCount()).isEqualTo(4);
+    }
+
+    @Test
+    public void removeAnalyzer_closesPendingFrames() {
+        HoldingAnalyzer analyzer = new HoldingAnalyzer();
+        mFanOutAnalyzer.addAnalyzer(CameraXExecutors.directExecutor(), analyzer);
+        FakeImageProxy first = new FakeImageProxy(new FakeImageInfo());
+        FakeImageProxy second = new FakeImageProxy(new FakeImageInfo());
+        mFanOutAnalyzer.analyze(first);
+        mFanOutAnalyzer.analyze(second);
+
+        mFanOutAnalyzer.removeAnalyzer(analyzer);
+
+        assertThat(second.getCloseFuture().isDone()).isTrue();
+        assertThat(mFanOutAnalyzer.getMetrics(analyzer)).isNull();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void addingAnalyzerTwice_throwsException() {
+        HoldingAnalyzer analyzer = new HoldingAnalyzer();
+        mFanOutAnalyzer.addAnalyzer(CameraXExecutors.directExecutor(), analyzer);
+        mFanOutAnalyzer.addAnalyzer(CameraXExecutors.directExecutor(), analyzer);
+    }
+
+    private static final class HoldingAnalyzer implements ImageAnalysis.Analyzer {
+        final List<ImageProxy> mImages = new ArrayList<>();
+        boolean mCloseImmediately = false;
+        int mAnalyzedCount = 0;
+
+        @Override
+        public void analyze(@NonNull ImageProxy image) {
+            mAnalyzedCount++;
+            if (mCloseImmediately) {
+                image.close();
+            } else {
+                mImages.add(image);
+            }
+        }
+
+        void closeAll() {
+            List<ImageProxy> images = new ArrayList<>(mImages);
+            mImages.clear();
+            for (ImageProxy image : images) {
+                image.close();
+            }
+        }
+    }
+}
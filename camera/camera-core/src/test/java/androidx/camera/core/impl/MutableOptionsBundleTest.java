@@ -32,6 +32,9 @@ import org.robolectric.RobolectricTestRunner;
 import org.robolectric.annotation.internal.DoNotInstrument;
 
 import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Set;
 
 @RunWith(RobolectricTestRunner.class)
 @DoNotInstrument
@@ -283,4 +286,94 @@ public class MutableOptionsBundleTest {
         assertThat(mutOpts.retrieveOptionWithPriority(OPTION_2, OPTIONAL)).isEqualTo(VALUE_1);
         assertThat(mutOpts.retrieveOptionWithPriority(OPTION_2, REQUIRED)).isEqualTo(VALUE_2);
     }
+
+    @Test
+    public void removeOption_returnsValueAndKeepsOtherOptions() {
+        MutableOptionsBundle bundle = MutableOptionsBundle.create();
+        bundle.insertOption(OPTION_2, VALUE_2);
+        bundle.insertOption(OPTION_1, VALUE_1);
+        bundle.insertOption(OPTION_1_A, VALUE_1_A);
+
+        assertThat(bundle.removeOption(OPTION_1)).isSameInstanceAs(VALUE_1);
+
+        assertThat(bundle.containsOption(OPTION_1)).isFalse();
+        assertThat(bundle.retrieveOption(OPTION_1_A)).isSameInstanceAs(VALUE_1_A);
+        assertThat(bundle.retrieveOption(OPTION_2)).isSameInstanceAs(VALUE_2);
+        assertThat(bundle.listOptions()).containsExactly(OPTION_1_A, OPTION_2).inOrder();
+    }
+
+    @Test
+    public void listOptions_isSortedById() {
+        MutableOptionsBundle bundle = MutableOptionsBundle.create();
+        bundle.insertOption(OPTION_2, VALUE_2);
+        bundle.insertOption(OPTION_1_A, VALUE_1_A);
+        bundle.insertOption(OPTION_1, VALUE_1);
+
+        assertThat(bundle.listOptions()).containsExactly(OPTION_1, OPTION_1_A, OPTION_2)
+                .inOrder();
+    }
+
+    @Test
+    public void listOptions_reflectsLaterChanges() {
+        MutableOptionsBundle bundle = MutableOptionsBundle.create();
+        bundle.insertOption(OPTION_1, VALUE_1);
+        Set<Option<?>> options = bundle.listOptions();
+
+        bundle.insertOption(OPTION_2, VALUE_2);
+        bundle.removeOption(OPTION_1);
+
+        assertThat(options).containsExactly(OPTION_2);
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void listOptions_iteratorFailsFastOnInsert() {
+        MutableOptionsBundle bundle = MutableOptionsBundle.create();
+        bundle.insertOption(OPTION_1, VALUE_1);
+        bundle.insertOption(OPTION_2, VALUE_2);
+        Iterator<Option<?>> iterator = bundle.listOptions().iterator();
+        iterator.next();
+
+        bundle.insertOption(OPTION_1_A, VALUE_1_A);
+        iterator.next();
+    }
+
+    @Test
+    public void canInsertManyOptions() {
+        MutableOptionsBundle bundle = MutableOptionsBundle.create();
+        for (int i = 99; i >= 0; i--) {
+            bundle.insertOption(Option.create("option.many." + i, Integer.class), i);
+        }
+
+        for (int i = 0; i < 100; i++) {
+            Option<Integer> option = Option.create("option.many." + i, Integer.class);
+            assertThat(bundle.retrieveOption(option)).isEqualTo(i);
+        }
+        assertThat(bundle.listOptions()).hasSize(100);
+    }
+
+    @Test
+    public void from_isIndependentCopy() {
+        MutableOptionsBundle original = MutableOptionsBundle.create();
+        original.insertOption(OPTION_1, VALUE_1);
+        MutableOptionsBundle copy = MutableOptionsBundle.from(original);
+
+        copy.insertOption(OPTION_2, VALUE_2);
+        original.removeOption(OPTION_1);
+
+        assertThat(copy.retrieveOption(OPTION_1)).isSameInstanceAs(VALUE_1);
+        assertThat(original.containsOption(OPTION_2)).isFalse();
+    }
+
+    @Test
+    public void snapshot_isNotAffectedByLaterInserts() {
+        MutableOptionsBundle mutOpts = MutableOptionsBundle.create();
+        mutOpts.insertOption(OPTION_1, VALUE_1);
+        OptionsBundle snapshot = OptionsBundle.from(mutOpts);
+
+        mutOpts.insertOption(OPTION_1, ALWAYS_OVERRIDE, VALUE_2);
+        mutOpts.insertOption(OPTION_2, VALUE_2);
+
+        assertThat(snapshot.retrieveOption(OPTION_1)).isSameInstanceAs(VALUE_1);
+        assertThat(snapshot.containsOption(OPTION_2)).isFalse();
+    }
 }
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.camera.core.internal.utils;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.os.Build;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.internal.DoNotInstrument;
+
+/**
+ * Unit tests for {@link ByteArrayPool}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@DoNotInstrument
+@Config(minSdk = Build.VERSION_CODES.LOLLIPOP)
+public class ByteArrayPoolTest {
+
+    @Test
+    public void acquire_returnsArrayOfRequestedLength() {
+        ByteArrayPool pool = new ByteArrayPool(2);
+
+        assertThat(pool.acquire(10)).hasLength(10);
+    }
+
+    @Test
+    public void acquireAfterRelease_reusesArray() {
+        ByteArrayPool pool = new ByteArrayPool(2);
+        byte[] array = pool.acquire(10);
+        pool.release(array);
+
+        assertThat(pool.acquire(10)).isSameInstanceAs(array);
+        assertThat(pool.acquire(10)).isNotSameInstanceAs(array);
+    }
+
+    @Test
+    public void acquireOtherLength_doesNotReuseArray() {
+        ByteArrayPool pool = new ByteArrayPool(2);
+        byte[] array = pool.acquire(10);
+        pool.release(array);
+
+        assertThat(pool.acquire(20)).isNotSameInstanceAs(array);
+        assertThat(pool.getRetainedCount(10)).isEqualTo(1);
+    }
+
+    @Test
+    public void release_dropsArraysBeyondLimit() {
+        ByteArrayPool pool = new ByteArrayPool(2);
+        pool.release(new byte[10]);
+        pool.release(new byte[10]);
+        pool.release(new byte[10]);
+
+        assertThat(pool.getRetainedCount(10)).isEqualTo(2);
+    }
+
+    @Test
+    public void release_dropsArraysOfLeastRecentlyUsedLength() {
+        ByteArrayPool pool = new ByteArrayPool(2);
+        pool.release(new byte[10]);
+        pool.release(new byte[20]);
+        pool.acquire(10);
+        pool.release(new byte[10]);
+        pool.release(new byte[30]);
+
+        assertThat(pool.getRetainedCount(10)).isEqualTo(1);
+        assertThat(pool.getRetainedCount(20)).isEqualTo(0);
+        assertThat(pool.getRetainedCount(30)).isEqualTo(1);
+    }
+
+    @Test
+    public void clear_dropsAllArrays() {
+        ByteArrayPool pool = new ByteArrayPool(2);
+        pool.release(new byte[10]);
+        pool.clear();
+
+        assertThat(pool.getRetainedCount(10)).isEqualTo(0);
+    }
+}
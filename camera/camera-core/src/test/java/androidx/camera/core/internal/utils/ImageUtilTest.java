@@ -122,6 +122,38 @@ public class ImageUtilTest {
         assertThat(byteArray).isEqualTo(mDataByteArray);
     }
 
+    @Test
+    public void convertYuvWithPlanarChroma_producesNv21() {
+        FakeImageProxy image = createYuvImage(4, 2, /*rowPadding=*/2, /*chromaPixelStride=*/1);
+
+        byte[] nv21 = ImageUtil.yuv_420_888toNv21(image);
+
+        assertThat(nv21).isEqualTo(expectedNv21(4, 2));
+    }
+
+    @Test
+    public void convertYuvWithInterleavedChroma_producesNv21() {
+        FakeImageProxy image = createYuvImage(4, 4, /*rowPadding=*/0, /*chromaPixelStride=*/2);
+
+        byte[] nv21 = ImageUtil.yuv_420_888toNv21(image);
+
+        assertThat(nv21).isEqualTo(expectedNv21(4, 4));
+    }
+
+    @Test
+    public void convertYuvWithPool_reusesReleasedArray() {
+        FakeImageProxy image = createYuvImage(4, 4, /*rowPadding=*/3, /*chromaPixelStride=*/2);
+        ByteArrayPool pool = new ByteArrayPool(1);
+
+        byte[] first = ImageUtil.yuv_420_888toNv21(image, pool);
+        assertThat(first).isEqualTo(expectedNv21(4, 4));
+        pool.release(first);
+        byte[] second = ImageUtil.yuv_420_888toNv21(image, pool);
+
+        assertThat(second).isSameInstanceAs(first);
+        assertThat(second).isEqualTo(expectedNv21(4, 4));
+    }
+
     @Test
     public void canCropByteArray() throws ImageUtil.CodecFailedException {
         byte[] byteArray = ImageUtil.cropByteArray(mDataByteArray,
@@ -162,4 +194,62 @@ public class ImageUtilTest {
             assertEquals(HEIGHT, resultRect.height());
         }
     }
+
+    /**
+     * Creates a YUV_420_888 image whose y samples are 1, 2, 3... and whose u and v samples are
+     * 101, 102... and 201, 202... respectively. Row padding bytes are set to 0.
+     */
+    private static FakeImageProxy createYuvImage(int width, int height, int rowPadding,
+            int chromaPixelStride) {
+        int yRowStride = width + rowPadding;
+        byte[] y = new byte[yRowStride * height];
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                y[row * yRowStride + col] = (byte) (row * width + col + 1);
+            }
+        }
+
+        int chromaWidth = width / 2;
+        int chromaHeight = height / 2;
+        int chromaRowStride = chromaWidth * chromaPixelStride + rowPadding;
+        byte[] u = new byte[chromaRowStride * chromaHeight];
+        byte[] v = new byte[chromaRowStride * chromaHeight];
+        for (int row = 0; row < chromaHeight; row++) {
+            for (int col = 0; col < chromaWidth; col++) {
+                int index = row * chromaRowStride + col * chromaPixelStride;
+                u[index] = (byte) (101 + row * chromaWidth + col);
+                v[index] = (byte) (201 + row * chromaWidth + col);
+            }
+        }
+
+        FakeImageProxy image = new FakeImageProxy(new FakeImageInfo());
+        image.setFormat(ImageFormat.YUV_420_888);
+        image.setWidth(width);
+        image.setHeight(height);
+        image.setPlanes(new ImageProxy.PlaneProxy[]{
+                mockPlane(y, yRowStride, 1),
+                mockPlane(u, chromaRowStride, chromaPixelStride),
+                mockPlane(v, chromaRowStride, chromaPixelStride)});
+        return image;
+    }
+
+    private static byte[] expectedNv21(int width, int height) {
+        byte[] nv21 = new byte[width * height + width * height / 2];
+        for (int i = 0; i < width * height; i++) {
+            nv21[i] = (byte) (i + 1);
+        }
+        for (int i = 0; i < width * height / 4; i++) {
+            nv21[width * height + i * 2] = (byte) (201 + i);
+            nv21[width * height + i * 2 + 1] = (byte) (101 + i);
+        }
+        return nv21;
+    }
+
+    private static ImageProxy.PlaneProxy mockPlane(byte[] data, int rowStride, int pixelStride) {
+        ImageProxy.PlaneProxy plane = mock(ImageProxy.PlaneProxy.class);
+        when(plane.getBuffer()).thenReturn(ByteBuffer.wrap(data));
+        when(plane.getRowStride()).thenReturn(rowStride);
+        when(plane.getPixelStride()).thenReturn(pixelStride);
+        return plane;
+    }
 }
@@ -20,6 +20,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import android.annotation.SuppressLint;
@@ -271,6 +272,61 @@ public class TypefaceCompatTest {
         assertNull(result[0]);
     }
 
+    @Test
+    public void testProviderFont_nonXmlRequest_withCallback_coalesced()
+            throws InterruptedException {
+        Instrumentation inst = InstrumentationRegistry.getInstrumentation();
+        CountDownLatch latch = new CountDownLatch(2);
+        final FontCallback callback = new FontCallback(latch);
+        final FontCallback callback2 = new FontCallback(latch);
+        FontsContractCompat.resetCache();
+        final CountDownLatch queryLatch = new CountDownLatch(1);
+        MockFontProvider.sQueryCount.set(0);
+        MockFontProvider.sQueryLatch = queryLatch;
+
+        try {
+            inst.runOnMainSync(new Runnable() {
+                @Override
+                public void run() {
+                    TypefaceCompat.createFromResourcesFamilyXml(mContext,
+                            getProviderResourceEntry(R.font.samplexmldownloadedfontblocking),
+                            mResources, R.font.samplexmldownloadedfontblocking, Typeface.NORMAL,
+                            callback, null /* handler */, false /* isXmlRequest */);
+                }
+            });
+            // The provider holds the first fetch, so nothing can be served from the cache and
+            // the second request has to join the pending fetch.
+            inst.runOnMainSync(new Runnable() {
+                @Override
+                public void run() {
+                    TypefaceCompat.createFromResourcesFamilyXml(mContext,
+                            getProviderResourceEntry(R.font.samplexmldownloadedfontblocking),
+                            mResources, R.font.samplexmldownloadedfontblocking, Typeface.NORMAL,
+                            callback2, null /* handler */, false /* isXmlRequest */);
+                }
+            });
+            assertEquals(2, latch.getCount());
+        } finally {
+            MockFontProvider.sQueryLatch = null;
+            queryLatch.countDown();
+        }
+        assertTrue(latch.await(5L, TimeUnit.SECONDS));
+        assertNotNull(callback.mTypeface);
+        assertSame(callback.mTypeface, callback2.mTypeface);
+        assertEquals(1, MockFontProvider.sQueryCount.get());
+    }
+
+    @Test
+    public void testSetCacheSize() {
+        int maxSize = TypefaceCache.getMaxSize();
+        try {
+            TypefaceCompat.setCacheSize(64);
+            assertEquals(64, TypefaceCache.getMaxSize());
+        } finally {
+            TypefaceCompat.setCacheSize(maxSize);
+        }
+    }
+
     @Test
     public void testProviderFont_nonXmlRequest_withCallback_cached() throws InterruptedException {
         Instrumentation inst = InstrumentationRegistry.getInstrumentation();
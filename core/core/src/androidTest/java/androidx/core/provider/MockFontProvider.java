@@ -36,6 +36,8 @@ import java.io.InputStream;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Provides a test Content Provider implementing {@link FontsContractCompat}.
@@ -65,6 +67,11 @@ public class MockFontProvider extends ContentProvider {
     static final String STYLE_TEST_QUERY = "styleTest";
     static final String INVALID_URI = "invalidURI";
 
+    /** Counts the queries received, tests reset it before use. */
+    public static final AtomicInteger sQueryCount = new AtomicInteger();
+    /** When set, queries wait for this latch to be released before answering. */
+    public static volatile CountDownLatch sQueryLatch;
+
     static class Font {
         Font(int id, int fileId, int ttcIndex, String varSettings, int weight, int italic,
                 int resultCode, boolean returnAllFields) {
@@ -295,6 +302,15 @@ public class MockFontProvider extends ContentProvider {
     @Override
     public Cursor query(Uri uri, String[] projection, String selection, String[] selectionArgs,
             String sortOrder) {
+        sQueryCount.incrementAndGet();
+        final CountDownLatch latch = sQueryLatch;
+        if (latch != null) {
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
         return buildCursor(QUERY_MAP.get(selectionArgs[0]));
     }
 
@@ -29,6 +29,7 @@ import android.text.util.Linkify;
 import android.text.util.Linkify.MatchFilter;
 import android.text.util.Linkify.TransformFilter;
 
+import androidx.core.util.Consumer;
 import androidx.core.util.PatternsCompat;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import androidx.test.filters.SmallTest;
@@ -36,7 +37,13 @@ import androidx.test.filters.SmallTest;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -778,6 +785,47 @@ public class LinkifyCompatTest {
                 + domain.length(), email);
     }
 
+    @Test
+    public void testAddLinks_webUrlsAndEmailsSeparatedByWhitespace() {
+        SpannableString spannable = new SpannableString("no links here\twww.android.com\n"
+                + "name@gmail.com\rhttp://google.com/a?b=c\f(https://developer.android.com)");
+        assertTrue(LinkifyCompat.addLinks(spannable, Linkify.WEB_URLS | Linkify.EMAIL_ADDRESSES));
+
+        URLSpan[] spans = spannable.getSpans(0, spannable.length(), URLSpan.class);
+        assertEquals(4, spans.length);
+        assertEquals("http://www.android.com", spans[0].getURL());
+        assertEquals("mailto:name@gmail.com", spans[1].getURL());
+        assertEquals("http://google.com/a?b=c", spans[2].getURL());
+        assertEquals("https://developer.android.com", spans[3].getURL());
+    }
+
+    @Test
+    public void testAddLinks_batch() throws InterruptedException {
+        final List<Spannable> texts = Arrays.<Spannable>asList(
+                new SpannableString("www.android.com"),
+                new SpannableString("no links"),
+                new SpannableString("name@gmail.com"));
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicReference<boolean[]> results = new AtomicReference<>();
+        LinkifyCompat.addLinks(texts, Linkify.ALL, Executors.newFixedThreadPool(2),
+                new Consumer<boolean[]>() {
+                    @Override
+                    public void accept(boolean[] linked) {
+                        results.set(linked);
+                        latch.countDown();
+                    }
+                });
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(results.get()[0]);
+        assertFalse(results.get()[1]);
+        assertTrue(results.get()[2]);
+        assertEquals("http://www.android.com",
+                texts.get(0).getSpans(0, texts.get(0).length(), URLSpan.class)[0].getURL());
+        assertEquals("mailto:name@gmail.com",
+                texts.get(2).getSpans(0, texts.get(2).length(), URLSpan.class)[0].getURL());
+    }
+
     // ADDRESS RELATED TESTS
 
     @Test
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.core.util;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.junit.Assert.fail;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SmallTest;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@SmallTest
+@RunWith(AndroidJUnit4.class)
+public class PoolsTest {
+
+    @Test
+    public void testConcurrentPoolAcquireRelease() {
+        Pools.ConcurrentPool<Object> pool = new Pools.ConcurrentPool<>(2, 1, false);
+        Object first = new Object();
+        Object second = new Object();
+        Object third = new Object();
+        Object fourth = new Object();
+
+        assertThat(pool.acquire()).isNull();
+        // One instance fits in the thread cache, two in the shared pool.
+        assertThat(pool.release(first)).isTrue();
+        assertThat(pool.release(second)).isTrue();
+        assertThat(pool.release(third)).isTrue();
+        assertThat(pool.release(fourth)).isFalse();
+
+        Set<Object> acquired = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+        acquired.add(pool.acquire());
+        acquired.add(pool.acquire());
+        acquired.add(pool.acquire());
+        assertThat(acquired).containsExactly(first, second, third);
+        assertThat(pool.acquire()).isNull();
+
+        assertThat(pool.getHitCount()).isEqualTo(3);
+        assertThat(pool.getMissCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testConcurrentPoolDetectsDoubleRelease() {
+        Pools.ConcurrentPool<Object> pool = new Pools.ConcurrentPool<>(2, 1, true);
+        Object instance = new Object();
+        pool.release(instance);
+        try {
+            pool.release(instance);
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException expected) { }
+
+        assertThat(pool.acquire()).isSameAs(instance);
+        // Acquiring the instance allows releasing it again.
+        assertThat(pool.release(instance)).isTrue();
+    }
+
+    @Test
+    public void testConcurrentPoolSharedBetweenThreads() throws Exception {
+        final Pools.ConcurrentPool<Object> pool = new Pools.ConcurrentPool<>(64, 4, true);
+        final int threadCount = 4;
+        final CountDownLatch done = new CountDownLatch(threadCount);
+        final AtomicBoolean failed = new AtomicBoolean();
+        for (int t = 0; t < threadCount; t++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int i = 0; i < 10000; i++) {
+                            Object instance = pool.acquire();
+                            pool.release(instance != null ? instance : new Object());
+                        }
+                    } catch (RuntimeException e) {
+                        failed.set(true);
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+        done.await();
+
+        assertThat(failed.get()).isFalse();
+        assertThat(pool.getHitCount() + pool.getMissCount()).isEqualTo(threadCount * 10000);
+    }
+
+    @Test
+    public void testConcurrentPoolReclaimsCacheOfTerminatedThread() throws Exception {
+        final Pools.ConcurrentPool<Object> pool = new Pools.ConcurrentPool<>(2, 1, true);
+        final Object first = new Object();
+        final Object second = new Object();
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                // The first instance stays in the thread's cache, the second one is shared.
+                pool.release(first);
+                pool.release(second);
+            }
+        });
+        thread.start();
+        thread.join();
+
+        Set<Object> acquired = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+        acquired.add(pool.acquire());
+        acquired.add(pool.acquire());
+        assertThat(acquired).containsExactly(first, second);
+        assertThat(pool.acquire()).isNull();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConcurrentPoolRejectsEmptyPool() {
+        new Pools.ConcurrentPool<>(0);
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.core.graphics;
+
+import static androidx.annotation.RestrictTo.Scope.LIBRARY_GROUP_PREFIX;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.graphics.Typeface;
+import android.net.Uri;
+import android.os.Build;
+import android.os.CancellationSignal;
+import android.os.ParcelFileDescriptor;
+import android.system.ErrnoException;
+import android.system.Os;
+import android.system.StructStat;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+import androidx.annotation.RestrictTo;
+import androidx.collection.LruCache;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Process wide cache of the typefaces loaded from font resources and font providers, and of the
+ * memory mapped font files they were created from.
+ *
+ * @hide
+ */
+@RestrictTo(LIBRARY_GROUP_PREFIX)
+public final class TypefaceCache {
+    static final int DEFAULT_MAX_SIZE = 32;
+    // Mapped buffers live outside of the heap, this bounds the address space they retain.
+    private static final int MAX_FONT_BUFFER_BYTES = 16 * 1024 * 1024;
+
+    private static final LruCache<String, Typeface> sTypefaces = new LruCache<>(DEFAULT_MAX_SIZE);
+
+    private static final LruCache<Uri, FontBuffer> sFontBuffers =
+            new LruCache<Uri, FontBuffer>(MAX_FONT_BUFFER_BYTES) {
+                @Override
+                protected int sizeOf(@NonNull Uri key, @NonNull FontBuffer value) {
+                    return value.mBuffer.capacity();
+                }
+            };
+
+    private TypefaceCache() {}
+
+    /**
+     * @return the typeface cached for the given key, or null if not found.
+     */
+    @Nullable
+    public static Typeface get(@NonNull String key) {
+        return sTypefaces.get(key);
+    }
+
+    /**
+     * Caches a typeface, evicting the least recently used ones if the cache is full.
+     */
+    public static void put(@NonNull String key, @NonNull Typeface typeface) {
+        sTypefaces.put(key, typeface);
+    }
+
+    /**
+     * Sets the maximum number of typefaces kept in the cache.
+     */
+    public static void setMaxSize(int maxSize) {
+        sTypefaces.resize(maxSize);
+    }
+
+    /**
+     * @return the maximum number of typefaces kept in the cache.
+     */
+    public static int getMaxSize() {
+        return sTypefaces.maxSize();
+    }
+
+    /**
+     * Memory maps the font file at the given uri, reusing the mapping of a previous call for the
+     * same uri when it is still cached and the file behind the uri has not changed since. Each
+     * call returns a buffer with its own position.
+     *
+     * @return the font data, or null if the file could not be read.
+     */
+    @Nullable
+    @RequiresApi(19)
+    public static ByteBuffer mmap(@NonNull Context context,
+            @Nullable CancellationSignal cancellationSignal, @NonNull Uri uri) {
+        final ContentResolver resolver = context.getContentResolver();
+        try (ParcelFileDescriptor pfd = resolver.openFileDescriptor(uri, "r", cancellationSignal)) {
+            if (pfd == null) {
+                return null;
+            }
+            // The provider may serve new content at the same uri, so the cached mapping is only
+            // reused while the opened file still looks like the one it was created from.
+            final FileStamp stamp = FileStamp.of(pfd);
+            final FontBuffer cached = sFontBuffers.get(uri);
+            if (cached != null && cached.mStamp.equals(stamp)) {
+                return cached.mBuffer.duplicate();
+            }
+            try (FileInputStream fis = new FileInputStream(pfd.getFileDescriptor())) {
+                FileChannel channel = fis.getChannel();
+                final ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                        channel.size());
+                sFontBuffers.put(uri, new FontBuffer(stamp, buffer));
+                return buffer.duplicate();
+            }
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Drops all cached typefaces and font buffers.
+     */
+    public static void evictAll() {
+        sTypefaces.evictAll();
+        sFontBuffers.evictAll();
+    }
+
+    private static final class FontBuffer {
+        final FileStamp mStamp;
+        final ByteBuffer mBuffer;
+
+        FontBuffer(FileStamp stamp, ByteBuffer buffer) {
+            mStamp = stamp;
+            mBuffer = buffer;
+        }
+    }
+
+    /**
+     * Identifies the file behind a descriptor. Before API 21 only the size is available.
+     */
+    private static final class FileStamp {
+        private final long mDevice;
+        private final long mInode;
+        private final long mSize;
+        private final long mModifiedTime;
+        private final long mChangedTime;
+
+        private FileStamp(long device, long inode, long size, long modifiedTime,
+                long changedTime) {
+            mDevice = device;
+            mInode = inode;
+            mSize = size;
+            mModifiedTime = modifiedTime;
+            mChangedTime = changedTime;
+        }
+
+        static FileStamp of(ParcelFileDescriptor pfd) {
+            if (Build.VERSION.SDK_INT >= 21) {
+                try {
+                    final StructStat stat = Os.fstat(pfd.getFileDescriptor());
+                    return new FileStamp(stat.st_dev, stat.st_ino, stat.st_size, stat.st_mtime,
+                            stat.st_ctime);
+                } catch (ErrnoException e) {
+                    // Fall back to the size reported by the descriptor.
+                }
+            }
+            return new FileStamp(0, 0, pfd.getStatSize(), 0, 0);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof FileStamp)) {
+                return false;
+            }
+            final FileStamp other = (FileStamp) o;
+            return mDevice == other.mDevice && mInode == other.mInode && mSize == other.mSize
+                    && mModifiedTime == other.mModifiedTime && mChangedTime == other.mChangedTime;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = (int) (mDevice ^ (mDevice >>> 32));
+            result = 31 * result + (int) (mInode ^ (mInode >>> 32));
+            result = 31 * result + (int) (mSize ^ (mSize >>> 32));
+            result = 31 * result + (int) (mModifiedTime ^ (mModifiedTime >>> 32));
+            return 31 * result + (int) (mChangedTime ^ (mChangedTime >>> 32));
+        }
+    }
+}
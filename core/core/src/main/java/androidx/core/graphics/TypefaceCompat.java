@@ -26,11 +26,11 @@ import android.os.Build;
 import android.os.CancellationSignal;
 import android.os.Handler;
 
+import androidx.annotation.IntRange;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
 import androidx.annotation.VisibleForTesting;
-import androidx.collection.LruCache;
 import androidx.core.content.res.FontResourcesParserCompat;
 import androidx.core.content.res.FontResourcesParserCompat.FamilyResourceEntry;
 import androidx.core.content.res.FontResourcesParserCompat.FontFamilyFilesResourceEntry;
@@ -62,11 +62,6 @@ public class TypefaceCompat {
         }
     }
 
-    /**
-     * Cache for Typeface objects dynamically loaded from assets.
-     */
-    private static final LruCache<String, Typeface> sTypefaceCache = new LruCache<>(16);
-
     private TypefaceCompat() {}
 
     /**
@@ -78,7 +73,7 @@ public class TypefaceCompat {
     @Nullable
     @RestrictTo(LIBRARY_GROUP_PREFIX)
     public static Typeface findFromCache(@NonNull Resources resources, int id, int style) {
-        return sTypefaceCache.get(createResourceUid(resources, id, style));
+        return TypefaceCache.get(createResourceUid(resources, id, style));
     }
 
     /**
@@ -131,7 +126,7 @@ public class TypefaceCompat {
             }
         }
         if (typeface != null) {
-            sTypefaceCache.put(createResourceUid(resources, id, style), typeface);
+            TypefaceCache.put(createResourceUid(resources, id, style), typeface);
         }
         return typeface;
     }
@@ -149,7 +144,7 @@ public class TypefaceCompat {
                 context, resources, id, path, style);
         if (typeface != null) {
             final String resourceUid = createResourceUid(resources, id, style);
-            sTypefaceCache.put(resourceUid, typeface);
+            TypefaceCache.put(resourceUid, typeface);
         }
         return typeface;
     }
@@ -207,12 +202,29 @@ public class TypefaceCompat {
         return Typeface.create(family, style);
     }
 
+    /**
+     * Sets the maximum number of typefaces kept in memory after being loaded from font resources
+     * or downloaded from font providers.
+     * <p>
+     * The cache is shared by all font resources and font requests of the process. Apps using
+     * many font families or weights may want to increase it so that typefaces are not reloaded
+     * every time they are used.
+     *
+     * @param maxSize The maximum number of cached typefaces, the default is 32.
+     */
+    public static void setCacheSize(@IntRange(from = 1) int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize <= 0");
+        }
+        TypefaceCache.setMaxSize(maxSize);
+    }
+
     /**
      * @hide
      */
     @RestrictTo(LIBRARY_GROUP_PREFIX)
     @VisibleForTesting
     public static void clearCache() {
-        sTypefaceCache.evictAll();
+        TypefaceCache.evictAll();
     }
 }
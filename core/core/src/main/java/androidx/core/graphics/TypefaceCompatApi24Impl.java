@@ -142,7 +142,7 @@ class TypefaceCompatApi24Impl extends TypefaceCompatBaseImpl {
             final Uri uri = font.getUri();
             ByteBuffer buffer = bufferCache.get(uri);
             if (buffer == null) {
-                buffer = TypefaceCompatUtil.mmap(context, cancellationSignal, uri);
+                buffer = TypefaceCache.mmap(context, cancellationSignal, uri);
                 bufferCache.put(uri, buffer);
             }
             if (buffer == null) {
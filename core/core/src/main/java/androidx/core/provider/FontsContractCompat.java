@@ -45,13 +45,13 @@ import androidx.annotation.Nullable;
 import androidx.annotation.RequiresApi;
 import androidx.annotation.RestrictTo;
 import androidx.annotation.VisibleForTesting;
-import androidx.collection.LruCache;
 import androidx.collection.SimpleArrayMap;
 import androidx.core.content.res.FontResourcesParserCompat;
 import androidx.core.content.res.ResourcesCompat;
+import androidx.core.graphics.TypefaceCache;
 import androidx.core.graphics.TypefaceCompat;
-import androidx.core.graphics.TypefaceCompatUtil;
 import androidx.core.provider.SelfDestructiveThread.ReplyCallback;
+import androidx.core.util.Pair;
 import androidx.core.util.Preconditions;
 
 import java.lang.annotation.Retention;
@@ -65,6 +65,15 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Utility class to deal with Font ContentProviders.
@@ -169,12 +178,31 @@ public class FontsContractCompat {
     /* package */ static final int RESULT_CODE_WRONG_CERTIFICATES = -2;
     // Note -3 is used by FontRequestCallback to indicate the font failed to load.
 
-    static final LruCache<String, Typeface> sTypefaceCache = new LruCache<>(16);
-
     private static final int BACKGROUND_THREAD_KEEP_ALIVE_DURATION_MS = 10000;
-    private static final SelfDestructiveThread sBackgroundThread =
-            new SelfDestructiveThread("fonts", Process.THREAD_PRIORITY_BACKGROUND,
-                    BACKGROUND_THREAD_KEEP_ALIVE_DURATION_MS);
+    private static final int MAX_FETCH_THREADS = 4;
+    private static final ThreadPoolExecutor sFetchExecutor = createFetchExecutor();
+
+    private static ThreadPoolExecutor createFetchExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_FETCH_THREADS, MAX_FETCH_THREADS,
+                BACKGROUND_THREAD_KEEP_ALIVE_DURATION_MS, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    private final AtomicInteger mCount = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(@NonNull final Runnable r) {
+                        return new Thread(new Runnable() {
+                            @Override
+                            public void run() {
+                                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                                r.run();
+                            }
+                        }, "fonts-" + mCount.incrementAndGet());
+                    }
+                });
+        // Threads are only kept while fonts are being fetched.
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
 
     @NonNull
     static TypefaceResult getFontInternal(final Context context, final FontRequest request,
@@ -200,8 +228,7 @@ public class FontsContractCompat {
 
     static final Object sLock = new Object();
     @GuardedBy("sLock")
-    static final SimpleArrayMap<String, ArrayList<ReplyCallback<TypefaceResult>>>
-            sPendingReplies = new SimpleArrayMap<>();
+    static final SimpleArrayMap<String, FontFetch> sPendingFetches = new SimpleArrayMap<>();
 
     private static final class TypefaceResult {
         final Typeface mTypeface;
@@ -214,13 +241,117 @@ public class FontsContractCompat {
         }
     }
 
+    /**
+     * A font fetch shared by all requests for the same font and style made while it is running.
+     */
+    private static final class FontFetch extends FutureTask<TypefaceResult> {
+        private final String mId;
+        // Replies to deliver with the result, null once the result has been delivered.
+        @GuardedBy("this")
+        private ArrayList<Pair<Handler, ReplyCallback<TypefaceResult>>> mReplies =
+                new ArrayList<>();
+
+        FontFetch(final Context context, final FontRequest request, final int style,
+                final String id) {
+            super(new Callable<TypefaceResult>() {
+                @Override
+                public TypefaceResult call() {
+                    TypefaceResult typeface = getFontInternal(context, request, style);
+                    if (typeface.mTypeface != null) {
+                        TypefaceCache.put(id, typeface.mTypeface);
+                    }
+                    return typeface;
+                }
+            });
+            mId = id;
+        }
+
+        /**
+         * Delivers the result of this fetch to the reply on the handler's thread, once it is
+         * available.
+         */
+        void addReply(Handler handler, ReplyCallback<TypefaceResult> reply) {
+            synchronized (this) {
+                if (mReplies != null) {
+                    mReplies.add(new Pair<>(handler, reply));
+                    return;
+                }
+            }
+            postReply(handler, reply, getResult());
+        }
+
+        @Override
+        protected void done() {
+            synchronized (sLock) {
+                if (sPendingFetches.get(mId) == this) {
+                    sPendingFetches.remove(mId);
+                }
+            }
+            final ArrayList<Pair<Handler, ReplyCallback<TypefaceResult>>> replies;
+            synchronized (this) {
+                replies = mReplies;
+                mReplies = null;
+            }
+            TypefaceResult result = getResult();
+            for (int i = 0; i < replies.size(); ++i) {
+                postReply(replies.get(i).first, replies.get(i).second, result);
+            }
+        }
+
+        /**
+         * @return the result of this fetch, or null if it failed. Must only be called once done.
+         */
+        @Nullable
+        TypefaceResult getResult() {
+            try {
+                return get();
+            } catch (InterruptedException | ExecutionException | CancellationException e) {
+                return null;
+            }
+        }
+
+        private static void postReply(Handler handler,
+                final ReplyCallback<TypefaceResult> reply, final TypefaceResult result) {
+            handler.post(new Runnable() {
+                @Override
+                public void run() {
+                    reply.onReply(result);
+                }
+            });
+        }
+    }
+
+    /**
+     * @return the fetch running for the given font, starting it on the fetch executor if there
+     * is none. If {@code runOnCaller} is true, a new fetch is instead run on the calling thread
+     * before returning.
+     */
+    private static FontFetch getOrStartFetch(Context context, FontRequest request, int style,
+            String id, boolean runOnCaller) {
+        FontFetch fetch;
+        synchronized (sLock) {
+            fetch = sPendingFetches.get(id);
+            if (fetch != null) {
+                return fetch;
+            }
+            fetch = new FontFetch(context, request, style, id);
+            sPendingFetches.put(id, fetch);
+        }
+        if (runOnCaller) {
+            fetch.run();
+        } else {
+            sFetchExecutor.execute(fetch);
+        }
+        return fetch;
+    }
+
     /**
      * Used for tests, should not be used otherwise.
      * @hide
      **/
     @RestrictTo(LIBRARY_GROUP_PREFIX)
     public static void resetCache() {
-        sTypefaceCache.evictAll();
+        TypefaceCache.evictAll();
     }
 
     /** @hide */
@@ -230,7 +361,7 @@ public class FontsContractCompat {
             final @Nullable Handler handler, boolean isBlockingFetch, int timeout,
             final int style) {
         final String id = request.getIdentifier() + "-" + style;
-        Typeface cached = sTypefaceCache.get(id);
+        Typeface cached = TypefaceCache.get(id);
         if (cached != null) {
             if (fontCallback != null) {
                 fontCallback.onFontRetrieved(cached);
@@ -239,8 +370,19 @@ public class FontsContractCompat {
         }
 
         if (isBlockingFetch && timeout == FontResourcesParserCompat.INFINITE_TIMEOUT_VALUE) {
-            // Wait forever. No need to post to the thread.
-            TypefaceResult typefaceResult = getFontInternal(context, request, style);
+            // Wait forever. No need to post to the executor, but join a fetch of the same font
+            // that is already running.
+            FontFetch fetch = getOrStartFetch(context, request, style, id, true);
+            TypefaceResult typefaceResult;
+            try {
+                typefaceResult = fetch.get();
+            } catch (InterruptedException | ExecutionException | CancellationException e) {
+                typefaceResult = null;
+            }
+            if (typefaceResult == null) {
+                typefaceResult = new TypefaceResult(null,
+                        FontRequestCallback.FAIL_REASON_FONT_LOAD_ERROR);
+            }
             if (fontCallback != null) {
                 if (typefaceResult.mResult == FontFamilyResult.STATUS_OK) {
                     fontCallback.callbackSuccessAsync(typefaceResult.mTypeface, handler);
@@ -251,73 +393,31 @@ public class FontsContractCompat {
             return typefaceResult.mTypeface;
         }
 
-        final Callable<TypefaceResult> fetcher = new Callable<TypefaceResult>() {
-            @Override
-            public TypefaceResult call() throws Exception {
-                TypefaceResult typeface = getFontInternal(context, request, style);
-                if (typeface.mTypeface != null) {
-                    sTypefaceCache.put(id, typeface.mTypeface);
-                }
-                return typeface;
-            }
-        };
-
+        final FontFetch fetch = getOrStartFetch(context, request, style, id, false);
         if (isBlockingFetch) {
             try {
-                return sBackgroundThread.postAndWait(fetcher, timeout).mTypeface;
-            } catch (InterruptedException e) {
+                return fetch.get(timeout, TimeUnit.MILLISECONDS).mTypeface;
+            } catch (InterruptedException | ExecutionException | CancellationException
+                    | TimeoutException e) {
                 return null;
             }
-        } else {
-            final ReplyCallback<TypefaceResult> reply = fontCallback == null ? null
-                    : new ReplyCallback<TypefaceResult>() {
-                        @Override
-                        public void onReply(final TypefaceResult typeface) {
-                            if (typeface == null) {
-                                fontCallback.callbackFailAsync(
-                                        FontRequestCallback.FAIL_REASON_FONT_NOT_FOUND, handler);
-                            } else if (typeface.mResult == FontFamilyResult.STATUS_OK) {
-                                fontCallback.callbackSuccessAsync(typeface.mTypeface, handler);
-                            } else {
-                                fontCallback.callbackFailAsync(typeface.mResult, handler);
-                            }
-                        }
-                    };
-
-            synchronized (sLock) {
-                ArrayList<ReplyCallback<TypefaceResult>> pendingReplies = sPendingReplies.get(id);
-                if (pendingReplies != null) {
-                    // Already requested. Do not request the same provider again and insert the
-                    // reply to the queue instead.
-                    if (reply != null) {
-                        pendingReplies.add(reply);
-                    }
-                    return null;
-                }
-                if (reply != null) {
-                    pendingReplies = new ArrayList<>();
-                    pendingReplies.add(reply);
-                    sPendingReplies.put(id, pendingReplies);
-                }
-            }
-            sBackgroundThread.postAndReply(fetcher, new ReplyCallback<TypefaceResult>() {
+        }
+        if (fontCallback != null) {
+            fetch.addReply(new Handler(), new ReplyCallback<TypefaceResult>() {
                 @Override
                 public void onReply(final TypefaceResult typeface) {
-                    final ArrayList<ReplyCallback<TypefaceResult>> replies;
-                    synchronized (sLock) {
-                        replies = sPendingReplies.get(id);
-                        if (replies == null) {
-                            return;  // Nobody requested replies. Do nothing.
-                        }
-                        sPendingReplies.remove(id);
-                    }
-                    for (int i = 0; i < replies.size(); ++i) {
-                        replies.get(i).onReply(typeface);
+                    if (typeface == null) {
+                        fontCallback.callbackFailAsync(
+                                FontRequestCallback.FAIL_REASON_FONT_NOT_FOUND, handler);
+                    } else if (typeface.mResult == FontFamilyResult.STATUS_OK) {
+                        fontCallback.callbackSuccessAsync(typeface.mTypeface, handler);
+                    } else {
+                        fontCallback.callbackFailAsync(typeface.mResult, handler);
                     }
                 }
             });
-            return null;
         }
+        return null;
     }
 
     /**
@@ -699,7 +799,7 @@ public class FontsContractCompat {
                 continue;
             }
 
-            ByteBuffer buffer = TypefaceCompatUtil.mmap(context, cancellationSignal, uri);
+            ByteBuffer buffer = TypefaceCache.mmap(context, cancellationSignal, uri);
             out.put(uri, buffer);
         }
         return Collections.unmodifiableMap(out);
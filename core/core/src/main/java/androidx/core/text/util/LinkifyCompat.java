@@ -36,6 +36,7 @@ import androidx.annotation.IntDef;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
+import androidx.core.util.Consumer;
 import androidx.core.util.PatternsCompat;
 
 import java.io.UnsupportedEncodingException;
@@ -45,7 +46,10 @@ import java.net.URLEncoder;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -55,6 +59,8 @@ import java.util.regex.Pattern;
  */
 public final class LinkifyCompat {
     private static final String[] EMPTY_STRING = new String[0];
+    private static final String[] WEB_URL_SCHEMES = { "http://", "https://", "rtsp://" };
+    private static final String[] EMAIL_SCHEMES = { "mailto:" };
 
     private static final Comparator<LinkSpec>  COMPARATOR = new Comparator<LinkSpec>() {
         @Override
@@ -112,25 +118,22 @@ public final class LinkifyCompat {
             text.removeSpan(old[i]);
         }
 
-        if ((mask & Linkify.PHONE_NUMBERS) != 0) {
+        final String string = text.toString();
+        // Phone numbers and addresses can't be found in text without digits.
+        final boolean hasDigits = containsDigit(string);
+
+        if ((mask & Linkify.PHONE_NUMBERS) != 0 && hasDigits) {
             Linkify.addLinks(text, Linkify.PHONE_NUMBERS);
         }
 
         final ArrayList<LinkSpec> links = new ArrayList<>();
 
-        if ((mask & Linkify.WEB_URLS) != 0) {
-            gatherLinks(links, text, PatternsCompat.AUTOLINK_WEB_URL,
-                    new String[] { "http://", "https://", "rtsp://" },
-                    Linkify.sUrlMatchFilter, null);
-        }
-
-        if ((mask & Linkify.EMAIL_ADDRESSES) != 0) {
-            gatherLinks(links, text, PatternsCompat.AUTOLINK_EMAIL_ADDRESS,
-                    new String[] { "mailto:" },
-                    null, null);
+        if ((mask & (Linkify.WEB_URLS | Linkify.EMAIL_ADDRESSES)) != 0) {
+            gatherWebAndEmailLinks(links, text, string, (mask & Linkify.WEB_URLS) != 0,
+                    (mask & Linkify.EMAIL_ADDRESSES) != 0);
         }
 
-        if ((mask & Linkify.MAP_ADDRESSES) != 0) {
+        if ((mask & Linkify.MAP_ADDRESSES) != 0 && hasDigits) {
             gatherMapLinks(links, text);
         }
 
@@ -149,6 +152,52 @@ public final class LinkifyCompat {
         return true;
     }
 
+    /**
+     * Scans each of the provided texts on the given executor and turns all occurrences of the
+     * link types indicated in the mask into clickable links, as
+     * {@link #addLinks(Spannable, int)} does.
+     * <p>
+     * Texts are processed independently, in parallel if the executor allows it. The texts must
+     * not be modified or displayed until the callback is called.
+     *
+     * @param texts Spannables whose text is to be marked-up with links.
+     * @param mask Mask to define which kinds of links will be searched.
+     * @param executor The executor to scan the texts on.
+     * @param callback Called on the executor once all texts are processed, with whether at least
+     *                 one link was found and applied to each text, in the order of the texts.
+     */
+    public static void addLinks(@NonNull final List<? extends Spannable> texts,
+            @LinkifyMask final int mask, @NonNull Executor executor,
+            @NonNull final Consumer<boolean[]> callback) {
+        final boolean[] results = new boolean[texts.size()];
+        if (results.length == 0) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    callback.accept(results);
+                }
+            });
+            return;
+        }
+        final AtomicInteger remaining = new AtomicInteger(results.length);
+        for (int i = 0; i < results.length; i++) {
+            final int index = i;
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        results[index] = addLinks(texts.get(index), mask);
+                    } finally {
+                        // The atomic update also publishes the results to the last task.
+                        if (remaining.decrementAndGet() == 0) {
+                            callback.accept(results);
+                        }
+                    }
+                }
+            });
+        }
+    }
+
     /**
      *  Scans the text of the provided TextView and turns all occurrences of
      *  the link types indicated in the mask into clickable links.  If matches
@@ -414,11 +463,82 @@ public final class LinkifyCompat {
         return url;
     }
 
+    /**
+     * Finds web urls and email addresses in a single pass over the text.
+     * <p>
+     * Neither can contain ASCII whitespace, so the text is split into whitespace separated runs
+     * and the patterns only run on the runs that contain the characters they require: a '.' or
+     * "://" for web urls, and '@' and '.' for email addresses. The matchers look through the
+     * bounds of each run, so they find the same links as when scanning the whole text.
+     */
+    private static void gatherWebAndEmailLinks(ArrayList<LinkSpec> links, Spannable s,
+            String string, boolean webUrls, boolean emails) {
+        Matcher webMatcher = null;
+        if (webUrls) {
+            webMatcher = PatternsCompat.AUTOLINK_WEB_URL.matcher(string);
+            webMatcher.useTransparentBounds(true).useAnchoringBounds(false);
+        }
+        Matcher emailMatcher = null;
+        if (emails) {
+            emailMatcher = PatternsCompat.AUTOLINK_EMAIL_ADDRESS.matcher(string);
+            emailMatcher.useTransparentBounds(true).useAnchoringBounds(false);
+        }
+
+        final int length = string.length();
+        int runStart = 0;
+        boolean hasDot = false;
+        boolean hasAt = false;
+        boolean hasScheme = false;
+        for (int i = 0; i <= length; i++) {
+            final char c = i < length ? string.charAt(i) : ' ';
+            switch (c) {
+                case ' ':
+                case '\t':
+                case '\n':
+                case '\u000B':
+                case '\f':
+                case '\r':
+                    if (webMatcher != null && (hasDot || hasScheme)) {
+                        webMatcher.region(runStart, i);
+                        gatherLinks(links, s, webMatcher, WEB_URL_SCHEMES,
+                                Linkify.sUrlMatchFilter, null);
+                    }
+                    if (emailMatcher != null && hasAt && hasDot) {
+                        emailMatcher.region(runStart, i);
+                        gatherLinks(links, s, emailMatcher, EMAIL_SCHEMES, null, null);
+                    }
+                    runStart = i + 1;
+                    hasDot = false;
+                    hasAt = false;
+                    hasScheme = false;
+                    break;
+                case '.':
+                    hasDot = true;
+                    break;
+                case '@':
+                    hasAt = true;
+                    break;
+                case ':':
+                    if (string.startsWith("//", i + 1)) {
+                        hasScheme = true;
+                    }
+                    break;
+            }
+        }
+    }
+
+    private static boolean containsDigit(String string) {
+        for (int i = 0; i < string.length(); i++) {
+            if (Character.isDigit(string.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private static void gatherLinks(ArrayList<LinkSpec> links,
-            Spannable s, Pattern pattern, String[] schemes,
+            Spannable s, Matcher m, String[] schemes,
             Linkify.MatchFilter matchFilter, Linkify.TransformFilter transformFilter) {
-        Matcher m = pattern.matcher(s);
-
         while (m.find()) {
             int start = m.start();
             int end = m.end();
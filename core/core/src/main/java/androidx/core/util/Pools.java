@@ -21,6 +21,14 @@ package androidx.core.util;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
 /**
  * Helper class for creating pools of objects. An example use looks like this:
  * <pre>
@@ -167,4 +175,251 @@ public final class Pools {
             }
         }
     }
+
+    /**
+     * Pool of objects that scales with the number of threads using it.
+     * <p>
+     * Each thread first acquires and releases instances through a small cache of its own, which
+     * needs no synchronization. Instances that do not fit in the releasing thread's cache go to a
+     * shared pool of up to {@code maxPoolSize} instances, which threads with an empty cache
+     * acquire from, and which is updated with atomic operations rather than a lock. Up to
+     * {@code threadCacheSize} instances per thread are retained on top of the shared pool, for at
+     * most twice as many threads as there are CPUs; other threads only use the shared pool. Once
+     * a thread has terminated, its cache is handed to the next thread that uses the pool and the
+     * instances it held are moved to the shared pool.
+     * <p>
+     * Unlike {@link SimplePool}, releasing an instance that is already in the pool is only
+     * detected when enabled in the constructor, since it requires tracking every pooled instance.
+     *
+     * @param <T> The pooled type.
+     */
+    public static class ConcurrentPool<T> implements Pool<T> {
+        private static final int DEFAULT_THREAD_CACHE_SIZE = 4;
+        private static final int CPU_COUNT = Runtime.getRuntime().availableProcessors();
+        // Counter stripes are a cache line apart, so threads counting concurrently don't contend.
+        private static final int STRIPE_STRIDE = 8;
+
+        private final AtomicReferenceArray<Object> mShared;
+        private final AtomicInteger mSharedSize = new AtomicInteger();
+        // Hit and miss counts, striped by thread. The hit count of a stripe is at its first index
+        // and the miss count at the next one.
+        private final AtomicLongArray mCounts;
+        private final int mStripeMask;
+        private final AtomicInteger mNextStripe = new AtomicInteger();
+        // The thread caches that may hold instances, a slot is reused once its thread terminated.
+        private final AtomicReferenceArray<ThreadCache> mThreadCaches;
+        private final ThreadLocal<ThreadCache> mThreadCache;
+        @Nullable
+        private final Set<Object> mPooled;
+
+        /**
+         * Creates a new instance, without double release detection.
+         *
+         * @param maxPoolSize The max size of the pool shared between threads.
+         *
+         * @throws IllegalArgumentException If the max pool size is less than zero.
+         */
+        public ConcurrentPool(int maxPoolSize) {
+            this(maxPoolSize, Math.min(maxPoolSize, DEFAULT_THREAD_CACHE_SIZE), false);
+        }
+
+        /**
+         * Creates a new instance.
+         *
+         * @param maxPoolSize The max size of the pool shared between threads.
+         * @param threadCacheSize The max number of instances cached by each thread, or zero to
+         *                        only use the shared pool.
+         * @param detectDoubleRelease Whether {@link #release} should throw if the instance is
+         *                            already in the pool. This is meant for debug builds, as it
+         *                            synchronizes every acquire and release.
+         *
+         * @throws IllegalArgumentException If the max pool size is less than zero, or the thread
+         *                                  cache size is negative.
+         */
+        public ConcurrentPool(int maxPoolSize, int threadCacheSize, boolean detectDoubleRelease) {
+            if (maxPoolSize <= 0) {
+                throw new IllegalArgumentException("The max pool size must be > 0");
+            }
+            if (threadCacheSize < 0) {
+                throw new IllegalArgumentException("The thread cache size must be >= 0");
+            }
+            mShared = new AtomicReferenceArray<>(maxPoolSize);
+            final int stripes = Integer.highestOneBit(CPU_COUNT * 2 - 1);
+            mCounts = new AtomicLongArray(stripes * STRIPE_STRIDE);
+            mStripeMask = stripes - 1;
+            mThreadCaches = new AtomicReferenceArray<>(threadCacheSize > 0 ? CPU_COUNT * 2 : 0);
+            final int cacheSize = threadCacheSize;
+            mThreadCache = new ThreadLocal<ThreadCache>() {
+                @Override
+                protected ThreadCache initialValue() {
+                    int counterIndex = (mNextStripe.getAndIncrement() & mStripeMask)
+                            * STRIPE_STRIDE;
+                    ThreadCache cache = new ThreadCache(cacheSize, counterIndex);
+                    if (!registerThreadCache(cache)) {
+                        cache = new ThreadCache(0, counterIndex);
+                    }
+                    return cache;
+                }
+            };
+            mPooled = detectDoubleRelease
+                    ? Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>()) : null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T acquire() {
+            ThreadCache cache = mThreadCache.get();
+            Object instance;
+            if (cache.mSize > 0) {
+                cache.mSize--;
+                instance = cache.mItems[cache.mSize];
+                cache.mItems[cache.mSize] = null;
+            } else {
+                instance = acquireShared();
+            }
+            if (instance == null) {
+                mCounts.incrementAndGet(cache.mCounterIndex + 1);
+                return null;
+            }
+            mCounts.incrementAndGet(cache.mCounterIndex);
+            if (mPooled != null) {
+                synchronized (mPooled) {
+                    mPooled.remove(instance);
+                }
+            }
+            return (T) instance;
+        }
+
+        @Override
+        public boolean release(@NonNull T instance) {
+            if (mPooled != null) {
+                synchronized (mPooled) {
+                    if (!mPooled.add(instance)) {
+                        throw new IllegalStateException("Already in the pool!");
+                    }
+                }
+            }
+            ThreadCache cache = mThreadCache.get();
+            if (cache.mSize < cache.mItems.length) {
+                cache.mItems[cache.mSize] = instance;
+                cache.mSize++;
+                return true;
+            }
+            if (releaseShared(instance)) {
+                return true;
+            }
+            if (mPooled != null) {
+                synchronized (mPooled) {
+                    mPooled.remove(instance);
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @return The number of {@link #acquire} calls that returned an instance, across all
+         * threads.
+         */
+        public long getHitCount() {
+            long hits = 0;
+            for (int i = 0; i < mCounts.length(); i += STRIPE_STRIDE) {
+                hits += mCounts.get(i);
+            }
+            return hits;
+        }
+
+        /**
+         * @return The number of {@link #acquire} calls that returned null, across all threads.
+         */
+        public long getMissCount() {
+            long misses = 0;
+            for (int i = 0; i < mCounts.length(); i += STRIPE_STRIDE) {
+                misses += mCounts.get(i + 1);
+            }
+            return misses;
+        }
+
+        /**
+         * Gives the calling thread's cache a slot, reclaiming the slots of terminated threads.
+         *
+         * @return false if all slots belong to live threads.
+         */
+        private boolean registerThreadCache(ThreadCache cache) {
+            boolean registered = false;
+            for (int i = 0; i < mThreadCaches.length(); i++) {
+                ThreadCache current = mThreadCaches.get(i);
+                if (current != null && !current.isOwnerAlive()) {
+                    ThreadCache replacement = registered ? null : cache;
+                    if (mThreadCaches.compareAndSet(i, current, replacement)) {
+                        registered = registered || replacement != null;
+                        reclaim(current);
+                    }
+                } else if (current == null && !registered
+                        && mThreadCaches.compareAndSet(i, null, cache)) {
+                    registered = true;
+                }
+            }
+            return registered;
+        }
+
+        /** Moves the instances held by the cache of a terminated thread to the shared pool. */
+        private void reclaim(ThreadCache cache) {
+            for (int i = 0; i < cache.mSize; i++) {
+                Object instance = cache.mItems[i];
+                cache.mItems[i] = null;
+                if (!releaseShared(instance) && mPooled != null) {
+                    synchronized (mPooled) {
+                        mPooled.remove(instance);
+                    }
+                }
+            }
+            cache.mSize = 0;
+        }
+
+        private Object acquireShared() {
+            if (mSharedSize.get() == 0) {
+                return null;
+            }
+            for (int i = 0; i < mShared.length(); i++) {
+                Object instance = mShared.get(i);
+                if (instance != null && mShared.compareAndSet(i, instance, null)) {
+                    mSharedSize.decrementAndGet();
+                    return instance;
+                }
+            }
+            return null;
+        }
+
+        private boolean releaseShared(Object instance) {
+            if (mSharedSize.get() >= mShared.length()) {
+                return false;
+            }
+            for (int i = 0; i < mShared.length(); i++) {
+                if (mShared.get(i) == null && mShared.compareAndSet(i, null, instance)) {
+                    mSharedSize.incrementAndGet();
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static final class ThreadCache {
+            final Object[] mItems;
+            int mSize;
+            final int mCounterIndex;
+            private final WeakReference<Thread> mOwner;
+
+            ThreadCache(int size, int counterIndex) {
+                mItems = new Object[size];
+                mCounterIndex = counterIndex;
+                mOwner = new WeakReference<>(Thread.currentThread());
+            }
+
+            // Seeing the owner terminated also makes its last writes to the cache visible.
+            boolean isOwnerAlive() {
+                Thread owner = mOwner.get();
+                return owner != null && owner.isAlive();
+            }
+        }
+    }
 }
@@ -66,4 +66,45 @@ public object DataStoreFactory {
             initTasksList = listOf(DataMigrationInitializer.getInitializer(migrations)),
             scope = scope
         )
+
+    /**
+     * Create an instance of SingleProcessDataStore that appends updates to a journal instead of
+     * rewriting the whole file on every update. Each update appends the delta written by
+     * [DeltaSerializer.writeDelta] along with its checksum to a journal file next to the file
+     * returned by produceFile, and the journal is compacted into the file once it grows large
+     * enough. Never create more than one instance of DataStore for a given file; doing so can
+     * break all DataStore functionality.
+     *
+     * T is the type DataStore acts on. The type T must be immutable.
+     *
+     * @param serializer DeltaSerializer for the type T used with DataStore. The type T must be
+     * immutable.
+     * @param corruptionHandler The corruptionHandler is invoked if DataStore encounters a
+     * [CorruptionException] when attempting to read data. CorruptionExceptions are thrown by
+     * serializers when data can not be de-serialized.
+     * @param migrations Migrations are run before any access to data can occur. Migrations must
+     * be idempotent.
+     * @param scope The scope in which IO operations and transform functions will execute.
+     * @param produceFile Function which returns the file that the new DataStore will act on. The
+     * function must return the same path every time. No two instances of DataStore should act on
+     * the same file at the same time.
+     *
+     * @return a new DataStore instance with the provided configuration
+     */
+    @JvmOverloads // Generate constructors for default params for java users.
+    public fun <T> createJournaled(
+        serializer: DeltaSerializer<T>,
+        corruptionHandler: ReplaceFileCorruptionHandler<T>? = null,
+        migrations: List<DataMigration<T>> = listOf(),
+        scope: CoroutineScope = CoroutineScope(Dispatchers.IO + SupervisorJob()),
+        produceFile: () -> File
+    ): DataStore<T> =
+        SingleProcessDataStore(
+            produceFile = produceFile,
+            serializer = serializer,
+            corruptionHandler = corruptionHandler ?: NoOpCorruptionHandler(),
+            initTasksList = listOf(DataMigrationInitializer.getInitializer(migrations)),
+            scope = scope,
+            journalCompactionThreshold = DeltaJournal.DEFAULT_COMPACTION_THRESHOLD
+        )
 }
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.datastore.core
+
+import java.io.BufferedInputStream
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.File
+import java.io.FileInputStream
+import java.io.FileOutputStream
+import java.io.IOException
+import java.io.RandomAccessFile
+import java.util.zip.CRC32
+
+/**
+ * Append-only journal of the deltas written by a [DeltaSerializer] on top of the file of a
+ * [SingleProcessDataStore]. This is NOT thread safe, it must only be used from the actor of its
+ * DataStore.
+ *
+ * The journal starts with a header identifying the snapshot it applies to, that is the length and
+ * CRC32 of the DataStore file, followed by records made of the size and CRC32 of a delta and the
+ * delta itself. A journal whose header does not match the snapshot is left over from a compaction
+ * that was interrupted after writing the new snapshot and is ignored. Records are replayed up to
+ * the first truncated or corrupted one, which can only be the result of an interrupted append.
+ */
+internal class DeltaJournal<T>(
+    private val journalFile: File,
+    private val serializer: DeltaSerializer<T>,
+    /**
+     * The size in bytes past which the journal should be compacted into a new snapshot.
+     */
+    private val compactionThreshold: Long
+) {
+    /**
+     * The size of the valid part of the journal file, or UNKNOWN_LENGTH if the journal can not be
+     * appended to until a new snapshot is written.
+     */
+    private var length: Long = UNKNOWN_LENGTH
+    private var snapshotLength: Long = 0
+    private var snapshotChecksum: Long = 0
+
+    /** Whether [append] can be called, otherwise the next update must write a new snapshot. */
+    val canAppend: Boolean
+        get() = length != UNKNOWN_LENGTH
+
+    /** Whether the journal has grown past its compaction threshold. */
+    val needsCompaction: Boolean
+        get() = length > compactionThreshold
+
+    /**
+     * Applies the records of the journal to the snapshot read from the DataStore file, and drops
+     * any stale or corrupted part of the journal so that new records can be appended to it.
+     *
+     * @param snapshot the value read from the DataStore file
+     * @param snapshotLength the length of the DataStore file
+     * @param snapshotChecksum the CRC32 of the content of the DataStore file
+     * @return the snapshot with the records of the journal applied
+     */
+    fun replay(snapshot: T, snapshotLength: Long, snapshotChecksum: Long): T {
+        this.snapshotLength = snapshotLength
+        this.snapshotChecksum = snapshotChecksum
+        length = UNKNOWN_LENGTH
+
+        val journalLength = journalFile.length()
+        var value = snapshot
+        var validLength = 0L
+        if (journalLength > 0) {
+            DataInputStream(BufferedInputStream(FileInputStream(journalFile))).use { input ->
+                if (readHeader(input, journalLength)) {
+                    validLength = HEADER_SIZE
+                    while (true) {
+                        val delta = readRecord(input, journalLength - validLength) ?: break
+                        value = serializer.applyDelta(value, ByteArrayInputStream(delta))
+                        validLength += RECORD_HEADER_SIZE + delta.size
+                    }
+                }
+            }
+        }
+
+        length = if (validLength == journalLength) validLength else truncate(validLength)
+        return value
+    }
+
+    /**
+     * Appends the delta between two values to the journal and syncs it to disk.
+     */
+    fun append(oldValue: T, newValue: T) {
+        check(canAppend) { "The journal must be replayed or reset before appending to it." }
+
+        val delta = ByteArrayOutputStream()
+        serializer.writeDelta(oldValue, newValue, delta)
+        val deltaBytes = delta.toByteArray()
+
+        val record = ByteArrayOutputStream(
+            (HEADER_SIZE + RECORD_HEADER_SIZE).toInt() + deltaBytes.size
+        )
+        DataOutputStream(record).run {
+            if (length == 0L) {
+                writeInt(MAGIC)
+                writeLong(snapshotLength)
+                writeLong(snapshotChecksum)
+            }
+            writeInt(deltaBytes.size)
+            writeInt(checksumOf(deltaBytes))
+            write(deltaBytes)
+        }
+
+        FileOutputStream(journalFile, /* append= */ true).use { stream ->
+            try {
+                record.writeTo(stream)
+                stream.fd.sync()
+            } catch (ex: IOException) {
+                // Drop the part of the record that was written so that the next record is not
+                // appended after a corrupted one. If that fails, stop appending until the next
+                // snapshot.
+                length = try {
+                    stream.channel.truncate(length)
+                    length
+                } catch (truncateEx: IOException) {
+                    ex.addSuppressed(truncateEx)
+                    UNKNOWN_LENGTH
+                }
+                throw ex
+            }
+        }
+        length += record.size()
+    }
+
+    /**
+     * Empties the journal after a new snapshot was written to the DataStore file.
+     *
+     * @param snapshotLength the length of the DataStore file
+     * @param snapshotChecksum the CRC32 of the content of the DataStore file
+     */
+    fun reset(snapshotLength: Long, snapshotChecksum: Long) {
+        this.snapshotLength = snapshotLength
+        this.snapshotChecksum = snapshotChecksum
+        length = if (journalFile.exists()) truncate(0) else 0
+    }
+
+    private fun readHeader(input: DataInputStream, available: Long): Boolean {
+        return available >= HEADER_SIZE &&
+            input.readInt() == MAGIC &&
+            input.readLong() == snapshotLength &&
+            input.readLong() == snapshotChecksum
+    }
+
+    private fun readRecord(input: DataInputStream, available: Long): ByteArray? {
+        if (available < RECORD_HEADER_SIZE) {
+            return null
+        }
+        val size = input.readInt()
+        val checksum = input.readInt()
+        if (size < 0 || size > available - RECORD_HEADER_SIZE) {
+            return null
+        }
+        val delta = ByteArray(size)
+        input.readFully(delta)
+        return if (checksumOf(delta) == checksum) delta else null
+    }
+
+    /**
+     * Truncates the journal file and returns its new length, or UNKNOWN_LENGTH if it could not be
+     * truncated.
+     */
+    private fun truncate(newLength: Long): Long {
+        return try {
+            RandomAccessFile(journalFile, "rw").use {
+                it.setLength(newLength)
+                it.fd.sync()
+            }
+            newLength
+        } catch (ex: IOException) {
+            UNKNOWN_LENGTH
+        }
+    }
+
+    private fun checksumOf(bytes: ByteArray): Int {
+        val crc = CRC32()
+        crc.update(bytes)
+        return crc.value.toInt()
+    }
+
+    internal companion object {
+        /** The compaction threshold used by [DataStoreFactory.createJournaled]. */
+        const val DEFAULT_COMPACTION_THRESHOLD: Long = 64 * 1024
+
+        private const val MAGIC = 0x44534a31 // "DSJ1"
+        private const val HEADER_SIZE: Long = 20
+        private const val RECORD_HEADER_SIZE: Long = 8
+        private const val UNKNOWN_LENGTH: Long = -1
+    }
+}
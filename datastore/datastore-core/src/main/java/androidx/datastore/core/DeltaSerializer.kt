@@ -0,0 +1,54 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.datastore.core
+
+import java.io.InputStream
+import java.io.OutputStream
+
+/**
+ * A [Serializer] that can also describe the difference between two values. DataStores created
+ * with [DataStoreFactory.createJournaled] append these differences to a journal instead of
+ * rewriting the whole file on every update, and periodically compact the journal into a full
+ * snapshot written with [writeTo].
+ *
+ * For any two values `a` and `b`, applying the delta written by `writeDelta(a, b, output)` to `a`
+ * with [applyDelta] must produce a value equal to `b`.
+ *
+ * The type T MUST be immutable. Mutable types will result in broken DataStore functionality.
+ */
+public interface DeltaSerializer<T> : Serializer<T> {
+
+    /**
+     * Marshal the changes that turn [oldValue] into [newValue] to a stream. Closing the provided
+     * OutputStream is a no-op.
+     *
+     * @param oldValue the value the delta applies to
+     * @param newValue the value the delta produces
+     * @param output the OutputStream to serialize the delta to
+     */
+    public fun writeDelta(oldValue: T, newValue: T, output: OutputStream)
+
+    /**
+     * Unmarshal a delta written by [writeDelta] from a stream and apply it to a value. Throw a
+     * [CorruptionException] if the delta can not be de-serialized.
+     *
+     * @param value the value to apply the delta to
+     * @param input the InputStream with the delta to deserialize
+     * @return the value with the delta applied
+     */
+    public fun applyDelta(value: T, input: InputStream): T
+}
@@ -45,6 +45,10 @@ import java.io.IOException
 import java.io.OutputStream
 import java.lang.IllegalStateException
 import java.util.concurrent.atomic.AtomicReference
+import java.util.zip.CRC32
+import java.util.zip.CheckedInputStream
+import java.util.zip.CheckedOutputStream
+import java.util.zip.Checksum
 import kotlin.coroutines.CoroutineContext
 import kotlin.coroutines.coroutineContext
 
@@ -72,9 +76,21 @@ internal class SingleProcessDataStore<T>(
      */
     initTasksList: List<suspend (api: InitializerApi<T>) -> Unit> = emptyList(),
     private val corruptionHandler: CorruptionHandler<T> = NoOpCorruptionHandler<T>(),
-    private val scope: CoroutineScope = CoroutineScope(Dispatchers.IO + SupervisorJob())
+    private val scope: CoroutineScope = CoroutineScope(Dispatchers.IO + SupervisorJob()),
+    /**
+     * If not null, the serializer must be a [DeltaSerializer] and updates are appended to a
+     * journal next to the file instead of rewriting the file. The journal is compacted into the
+     * file once it grows past this many bytes.
+     */
+    private val journalCompactionThreshold: Long? = null
 ) : DataStore<T> {
 
+    init {
+        require(journalCompactionThreshold == null || serializer is DeltaSerializer) {
+            "Journaling requires a DeltaSerializer."
+        }
+    }
+
     override val data: Flow<T> = flow {
         val curChannel = downstreamChannel()
         actor.offer(Message.Read(curChannel))
@@ -100,8 +116,22 @@ internal class SingleProcessDataStore<T>(
 
     private val SCRATCH_SUFFIX = ".tmp"
 
+    private val JOURNAL_SUFFIX = ".journal"
+
+    private val READ_BUFFER_SIZE = 4096
+
     private val file: File by lazy { produceFile() }
 
+    private val journal: DeltaJournal<T>? by lazy {
+        journalCompactionThreshold?.let {
+            DeltaJournal(
+                File(file.absolutePath + JOURNAL_SUFFIX),
+                serializer as DeltaSerializer<T>,
+                it
+            )
+        }
+    }
+
     /**
      * The external facing channel. The data flow emits the values from this channel.
      *
@@ -168,6 +198,7 @@ internal class SingleProcessDataStore<T>(
                             transformAndWrite(msg.transform, downstreamChannel(), msg.callerContext)
                         }
                     )
+                    compactJournalIfNeeded()
                 }
             }
         } finally {
@@ -207,7 +238,7 @@ internal class SingleProcessDataStore<T>(
 
                     val newData = transform(initData)
                     if (newData != initData) {
-                        writeData(newData)
+                        writeUpdate(initData, newData)
                         initData = newData
                     }
 
@@ -247,9 +278,30 @@ internal class SingleProcessDataStore<T>(
     }
 
     private suspend fun readData(): T {
+        val journal = journal ?: return readSnapshot(null)
+
+        val checksum = CRC32()
+        val snapshot = readSnapshot(checksum)
+        return journal.replay(snapshot, file.length(), checksum.value)
+    }
+
+    /**
+     * Reads the file, also computing the checksum of its whole content if checksum is not null.
+     */
+    private fun readSnapshot(checksum: Checksum?): T {
         try {
             FileInputStream(file).use { stream ->
-                return serializer.readFrom(stream)
+                if (checksum == null) {
+                    return serializer.readFrom(stream)
+                }
+                val checkedStream = CheckedInputStream(stream, checksum)
+                val snapshot = serializer.readFrom(checkedStream)
+                // The serializer does not have to read the file to the end.
+                val buffer = ByteArray(READ_BUFFER_SIZE)
+                while (checkedStream.read(buffer) != -1) {
+                    // Keep reading.
+                }
+                return snapshot
             }
         } catch (ex: FileNotFoundException) {
             if (file.exists()) {
@@ -281,12 +333,48 @@ internal class SingleProcessDataStore<T>(
         return if (curData == newData) {
             curData
         } else {
-            writeData(newData)
+            writeUpdate(curData, newData)
             updateDataChannel.offer(DataAndHash(newData, newData.hashCode()))
             newData
         }
     }
 
+    /**
+     * Persists an update from curData to newData, appending it to the journal if there is one.
+     *
+     * Internal only to prevent creation of synthetic accessor function. Do not call this from
+     * outside this class.
+     */
+    internal fun writeUpdate(curData: T, newData: T) {
+        val journal = journal
+        if (journal == null || !journal.canAppend) {
+            writeData(newData)
+            return
+        }
+
+        file.createParentDirectories()
+        journal.append(curData, newData)
+    }
+
+    /**
+     * Rewrites the file with the current data once the journal has grown past its compaction
+     * threshold. This runs after the update that grew the journal was acknowledged, so the
+     * caller of updateData does not wait on it.
+     */
+    private fun compactJournalIfNeeded() {
+        val journal = journal
+        if (journal == null || !journal.needsCompaction) {
+            return
+        }
+
+        val curData = downstreamChannel().valueOrNull ?: return
+        try {
+            writeData(curData.value)
+        } catch (ex: IOException) {
+            // The journal is still valid, compaction will be tried again after the next update.
+        }
+    }
+
     /**
      * Internal only to prevent creation of synthetic accessor function. Do not call this from
      * outside this class.
@@ -295,9 +383,14 @@ internal class SingleProcessDataStore<T>(
         file.createParentDirectories()
 
         val scratchFile = File(file.absolutePath + SCRATCH_SUFFIX)
+        val checksum = CRC32()
         try {
             FileOutputStream(scratchFile).use { stream ->
-                serializer.writeTo(newData, UncloseableOutputStream(stream))
+                val output = UncloseableOutputStream(stream)
+                serializer.writeTo(
+                    newData,
+                    if (journal != null) CheckedOutputStream(output, checksum) else output
+                )
                 stream.fd.sync()
                 // TODO(b/151635324): fsync the directory, otherwise a badly timed crash could
                 //  result in reverting to a previous state.
@@ -311,6 +404,8 @@ internal class SingleProcessDataStore<T>(
                         "datastore for this file."
                 )
             }
+
+            journal?.reset(file.length(), checksum.value)
         } catch (ex: IOException) {
             if (scratchFile.exists()) {
                 scratchFile.delete() // Swallow failure to delete
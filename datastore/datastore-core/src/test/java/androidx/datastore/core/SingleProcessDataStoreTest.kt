@@ -689,6 +689,70 @@ class SingleProcessDataStoreTest {
         dataStore.updateData { it.inc() }
     }
 
+    @Test
+    fun testJournaledUpdatesAppendToJournal() = runBlockingTest {
+        val journalFile = File(testFile.absolutePath + ".journal")
+        val journaledStore = newDataStore(journalCompactionThreshold = Long.MAX_VALUE)
+
+        journaledStore.updateData { 1 }
+        journaledStore.updateData { 2 }
+        journaledStore.updateData { 3 }
+
+        assertThat(testFile.length()).isEqualTo(0)
+        assertThat(journalFile.length()).isGreaterThan(0)
+        assertThat(journaledStore.data.first()).isEqualTo(3)
+
+        val newStore = newDataStore(journalCompactionThreshold = Long.MAX_VALUE)
+        assertThat(newStore.data.first()).isEqualTo(3)
+    }
+
+    @Test
+    fun testJournalCompactedPastThreshold() = runBlockingTest {
+        val journalFile = File(testFile.absolutePath + ".journal")
+        val journaledStore = newDataStore(journalCompactionThreshold = 0)
+
+        journaledStore.updateData { 1 }
+        journaledStore.updateData { 2 }
+
+        assertThat(testFile.readBytes()).isEqualTo(byteArrayOf(2))
+        assertThat(journalFile.length()).isEqualTo(0)
+        assertThat(newDataStore().data.first()).isEqualTo(2)
+    }
+
+    @Test
+    fun testJournalReplayStopsAtCorruptedRecord() = runBlockingTest {
+        val journalFile = File(testFile.absolutePath + ".journal")
+        newDataStore(journalCompactionThreshold = Long.MAX_VALUE).updateData { 1 }
+        val validLength = journalFile.length()
+        // A torn record, as left by a crash in the middle of an append.
+        journalFile.appendBytes(byteArrayOf(0, 0, 0, 1, 0x12, 0x34))
+
+        val newStore = newDataStore(journalCompactionThreshold = Long.MAX_VALUE)
+        assertThat(newStore.data.first()).isEqualTo(1)
+        assertThat(journalFile.length()).isEqualTo(validLength)
+
+        newStore.updateData { 2 }
+        assertThat(
+            newDataStore(journalCompactionThreshold = Long.MAX_VALUE).data.first()
+        ).isEqualTo(2)
+    }
+
+    @Test
+    fun testStaleJournalIgnored() = runBlockingTest {
+        newDataStore(journalCompactionThreshold = Long.MAX_VALUE).updateData { 1 }
+        // A new snapshot written by a compaction that was interrupted before the journal was
+        // emptied.
+        testFile.writeBytes(byteArrayOf(5))
+
+        val newStore = newDataStore(journalCompactionThreshold = Long.MAX_VALUE)
+        assertThat(newStore.data.first()).isEqualTo(5)
+
+        newStore.updateData { 6 }
+        assertThat(
+            newDataStore(journalCompactionThreshold = Long.MAX_VALUE).data.first()
+        ).isEqualTo(6)
+    }
+
     @Test
     fun testTransformRunInCallersContext() = runBlocking<Unit> {
         suspend fun getContext(): CoroutineContext {
@@ -786,14 +850,16 @@ class SingleProcessDataStoreTest {
         serializer: Serializer<Byte> = testingSerializer,
         scope: CoroutineScope = dataStoreScope,
         initTasksList: List<suspend (api: InitializerApi<Byte>) -> Unit> = listOf(),
-        corruptionHandler: CorruptionHandler<Byte> = NoOpCorruptionHandler<Byte>()
+        corruptionHandler: CorruptionHandler<Byte> = NoOpCorruptionHandler<Byte>(),
+        journalCompactionThreshold: Long? = null
     ): DataStore<Byte> {
         return SingleProcessDataStore(
             { file },
             serializer = serializer,
             scope = scope,
             initTasksList = initTasksList,
-            corruptionHandler = corruptionHandler
+            corruptionHandler = corruptionHandler,
+            journalCompactionThreshold = journalCompactionThreshold
         )
     }
 }
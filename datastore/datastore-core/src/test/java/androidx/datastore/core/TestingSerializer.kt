@@ -25,7 +25,7 @@ internal class TestingSerializer(
     @Volatile var failingRead: Boolean = false,
     @Volatile var failingWrite: Boolean = false,
     override val defaultValue: Byte = 0
-) : Serializer<Byte> {
+) : DeltaSerializer<Byte> {
     override fun readFrom(input: InputStream): Byte {
         if (failReadWithCorruptionException) {
             throw CorruptionException(
@@ -51,4 +51,12 @@ internal class TestingSerializer(
         }
         output.write(t.toInt())
     }
+
+    override fun writeDelta(oldValue: Byte, newValue: Byte, output: OutputStream) {
+        writeTo(newValue, output)
+    }
+
+    override fun applyDelta(value: Byte, input: InputStream): Byte {
+        return readFrom(input)
+    }
 }
\ No newline at end of file
@@ -21,7 +21,8 @@ import com.google.protobuf.InvalidProtocolBufferException
 import java.io.InputStream
 
 /**
- * Read PreferenceMap proto but convert InvalidProtocolBufferExceptions to CorruptionExceptions.
+ * Read PreferenceMap and PreferenceDelta protos but convert InvalidProtocolBufferExceptions to
+ * CorruptionExceptions.
  * @hide
  */
 class PreferencesMapCompat {
@@ -33,5 +34,13 @@ class PreferencesMapCompat {
                 throw CorruptionException("Unable to parse preferences proto.", ipbe)
             }
         }
+
+        fun readDeltaFrom(input: InputStream): PreferencesProto.PreferenceDelta {
+            return try {
+                PreferencesProto.PreferenceDelta.parseFrom(input)
+            } catch (ipbe: InvalidProtocolBufferException) {
+                throw CorruptionException("Unable to parse preferences delta proto.", ipbe)
+            }
+        }
     }
 }
\ No newline at end of file
@@ -66,15 +66,106 @@ public object PreferenceDataStoreFactory {
             migrations = migrations,
             scope = scope
         ) {
-            val file = produceFile()
-            check(file.extension == PreferencesSerializer.fileExtension) {
-                "File extension for file: $file does not match required extension for" +
-                    " Preferences file: ${PreferencesSerializer.fileExtension}"
-            }
-            file
+            checkExtension(produceFile())
+        }
+        return PreferenceDataStore(delegate)
+    }
+
+    /**
+     * Create an instance of SingleProcessDataStore that appends updates to a journal instead of
+     * rewriting the whole file on every update. Each update only appends the keys that were
+     * added, changed or removed, and the journal is compacted into the file once it grows large
+     * enough. Never create more than one instance of DataStore for a given file; doing so can
+     * break all DataStore functionality. You should consider managing your DataStore instance as
+     * a singleton.
+     *
+     * @param corruptionHandler The corruptionHandler is invoked if DataStore encounters a
+     * [CorruptionException] when attempting to read data. CorruptionExceptions are thrown by
+     * serializers when data cannot be de-serialized.
+     * @param migrations are run before any access to data can occur. Each producer and migration
+     * may be run more than once whether or not it already succeeded (potentially because another
+     * migration failed or a write to disk failed.)
+     * @param scope The scope in which IO operations and transform functions will execute.
+     * @param produceFile Function which returns the file that the new DataStore will act on.
+     * The function must return the same path every time. No two instances of PreferenceDataStore
+     * should act on the same file at the same time. The file must have the extension
+     * preferences_pb.
+     *
+     * @return a new DataStore instance with the provided configuration
+     */
+    @JvmOverloads
+    public fun createJournaled(
+        corruptionHandler: ReplaceFileCorruptionHandler<Preferences>? = null,
+        migrations: List<DataMigration<Preferences>> = listOf(),
+        scope: CoroutineScope = CoroutineScope(Dispatchers.IO + SupervisorJob()),
+        produceFile: () -> File
+    ): DataStore<Preferences> {
+        val delegate = DataStoreFactory.createJournaled(
+            serializer = PreferencesSerializer,
+            corruptionHandler = corruptionHandler,
+            migrations = migrations,
+            scope = scope
+        ) {
+            checkExtension(produceFile())
         }
         return PreferenceDataStore(delegate)
     }
+
+    /**
+     * Create a DataStore of Preferences whose keys are partitioned across several files. Each
+     * shard is an instance of SingleProcessDataStore with its own file, so updates to keys of
+     * different shards do not wait on each other, and collectors of
+     * [ShardedPreferenceDataStore.data] for some keys only receive new values when the shards of
+     * these keys change. Never create more than one instance of DataStore for a given set of
+     * files; doing so can break all DataStore functionality.
+     *
+     * @param shardCount The number of shards.
+     * @param shardForKey Function which returns the shard, between 0 and shardCount - 1, that
+     * owns the key with the given name. The function must return the same shard for a key every
+     * time. By default, keys are spread across shards by the hash code of their name.
+     * @param corruptionHandler The corruptionHandler is invoked if DataStore encounters a
+     * [CorruptionException] when attempting to read the data of a shard. CorruptionExceptions are
+     * thrown by serializers when data cannot be de-serialized.
+     * @param scope The scope in which IO operations and transform functions will execute.
+     * @param produceFile Function which returns the file of the given shard. The function must
+     * return the same path for a shard every time, and a different path for each shard. The files
+     * must have the extension preferences_pb.
+     *
+     * @return a new ShardedPreferenceDataStore instance with the provided configuration
+     */
+    @JvmOverloads
+    public fun createSharded(
+        shardCount: Int,
+        shardForKey: (name: String) -> Int = { name ->
+            (name.hashCode() and Int.MAX_VALUE) % shardCount
+        },
+        corruptionHandler: ReplaceFileCorruptionHandler<Preferences>? = null,
+        scope: CoroutineScope = CoroutineScope(Dispatchers.IO + SupervisorJob()),
+        produceFile: (shard: Int) -> File
+    ): ShardedPreferenceDataStore {
+        require(shardCount > 0) { "shardCount must be positive." }
+
+        val shards = List(shardCount) { shard ->
+            PreferenceDataStore(
+                DataStoreFactory.create(
+                    serializer = PreferencesSerializer,
+                    corruptionHandler = corruptionHandler,
+                    scope = scope
+                ) {
+                    checkExtension(produceFile(shard))
+                }
+            )
+        }
+        return ShardedPreferenceDataStore(shards, shardForKey)
+    }
+
+    private fun checkExtension(file: File): File {
+        check(file.extension == PreferencesSerializer.fileExtension) {
+            "File extension for file: $file does not match required extension for" +
+                " Preferences file: ${PreferencesSerializer.fileExtension}"
+        }
+        return file
+    }
 }
 
 internal class PreferenceDataStore(private val delegate: DataStore<Preferences>) :
@@ -17,10 +17,11 @@
 package androidx.datastore.preferences.core
 
 import androidx.datastore.core.CorruptionException
+import androidx.datastore.core.DeltaSerializer
+import androidx.datastore.preferences.PreferencesProto.PreferenceDelta
 import androidx.datastore.preferences.PreferencesProto.PreferenceMap
 import androidx.datastore.preferences.PreferencesProto.Value
 import androidx.datastore.preferences.PreferencesProto.StringSet
-import androidx.datastore.core.Serializer
 import androidx.datastore.preferences.PreferencesMapCompat
 import java.io.IOException
 import java.io.InputStream
@@ -28,12 +29,13 @@ import java.io.OutputStream
 import kotlin.jvm.Throws
 
 /**
- * Proto based serializer for Preferences.
+ * Proto based serializer for Preferences. Deltas are written as the keys that were added or
+ * changed along with their new values, and the keys that were removed.
  *
  * TODO(b/156533452): this is a temporary implementation to allow for development. This will be
  * replaced before launching.
  */
-internal object PreferencesSerializer : Serializer<Preferences> {
+internal object PreferencesSerializer : DeltaSerializer<Preferences> {
     val fileExtension = "preferences_pb"
 
     override val defaultValue: Preferences
@@ -66,6 +68,42 @@ internal object PreferencesSerializer : Serializer<Preferences> {
         protoBuilder.build().writeTo(output)
     }
 
+    @Throws(IOException::class, CorruptionException::class)
+    override fun writeDelta(oldValue: Preferences, newValue: Preferences, output: OutputStream) {
+        val oldPreferences = oldValue.asMap()
+        val newPreferences = newValue.asMap()
+        val deltaBuilder = PreferenceDelta.newBuilder()
+
+        for ((key, value) in newPreferences) {
+            if (oldPreferences[key] != value) {
+                deltaBuilder.putPuts(key.name, getValueProto(value))
+            }
+        }
+        for (key in oldPreferences.keys) {
+            if (key !in newPreferences) {
+                deltaBuilder.addRemoves(key.name)
+            }
+        }
+
+        deltaBuilder.build().writeTo(output)
+    }
+
+    @Throws(IOException::class, CorruptionException::class)
+    override fun applyDelta(value: Preferences, input: InputStream): Preferences {
+        val deltaProto = PreferencesMapCompat.readDeltaFrom(input)
+
+        val mutablePreferences = value.toMutablePreferences()
+
+        deltaProto.removesList.forEach { name ->
+            mutablePreferences.remove(Preferences.Key<Any>(name))
+        }
+        deltaProto.putsMap.forEach { (name, valueProto) ->
+            addProtoEntryToPreferences(name, valueProto, mutablePreferences)
+        }
+
+        return mutablePreferences.toPreferences()
+    }
+
     private fun getValueProto(value: Any): Value {
         return when (value) {
             is Boolean -> Value.newBuilder().setBoolean(value).build()
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.datastore.preferences.core
+
+import androidx.datastore.core.DataStore
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.combine
+
+/**
+ * A DataStore of Preferences whose keys are partitioned across several shards, each backed by its
+ * own file and serializing its own updates. Create instances with
+ * [PreferenceDataStoreFactory.createSharded].
+ *
+ * [data] and [updateData] act on all the shards. Use [data] and [updateData] with a set of keys
+ * to only act on the shards that own these keys: collectors only receive new values when one of
+ * these shards changes, and updates only wait on updates to the same shards.
+ *
+ * Updates that span several shards are not atomic. The shards are updated in order and, if
+ * writing one of them fails, the shards written before it keep their new data.
+ */
+public class ShardedPreferenceDataStore internal constructor(
+    private val shards: List<DataStore<Preferences>>,
+    private val shardForKey: (name: String) -> Int
+) : DataStore<Preferences> {
+
+    /** The number of shards of this DataStore. */
+    public val shardCount: Int
+        get() = shards.size
+
+    private val allShards: List<Int> = shards.indices.toList()
+
+    /**
+     * The preferences of all the shards. A new value is emitted whenever any shard changes.
+     */
+    override val data: Flow<Preferences> = shardData(allShards)
+
+    /**
+     * Returns the preferences of the shards that own the given keys. A new value is only emitted
+     * when one of these shards changes. The preferences also contain the other keys of these
+     * shards.
+     *
+     * @param keys the keys to read
+     */
+    public fun data(keys: Collection<Preferences.Key<*>>): Flow<Preferences> =
+        shardData(shardsOf(keys))
+
+    /**
+     * Updates the preferences of all the shards. This waits on pending updates to any shard, and
+     * only the shards whose preferences changed are written.
+     */
+    override suspend fun updateData(
+        transform: suspend (t: Preferences) -> Preferences
+    ): Preferences = updateShards(allShards, 0, emptyList(), transform)
+
+    /**
+     * Updates the preferences of the shards that own the given keys. This only waits on pending
+     * updates to these shards, so updates to keys of unrelated shards proceed concurrently.
+     *
+     * @param keys the keys to update
+     * @param transform block which accepts the preferences of the shards that own the keys,
+     * including their other keys. The returned preferences must only contain keys owned by these
+     * shards.
+     * @throws IllegalArgumentException if the returned preferences contain a key owned by another
+     * shard
+     */
+    public suspend fun updateData(
+        keys: Collection<Preferences.Key<*>>,
+        transform: suspend (t: Preferences) -> Preferences
+    ): Preferences = updateShards(shardsOf(keys), 0, emptyList(), transform)
+
+    /**
+     * Edits the preferences of the shards that own the given keys, like
+     * [androidx.datastore.preferences.core.edit] does for a whole DataStore.
+     *
+     * @param keys the keys to edit
+     * @param transform block which accepts MutablePreferences that contains the preferences of
+     * the shards that own the keys. Changes to this MutablePreferences object will be persisted
+     * once transform completes.
+     */
+    public suspend fun edit(
+        keys: Collection<Preferences.Key<*>>,
+        transform: suspend (MutablePreferences) -> Unit
+    ): Preferences {
+        return updateData(keys) {
+            it.toMutablePreferences().apply { transform(this) }
+        }
+    }
+
+    private fun shardData(shardIndices: List<Int>): Flow<Preferences> {
+        if (shardIndices.size == 1) {
+            return shards[shardIndices[0]].data
+        }
+        return combine(shardIndices.map { shards[it].data }) { merge(it.asList()) }
+    }
+
+    /**
+     * Updates the shards from position onwards while holding the updates of the shards before
+     * it, whose current data is shardData. Shards are always entered in increasing order so that
+     * concurrent updates of overlapping shards can not deadlock.
+     */
+    private suspend fun updateShards(
+        shardIndices: List<Int>,
+        position: Int,
+        shardData: List<Preferences>,
+        transform: suspend (t: Preferences) -> Preferences
+    ): Preferences {
+        if (position == shardIndices.size) {
+            val transformed = transform(merge(shardData))
+            checkShards(transformed, shardIndices)
+            // Freeze the preferences since they are returned by updateData. This is a safe cast,
+            // since MutablePreferences is the only implementation of Preferences.
+            (transformed as MutablePreferences).freeze()
+            return transformed
+        }
+
+        val shard = shardIndices[position]
+        var newData: Preferences? = null
+        shards[shard].updateData { curData ->
+            val transformed =
+                updateShards(shardIndices, position + 1, shardData + curData, transform)
+            newData = transformed
+            shardPart(transformed, shard)
+        }
+        return newData!!
+    }
+
+    private fun checkShards(preferences: Preferences, shardIndices: List<Int>) {
+        for (key in preferences.asMap().keys) {
+            val shard = shardOf(key.name)
+            require(shard in shardIndices) {
+                "Key ${key.name} belongs to shard $shard which is not being updated."
+            }
+        }
+    }
+
+    private fun shardPart(preferences: Preferences, shard: Int): MutablePreferences {
+        val part = MutablePreferences(startFrozen = false)
+        for ((key, value) in preferences.asMap()) {
+            if (shardOf(key.name) == shard) {
+                part.setUnchecked(key, value)
+            }
+        }
+        return part
+    }
+
+    private fun shardsOf(keys: Collection<Preferences.Key<*>>): List<Int> {
+        require(keys.isNotEmpty()) { "At least one key is required." }
+        return keys.map { shardOf(it.name) }.distinct().sorted()
+    }
+
+    private fun shardOf(name: String): Int {
+        val shard = shardForKey(name)
+        check(shard in shards.indices) {
+            "Key $name was assigned to shard $shard but there are only ${shards.size} shards."
+        }
+        return shard
+    }
+
+    private fun merge(shardData: List<Preferences>): Preferences {
+        if (shardData.size == 1) {
+            return shardData[0]
+        }
+        val merged = MutablePreferences(startFrozen = false)
+        shardData.forEach { merged += it }
+        merged.freeze()
+        return merged
+    }
+}
@@ -69,6 +69,33 @@ class PreferenceDataStoreFactoryTest {
         assertEquals(expectedPreferences, store.data.first())
     }
 
+    @Test
+    fun testNewJournaledInstance() = runBlockingTest {
+        val store = PreferenceDataStoreFactory.createJournaled(
+            scope = dataStoreScope
+        ) { testFile }
+
+        store.edit { prefs ->
+            prefs[stringKey] = "value"
+        }
+
+        val expectedPreferences =
+            preferencesOf(stringKey to "value2")
+
+        assertEquals(
+            store.edit { prefs ->
+                prefs[stringKey] = "value2"
+            },
+            expectedPreferences
+        )
+        assertEquals(expectedPreferences, store.data.first())
+
+        val newStore = PreferenceDataStoreFactory.createJournaled(
+            scope = dataStoreScope
+        ) { testFile }
+        assertEquals(expectedPreferences, newStore.data.first())
+    }
+
     @Test
     fun testCorruptionHandlerInstalled() = runBlockingTest {
         testFile.writeBytes(byteArrayOf(0x00, 0x00, 0x00, 0x03)) // Protos can not start with 0x00.
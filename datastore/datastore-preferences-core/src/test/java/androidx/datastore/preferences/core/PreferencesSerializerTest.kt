@@ -177,6 +177,46 @@ class PreferencesSerializerTest {
         assertEquals(prefs, readPrefs)
     }
 
+    @Test
+    fun testWriteAndApplyDelta() {
+        val stringKey = stringPreferencesKey("string_key")
+        val intKey = intPreferencesKey("int_key")
+        val booleanKey = booleanPreferencesKey("boolean_key")
+
+        val oldPrefs = preferencesOf(
+            stringKey to "string1",
+            intKey to 1,
+            booleanKey to true
+        )
+        val newPrefs = preferencesOf(
+            stringKey to "string1",
+            intKey to 2,
+            stringSetPreferencesKey("string_set_key") to setOf("string2")
+        )
+
+        testFile.outputStream().use {
+            preferencesSerializer.writeDelta(oldPrefs, newPrefs, it)
+        }
+
+        val appliedPrefs = testFile.inputStream().use {
+            preferencesSerializer.applyDelta(oldPrefs, it)
+        }
+
+        assertEquals(newPrefs, appliedPrefs)
+    }
+
+    @Test
+    fun testApplyDeltaThrowsCorruptionException() {
+        // Not a valid proto - protos cannot start with a 0 byte.
+        testFile.writeBytes(byteArrayOf(0, 1, 2, 3, 4))
+
+        assertFailsWith<CorruptionException> {
+            testFile.inputStream().use {
+                preferencesSerializer.applyDelta(emptyPreferences(), it)
+            }
+        }
+    }
+
     @Test
     fun testThrowsCorruptionException() {
         // Not a valid proto - protos cannot start with a 0 byte.
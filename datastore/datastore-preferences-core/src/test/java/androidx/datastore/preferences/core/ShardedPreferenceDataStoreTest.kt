@@ -0,0 +1,163 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.datastore.preferences.core
+
+import kotlinx.coroutines.CompletableDeferred
+import kotlinx.coroutines.FlowPreview
+import kotlinx.coroutines.ObsoleteCoroutinesApi
+import kotlinx.coroutines.async
+import kotlinx.coroutines.flow.first
+import kotlinx.coroutines.flow.toList
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.test.TestCoroutineScope
+import kotlinx.coroutines.test.runBlockingTest
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import java.io.File
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertFalse
+
+@ObsoleteCoroutinesApi
+@kotlinx.coroutines.ExperimentalCoroutinesApi
+@FlowPreview
+class ShardedPreferenceDataStoreTest {
+    @get:Rule
+    val tmp = TemporaryFolder()
+
+    private lateinit var shardFiles: List<File>
+    private lateinit var dataStoreScope: TestCoroutineScope
+    private lateinit var store: ShardedPreferenceDataStore
+
+    private val accountKey = stringPreferencesKey("account_name")
+    private val accountCountKey = intPreferencesKey("account_count")
+    private val flagKey = booleanPreferencesKey("flag_enabled")
+
+    @Before
+    fun setUp() {
+        shardFiles = List(2) { tmp.newFile("shard$it." + PreferencesSerializer.fileExtension) }
+        dataStoreScope = TestCoroutineScope()
+        store = newStore()
+    }
+
+    @Test
+    fun testUpdatesAreWrittenToTheirShard() = runBlockingTest {
+        store.edit(listOf(accountKey)) { it[accountKey] = "name" }
+        store.edit(listOf(flagKey)) { it[flagKey] = true }
+
+        val expectedPreferences = preferencesOf(accountKey to "name", flagKey to true)
+        assertEquals(expectedPreferences, store.data.first())
+
+        assertEquals(
+            preferencesOf(accountKey to "name"),
+            shardFiles[0].inputStream().use { PreferencesSerializer.readFrom(it) }
+        )
+        assertEquals(
+            preferencesOf(flagKey to true),
+            shardFiles[1].inputStream().use { PreferencesSerializer.readFrom(it) }
+        )
+
+        assertEquals(expectedPreferences, newStore().data.first())
+    }
+
+    @Test
+    fun testUpdateAllShards() = runBlockingTest {
+        val updated = store.updateData {
+            it.toMutablePreferences().apply {
+                this[accountKey] = "name"
+                this[flagKey] = true
+            }
+        }
+
+        val expectedPreferences = preferencesOf(accountKey to "name", flagKey to true)
+        assertEquals(expectedPreferences, updated)
+        assertEquals(expectedPreferences, newStore().data.first())
+    }
+
+    @Test
+    fun testShardDataOnlyEmitsForItsShard() = runBlockingTest {
+        val collected = mutableListOf<Preferences>()
+        val job = launch {
+            store.data(listOf(accountKey)).toList(collected)
+        }
+
+        store.edit(listOf(flagKey)) { it[flagKey] = true }
+        store.edit(listOf(accountKey)) { it[accountKey] = "name" }
+        job.cancel()
+
+        assertEquals(
+            listOf(emptyPreferences(), preferencesOf(accountKey to "name")),
+            collected
+        )
+    }
+
+    @Test
+    fun testUpdateDataWithKeysIncludesOtherKeysOfTheShard() = runBlockingTest {
+        store.edit(listOf(accountKey)) { it[accountKey] = "name" }
+
+        val updated = store.edit(listOf(accountCountKey)) { it[accountCountKey] = 1 }
+
+        assertEquals(preferencesOf(accountKey to "name", accountCountKey to 1), updated)
+    }
+
+    @Test
+    fun testUpdateDataWithKeyOfOtherShardFails() = runBlockingTest {
+        assertFailsWith<IllegalArgumentException> {
+            store.edit(listOf(accountKey)) {
+                it[accountKey] = "name"
+                it[flagKey] = true
+            }
+        }
+
+        assertEquals(emptyPreferences(), store.data.first())
+    }
+
+    @Test
+    fun testUpdatesToDifferentShardsDoNotWaitOnEachOther() = runBlockingTest {
+        val accountUpdateStarted = CompletableDeferred<Unit>()
+        val finishAccountUpdate = CompletableDeferred<Unit>()
+
+        val accountUpdate = async {
+            store.edit(listOf(accountKey)) {
+                accountUpdateStarted.complete(Unit)
+                finishAccountUpdate.await()
+                it[accountKey] = "name"
+            }
+        }
+        accountUpdateStarted.await()
+
+        store.edit(listOf(flagKey)) { it[flagKey] = true }
+        assertFalse(accountUpdate.isCompleted)
+
+        finishAccountUpdate.complete(Unit)
+        accountUpdate.await()
+        assertEquals(
+            preferencesOf(accountKey to "name", flagKey to true),
+            store.data.first()
+        )
+    }
+
+    private fun newStore(): ShardedPreferenceDataStore {
+        return PreferenceDataStoreFactory.createSharded(
+            shardCount = 2,
+            shardForKey = { name -> if (name.startsWith("account")) 0 else 1 },
+            scope = dataStoreScope
+        ) { shard -> shardFiles[shard] }
+    }
+}
@@ -278,6 +278,9 @@ public abstract class LiveData<T> {
      * <p>
      * If you called this method multiple times before a main thread executed a posted task, only
      * the last value would be dispatched.
+     * <p>
+     * If {@link LiveDataFrameDispatcher} is enabled, the task runs on the next frame, together with
+     * the tasks of the other LiveData values posted before that frame.
      *
      * @param value The new value
      */
@@ -290,6 +293,9 @@ public abstract class LiveData<T> {
         if (!postTask) {
             return;
         }
+        if (LiveDataFrameDispatcher.enqueue(mPostValueRunnable)) {
+            return;
+        }
         ArchTaskExecutor.getInstance().postToMainThread(mPostValueRunnable);
     }
 
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.lifecycle;
+
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.arch.core.executor.ArchTaskExecutor;
+
+import java.util.ArrayList;
+
+/**
+ * Delivers the values posted with {@link LiveData#postValue(Object)} once per frame.
+ * <p>
+ * By default, each {@link LiveData} posts its own task to the main thread when a value is posted
+ * from a background thread. When many {@link LiveData}s are updated together, for example after a
+ * database transaction, their observers run in as many separate main thread messages.
+ * <p>
+ * Once {@link #enable() enabled}, the values posted to any {@link LiveData} are instead delivered
+ * together, in the order they were first posted, on the next frame of the main thread
+ * {@link Choreographer}. As with {@link LiveData#postValue(Object)}, only the last value posted to
+ * a {@link LiveData} before the frame is delivered. Values posted while observers are notified are
+ * delivered on the following frame. If an observer throws, the values not delivered yet are
+ * delivered on the following frame, before the values posted since.
+ * <p>
+ * No frames are drawn while the display is off. Pending values are then delivered on the main
+ * thread after a short timeout instead, so they may be delayed by up to a tenth of a second.
+ * <p>
+ * Values set with {@link LiveData#setValue(Object)} are always dispatched immediately.
+ */
+public final class LiveDataFrameDispatcher {
+
+    /**
+     * Listener notified after the values pending for a frame are delivered.
+     */
+    public interface FrameListener {
+        /**
+         * Called on the main thread after the values pending for a frame are delivered.
+         *
+         * @param valueCount        The number of {@link LiveData} whose value was delivered
+         * @param dispatchTimeNanos The time spent delivering the values to observers
+         */
+        void onFrameDispatched(int valueCount, long dispatchTimeNanos);
+    }
+
+    /**
+     * Schedules a single run of a task on the main thread.
+     */
+    interface FrameScheduler {
+        void scheduleFrame(@NonNull Runnable frame);
+    }
+
+    /**
+     * The longest time pending values wait for a frame, in milliseconds.
+     */
+    static final long FRAME_TIMEOUT_MS = 100;
+
+    private static final Object sLock = new Object();
+
+    @GuardedBy("sLock")
+    @Nullable
+    private static FrameScheduler sScheduler;
+
+    @GuardedBy("sLock")
+    private static boolean sFrameScheduled;
+
+    // Values posted for the next frame, swapped with sSpare when the frame runs.
+    @GuardedBy("sLock")
+    private static ArrayList<Runnable> sPending = new ArrayList<>();
+
+    @GuardedBy("sLock")
+    private static ArrayList<Runnable> sSpare = new ArrayList<>();
+
+    @Nullable
+    private static volatile FrameListener sFrameListener;
+
+    private static final Runnable sDispatchFrame = new Runnable() {
+        @Override
+        public void run() {
+            dispatchFrame();
+        }
+    };
+
+    private LiveDataFrameDispatcher() {
+    }
+
+    /**
+     * Starts delivering the values posted to any {@link LiveData} once per frame.
+     */
+    @MainThread
+    public static void enable() {
+        LiveData.assertMainThread("enable");
+        if (Build.VERSION.SDK_INT >= 16) {
+            enable(new ChoreographerFrameScheduler());
+        } else {
+            enable(new FrameScheduler() {
+                @Override
+                public void scheduleFrame(@NonNull Runnable frame) {
+                    ArchTaskExecutor.getInstance().postToMainThread(frame);
+                }
+            });
+        }
+    }
+
+    @VisibleForTesting
+    static void enable(@NonNull FrameScheduler scheduler) {
+        synchronized (sLock) {
+            if (sScheduler != null) {
+                return;
+            }
+            sScheduler = scheduler;
+        }
+    }
+
+    /**
+     * Stops delivering posted values once per frame. Values already pending are delivered on the
+     * next frame.
+     */
+    @MainThread
+    public static void disable() {
+        LiveData.assertMainThread("disable");
+        synchronized (sLock) {
+            sScheduler = null;
+        }
+    }
+
+    /**
+     * Returns true if posted values are delivered once per frame.
+     */
+    public static boolean isEnabled() {
+        synchronized (sLock) {
+            return sScheduler != null;
+        }
+    }
+
+    /**
+     * Sets the listener notified after the values pending for a frame are delivered, replacing
+     * the previous one.
+     *
+     * @param listener The listener, or null to remove the current one
+     */
+    public static void setFrameListener(@Nullable FrameListener listener) {
+        sFrameListener = listener;
+    }
+
+    /**
+     * Adds a task setting a posted value to the next frame.
+     *
+     * @return false if the task should be posted to the main thread as usual instead.
+     */
+    static boolean enqueue(@NonNull Runnable setPendingValue) {
+        synchronized (sLock) {
+            if (sScheduler == null && !sFrameScheduled) {
+                return false;
+            }
+            sPending.add(setPendingValue);
+            scheduleFrameLocked();
+            return true;
+        }
+    }
+
+    @GuardedBy("sLock")
+    private static void scheduleFrameLocked() {
+        if (sFrameScheduled) {
+            return;
+        }
+        sFrameScheduled = true;
+        if (sScheduler != null) {
+            sScheduler.scheduleFrame(sDispatchFrame);
+        } else {
+            // Disabled with values still pending, deliver them as soon as possible.
+            ArchTaskExecutor.getInstance().postToMainThread(sDispatchFrame);
+        }
+    }
+
+    @SuppressWarnings("WeakerAccess") /* synthetic access */
+    static void dispatchFrame() {
+        ArrayList<Runnable> dispatching;
+        synchronized (sLock) {
+            dispatching = sPending;
+            sPending = sSpare;
+            sFrameScheduled = false;
+        }
+        long start = System.nanoTime();
+        int valueCount = dispatching.size();
+        int delivered = 0;
+        try {
+            while (delivered < valueCount) {
+                dispatching.get(delivered++).run();
+            }
+        } finally {
+            synchronized (sLock) {
+                if (delivered < valueCount) {
+                    // An observer threw, the values it interrupted go first on the next frame.
+                    sPending.addAll(0, dispatching.subList(delivered, valueCount));
+                    scheduleFrameLocked();
+                }
+                dispatching.clear();
+                sSpare = dispatching;
+            }
+        }
+        FrameListener listener = sFrameListener;
+        if (listener != null) {
+            listener.onFrameDispatched(valueCount, System.nanoTime() - start);
+        }
+    }
+
+    private static final class ChoreographerFrameScheduler implements FrameScheduler,
+            Choreographer.FrameCallback, Runnable {
+        private final Choreographer mChoreographer = Choreographer.getInstance();
+        private final Handler mHandler = new Handler(Looper.getMainLooper());
+        private volatile Runnable mFrame;
+
+        @Override
+        public void scheduleFrame(@NonNull Runnable frame) {
+            // Called under sLock, at most once per frame.
+            mFrame = frame;
+            mChoreographer.postFrameCallback(this);
+            // Choreographer doesn't call back while vsync is off, for example when the display
+            // is off, so the frame also runs if it isn't drawn in time.
+            mHandler.postDelayed(this, FRAME_TIMEOUT_MS);
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            mHandler.removeCallbacks(this);
+            mFrame.run();
+        }
+
+        @Override
+        public void run() {
+            mChoreographer.removeFrameCallback(this);
+            mFrame.run();
+        }
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.lifecycle;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import androidx.annotation.NonNull;
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.InOrder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@SuppressWarnings({"unchecked"})
+@RunWith(JUnit4.class)
+public class LiveDataFrameDispatcherTest {
+
+    @Rule
+    public InstantTaskExecutorRule mInstantTaskExecutorRule = new InstantTaskExecutorRule();
+
+    private final List<Runnable> mFrames = new ArrayList<>();
+    private final List<Integer> mFrameValueCounts = new ArrayList<>();
+
+    private final LiveDataFrameDispatcher.FrameScheduler mScheduler =
+            new LiveDataFrameDispatcher.FrameScheduler() {
+                @Override
+                public void scheduleFrame(@NonNull Runnable frame) {
+                    mFrames.add(frame);
+                }
+            };
+
+    private void enable() {
+        LiveDataFrameDispatcher.enable(mScheduler);
+        LiveDataFrameDispatcher.setFrameListener(new LiveDataFrameDispatcher.FrameListener() {
+            @Override
+            public void onFrameDispatched(int valueCount, long dispatchTimeNanos) {
+                assertThat(dispatchTimeNanos >= 0, is(true));
+                mFrameValueCounts.add(valueCount);
+            }
+        });
+    }
+
+    private void runFrame() {
+        assertThat(mFrames.isEmpty(), is(false));
+        mFrames.remove(0).run();
+    }
+
+    @After
+    public void disable() {
+        LiveDataFrameDispatcher.disable();
+        LiveDataFrameDispatcher.setFrameListener(null);
+        while (!mFrames.isEmpty()) {
+            runFrame();
+        }
+    }
+
+    @Test
+    public void postedValuesDeliveredOnFrame() {
+        enable();
+        MutableLiveData<String> first = new MutableLiveData<>();
+        MutableLiveData<String> second = new MutableLiveData<>();
+        Observer<String> firstObserver = (Observer<String>) mock(Observer.class);
+        Observer<String> secondObserver = (Observer<String>) mock(Observer.class);
+        first.observeForever(firstObserver);
+        second.observeForever(secondObserver);
+
+        first.postValue("a");
+        second.postValue("c");
+        first.postValue("b");
+        verify(firstObserver, never()).onChanged(anyString());
+        verify(secondObserver, never()).onChanged(anyString());
+        assertThat(mFrames.size(), is(1));
+
+        runFrame();
+        verify(firstObserver, never()).onChanged("a");
+        verify(firstObserver).onChanged("b");
+        verify(secondObserver).onChanged("c");
+        assertThat(mFrames.isEmpty(), is(true));
+        assertThat(mFrameValueCounts.size(), is(1));
+        assertThat(mFrameValueCounts.get(0), is(2));
+    }
+
+    @Test
+    public void valuesPostedDuringFrameDeliveredOnNextFrame() {
+        enable();
+        MutableLiveData<String> first = new MutableLiveData<>();
+        final MutableLiveData<String> second = new MutableLiveData<>();
+        Observer<String> secondObserver = (Observer<String>) mock(Observer.class);
+        first.observeForever(new Observer<String>() {
+            @Override
+            public void onChanged(String value) {
+                second.postValue(value + "!");
+            }
+        });
+        second.observeForever(secondObserver);
+
+        first.postValue("a");
+        runFrame();
+        verify(secondObserver, never()).onChanged(anyString());
+        assertThat(mFrames.size(), is(1));
+
+        runFrame();
+        verify(secondObserver).onChanged("a!");
+        assertThat(mFrameValueCounts.size(), is(2));
+    }
+
+    @Test
+    public void valuesInterruptedByThrowingObserverDeliveredOnNextFrame() {
+        enable();
+        MutableLiveData<String> first = new MutableLiveData<>();
+        MutableLiveData<String> second = new MutableLiveData<>();
+        final MutableLiveData<String> third = new MutableLiveData<>();
+        Observer<String> secondObserver = (Observer<String>) mock(Observer.class);
+        Observer<String> thirdObserver = (Observer<String>) mock(Observer.class);
+        first.observeForever(new Observer<String>() {
+            @Override
+            public void onChanged(String value) {
+                throw new IllegalStateException(value);
+            }
+        });
+        second.observeForever(secondObserver);
+        third.observeForever(thirdObserver);
+
+        first.postValue("a");
+        second.postValue("b");
+        try {
+            runFrame();
+            fail("The observer exception should be thrown by the frame");
+        } catch (IllegalStateException expected) {
+            assertThat(expected.getMessage(), is("a"));
+        }
+        verify(secondObserver, never()).onChanged(anyString());
+        assertThat(mFrames.size(), is(1));
+        assertThat(mFrameValueCounts.isEmpty(), is(true));
+
+        third.postValue("c");
+        runFrame();
+        InOrder inOrder = inOrder(secondObserver, thirdObserver);
+        inOrder.verify(secondObserver).onChanged("b");
+        inOrder.verify(thirdObserver).onChanged("c");
+        assertThat(mFrameValueCounts.get(0), is(2));
+
+        // The queues are still distinct, values posted during a frame wait for the next one.
+        second.observeForever(new Observer<String>() {
+            @Override
+            public void onChanged(String value) {
+                if (value.equals("d")) {
+                    third.postValue("e");
+                }
+            }
+        });
+        second.postValue("d");
+        runFrame();
+        verify(thirdObserver, never()).onChanged("e");
+        runFrame();
+        verify(thirdObserver).onChanged("e");
+        assertThat(mFrames.isEmpty(), is(true));
+    }
+
+    @Test
+    public void setValueDispatchedImmediately() {
+        enable();
+        MutableLiveData<String> liveData = new MutableLiveData<>();
+        Observer<String> observer = (Observer<String>) mock(Observer.class);
+        liveData.observeForever(observer);
+
+        liveData.setValue("a");
+        verify(observer).onChanged("a");
+        assertThat(mFrames.isEmpty(), is(true));
+    }
+
+    @Test
+    public void pendingValuesDeliveredAfterDisable() {
+        enable();
+        MutableLiveData<String> liveData = new MutableLiveData<>();
+        Observer<String> observer = (Observer<String>) mock(Observer.class);
+        liveData.observeForever(observer);
+
+        liveData.postValue("a");
+        LiveDataFrameDispatcher.disable();
+        assertThat(LiveDataFrameDispatcher.isEnabled(), is(false));
+        verify(observer, never()).onChanged(anyString());
+
+        runFrame();
+        verify(observer).onChanged("a");
+
+        // Not enabled anymore, so the value is posted to the main thread as usual.
+        liveData.postValue("b");
+        verify(observer).onChanged("b");
+        assertThat(mFrames.isEmpty(), is(true));
+    }
+}
@@ -30,6 +30,7 @@ import static org.junit.Assert.assertTrue;
 import android.app.PendingIntent;
 import android.content.Context;
 import android.content.Intent;
+import android.graphics.Bitmap;
 import android.media.AudioManager;
 import android.media.MediaFormat;
 import android.net.Uri;
@@ -68,6 +69,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
@@ -331,6 +333,49 @@ public class MediaControllerTest extends MediaSessionTestBase {
         TestUtils.assertMetadataEquals(testMetadata, controller.getPlaylistMetadata());
     }
 
+    @Test
+    public void loadMediaItemBitmaps() throws Exception {
+        final Bitmap art = Bitmap.createBitmap(8, 8, Bitmap.Config.ARGB_8888);
+        final List<MediaItem> testList = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            testList.add(new MediaItem.Builder()
+                    .setMetadata(new MediaMetadata.Builder()
+                            .putString(MediaMetadata.METADATA_KEY_MEDIA_ID, "item_" + i)
+                            .putBitmap(MediaMetadata.METADATA_KEY_ART, art)
+                            .build())
+                    .build());
+        }
+        final CountDownLatch latch = new CountDownLatch(1);
+        final ControllerCallback callback = new ControllerCallback() {
+            @Override
+            public void onPlaylistChanged(@NonNull MediaController controller,
+                    List<MediaItem> playlist, MediaMetadata metadata) {
+                latch.countDown();
+            }
+        };
+        MediaController controller = createController(mSession.getToken(), true, null, callback);
+        mPlayer.mPlaylist = testList;
+        mPlayer.notifyPlaylistChanged();
+        assertTrue(latch.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+
+        // Bitmaps aren't sent with the playlist, but their keys are kept.
+        MediaMetadata metadata = controller.getPlaylist().get(1).getMetadata();
+        assertTrue(metadata.containsKey(MediaMetadata.METADATA_KEY_ART));
+        assertNull(metadata.getBitmap(MediaMetadata.METADATA_KEY_ART));
+
+        SessionResult result = controller.loadMediaItemBitmaps("item_1")
+                .get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        assertEquals(RESULT_SUCCESS, result.getResultCode());
+        assertNotNull(result.getMediaItem().getMetadata()
+                .getBitmap(MediaMetadata.METADATA_KEY_ART));
+
+        // The following item was loaded along with the requested one.
+        result = controller.loadMediaItemBitmaps("item_2").get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        assertEquals(RESULT_SUCCESS, result.getResultCode());
+        assertNotNull(result.getMediaItem().getMetadata()
+                .getBitmap(MediaMetadata.METADATA_KEY_ART));
+    }
+
     /**
      * This also tests {@link ControllerCallback#onPlaylistChanged(
      * MediaController, List, MediaMetadata)}.
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.media2.session;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.net.Uri;
+
+import androidx.media2.common.MediaItem;
+import androidx.media2.common.MediaMetadata;
+import androidx.media2.common.UriMediaItem;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SmallTest;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests {@link PlaylistOp}.
+ */
+@RunWith(AndroidJUnit4.class)
+@SmallTest
+public class PlaylistOpTest extends MediaTestBase {
+    private static final int MAX_OPS = 10;
+
+    @Test
+    public void diff_insert() {
+        List<MediaItem> oldItems = createPlaylist(5);
+        List<MediaItem> newItems = new ArrayList<>(oldItems);
+        newItems.add(2, createItem("new"));
+
+        List<PlaylistOp> ops = assertDiffApplies(oldItems, newItems);
+        assertEquals(1, ops.size());
+        assertEquals(PlaylistOp.TYPE_INSERT, ops.get(0).mType);
+        assertEquals(2, ops.get(0).mIndex);
+    }
+
+    @Test
+    public void diff_remove() {
+        List<MediaItem> oldItems = createPlaylist(5);
+        List<MediaItem> newItems = new ArrayList<>(oldItems);
+        newItems.subList(1, 3).clear();
+
+        List<PlaylistOp> ops = assertDiffApplies(oldItems, newItems);
+        assertEquals(1, ops.size());
+        assertEquals(PlaylistOp.TYPE_REMOVE, ops.get(0).mType);
+        assertEquals(1, ops.get(0).mIndex);
+        assertEquals(2, ops.get(0).mCount);
+    }
+
+    @Test
+    public void diff_move() {
+        List<MediaItem> oldItems = createPlaylist(6);
+        List<MediaItem> forward = new ArrayList<>(oldItems);
+        forward.add(4, forward.remove(1));
+        List<MediaItem> backward = new ArrayList<>(oldItems);
+        backward.add(0, backward.remove(3));
+
+        List<PlaylistOp> ops = assertDiffApplies(oldItems, forward);
+        assertEquals(1, ops.size());
+        assertEquals(PlaylistOp.TYPE_MOVE, ops.get(0).mType);
+        ops = assertDiffApplies(oldItems, backward);
+        assertEquals(1, ops.size());
+        assertEquals(PlaylistOp.TYPE_MOVE, ops.get(0).mType);
+    }
+
+    @Test
+    public void diff_updateMetadata() {
+        List<MediaItem> oldItems = createPlaylist(5);
+        List<MediaMetadata> oldMetadata = getMetadata(oldItems);
+        MediaMetadata metadata = new MediaMetadata.Builder()
+                .putString(MediaMetadata.METADATA_KEY_MEDIA_ID, "item_3")
+                .putString(MediaMetadata.METADATA_KEY_TITLE, "title").build();
+        oldItems.get(3).setMetadata(metadata);
+
+        List<PlaylistOp> ops = PlaylistOp.diff(oldItems, oldMetadata, oldItems, MAX_OPS);
+        assertEquals(1, ops.size());
+        assertEquals(PlaylistOp.TYPE_UPDATE_METADATA, ops.get(0).mType);
+        assertEquals(3, ops.get(0).mIndex);
+
+        List<MediaItem> playlist = createPlaylist(5);
+        assertTrue(PlaylistOp.apply(playlist, ops));
+        assertSame(metadata, playlist.get(3).getMetadata());
+    }
+
+    @Test
+    public void apply_updateMetadata_keepsItemInstance() {
+        MediaItem item = new UriMediaItem.Builder(Uri.parse("http://example.com/item_0"))
+                .setMetadata(new MediaMetadata.Builder()
+                        .putString(MediaMetadata.METADATA_KEY_MEDIA_ID, "item_0").build())
+                .build();
+        List<MediaItem> playlist = new ArrayList<>();
+        playlist.add(item);
+        MediaMetadata metadata = new MediaMetadata.Builder()
+                .putString(MediaMetadata.METADATA_KEY_MEDIA_ID, "item_0")
+                .putString(MediaMetadata.METADATA_KEY_TITLE, "title").build();
+
+        assertTrue(PlaylistOp.apply(playlist,
+                Collections.singletonList(PlaylistOp.updateMetadata(0, metadata))));
+
+        assertSame(item, playlist.get(0));
+        assertTrue(playlist.get(0) instanceof UriMediaItem);
+        assertSame(metadata, item.getMetadata());
+    }
+
+    @Test
+    public void diff_tooManyChanges_returnsNull() {
+        List<MediaItem> oldItems = createPlaylist(5);
+        List<MediaItem> newItems = createPlaylist(MAX_OPS + 1);
+
+        assertNull(PlaylistOp.diff(oldItems, getMetadata(oldItems), newItems, MAX_OPS));
+    }
+
+    @Test
+    public void apply_invalidOp_returnsFalse() {
+        List<MediaItem> playlist = createPlaylist(3);
+
+        assertFalse(PlaylistOp.apply(playlist,
+                Collections.singletonList(PlaylistOp.remove(2, 2))));
+        assertFalse(PlaylistOp.apply(playlist,
+                Collections.singletonList(PlaylistOp.move(0, 3))));
+    }
+
+    private static List<PlaylistOp> assertDiffApplies(List<MediaItem> oldItems,
+            List<MediaItem> newItems) {
+        List<PlaylistOp> ops = PlaylistOp.diff(oldItems, getMetadata(oldItems), newItems,
+                MAX_OPS);
+        List<MediaItem> playlist = new ArrayList<>(oldItems);
+        assertTrue(PlaylistOp.apply(playlist, ops));
+        assertEquals(newItems.size(), playlist.size());
+        for (int i = 0; i < newItems.size(); i++) {
+            assertEquals(newItems.get(i).getMediaId(), playlist.get(i).getMediaId());
+        }
+        return ops;
+    }
+
+    private static List<MediaItem> createPlaylist(int size) {
+        List<MediaItem> playlist = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            playlist.add(createItem("item_" + i));
+        }
+        return playlist;
+    }
+
+    private static MediaItem createItem(String mediaId) {
+        return new MediaItem.Builder()
+                .setMetadata(new MediaMetadata.Builder()
+                        .putString(MediaMetadata.METADATA_KEY_MEDIA_ID, mediaId).build())
+                .build();
+    }
+
+    private static List<MediaMetadata> getMetadata(List<MediaItem> items) {
+        List<MediaMetadata> metadata = new ArrayList<>();
+        for (MediaItem item : items) {
+            metadata.add(item.getMetadata());
+        }
+        return metadata;
+    }
+}
@@ -115,7 +115,7 @@ class ConnectionResult extends CustomVersionedParcelable {
 
     ConnectionResult(@NonNull MediaSessionStub sessionStub,
             @NonNull MediaSession.MediaSessionImpl sessionImpl,
-            @NonNull SessionCommandGroup allowedCommands) {
+            @NonNull SessionCommandGroup allowedCommands, int controllerVersion) {
         mSessionStub = sessionStub;
         mPlayerState = sessionImpl.getPlayerState();
         mCurrentMediaItem = sessionImpl.getCurrentMediaItem();
@@ -139,7 +139,9 @@ class ConnectionResult extends CustomVersionedParcelable {
         mSelectedMetadataTrack = sessionImpl.getSelectedTrack(TrackInfo.MEDIA_TRACK_TYPE_METADATA);
         if (allowedCommands.hasCommand(SessionCommand.COMMAND_CODE_PLAYER_GET_PLAYLIST)) {
             List<MediaItem> playlist = sessionImpl.getPlaylist();
-            mPlaylistSlice = MediaUtils.convertMediaItemListToParcelImplListSlice(playlist);
+            // Controllers load bitmaps of playlist items lazily since VERSION_2.
+            mPlaylistSlice = MediaUtils.convertMediaItemListToParcelImplListSlice(playlist,
+                    controllerVersion >= MediaUtils.VERSION_2);
         } else {
             mPlaylistSlice = null;
         }
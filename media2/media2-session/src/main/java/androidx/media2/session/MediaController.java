@@ -736,6 +736,31 @@ public class MediaController implements Closeable {
         return isConnected() ? getImpl().getPlaylist() : null;
     }
 
+    /**
+     * Loads the bitmaps of an item in the playlist.
+     * <p>
+     * To keep playlists cheap to send, sessions may omit the {@link android.graphics.Bitmap}
+     * values of the playlist items' metadata. The keys of omitted bitmaps are kept with
+     * {@code null} values. This loads the item with all of its bitmaps from the session. Loaded
+     * items are cached, and the bitmaps of some of the following playlist items are loaded
+     * along with the requested one.
+     * <p>
+     * On success, a {@link SessionResult} would be returned with the item with its bitmaps.
+     *
+     * @param mediaId the non-empty media id of the playlist item
+     * @see SessionCommand#COMMAND_CODE_PLAYER_GET_PLAYLIST
+     */
+    @NonNull
+    public ListenableFuture<SessionResult> loadMediaItemBitmaps(@NonNull String mediaId) {
+        if (TextUtils.isEmpty(mediaId)) {
+            throw new IllegalArgumentException("mediaId shouldn't be empty");
+        }
+        if (isConnected()) {
+            return getImpl().loadMediaItemBitmaps(mediaId);
+        }
+        return createDisconnectedFuture();
+    }
+
     /**
      * Requests that the {@link SessionPlayer} associated with the connected {@link MediaSession}
      * sets the playlist with the list of media IDs. Use this, {@link #setMediaUri}, or
@@ -1491,6 +1516,7 @@ public class MediaController implements Closeable {
                 @Nullable Bundle args);
         @Nullable
         List<MediaItem> getPlaylist();
+        ListenableFuture<SessionResult> loadMediaItemBitmaps(@NonNull String mediaId);
         ListenableFuture<SessionResult> setPlaylist(@NonNull List<String> list,
                 @Nullable MediaMetadata metadata);
         ListenableFuture<SessionResult> setMediaItem(@NonNull String mediaId);
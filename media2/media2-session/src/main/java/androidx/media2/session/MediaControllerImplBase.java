@@ -22,6 +22,7 @@ import static androidx.media2.common.SessionPlayer.UNKNOWN_TIME;
 import static androidx.media2.session.SessionCommand.COMMAND_CODE_CUSTOM;
 import static androidx.media2.session.SessionCommand.COMMAND_CODE_PLAYER_ADD_PLAYLIST_ITEM;
 import static androidx.media2.session.SessionCommand.COMMAND_CODE_PLAYER_DESELECT_TRACK;
+import static androidx.media2.session.SessionCommand.COMMAND_CODE_PLAYER_GET_PLAYLIST;
 import static androidx.media2.session.SessionCommand.COMMAND_CODE_PLAYER_MOVE_PLAYLIST_ITEM;
 import static androidx.media2.session.SessionCommand.COMMAND_CODE_PLAYER_PAUSE;
 import static androidx.media2.session.SessionCommand.COMMAND_CODE_PLAYER_PLAY;
@@ -59,6 +60,7 @@ import android.content.ComponentName;
 import android.content.Context;
 import android.content.Intent;
 import android.content.ServiceConnection;
+import android.graphics.Bitmap;
 import android.net.Uri;
 import android.os.Bundle;
 import android.os.IBinder;
@@ -73,6 +75,8 @@ import android.view.Surface;
 import androidx.annotation.GuardedBy;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.collection.LruCache;
+import androidx.concurrent.futures.ResolvableFuture;
 import androidx.media2.common.MediaItem;
 import androidx.media2.common.MediaMetadata;
 import androidx.media2.common.MediaParcelUtils;
@@ -95,9 +99,12 @@ import com.google.common.util.concurrent.ListenableFuture;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 class MediaControllerImplBase implements MediaControllerImpl {
     private static final boolean THROW_EXCEPTION_FOR_NULL_RESULT = true;
+    // Maximum total byte count of the bitmaps cached by loadMediaItemBitmaps().
+    private static final int MAX_BITMAP_CACHE_BYTES = 8 * 1024 * 1024;
     private static final SessionResult RESULT_WHEN_CLOSED =
             new SessionResult(RESULT_INFO_SKIPPED);
 
@@ -125,6 +132,21 @@ class MediaControllerImplBase implements MediaControllerImpl {
     private List<MediaItem> mPlaylist;
     @GuardedBy("mLock")
     private MediaMetadata mPlaylistMetadata;
+    // Version of mPlaylist in terms of incremental playlist updates. Reset whenever the session
+    // sends the whole playlist.
+    @GuardedBy("mLock")
+    private int mPlaylistVersion;
+    // Playlist items with the bitmaps omitted by the session, by media id.
+    @GuardedBy("mLock")
+    private final LruCache<String, MediaItem> mBitmapCache =
+            new LruCache<String, MediaItem>(MAX_BITMAP_CACHE_BYTES) {
+                @Override
+                protected int sizeOf(@NonNull String mediaId, @NonNull MediaItem item) {
+                    return getBitmapByteCount(item.getMetadata());
+                }
+            };
+    @GuardedBy("mLock")
+    private int mSessionVersion = MediaUtils.VERSION_UNKNOWN;
     @GuardedBy("mLock")
     private @RepeatMode int mRepeatMode;
     @GuardedBy("mLock")
@@ -628,6 +650,112 @@ class MediaControllerImplBase implements MediaControllerImpl {
                 });
     }
 
+    @Override
+    public ListenableFuture<SessionResult> loadMediaItemBitmaps(@NonNull String mediaId) {
+        final List<String> mediaIds;
+        synchronized (mLock) {
+            MediaItem item = mBitmapCache.get(mediaId);
+            if (item == null && mSessionVersion < MediaUtils.VERSION_2) {
+                // Older sessions always send the bitmaps.
+                item = findPlaylistItemLocked(mediaId);
+                if (item == null) {
+                    return SessionResult.createFutureWithResult(
+                            SessionResult.RESULT_ERROR_BAD_VALUE);
+                }
+            }
+            if (item != null) {
+                ResolvableFuture<SessionResult> result = ResolvableFuture.create();
+                result.set(new SessionResult(SessionResult.RESULT_SUCCESS, null, item));
+                return result;
+            }
+            mediaIds = getBitmapPageLocked(mediaId);
+        }
+        final ListenableFuture<SessionResult> result = dispatchRemoteSessionTask(
+                COMMAND_CODE_PLAYER_GET_PLAYLIST, new RemoteSessionTask() {
+                    @Override
+                    public void run(IMediaSession iSession, int seq) throws RemoteException {
+                        iSession.getPlaylistItemBitmaps(mControllerStub, seq, mediaIds);
+                    }
+                });
+        result.addListener(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    SessionResult sessionResult = result.get(0, TimeUnit.MILLISECONDS);
+                    if (sessionResult.getResultCode() == SessionResult.RESULT_SUCCESS
+                            && sessionResult.getMediaItem() != null) {
+                        notifyPlaylistItemsLoaded(
+                                Collections.singletonList(sessionResult.getMediaItem()));
+                    }
+                } catch (Exception e) {
+                    Log.w(TAG, "Cannot obtain the result of loading bitmaps", e);
+                }
+            }
+        }, MediaUtils.DIRECT_EXECUTOR);
+        return result;
+    }
+
+    void notifyPlaylistItemsLoaded(@NonNull List<MediaItem> items) {
+        synchronized (mLock) {
+            for (int i = 0; i < items.size(); i++) {
+                MediaItem item = items.get(i);
+                if (item.getMediaId() != null) {
+                    mBitmapCache.put(item.getMediaId(), item);
+                }
+            }
+        }
+    }
+
+    // Returns the given media id followed by the ids of the next playlist items whose bitmaps
+    // still need to be loaded, so scrolling through the playlist needs fewer round trips.
+    @GuardedBy("mLock")
+    private List<String> getBitmapPageLocked(@NonNull String mediaId) {
+        List<String> mediaIds = new ArrayList<>();
+        mediaIds.add(mediaId);
+        if (mPlaylist == null) {
+            return mediaIds;
+        }
+        boolean found = false;
+        for (int i = 0; i < mPlaylist.size()
+                && mediaIds.size() < MediaSessionStub.MAX_BITMAP_PAGE_SIZE; i++) {
+            MediaItem item = mPlaylist.get(i);
+            String id = item == null ? null : item.getMediaId();
+            if (!found) {
+                found = mediaId.equals(id);
+            } else if (id != null && !mediaIds.contains(id) && mBitmapCache.get(id) == null
+                    && MediaUtils.hasOmittedBitmaps(item.getMetadata())) {
+                mediaIds.add(id);
+            }
+        }
+        return mediaIds;
+    }
+
+    @GuardedBy("mLock")
+    @Nullable
+    private MediaItem findPlaylistItemLocked(@NonNull String mediaId) {
+        for (int i = 0; mPlaylist != null && i < mPlaylist.size(); i++) {
+            MediaItem item = mPlaylist.get(i);
+            if (item != null && mediaId.equals(item.getMediaId())) {
+                return item;
+            }
+        }
+        return null;
+    }
+
+    static int getBitmapByteCount(@Nullable MediaMetadata metadata) {
+        int byteCount = 0;
+        if (metadata != null) {
+            for (String key : metadata.keySet()) {
+                Object value = metadata.getObject(key);
+                if (value instanceof Bitmap) {
+                    byteCount += ((Bitmap) value).getByteCount();
+                }
+            }
+        }
+        // Count every item, so items without bitmaps can't grow the cache without bounds.
+        return Math.max(1, byteCount);
+    }
+
     @Override
     public MediaItem getCurrentMediaItem() {
         synchronized (mLock) {
@@ -966,8 +1094,62 @@ class MediaControllerImplBase implements MediaControllerImpl {
 
     void notifyPlaylistChanges(final List<MediaItem> playlist, final MediaMetadata metadata,
             int currentMediaItemIndex, int previousMediaItemIndex, int nextMediaItemIndex) {
+        synchronized (mLock) {
+            // Bitmaps may have changed along with the whole playlist.
+            mBitmapCache.evictAll();
+        }
+        notifyPlaylistChanges(playlist, metadata, currentMediaItemIndex, previousMediaItemIndex,
+                nextMediaItemIndex, /* playlistVersion= */ 0);
+    }
+
+    void notifyPlaylistUpdates(int baseVersion, @NonNull List<PlaylistOp> ops,
+            final MediaMetadata metadata, int currentMediaItemIndex, int previousMediaItemIndex,
+            int nextMediaItemIndex) {
+        List<MediaItem> playlist = null;
+        synchronized (mLock) {
+            if (mPlaylist != null && mPlaylistVersion == baseVersion) {
+                playlist = new ArrayList<>(mPlaylist);
+                if (!PlaylistOp.apply(playlist, ops)) {
+                    playlist = null;
+                }
+            }
+            for (int i = 0; playlist != null && i < ops.size(); i++) {
+                PlaylistOp op = ops.get(i);
+                if (op.mType == PlaylistOp.TYPE_UPDATE_METADATA && op.mMetadata != null
+                        && op.mMetadata.getMediaId() != null) {
+                    mBitmapCache.remove(op.mMetadata.getMediaId());
+                }
+            }
+        }
+        if (playlist == null) {
+            Log.w(TAG, "Cannot apply playlist update, version=" + baseVersion
+                    + ". Requesting the whole playlist.");
+            requestPlaylistResync();
+            return;
+        }
+        notifyPlaylistChanges(playlist, metadata, currentMediaItemIndex, previousMediaItemIndex,
+                nextMediaItemIndex, baseVersion + 1);
+    }
+
+    private void requestPlaylistResync() {
+        final IMediaSession iSession = getSessionInterfaceIfAble(COMMAND_CODE_PLAYER_GET_PLAYLIST);
+        if (iSession == null) {
+            return;
+        }
+        try {
+            iSession.requestPlaylistResync(mControllerStub,
+                    mSequencedFutureManager.obtainNextSequenceNumber());
+        } catch (RemoteException e) {
+            Log.w(TAG, "Cannot request the whole playlist from the session", e);
+        }
+    }
+
+    private void notifyPlaylistChanges(final List<MediaItem> playlist,
+            final MediaMetadata metadata, int currentMediaItemIndex, int previousMediaItemIndex,
+            int nextMediaItemIndex, int playlistVersion) {
         synchronized (mLock) {
             mPlaylist = playlist;
+            mPlaylistVersion = playlistVersion;
             mPlaylistMetadata = metadata;
             mCurrentMediaItemIndex = currentMediaItemIndex;
             mPreviousMediaItemIndex = previousMediaItemIndex;
@@ -1244,6 +1426,7 @@ class MediaControllerImplBase implements MediaControllerImpl {
                 mSelectedTracks.put(TrackInfo.MEDIA_TRACK_TYPE_METADATA, selectedMetadataTrack);
                 mPlaylistMetadata = playlistMetadata;
                 mBufferingState = bufferingState;
+                mSessionVersion = sessionVersion;
                 try {
                     // Implementation for the local binder is no-op,
                     // so can be used without worrying about deadlock.
@@ -520,6 +520,29 @@ class MediaControllerImplLegacy implements MediaController.MediaControllerImpl {
         }
     }
 
+    @Override
+    public ListenableFuture<SessionResult> loadMediaItemBitmaps(@NonNull String mediaId) {
+        // Playlist items of legacy sessions already have all the bitmaps that are sent.
+        MediaItem playlistItem = null;
+        synchronized (mLock) {
+            if (!mConnected) {
+                Log.w(TAG, "Session isn't active", new IllegalStateException());
+                return createFutureWithResult(RESULT_ERROR_SESSION_DISCONNECTED);
+            }
+            for (int i = 0; mPlaylist != null && i < mPlaylist.size(); i++) {
+                MediaItem item = mPlaylist.get(i);
+                if (item != null && mediaId.equals(item.getMediaId())) {
+                    playlistItem = item;
+                    break;
+                }
+            }
+        }
+        ResolvableFuture<SessionResult> result = ResolvableFuture.create();
+        result.set(playlistItem == null ? new SessionResult(RESULT_ERROR_BAD_VALUE)
+                : new SessionResult(RESULT_SUCCESS, null, playlistItem));
+        return result;
+    }
+
     @Override
     public ListenableFuture<SessionResult> setPlaylist(@NonNull List<String> list,
             @Nullable MediaMetadata metadata) {
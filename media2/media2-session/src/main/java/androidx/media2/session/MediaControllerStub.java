@@ -160,6 +160,39 @@ class MediaControllerStub extends IMediaController.Stub {
         });
     }
 
+    @Override
+    public void onPlaylistUpdated(int seq, final int baseVersion, final ParcelImplListSlice ops,
+            final ParcelImpl metadata, final int currentIdx, final int previousIdx,
+            final int nextIdx) {
+        if (ops == null || metadata == null) {
+            return;
+        }
+        dispatchControllerTask(new ControllerTask() {
+            @Override
+            public void run(MediaControllerImplBase controller) {
+                List<PlaylistOp> playlistOps = MediaParcelUtils.fromParcelableList(
+                        ops.getList());
+                controller.notifyPlaylistUpdates(baseVersion, playlistOps,
+                        (MediaMetadata) MediaParcelUtils.fromParcelable(metadata), currentIdx,
+                        previousIdx, nextIdx);
+            }
+        });
+    }
+
+    @Override
+    public void onPlaylistItemsLoaded(int seq, final ParcelImplListSlice items) {
+        if (items == null) {
+            return;
+        }
+        dispatchControllerTask(new ControllerTask() {
+            @Override
+            public void run(MediaControllerImplBase controller) {
+                controller.notifyPlaylistItemsLoaded(
+                        MediaUtils.convertParcelImplListSliceToMediaItemList(items));
+            }
+        });
+    }
+
     @Override
     public void onPlaylistMetadataChanged(int seq, final ParcelImpl metadata)
             throws RuntimeException {
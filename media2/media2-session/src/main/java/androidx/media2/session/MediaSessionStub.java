@@ -36,6 +36,7 @@ import android.util.Log;
 import android.util.SparseArray;
 import android.view.Surface;
 
+import androidx.annotation.GuardedBy;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.core.util.ObjectsCompat;
@@ -43,6 +44,7 @@ import androidx.media.MediaSessionManager;
 import androidx.media2.common.MediaItem;
 import androidx.media2.common.MediaMetadata;
 import androidx.media2.common.MediaParcelUtils;
+import androidx.media2.common.ParcelImplListSlice;
 import androidx.media2.common.Rating;
 import androidx.media2.common.SessionPlayer.PlayerResult;
 import androidx.media2.common.SessionPlayer.TrackInfo;
@@ -75,6 +77,11 @@ import java.util.concurrent.TimeUnit;
 class MediaSessionStub extends IMediaSession.Stub {
     private static final String TAG = "MediaSessionStub";
     private static final boolean RETHROW_EXCEPTION = true;
+    // Maximum number of operations of an incremental playlist update. Bigger changes are sent as
+    // a whole playlist, which is split into several transactions if needed.
+    private static final int MAX_PLAYLIST_OPS = 64;
+    // Maximum number of playlist items whose bitmaps can be requested at once.
+    static final int MAX_BITMAP_PAGE_SIZE = 16;
 
     @SuppressWarnings("WeakerAccess") /* synthetic access */
     static final boolean DEBUG = Log.isLoggable(TAG, Log.DEBUG);
@@ -325,7 +332,7 @@ class MediaSessionStub extends IMediaSession.Stub {
                 new MediaSessionManager.RemoteUserInfo(callingPackage, pid, uid);
         final ControllerInfo controllerInfo = new ControllerInfo(remoteUserInfo, controllerVersion,
                 mSessionManager.isTrustedForMediaControl(remoteUserInfo),
-                new Controller2Cb(caller), connectionHints);
+                new Controller2Cb(caller, controllerVersion), connectionHints);
         mSessionImpl.getCallbackExecutor().execute(new Runnable() {
             @Override
             public void run() {
@@ -369,7 +376,8 @@ class MediaSessionStub extends IMediaSession.Stub {
                     //       because IMediaController is oneway (i.e. async call) and Stub will
                     //       use thread poll for incoming calls.
                     ConnectionResult state = new ConnectionResult(
-                            MediaSessionStub.this, mSessionImpl, allowedCommands);
+                            MediaSessionStub.this, mSessionImpl, allowedCommands,
+                            controllerVersion);
 
                     // Double check if session is still there, because close() can be called in
                     // another thread.
@@ -477,6 +485,89 @@ class MediaSessionStub extends IMediaSession.Stub {
         }
     }
 
+    @Override
+    public void requestPlaylistResync(final IMediaController caller, int seq) {
+        if (caller == null) {
+            return;
+        }
+        final long token = Binder.clearCallingIdentity();
+        try {
+            final ControllerInfo controller =
+                    mConnectedControllersManager.getController(caller.asBinder());
+            if (controller == null) {
+                return;
+            }
+            mSessionImpl.getCallbackExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    if (mSessionImpl.isClosed()) {
+                        return;
+                    }
+                    SequencedFutureManager manager =
+                            mConnectedControllersManager.getSequencedFutureManager(controller);
+                    if (manager == null) {
+                        return;
+                    }
+                    Controller2Cb cb = (Controller2Cb) controller.getControllerCb();
+                    cb.resetPlaylistUpdates();
+                    try {
+                        cb.onPlaylistChanged(manager.obtainNextSequenceNumber(),
+                                mSessionImpl.getPlaylist(), mSessionImpl.getPlaylistMetadata(),
+                                mSessionImpl.getCurrentMediaItemIndex(),
+                                mSessionImpl.getPreviousMediaItemIndex(),
+                                mSessionImpl.getNextMediaItemIndex());
+                    } catch (RemoteException e) {
+                        Log.w(TAG, "Exception in " + controller.toString(), e);
+                    }
+                }
+            });
+        } finally {
+            Binder.restoreCallingIdentity(token);
+        }
+    }
+
+    @Override
+    public void getPlaylistItemBitmaps(final IMediaController caller, int seq,
+            final List<String> mediaIds) {
+        if (caller == null || mediaIds == null) {
+            return;
+        }
+        dispatchSessionTask(caller, seq, SessionCommand.COMMAND_CODE_PLAYER_GET_PLAYLIST,
+                new SessionCallbackTask<SessionResult>() {
+                    @Override
+                    public SessionResult run(ControllerInfo controller) throws RemoteException {
+                        if (mediaIds.isEmpty() || mediaIds.size() > MAX_BITMAP_PAGE_SIZE) {
+                            Log.w(TAG, "getPlaylistItemBitmaps(): Ignoring " + mediaIds.size()
+                                    + " media ids from " + controller);
+                            return new SessionResult(RESULT_ERROR_BAD_VALUE, null);
+                        }
+                        List<MediaItem> playlist = mSessionImpl.getPlaylist();
+                        MediaItem requestedItem = null;
+                        List<MediaItem> otherItems = new ArrayList<>();
+                        for (int i = 0; playlist != null && i < playlist.size(); i++) {
+                            MediaItem item = playlist.get(i);
+                            int index = item == null ? -1 : mediaIds.indexOf(item.getMediaId());
+                            if (index == 0) {
+                                requestedItem = item;
+                            } else if (index > 0) {
+                                otherItems.add(item);
+                            }
+                        }
+                        if (requestedItem == null) {
+                            return new SessionResult(RESULT_ERROR_BAD_VALUE, null);
+                        }
+                        // Send the rest of the page first, so it's cached by the time the
+                        // controller gets the result.
+                        if (!otherItems.isEmpty()) {
+                            ((Controller2Cb) controller.getControllerCb()).onPlaylistItemsLoaded(
+                                    seq, otherItems);
+                        }
+                        return new SessionResult(SessionResult.RESULT_SUCCESS, null,
+                                requestedItem);
+                    }
+                });
+    }
+
     @Override
     public void setVolumeTo(final IMediaController caller, int seq, final int value,
             final int flags) throws RuntimeException {
@@ -1177,9 +1268,30 @@ class MediaSessionStub extends IMediaSession.Stub {
     final class Controller2Cb extends ControllerCb {
         // TODO: Drop 'Callback' from the name.
         private final IMediaController mIControllerCallback;
-
-        Controller2Cb(@NonNull IMediaController callback) {
+        private final boolean mSupportsPlaylistUpdates;
+        // Whether bitmaps of playlist items are loaded by the controller on demand.
+        private final boolean mOmitsPlaylistBitmaps;
+
+        // Last playlist sent to the controller and the metadata of its items when it was sent, for
+        // computing incremental playlist updates. Null if the controller's playlist is unknown.
+        private final Object mPlaylistLock = new Object();
+        @GuardedBy("mPlaylistLock")
+        private List<MediaItem> mSentPlaylist;
+        @GuardedBy("mPlaylistLock")
+        private List<MediaMetadata> mSentItemMetadata;
+        @GuardedBy("mPlaylistLock")
+        private int mPlaylistVersion;
+
+        Controller2Cb(@NonNull IMediaController callback, int controllerVersion) {
             mIControllerCallback = callback;
+            mSupportsPlaylistUpdates = controllerVersion >= MediaUtils.VERSION_1;
+            mOmitsPlaylistBitmaps = controllerVersion >= MediaUtils.VERSION_2;
+        }
+
+        void onPlaylistItemsLoaded(int seq, @NonNull List<MediaItem> items)
+                throws RemoteException {
+            mIControllerCallback.onPlaylistItemsLoaded(seq,
+                    MediaUtils.convertMediaItemListToParcelImplListSlice(items));
         }
 
         @NonNull
@@ -1271,13 +1383,69 @@ class MediaSessionStub extends IMediaSession.Stub {
                     getCallbackBinder());
             if (mConnectedControllersManager.isAllowedCommand(controller,
                     SessionCommand.COMMAND_CODE_PLAYER_GET_PLAYLIST)) {
-                mIControllerCallback.onPlaylistChanged(seq,
-                        MediaUtils.convertMediaItemListToParcelImplListSlice(playlist),
-                        MediaParcelUtils.toParcelable(metadata), currentIdx, previousIdx, nextIdx);
-            } else if (mConnectedControllersManager.isAllowedCommand(controller,
-                    SessionCommand.COMMAND_CODE_PLAYER_GET_PLAYLIST_METADATA)) {
-                mIControllerCallback.onPlaylistMetadataChanged(seq,
-                        MediaParcelUtils.toParcelable(metadata));
+                sendPlaylist(seq, playlist, metadata, currentIdx, previousIdx, nextIdx);
+            } else {
+                resetPlaylistUpdates();
+                if (mConnectedControllersManager.isAllowedCommand(controller,
+                        SessionCommand.COMMAND_CODE_PLAYER_GET_PLAYLIST_METADATA)) {
+                    mIControllerCallback.onPlaylistMetadataChanged(seq,
+                            MediaParcelUtils.toParcelable(metadata));
+                }
+            }
+        }
+
+        // Sends only the changes since the last sent playlist when the controller supports it and
+        // the changes are small enough, and the whole playlist otherwise.
+        private void sendPlaylist(int seq, @Nullable List<MediaItem> playlist,
+                MediaMetadata metadata, int currentIdx, int previousIdx, int nextIdx)
+                throws RemoteException {
+            synchronized (mPlaylistLock) {
+                List<PlaylistOp> ops = null;
+                if (mSupportsPlaylistUpdates && mSentPlaylist != null && playlist != null) {
+                    ops = PlaylistOp.diff(mSentPlaylist, mSentItemMetadata, playlist,
+                            MAX_PLAYLIST_OPS);
+                }
+                if (ops != null) {
+                    if (mOmitsPlaylistBitmaps) {
+                        for (int i = 0; i < ops.size(); i++) {
+                            PlaylistOp op = ops.get(i);
+                            op.mItem = MediaUtils.omitBitmaps(op.mItem);
+                            op.mMetadata = MediaUtils.omitBitmaps(op.mMetadata);
+                        }
+                    }
+                    // Insert ops carry whole MediaItems, so they're sent as a slice that falls
+                    // back to further binder calls instead of one oversized transaction.
+                    mIControllerCallback.onPlaylistUpdated(seq, mPlaylistVersion,
+                            new ParcelImplListSlice(MediaParcelUtils.toParcelableList(ops)),
+                            MediaParcelUtils.toParcelable(metadata), currentIdx, previousIdx,
+                            nextIdx);
+                    mPlaylistVersion++;
+                } else {
+                    mIControllerCallback.onPlaylistChanged(seq,
+                            MediaUtils.convertMediaItemListToParcelImplListSlice(playlist,
+                                    mOmitsPlaylistBitmaps),
+                            MediaParcelUtils.toParcelable(metadata), currentIdx, previousIdx,
+                            nextIdx);
+                    mPlaylistVersion = 0;
+                }
+                if (!mSupportsPlaylistUpdates || playlist == null || playlist.contains(null)) {
+                    mSentPlaylist = null;
+                    mSentItemMetadata = null;
+                    return;
+                }
+                mSentPlaylist = new ArrayList<>(playlist);
+                mSentItemMetadata = new ArrayList<>(playlist.size());
+                for (int i = 0; i < playlist.size(); i++) {
+                    mSentItemMetadata.add(playlist.get(i).getMetadata());
+                }
+            }
+        }
+
+        // Makes the next playlist change send the whole playlist.
+        void resetPlaylistUpdates() {
+            synchronized (mPlaylistLock) {
+                mSentPlaylist = null;
+                mSentItemMetadata = null;
             }
         }
 
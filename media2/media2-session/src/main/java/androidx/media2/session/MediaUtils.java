@@ -109,8 +109,14 @@ public class MediaUtils {
     // Initial version for all Media2 APIs.
     public static final int VERSION_0 = 0;
 
+    // Adds incremental playlist updates from session to controller.
+    public static final int VERSION_1 = 1;
+
+    // Adds lazy loading of playlist item bitmaps by controllers.
+    public static final int VERSION_2 = 2;
+
     // Current version for all Media2 APIs.
-    public static final int CURRENT_VERSION = VERSION_0;
+    public static final int CURRENT_VERSION = VERSION_2;
 
     private static final Map<String, String> METADATA_COMPAT_KEY_TO_METADATA_KEY = new HashMap<>();
     private static final Map<String, String> METADATA_KEY_TO_METADATA_COMPAT_KEY = new HashMap<>();
@@ -686,6 +692,17 @@ public class MediaUtils {
      */
     public static ParcelImplListSlice convertMediaItemListToParcelImplListSlice(
             List<MediaItem> mediaItemList) {
+        return convertMediaItemListToParcelImplListSlice(mediaItemList, false);
+    }
+
+    /**
+     * Convert a list of {@link MediaItem} to a list of {@link ParcelImplListSlice}, optionally
+     * omitting the bitmaps of the items' metadata.
+     *
+     * @see #omitBitmaps(MediaItem)
+     */
+    public static ParcelImplListSlice convertMediaItemListToParcelImplListSlice(
+            List<MediaItem> mediaItemList, boolean omitBitmaps) {
         if (mediaItemList == null) {
             return null;
         }
@@ -693,13 +710,71 @@ public class MediaUtils {
         for (int i = 0; i < mediaItemList.size(); i++) {
             final MediaItem item = mediaItemList.get(i);
             if (item != null) {
-                final ParcelImpl itemParcelImpl = MediaParcelUtils.toParcelable(item);
+                final ParcelImpl itemParcelImpl = MediaParcelUtils.toParcelable(
+                        omitBitmaps ? omitBitmaps(item) : item);
                 itemParcelableList.add(itemParcelImpl);
             }
         }
         return new ParcelImplListSlice(itemParcelableList);
     }
 
+    /**
+     * Returns the item, or a copy of it whose metadata keeps the keys of its bitmaps with
+     * {@code null} values. Controllers load such bitmaps on demand.
+     */
+    @Nullable
+    public static MediaItem omitBitmaps(@Nullable MediaItem item) {
+        if (item == null) {
+            return null;
+        }
+        MediaMetadata metadata = item.getMetadata();
+        MediaMetadata metadataWithoutBitmaps = omitBitmaps(metadata);
+        if (metadataWithoutBitmaps == metadata) {
+            return item;
+        }
+        return new MediaItem.Builder()
+                .setStartPosition(item.getStartPosition())
+                .setEndPosition(item.getEndPosition())
+                .setMetadata(metadataWithoutBitmaps).build();
+    }
+
+    /**
+     * Returns the metadata, or a copy of it which keeps the keys of its bitmaps with {@code null}
+     * values.
+     */
+    @Nullable
+    public static MediaMetadata omitBitmaps(@Nullable MediaMetadata metadata) {
+        if (metadata == null) {
+            return null;
+        }
+        MediaMetadata.Builder builder = null;
+        for (String key : metadata.keySet()) {
+            if (metadata.getObject(key) instanceof Bitmap) {
+                if (builder == null) {
+                    builder = new MediaMetadata.Builder(metadata);
+                }
+                builder.putBitmap(key, null);
+            }
+        }
+        return builder == null ? metadata : builder.build();
+    }
+
+    /**
+     * Returns whether bitmaps of the metadata may have been omitted by
+     * {@link #omitBitmaps(MediaMetadata)}, i.e. whether it has keys with {@code null} values.
+     */
+    public static boolean hasOmittedBitmaps(@Nullable MediaMetadata metadata) {
+        if (metadata == null) {
+            return false;
+        }
+        for (String key : metadata.keySet()) {
+            if (metadata.getObject(key) == null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Convert a {@link SessionPlayer.PlayerState} and
      * {@link SessionPlayer.BuffState} into {@link PlaybackStateCompat.State}.
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.media2.session;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.media2.common.MediaItem;
+import androidx.media2.common.MediaMetadata;
+import androidx.versionedparcelable.ParcelField;
+import androidx.versionedparcelable.VersionedParcelable;
+import androidx.versionedparcelable.VersionedParcelize;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A single change of a playlist. Sent by {@link MediaSession} instead of the whole playlist to the
+ * {@link MediaController}s which support incremental playlist updates.
+ * <p>
+ * All fields here are effectively final. Do not modify.
+ */
+@VersionedParcelize
+class PlaylistOp implements VersionedParcelable {
+    // Inserts mItem at mIndex.
+    static final int TYPE_INSERT = 0;
+    // Removes mCount items starting at mIndex.
+    static final int TYPE_REMOVE = 1;
+    // Moves the item at mIndex to mToIndex.
+    static final int TYPE_MOVE = 2;
+    // Replaces the metadata of the item at mIndex with mMetadata.
+    static final int TYPE_UPDATE_METADATA = 3;
+
+    @ParcelField(0)
+    int mType;
+    @ParcelField(1)
+    int mIndex;
+    @ParcelField(2)
+    int mToIndex;
+    @ParcelField(3)
+    int mCount;
+    @ParcelField(4)
+    MediaItem mItem;
+    @ParcelField(5)
+    MediaMetadata mMetadata;
+
+    // For versioned parcelable.
+    PlaylistOp() {
+        // no-op
+    }
+
+    private PlaylistOp(int type, int index, int toIndex, int count, @Nullable MediaItem item,
+            @Nullable MediaMetadata metadata) {
+        mType = type;
+        mIndex = index;
+        mToIndex = toIndex;
+        mCount = count;
+        mItem = MediaUtils.upcastForPreparceling(item);
+        mMetadata = metadata;
+    }
+
+    static PlaylistOp insert(int index, @NonNull MediaItem item) {
+        return new PlaylistOp(TYPE_INSERT, index, 0, 1, item, null);
+    }
+
+    static PlaylistOp remove(int index, int count) {
+        return new PlaylistOp(TYPE_REMOVE, index, 0, count, null, null);
+    }
+
+    static PlaylistOp move(int fromIndex, int toIndex) {
+        return new PlaylistOp(TYPE_MOVE, fromIndex, toIndex, 1, null, null);
+    }
+
+    static PlaylistOp updateMetadata(int index, @Nullable MediaMetadata metadata) {
+        return new PlaylistOp(TYPE_UPDATE_METADATA, index, 0, 1, null, metadata);
+    }
+
+    /**
+     * Computes the operations which turn a previously sent playlist into the new playlist.
+     * <p>
+     * Items are compared by identity, as players keep the same {@link MediaItem} instances in
+     * their playlists. The changed range between the common head and tail of both playlists is
+     * sent as a single move if one item was moved, and as removals and insertions otherwise.
+     * Retained items whose metadata instance changed get a metadata update.
+     *
+     * @param oldItems the previously sent playlist
+     * @param oldMetadata the metadata of each item of the previously sent playlist, when it was
+     *                    sent
+     * @param newItems the new playlist
+     * @param maxOps maximum number of operations
+     * @return the operations, or {@code null} if more than {@code maxOps} operations are needed
+     *         and the whole playlist should be sent instead.
+     */
+    @Nullable
+    static List<PlaylistOp> diff(@NonNull List<MediaItem> oldItems,
+            @NonNull List<MediaMetadata> oldMetadata, @NonNull List<MediaItem> newItems,
+            int maxOps) {
+        final int oldSize = oldItems.size();
+        final int newSize = newItems.size();
+        int head = 0;
+        while (head < oldSize && head < newSize && oldItems.get(head) == newItems.get(head)) {
+            head++;
+        }
+        int tail = 0;
+        while (tail < oldSize - head && tail < newSize - head
+                && oldItems.get(oldSize - 1 - tail) == newItems.get(newSize - 1 - tail)) {
+            tail++;
+        }
+        final int oldEnd = oldSize - tail;
+        final int newEnd = newSize - tail;
+
+        List<PlaylistOp> ops = new ArrayList<>();
+        // Old index of each item of the changed range of the new playlist, -1 if inserted.
+        int[] oldIndices = new int[newEnd - head];
+        if (isMoved(newItems, head, newEnd, oldItems, head, oldEnd)) {
+            ops.add(move(oldEnd - 1, head));
+            oldIndices[0] = oldEnd - 1;
+            for (int i = 1; i < oldIndices.length; i++) {
+                oldIndices[i] = head + i - 1;
+            }
+        } else if (isMoved(oldItems, head, oldEnd, newItems, head, newEnd)) {
+            ops.add(move(head, newEnd - 1));
+            oldIndices[oldIndices.length - 1] = head;
+            for (int i = 0; i < oldIndices.length - 1; i++) {
+                oldIndices[i] = head + i + 1;
+            }
+        } else {
+            if ((oldEnd > head ? 1 : 0) + newEnd - head > maxOps) {
+                return null;
+            }
+            if (oldEnd > head) {
+                ops.add(remove(head, oldEnd - head));
+            }
+            for (int i = head; i < newEnd; i++) {
+                MediaItem item = newItems.get(i);
+                if (item == null) {
+                    return null;
+                }
+                ops.add(insert(i, item));
+                oldIndices[i - head] = -1;
+            }
+        }
+
+        for (int i = 0; i < newSize; i++) {
+            final int oldIndex;
+            if (i < head) {
+                oldIndex = i;
+            } else if (i >= newEnd) {
+                oldIndex = i - newSize + oldSize;
+            } else {
+                oldIndex = oldIndices[i - head];
+            }
+            if (oldIndex < 0) {
+                continue;
+            }
+            MediaMetadata metadata = newItems.get(i).getMetadata();
+            if (metadata != oldMetadata.get(oldIndex)) {
+                if (ops.size() >= maxOps) {
+                    return null;
+                }
+                ops.add(updateMetadata(i, metadata));
+            }
+        }
+        return ops;
+    }
+
+    /**
+     * Applies operations to a playlist.
+     *
+     * @return {@code false} if an operation doesn't fit the playlist, in which case the playlist
+     *         is left partially updated and should be discarded.
+     */
+    static boolean apply(@NonNull List<MediaItem> playlist, @NonNull List<PlaylistOp> ops) {
+        for (int i = 0; i < ops.size(); i++) {
+            PlaylistOp op = ops.get(i);
+            if (op == null) {
+                return false;
+            }
+            final int size = playlist.size();
+            switch (op.mType) {
+                case TYPE_INSERT:
+                    if (op.mIndex < 0 || op.mIndex > size || op.mItem == null) {
+                        return false;
+                    }
+                    playlist.add(op.mIndex, op.mItem);
+                    break;
+                case TYPE_REMOVE:
+                    if (op.mIndex < 0 || op.mCount < 0 || op.mIndex + op.mCount > size) {
+                        return false;
+                    }
+                    playlist.subList(op.mIndex, op.mIndex + op.mCount).clear();
+                    break;
+                case TYPE_MOVE:
+                    if (op.mIndex < 0 || op.mIndex >= size || op.mToIndex < 0
+                            || op.mToIndex >= size) {
+                        return false;
+                    }
+                    playlist.add(op.mToIndex, playlist.remove(op.mIndex));
+                    break;
+                case TYPE_UPDATE_METADATA:
+                    if (op.mIndex < 0 || op.mIndex >= size) {
+                        return false;
+                    }
+                    // Update in place as MediaSession does, so the item keeps its identity and
+                    // type, and listeners of the item are notified.
+                    playlist.get(op.mIndex).setMetadata(op.mMetadata);
+                    break;
+                default:
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    // Returns whether the range [start, end) of the first list equals the range of the second
+    // list after moving the second list's last item of the range to the start.
+    private static boolean isMoved(List<MediaItem> first, int firstStart, int firstEnd,
+            List<MediaItem> second, int secondStart, int secondEnd) {
+        final int length = firstEnd - firstStart;
+        if (length < 2 || length != secondEnd - secondStart
+                || first.get(firstStart) != second.get(secondEnd - 1)) {
+            return false;
+        }
+        for (int i = 1; i < length; i++) {
+            if (first.get(firstStart + i) != second.get(secondStart + i - 1)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
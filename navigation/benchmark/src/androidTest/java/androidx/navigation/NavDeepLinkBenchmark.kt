@@ -0,0 +1,94 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.navigation
+
+import android.net.Uri
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.filters.LargeTest
+import androidx.testutils.TestNavigator
+import androidx.testutils.TestNavigatorProvider
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+
+@RunWith(AndroidJUnit4::class)
+@LargeTest
+class NavDeepLinkBenchmark {
+
+    companion object {
+        private const val GRAPH_COUNT = 20
+        private const val DESTINATIONS_PER_GRAPH = 20
+    }
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    private val navigatorProvider = TestNavigatorProvider()
+    private lateinit var graph: NavGraph
+
+    // The last destination added, which can be removed and added back to the graph
+    private lateinit var lastGraph: NavGraph
+    private lateinit var lastDestination: NavDestination
+
+    private val lastUri = Uri.parse(
+        "https://www.example.com/section${GRAPH_COUNT - 1}/" +
+            "destination${DESTINATIONS_PER_GRAPH - 1}/42"
+    )
+
+    @Before
+    fun setup() {
+        val graphNavigator = navigatorProvider.getNavigator(NavGraphNavigator::class.java)
+        val testNavigator = navigatorProvider.getNavigator(TestNavigator::class.java)
+        graph = graphNavigator.createDestination()
+        var id = 1
+        for (section in 0 until GRAPH_COUNT) {
+            lastGraph = graphNavigator.createDestination().apply { this.id = id++ }
+            for (destination in 0 until DESTINATIONS_PER_GRAPH) {
+                lastDestination = testNavigator.createDestination().apply {
+                    this.id = id++
+                    addDeepLink("www.example.com/section$section/destination$destination/{id}")
+                    addDeepLink("myapp://section$section/destination$destination?id={id}")
+                }
+                lastGraph.addDestination(lastDestination)
+            }
+            graph.addDestination(lastGraph)
+        }
+    }
+
+    @Test
+    fun matchDeepLink() {
+        benchmarkRule.measureRepeated {
+            assertTrue(graph.hasDeepLink(lastUri))
+        }
+    }
+
+    @Test
+    fun matchDeepLinkAfterGraphChange() {
+        benchmarkRule.measureRepeated {
+            runWithTimingDisabled {
+                // Changing the graph drops its deep link index
+                lastGraph.remove(lastDestination)
+                lastGraph.addDestination(lastDestination)
+            }
+            assertTrue(graph.hasDeepLink(lastUri))
+        }
+    }
+}
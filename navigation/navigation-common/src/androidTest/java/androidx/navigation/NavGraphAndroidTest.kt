@@ -230,6 +230,78 @@ class NavGraphAndroidTest {
             .isEqualTo(99)
     }
 
+    @Test
+    fun matchDeepLinkNestedGraphs() {
+        val navigatorProvider = NavigatorProvider().apply {
+            addNavigator(NavGraphNavigator(this))
+            addNavigator(NoOpNavigator())
+        }
+        val graph = navigatorProvider.getNavigator(NavGraphNavigator::class.java)
+            .createDestination()
+        val nestedGraph = navigatorProvider.getNavigator(NavGraphNavigator::class.java)
+            .createDestination()
+        nestedGraph.id = 1
+        graph.addDestination(nestedGraph)
+
+        val settingsDestination = navigatorProvider.getNavigator(NoOpNavigator::class.java)
+            .createDestination()
+        settingsDestination.id = 2
+        settingsDestination.addDeepLink("myapp://settings")
+        nestedGraph.addDestination(settingsDestination)
+
+        val userDestination = navigatorProvider.getNavigator(NoOpNavigator::class.java)
+            .createDestination()
+        userDestination.id = 3
+        userDestination.addDeepLink("www.example.com/users/{id}")
+        nestedGraph.addDestination(userDestination)
+
+        assertWithMessage("Deep link should point to the nested destination")
+            .that(graph.matchDeepLink(Uri.parse("myapp://settings"))?.destination)
+            .isSameInstanceAs(settingsDestination)
+        assertWithMessage("Deep link should point to the nested destination")
+            .that(graph.matchDeepLink(Uri.parse("http://www.example.com/users/43"))?.destination)
+            .isSameInstanceAs(userDestination)
+        assertWithMessage("Deep link with a different scheme should not match")
+            .that(graph.matchDeepLink(Uri.parse("ftp://www.example.com/users/43")))
+            .isNull()
+        assertWithMessage("Deep link with a different path should not match")
+            .that(graph.matchDeepLink(Uri.parse("myapp://settings/other")))
+            .isNull()
+    }
+
+    @Test
+    fun matchDeepLinkAfterGraphChanges() {
+        val navigatorProvider = NavigatorProvider().apply {
+            addNavigator(NavGraphNavigator(this))
+            addNavigator(NoOpNavigator())
+        }
+        val graph = navigatorProvider.getNavigator(NavGraphNavigator::class.java)
+            .createDestination()
+        val nestedGraph = navigatorProvider.getNavigator(NavGraphNavigator::class.java)
+            .createDestination()
+        nestedGraph.id = 1
+        graph.addDestination(nestedGraph)
+        val destination = navigatorProvider.getNavigator(NoOpNavigator::class.java)
+            .createDestination()
+        destination.id = 2
+        nestedGraph.addDestination(destination)
+
+        val deepLink = Uri.parse("myapp://settings")
+        assertWithMessage("Deep link should not match before being added")
+            .that(graph.matchDeepLink(deepLink))
+            .isNull()
+
+        destination.addDeepLink("myapp://settings")
+        assertWithMessage("Deep link should match once added to a nested destination")
+            .that(graph.matchDeepLink(deepLink)?.destination)
+            .isSameInstanceAs(destination)
+
+        nestedGraph.remove(destination)
+        assertWithMessage("Deep link should not match once its destination is removed")
+            .that(graph.matchDeepLink(deepLink))
+            .isNull()
+    }
+
     @Test
     fun toStringStartDestIdOnly() {
         val navigatorProvider = NavigatorProvider().apply {
@@ -35,7 +35,7 @@ import java.util.regex.Pattern;
  * {@link NavDestination#addDeepLink(NavDeepLink)}.
  */
 public final class NavDeepLink {
-    private static final Pattern SCHEME_PATTERN = Pattern.compile("^[a-zA-Z]+[+\\w\\-.]*:");
+    static final Pattern SCHEME_PATTERN = Pattern.compile("^[a-zA-Z]+[+\\w\\-.]*:");
 
     private final ArrayList<String> mArguments = new ArrayList<>();
     private final Map<String, ParamQuery> mParamArgMap = new HashMap<>();
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package androidx.navigation;
+
+import android.net.Uri;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.navigation.NavDestination.DeepLinkMatch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.regex.Matcher;
+
+/**
+ * Index of the deep links of a {@link NavGraph} and of all the destinations it contains.
+ *
+ * <p>Deep links with a uri pattern and no action or mimeType are kept in a trie keyed by the
+ * literal components of their pattern: the scheme, the host and the path segments that come
+ * before the first argument or wildcard. Matching a uri only tries the deep links found along
+ * the path of the uri components in the trie, plus the deep links with an action or a mimeType,
+ * which can match requests regardless of their uri.
+ *
+ * <p>Candidates are tried in the order of a full traversal of the graph, so the best match is
+ * the same as when trying every deep link.
+ */
+final class NavDeepLinkIndex {
+    private final Node mRoot = new Node();
+    private final ArrayList<Entry> mUnindexedEntries = new ArrayList<>();
+
+    NavDeepLinkIndex(@NonNull NavGraph graph) {
+        addDeepLinks(graph, 0);
+    }
+
+    /**
+     * Finds the best deep link match for the given request, as
+     * {@link NavDestination#matchDeepLink(NavDeepLinkRequest)} would on the indexed graph.
+     */
+    @Nullable
+    DeepLinkMatch match(@NonNull NavDeepLinkRequest request) {
+        final ArrayList<Entry> candidates = new ArrayList<>(mUnindexedEntries);
+        final Uri uri = request.getUri();
+        if (uri != null) {
+            Node node = mRoot;
+            candidates.addAll(node.mEntries);
+            for (String component : getComponents(uri.toString(), true)) {
+                node = node.mChildren.get(component);
+                if (node == null) {
+                    break;
+                }
+                candidates.addAll(node.mEntries);
+            }
+        }
+        Collections.sort(candidates, ORDER_COMPARATOR);
+
+        DeepLinkMatch bestMatch = null;
+        for (int i = 0; i < candidates.size(); i++) {
+            final Entry entry = candidates.get(i);
+            final DeepLinkMatch newMatch =
+                    entry.mDestination.matchDeepLink(entry.mDeepLink, request);
+            if (newMatch != null && (bestMatch == null || newMatch.compareTo(bestMatch) > 0)) {
+                bestMatch = newMatch;
+            }
+        }
+        return bestMatch;
+    }
+
+    /**
+     * Adds the deep links of the destination, then of its children if it is a graph, in the
+     * order they are tried by {@link NavGraph#matchDeepLink(NavDeepLinkRequest)}.
+     *
+     * @return the order of the next deep link.
+     */
+    private int addDeepLinks(@NonNull NavDestination destination, int order) {
+        final List<NavDeepLink> deepLinks = destination.getDeepLinks();
+        if (deepLinks != null) {
+            for (NavDeepLink deepLink : deepLinks) {
+                addDeepLink(new Entry(destination, deepLink, order++));
+            }
+        }
+        if (destination instanceof NavGraph) {
+            for (NavDestination child : (NavGraph) destination) {
+                order = addDeepLinks(child, order);
+            }
+        }
+        return order;
+    }
+
+    private void addDeepLink(@NonNull Entry entry) {
+        final NavDeepLink deepLink = entry.mDeepLink;
+        final String uriPattern = deepLink.getUriPattern();
+        if (uriPattern == null) {
+            // Can't match a uri, only an action or a mimeType
+            if (deepLink.getAction() != null || deepLink.getMimeType() != null) {
+                mUnindexedEntries.add(entry);
+            }
+            return;
+        }
+        if (deepLink.getAction() != null || deepLink.getMimeType() != null) {
+            mUnindexedEntries.add(entry);
+            return;
+        }
+
+        // Query parameters are matched separately from the path
+        final int queryStart = uriPattern.indexOf('?');
+        final String path = queryStart >= 0 ? uriPattern.substring(0, queryStart) : uriPattern;
+        if (NavDeepLink.SCHEME_PATTERN.matcher(path).find()) {
+            addPath(entry, path);
+        } else {
+            // Patterns without a scheme match both http and https
+            addPath(entry, "http://" + path);
+            addPath(entry, "https://" + path);
+        }
+    }
+
+    private void addPath(@NonNull Entry entry, @NonNull String path) {
+        // Only the components before the first argument or wildcard are literal
+        int literalEnd = path.length();
+        final int argumentStart = path.indexOf('{');
+        if (argumentStart >= 0) {
+            literalEnd = argumentStart;
+        }
+        final int wildcardStart = path.indexOf(".*");
+        if (wildcardStart >= 0) {
+            literalEnd = Math.min(literalEnd, wildcardStart);
+        }
+        final boolean isLiteral = literalEnd == path.length();
+
+        Node node = mRoot;
+        for (String component : getComponents(path.substring(0, literalEnd), isLiteral)) {
+            Node child = node.mChildren.get(component);
+            if (child == null) {
+                child = new Node();
+                node.mChildren.put(component, child);
+            }
+            node = child;
+        }
+        node.mEntries.add(entry);
+    }
+
+    /**
+     * Splits a uri in its scheme, authority and path segments. The path ends at the query or
+     * fragment, if any.
+     *
+     * @param isComplete whether the uri is complete, or the last component may be the beginning
+     *                   of a longer component and must be dropped.
+     */
+    @NonNull
+    static List<String> getComponents(@NonNull String uri, boolean isComplete) {
+        final ArrayList<String> components = new ArrayList<>();
+        final Matcher schemeMatcher = NavDeepLink.SCHEME_PATTERN.matcher(uri);
+        if (!schemeMatcher.find()) {
+            return components;
+        }
+        components.add(uri.substring(0, schemeMatcher.end() - 1));
+        int start = schemeMatcher.end();
+        if (uri.startsWith("//", start)) {
+            start += 2;
+        } else if (!isComplete && uri.length() < start + 2) {
+            // The uri may continue with an authority
+            return components;
+        }
+        for (int i = start; i < uri.length(); i++) {
+            final char c = uri.charAt(i);
+            if (c == '/' || c == '?' || c == '#') {
+                components.add(uri.substring(start, i));
+                if (c != '/') {
+                    return components;
+                }
+                start = i + 1;
+            }
+        }
+        if (isComplete) {
+            components.add(uri.substring(start));
+        }
+        return components;
+    }
+
+    private static final Comparator<Entry> ORDER_COMPARATOR = new Comparator<Entry>() {
+        @Override
+        public int compare(Entry lhs, Entry rhs) {
+            return lhs.mOrder - rhs.mOrder;
+        }
+    };
+
+    private static final class Node {
+        final HashMap<String, Node> mChildren = new HashMap<>();
+        final ArrayList<Entry> mEntries = new ArrayList<>();
+
+        Node() {
+        }
+    }
+
+    private static final class Entry {
+        final NavDestination mDestination;
+        final NavDeepLink mDeepLink;
+        final int mOrder;
+
+        Entry(NavDestination destination, NavDeepLink deepLink, int order) {
+            mDestination = destination;
+            mDeepLink = deepLink;
+            mOrder = order;
+        }
+    }
+}
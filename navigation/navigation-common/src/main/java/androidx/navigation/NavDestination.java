@@ -41,6 +41,7 @@ import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -453,6 +454,26 @@ public class NavDestination {
             mDeepLinks = new ArrayList<>();
         }
         mDeepLinks.add(navDeepLink);
+        onDeepLinksChanged();
+    }
+
+    /**
+     * Called when deep links are added to this destination or any destination it contains, or
+     * when destinations are added to or removed from it.
+     */
+    void onDeepLinksChanged() {
+        if (mParent != null) {
+            mParent.onDeepLinksChanged();
+        }
+    }
+
+    /**
+     * Returns the deep links added via {@link #addDeepLink(NavDeepLink)}, or null if there are
+     * none.
+     */
+    @Nullable
+    List<NavDeepLink> getDeepLinks() {
+        return mDeepLinks;
     }
 
     /**
@@ -469,28 +490,39 @@ public class NavDestination {
         }
         DeepLinkMatch bestMatch = null;
         for (NavDeepLink deepLink : mDeepLinks) {
-            Uri uri = navDeepLinkRequest.getUri();
-            Bundle matchingArguments = uri != null
-                    ? deepLink.getMatchingArguments(uri, getArguments()) : null;
-
-            String requestAction = navDeepLinkRequest.getAction();
-            boolean matchingAction = requestAction != null && requestAction.equals(
-                    deepLink.getAction());
-
-            String mimeType = navDeepLinkRequest.getMimeType();
-            int mimeTypeMatchLevel = mimeType != null
-                    ? deepLink.getMimeTypeMatchRating(mimeType) : -1;
-            if (matchingArguments != null || matchingAction || mimeTypeMatchLevel > -1) {
-                DeepLinkMatch newMatch = new DeepLinkMatch(this, matchingArguments,
-                        deepLink.isExactDeepLink(), matchingAction, mimeTypeMatchLevel);
-                if (bestMatch == null || newMatch.compareTo(bestMatch) > 0) {
-                    bestMatch = newMatch;
-                }
+            DeepLinkMatch newMatch = matchDeepLink(deepLink, navDeepLinkRequest);
+            if (newMatch != null && (bestMatch == null || newMatch.compareTo(bestMatch) > 0)) {
+                bestMatch = newMatch;
             }
         }
         return bestMatch;
     }
 
+    /**
+     * Determines if one of the deep links of this NavDestination matches the given request.
+     * @return The match, or null if the deep link does not match.
+     */
+    @Nullable
+    final DeepLinkMatch matchDeepLink(@NonNull NavDeepLink deepLink,
+            @NonNull NavDeepLinkRequest navDeepLinkRequest) {
+        Uri uri = navDeepLinkRequest.getUri();
+        Bundle matchingArguments = uri != null
+                ? deepLink.getMatchingArguments(uri, getArguments()) : null;
+
+        String requestAction = navDeepLinkRequest.getAction();
+        boolean matchingAction = requestAction != null && requestAction.equals(
+                deepLink.getAction());
+
+        String mimeType = navDeepLinkRequest.getMimeType();
+        int mimeTypeMatchLevel = mimeType != null
+                ? deepLink.getMimeTypeMatchRating(mimeType) : -1;
+        if (matchingArguments != null || matchingAction || mimeTypeMatchLevel > -1) {
+            return new DeepLinkMatch(this, matchingArguments,
+                    deepLink.isExactDeepLink(), matchingAction, mimeTypeMatchLevel);
+        }
+        return null;
+    }
+
     /**
      * Build an array containing the hierarchy from the root down to this destination.
      *
@@ -42,6 +42,9 @@ public class NavGraph extends NavDestination implements Iterable<NavDestination>
     @SuppressWarnings("WeakerAccess") /* synthetic access */
     final SparseArrayCompat<NavDestination> mNodes = new SparseArrayCompat<>();
     private int mStartDestId;
+    // Built on the first deep link match, and dropped whenever deep links or destinations change
+    @Nullable
+    private NavDeepLinkIndex mDeepLinkIndex;
     private String mStartDestIdName;
 
     /**
@@ -72,17 +75,18 @@ public class NavGraph extends NavDestination implements Iterable<NavDestination>
     @Override
     @Nullable
     DeepLinkMatch matchDeepLink(@NonNull NavDeepLinkRequest request) {
-        // First search through any deep links directly added to this NavGraph
-        DeepLinkMatch bestMatch = super.matchDeepLink(request);
-        // Then search through all child destinations for a matching deep link
-        for (NavDestination child : this) {
-            DeepLinkMatch childBestMatch = child.matchDeepLink(request);
-            if (childBestMatch != null && (bestMatch == null
-                    || childBestMatch.compareTo(bestMatch) > 0)) {
-                bestMatch = childBestMatch;
-            }
+        // Search through the deep links of this NavGraph and of all of its child destinations,
+        // narrowed down by the index
+        if (mDeepLinkIndex == null) {
+            mDeepLinkIndex = new NavDeepLinkIndex(this);
         }
-        return bestMatch;
+        return mDeepLinkIndex.match(request);
+    }
+
+    @Override
+    void onDeepLinksChanged() {
+        mDeepLinkIndex = null;
+        super.onDeepLinksChanged();
     }
 
     /**
@@ -118,6 +122,7 @@ public class NavGraph extends NavDestination implements Iterable<NavDestination>
         }
         node.setParent(this);
         mNodes.put(node.getId(), node);
+        onDeepLinksChanged();
     }
 
     /**
@@ -210,6 +215,7 @@ public class NavGraph extends NavDestination implements Iterable<NavDestination>
                 }
                 mNodes.valueAt(mIndex).setParent(null);
                 mNodes.removeAt(mIndex);
+                onDeepLinksChanged();
                 mIndex--;
                 mWentToNext = false;
             }
@@ -242,6 +248,7 @@ public class NavGraph extends NavDestination implements Iterable<NavDestination>
         if (index >= 0) {
             mNodes.valueAt(index).setParent(null);
             mNodes.removeAt(index);
+            onDeepLinksChanged();
         }
     }
 
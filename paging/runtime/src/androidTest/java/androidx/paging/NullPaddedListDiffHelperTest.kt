@@ -24,6 +24,7 @@ import androidx.recyclerview.widget.DiffUtil
 import androidx.test.ext.junit.runners.AndroidJUnit4
 import androidx.test.filters.SmallTest
 import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
 import org.junit.Test
 import org.junit.runner.RunWith
 
@@ -207,7 +208,144 @@ class NullPaddedListDiffHelperTest {
         }
     }
 
+    @Test
+    fun keyed_sameListNoUpdates() {
+        validateTwoListKeyedDiff(
+            Storage(5, listOf("a", "b", "c"), 5),
+            Storage(5, listOf("a", "b", "c"), 5)
+        ) {
+            assertEquals(0, it.interactions)
+        }
+    }
+
+    @Test
+    fun keyed_appendFill() {
+        validateTwoListKeyedDiff(
+            Storage(5, listOf("a", "b"), 5),
+            Storage(5, listOf("a", "b", "c"), 4)
+        ) {
+            assertEquals(OnChangedEvent(7, 1, null), it.onChangedEvents[0])
+            assertEquals(1, it.interactions)
+        }
+    }
+
+    @Test
+    fun keyed_prependFill() {
+        validateTwoListKeyedDiff(
+            Storage(5, listOf("b", "c"), 5),
+            Storage(4, listOf("a", "b", "c"), 5)
+        ) {
+            assertEquals(OnChangedEvent(4, 1, null), it.onChangedEvents[0])
+            assertEquals(1, it.interactions)
+        }
+    }
+
+    @Test
+    fun keyed_change() {
+        validateTwoListKeyedDiff(
+            Storage(5, listOf("a1", "b1", "c1"), 5),
+            Storage(5, listOf("a2", "b1", "c2"), 5)
+        ) {
+            assertEquals(OnChangedEvent(7, 1, null), it.onChangedEvents[0])
+            assertEquals(OnChangedEvent(5, 1, null), it.onChangedEvents[1])
+            assertEquals(2, it.interactions)
+        }
+    }
+
+    @Test
+    fun keyed_shiftedWindow() {
+        validateTwoListKeyedDiff(
+            Storage(5, listOf("a", "b", "c"), 5),
+            Storage(6, listOf("b", "c", "d"), 4)
+        ) {
+            // a -> placeholder, placeholder -> d
+            assertEquals(OnChangedEvent(8, 1, null), it.onChangedEvents[0])
+            assertEquals(OnChangedEvent(5, 1, null), it.onChangedEvents[1])
+            assertEquals(2, it.interactions)
+        }
+    }
+
+    @Test
+    fun keyed_insertInMiddle() {
+        validateTwoListKeyedDiff(
+            Storage(0, listOf("a", "b", "c", "d"), 0),
+            Storage(0, listOf("a", "b", "x", "c", "d"), 0)
+        ) {
+            assertEquals(OnInsertedEvent(2, 1), it.onInsertedEvents[0])
+            assertEquals(1, it.interactions)
+        }
+    }
+
+    @Test
+    fun keyed_moveInMiddle() {
+        validateTwoListKeyedDiff(
+            Storage(5, listOf("a", "b", "c", "d", "e"), 5),
+            Storage(5, listOf("a", "c", "b", "d", "e"), 5)
+        ) {
+            assertEquals(1, it.onMovedEvents.size)
+            assertEquals(1, it.interactions)
+        }
+    }
+
+    @Test
+    fun keyed_noSharedEdgeKey() {
+        assertNull(
+            Storage(5, listOf("a", "b"), 5).computeKeyedDiff(
+                Storage(5, listOf("c", "d"), 5),
+                KEYED_DIFF_CALLBACK
+            )
+        )
+    }
+
+    @Test
+    fun keyed_transformAnchorIndex_removal() {
+        validateTwoListKeyedDiffTransform(
+            Storage(5, listOf("a", "b", "c", "d", "e"), 5),
+            Storage(5, listOf("a", "d", "e"), 5)
+        ) { transformAnchorIndex ->
+            // a doesn't move
+            assertEquals(5, transformAnchorIndex(5))
+
+            // b / c missing, so impl maps them to d's position
+            assertEquals(6, transformAnchorIndex(6))
+            assertEquals(6, transformAnchorIndex(7))
+
+            // d / e move forward
+            assertEquals(6, transformAnchorIndex(8))
+            assertEquals(7, transformAnchorIndex(9))
+        }
+    }
+
+    @Test
+    fun keyed_transformAnchorIndex_shiftedWindow() {
+        validateTwoListKeyedDiffTransform(
+            Storage(5, listOf("a", "b", "c"), 5),
+            Storage(2, listOf("b", "c", "d"), 2)
+        ) { transformAnchorIndex ->
+            // a replaced by a placeholder, at the same position relative to b
+            assertEquals(1, transformAnchorIndex(5))
+            // b / c move back
+            assertEquals(2, transformAnchorIndex(6))
+            assertEquals(3, transformAnchorIndex(7))
+            // d replaces a placeholder after c
+            assertEquals(4, transformAnchorIndex(8))
+            // for rest, clamp to list size
+            assertEquals(6, transformAnchorIndex(12))
+        }
+    }
+
     companion object {
+        private val KEYED_DIFF_CALLBACK = object : KeyedItemCallback<String>() {
+            override fun getKey(item: String): Any {
+                // first char is the key
+                return item[0]
+            }
+
+            override fun areContentsTheSame(oldItem: String, newItem: String): Boolean {
+                return oldItem == newItem
+            }
+        }
+
         private val DIFF_CALLBACK = object : DiffUtil.ItemCallback<String>() {
             override fun areItemsTheSame(oldItem: String, newItem: String): Boolean {
                 // first char means same item
@@ -231,6 +369,29 @@ class NullPaddedListDiffHelperTest {
             validator(listUpdateCallback)
         }
 
+        private fun validateTwoListKeyedDiff(
+            oldList: Storage,
+            newList: Storage,
+            validator: (callback: ListUpdateCallbackFake) -> Unit
+        ) {
+            val diffResult = oldList.computeKeyedDiff(newList, KEYED_DIFF_CALLBACK)!!
+            val listUpdateCallback = ListUpdateCallbackFake()
+            diffResult.dispatchUpdatesTo(listUpdateCallback)
+
+            validator(listUpdateCallback)
+        }
+
+        private fun validateTwoListKeyedDiffTransform(
+            oldList: Storage,
+            newList: Storage,
+            validator: (positionMapper: (Int) -> Int) -> Unit
+        ) {
+            val diffResult = oldList.computeKeyedDiff(newList, KEYED_DIFF_CALLBACK)!!
+            validator {
+                diffResult.transformAnchorIndex(it, newList.size)
+            }
+        }
+
         private fun validateTwoListDiffTransform(
             oldList: Storage,
             newList: Storage,
@@ -86,16 +86,29 @@ class AsyncPagingDataDiffer<T : Any> @JvmOverloads constructor(
                 null
             }
             else -> {
-                val diffResult = withContext(workerDispatcher) {
-                    previousList.computeDiff(newList, diffCallback)
+                val keyedDiffResult = if (diffCallback is KeyedItemCallback<T>) {
+                    withContext(workerDispatcher) {
+                        previousList.computeKeyedDiff(newList, diffCallback)
+                    }
+                } else {
+                    null
+                }
+                if (keyedDiffResult != null) {
+                    onListPresentable()
+                    keyedDiffResult.dispatchUpdatesTo(updateCallback)
+                    keyedDiffResult.transformAnchorIndex(lastAccessedIndex, newList.size)
+                } else {
+                    val diffResult = withContext(workerDispatcher) {
+                        previousList.computeDiff(newList, diffCallback)
+                    }
+                    onListPresentable()
+                    previousList.dispatchDiff(updateCallback, newList, diffResult)
+                    previousList.transformAnchorIndex(
+                        diffResult = diffResult,
+                        newList = newList,
+                        oldPosition = lastAccessedIndex
+                    )
                 }
-                onListPresentable()
-                previousList.dispatchDiff(updateCallback, newList, diffResult)
-                previousList.transformAnchorIndex(
-                    diffResult = diffResult,
-                    newList = newList,
-                    oldPosition = lastAccessedIndex
-                )
             }
         }
 
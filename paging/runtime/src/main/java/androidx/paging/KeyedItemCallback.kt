@@ -0,0 +1,46 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.paging
+
+import androidx.recyclerview.widget.DiffUtil
+
+/**
+ * A [DiffUtil.ItemCallback] which identifies items by a stable key.
+ *
+ * When a [PagingDataAdapter] or [AsyncPagingDataDiffer] is constructed with a [KeyedItemCallback],
+ * presenting a new generation of [PagingData] first aligns the loaded items of the previous and
+ * new lists by key. Items present in both lists are reported as unchanged, or as changed if their
+ * contents differ, and placeholders replaced by items (or the reverse) are reported as changes
+ * instead of removals and insertions. [DiffUtil] only runs on the window between the longest
+ * matching leading and trailing runs of keys, and not at all when the new generation presents the
+ * same keys as the previous one, such as when a [PagingSource] is invalidated by an unrelated
+ * write.
+ *
+ * Keys must be unique within the presented list. If the two lists share no key at either edge of
+ * the loaded items, the lists are diffed with [DiffUtil] as with any other [DiffUtil.ItemCallback].
+ */
+abstract class KeyedItemCallback<T : Any> : DiffUtil.ItemCallback<T>() {
+    /**
+     * Returns the key identifying [item], which must be stable across generations of
+     * [PagingData] and implement [equals].
+     */
+    abstract fun getKey(item: T): Any
+
+    final override fun areItemsTheSame(oldItem: T, newItem: T): Boolean {
+        return getKey(oldItem) == getKey(newItem)
+    }
+}
@@ -191,3 +191,255 @@ internal fun NullPaddedList<*>.transformAnchorIndex(
     // not anchored to an item in new list, so just reuse position (clamped to newList size)
     return oldPosition.coerceIn(0 until newList.size)
 }
+
+/**
+ * Result of diffing two [NullPaddedList]s by the keys of a [KeyedItemCallback].
+ *
+ * Both lists are split in the same five regions:
+ *
+ * lead: placeholders and leading items whose keys are not in the other list
+ * prefix: items matched by key, in the same order in both lists
+ * middle: the remaining items, diffed with [DiffUtil] when both lists have some
+ * suffix: items matched by key, in the same order in both lists
+ * trail: trailing items (when there is no suffix and one of the middles is empty) and
+ * placeholders
+ *
+ * Leads are aligned on their last position and trails on their first one, so that an item
+ * replacing a placeholder at the same position is dispatched as a change.
+ */
+internal class KeyedDiffResult(
+    private val oldLeadSize: Int,
+    private val oldLeadItems: Int,
+    private val newLeadSize: Int,
+    private val newLeadItems: Int,
+    private val prefixCount: Int,
+    private val oldMiddleCount: Int,
+    private val newMiddleCount: Int,
+    private val middleDiff: DiffUtil.DiffResult?,
+    private val suffixCount: Int,
+    private val oldTrailSize: Int,
+    private val oldTrailItems: Int,
+    private val newTrailSize: Int,
+    private val newTrailItems: Int,
+    /** Positions in the previous list of prefix and suffix items whose contents changed. */
+    private val changedPositions: IntArray,
+    private val changePayloads: List<Any?>
+) {
+    /**
+     * Dispatches the updates turning the previous list into the new one, from the end of the
+     * list to its start so that positions of regions not yet dispatched are unaffected.
+     */
+    fun dispatchUpdatesTo(callback: ListUpdateCallback) {
+        val oldTrailStart = oldLeadSize + prefixCount + oldMiddleCount + suffixCount
+        if (oldTrailSize > newTrailSize) {
+            callback.onRemoved(oldTrailStart + newTrailSize, oldTrailSize - newTrailSize)
+        } else if (oldTrailSize < newTrailSize) {
+            callback.onInserted(oldTrailStart + oldTrailSize, newTrailSize - oldTrailSize)
+        }
+        val trailChanged = minOf(
+            maxOf(oldTrailItems, newTrailItems),
+            minOf(oldTrailSize, newTrailSize)
+        )
+        if (trailChanged > 0) {
+            callback.onChanged(oldTrailStart, trailChanged, null)
+        }
+
+        for (i in changedPositions.indices.reversed()) {
+            callback.onChanged(changedPositions[i], 1, changePayloads[i])
+        }
+
+        val middleStart = oldLeadSize + prefixCount
+        if (middleDiff != null) {
+            middleDiff.dispatchUpdatesTo(OffsettingListUpdateCallback(middleStart, callback))
+        } else if (oldMiddleCount > 0) {
+            callback.onRemoved(middleStart, oldMiddleCount)
+        } else if (newMiddleCount > 0) {
+            callback.onInserted(middleStart, newMiddleCount)
+        }
+
+        val leadChangedStart = oldLeadSize - minOf(
+            maxOf(oldLeadItems, newLeadItems),
+            minOf(oldLeadSize, newLeadSize)
+        )
+        if (leadChangedStart < oldLeadSize) {
+            callback.onChanged(leadChangedStart, oldLeadSize - leadChangedStart, null)
+        }
+        if (oldLeadSize > newLeadSize) {
+            callback.onRemoved(0, oldLeadSize - newLeadSize)
+        } else if (oldLeadSize < newLeadSize) {
+            callback.onInserted(0, newLeadSize - oldLeadSize)
+        }
+    }
+
+    /**
+     * Given an oldPosition representing an anchor in the old data set, computes its new position
+     * after the diff, or a guess if it no longer exists.
+     */
+    fun transformAnchorIndex(oldPosition: Int, newSize: Int): Int {
+        val offset = newLeadSize - oldLeadSize
+        val oldMiddleStart = oldLeadSize + prefixCount
+        val newPosition = when {
+            oldPosition < oldMiddleStart -> oldPosition + offset
+            oldPosition < oldMiddleStart + oldMiddleCount -> {
+                val middleIndex = oldPosition - oldMiddleStart
+                val newMiddleIndex = middleDiff?.convertOldPositionToNew(middleIndex) ?: -1
+                oldMiddleStart + offset + when {
+                    newMiddleIndex != -1 -> newMiddleIndex
+                    else -> minOf(middleIndex, newMiddleCount)
+                }
+            }
+            else -> oldPosition + offset + newMiddleCount - oldMiddleCount
+        }
+        return newPosition.coerceIn(0 until newSize)
+    }
+}
+
+/**
+ * Diffs two lists by the keys of [diffCallback], running [DiffUtil] only on the items between the
+ * longest runs of matching keys at each end of the loaded items.
+ *
+ * @return The diff, or `null` if neither the first loaded item of the previous list nor the first
+ * loaded item of [newList] is in the other list, in which case [computeDiff] should be used.
+ */
+internal fun <T : Any> NullPaddedList<T>.computeKeyedDiff(
+    newList: NullPaddedList<T>,
+    diffCallback: KeyedItemCallback<T>
+): KeyedDiffResult? {
+    val oldCount = storageCount
+    val newCount = newList.storageCount
+    if (oldCount == 0 || newCount == 0) return null
+
+    // Align the lists on the first loaded item of either list.
+    var oldStart = indexOfKey(diffCallback, diffCallback.getKey(newList.getFromStorage(0)))
+    var newStart = 0
+    if (oldStart == -1) {
+        oldStart = 0
+        newStart = newList.indexOfKey(diffCallback, diffCallback.getKey(getFromStorage(0)))
+        if (newStart == -1) return null
+    }
+
+    var prefixCount = 0
+    while (oldStart + prefixCount < oldCount && newStart + prefixCount < newCount &&
+        diffCallback.areItemsTheSame(
+            getFromStorage(oldStart + prefixCount),
+            newList.getFromStorage(newStart + prefixCount)
+        )
+    ) {
+        prefixCount++
+    }
+    var suffixCount = 0
+    while (suffixCount < oldCount - oldStart - prefixCount &&
+        suffixCount < newCount - newStart - prefixCount &&
+        diffCallback.areItemsTheSame(
+            getFromStorage(oldCount - suffixCount - 1),
+            newList.getFromStorage(newCount - suffixCount - 1)
+        )
+    ) {
+        suffixCount++
+    }
+
+    val changedPositions = mutableListOf<Int>()
+    val changePayloads = mutableListOf<Any?>()
+    fun addChangeIfNeeded(oldIndex: Int, newIndex: Int) {
+        val oldItem = getFromStorage(oldIndex)
+        val newItem = newList.getFromStorage(newIndex)
+        if (oldItem !== newItem && !diffCallback.areContentsTheSame(oldItem, newItem)) {
+            changedPositions.add(placeholdersBefore + oldIndex)
+            changePayloads.add(diffCallback.getChangePayload(oldItem, newItem))
+        }
+    }
+    for (i in 0 until prefixCount) {
+        addChangeIfNeeded(oldStart + i, newStart + i)
+    }
+    for (i in suffixCount downTo 1) {
+        addChangeIfNeeded(oldCount - i, newCount - i)
+    }
+
+    var oldMiddleCount = oldCount - oldStart - prefixCount - suffixCount
+    var newMiddleCount = newCount - newStart - prefixCount - suffixCount
+    var oldTrailItems = 0
+    var newTrailItems = 0
+    var middleDiff: DiffUtil.DiffResult? = null
+    if (suffixCount == 0 && (oldMiddleCount == 0 || newMiddleCount == 0)) {
+        // Items only loaded at the end of one list, align them with the other's placeholders.
+        oldTrailItems = oldMiddleCount
+        newTrailItems = newMiddleCount
+        oldMiddleCount = 0
+        newMiddleCount = 0
+    } else if (oldMiddleCount > 0 && newMiddleCount > 0) {
+        middleDiff = MiddleDiff(
+            oldList = this,
+            oldOffset = oldStart + prefixCount,
+            oldCount = oldMiddleCount,
+            newList = newList,
+            newOffset = newStart + prefixCount,
+            newCount = newMiddleCount,
+            diffCallback = diffCallback
+        ).calculate()
+    }
+
+    return KeyedDiffResult(
+        oldLeadSize = placeholdersBefore + oldStart,
+        oldLeadItems = oldStart,
+        newLeadSize = newList.placeholdersBefore + newStart,
+        newLeadItems = newStart,
+        prefixCount = prefixCount,
+        oldMiddleCount = oldMiddleCount,
+        newMiddleCount = newMiddleCount,
+        middleDiff = middleDiff,
+        suffixCount = suffixCount,
+        oldTrailSize = oldTrailItems + placeholdersAfter,
+        oldTrailItems = oldTrailItems,
+        newTrailSize = newTrailItems + newList.placeholdersAfter,
+        newTrailItems = newTrailItems,
+        changedPositions = changedPositions.toIntArray(),
+        changePayloads = changePayloads
+    )
+}
+
+private fun <T : Any> NullPaddedList<T>.indexOfKey(
+    diffCallback: KeyedItemCallback<T>,
+    key: Any
+): Int {
+    for (i in 0 until storageCount) {
+        if (diffCallback.getKey(getFromStorage(i)) == key) {
+            return i
+        }
+    }
+    return -1
+}
+
+private class MiddleDiff<T : Any>(
+    private val oldList: NullPaddedList<T>,
+    private val oldOffset: Int,
+    private val oldCount: Int,
+    private val newList: NullPaddedList<T>,
+    private val newOffset: Int,
+    private val newCount: Int,
+    private val diffCallback: DiffUtil.ItemCallback<T>
+) : DiffUtil.Callback() {
+    fun calculate(): DiffUtil.DiffResult = DiffUtil.calculateDiff(this, true)
+
+    override fun getOldListSize() = oldCount
+
+    override fun getNewListSize() = newCount
+
+    override fun areItemsTheSame(oldItemPosition: Int, newItemPosition: Int): Boolean {
+        val oldItem = oldList.getFromStorage(oldOffset + oldItemPosition)
+        val newItem = newList.getFromStorage(newOffset + newItemPosition)
+        return oldItem === newItem || diffCallback.areItemsTheSame(oldItem, newItem)
+    }
+
+    override fun areContentsTheSame(oldItemPosition: Int, newItemPosition: Int): Boolean {
+        val oldItem = oldList.getFromStorage(oldOffset + oldItemPosition)
+        val newItem = newList.getFromStorage(newOffset + newItemPosition)
+        return oldItem === newItem || diffCallback.areContentsTheSame(oldItem, newItem)
+    }
+
+    override fun getChangePayload(oldItemPosition: Int, newItemPosition: Int): Any? {
+        return diffCallback.getChangePayload(
+            oldList.getFromStorage(oldOffset + oldItemPosition),
+            newList.getFromStorage(newOffset + newItemPosition)
+        )
+    }
+}
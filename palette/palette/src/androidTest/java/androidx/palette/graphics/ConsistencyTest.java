@@ -17,6 +17,7 @@
 package androidx.palette.graphics;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import android.graphics.Bitmap;
 
@@ -26,6 +27,14 @@ import androidx.test.filters.SmallTest;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
 @RunWith(AndroidJUnit4.class)
 public class ConsistencyTest {
 
@@ -46,6 +55,88 @@ public class ConsistencyTest {
         }
     }
 
+    @Test
+    @SmallTest
+    public void testConsistencyWithExecutor() {
+        final Bitmap bitmap = TestUtils.loadSampleBitmap();
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            // Sampling in parallel bands must count the same colors as sampling on one thread
+            final Palette expected = Palette.from(bitmap)
+                    .addRegion(0, 0, bitmap.getWidth(), bitmap.getHeight())
+                    .generate();
+            for (int i = 0; i < NUMBER_TRIALS; i++) {
+                assetPalettesEqual(expected,
+                        Palette.from(bitmap).setExecutor(executor).generate());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @SmallTest
+    public void testConsistencyWithAddedRegions() {
+        final Bitmap bitmap = TestUtils.loadSampleBitmap();
+        final int width = bitmap.getWidth();
+        final int height = bitmap.getHeight();
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            // Without resizing, regions partitioning the bitmap count each pixel exactly once
+            final Palette expected = Palette.from(bitmap)
+                    .resizeBitmapArea(0)
+                    .addRegion(0, 0, width, height)
+                    .generate();
+            assetPalettesEqual(expected, Palette.from(bitmap)
+                    .resizeBitmapArea(0)
+                    .addRegion(0, 0, width / 2, height / 3)
+                    .addRegion(0, height / 3, width / 2, height)
+                    .addRegion(width / 2, 0, width, height)
+                    .generate());
+            assetPalettesEqual(expected, Palette.from(bitmap)
+                    .resizeBitmapArea(0)
+                    .setRegion(width / 2, 0, width, height)
+                    .addRegion(0, 0, width / 2, height)
+                    .setExecutor(executor)
+                    .generate());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @SmallTest
+    public void testGenerateAll() throws InterruptedException {
+        final Bitmap bitmap = TestUtils.loadSampleBitmap();
+        final List<Palette.Builder> builders = Arrays.asList(
+                Palette.from(bitmap),
+                Palette.from(bitmap).maximumColorCount(8),
+                Palette.from(bitmap).setRegion(0, 0, bitmap.getWidth() / 2, bitmap.getHeight()));
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicReference<List<Palette>> result = new AtomicReference<>();
+        try {
+            Palette.generateAll(builders, executor, new Palette.PaletteBatchListener() {
+                @Override
+                public void onGenerated(List<Palette> palettes) {
+                    result.set(palettes);
+                    latch.countDown();
+                }
+            });
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+
+        final List<Palette> palettes = result.get();
+        assertEquals(builders.size(), palettes.size());
+        assetPalettesEqual(Palette.from(bitmap).generate(), palettes.get(0));
+        assetPalettesEqual(Palette.from(bitmap).maximumColorCount(8).generate(), palettes.get(1));
+        assetPalettesEqual(Palette.from(bitmap)
+                        .setRegion(0, 0, bitmap.getWidth() / 2, bitmap.getHeight()).generate(),
+                palettes.get(2));
+    }
+
     private static void assetPalettesEqual(Palette p1, Palette p2) {
         assertEquals(p1.getVibrantSwatch(), p2.getVibrantSwatch());
         assertEquals(p1.getLightVibrantSwatch(), p2.getLightVibrantSwatch());
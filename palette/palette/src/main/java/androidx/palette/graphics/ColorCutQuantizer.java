@@ -49,6 +49,9 @@ final class ColorCutQuantizer {
     private static final int QUANTIZE_WORD_WIDTH = 5;
     private static final int QUANTIZE_WORD_MASK = (1 << QUANTIZE_WORD_WIDTH) - 1;
 
+    /** The length of a histogram of quantized colors. */
+    static final int HISTOGRAM_SIZE = 1 << (QUANTIZE_WORD_WIDTH * 3);
+
     final int[] mColors;
     final int[] mHistogram;
     final List<Palette.Swatch> mQuantizedColors;
@@ -64,16 +67,21 @@ final class ColorCutQuantizer {
      * @param filters Set of filters to use in the quantization stage
      */
     ColorCutQuantizer(int[] pixels, int maxColors, @Nullable Palette.Filter[] filters) {
+        this(maxColors, filters, buildHistogram(pixels));
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param maxColors The maximum number of colors that should be in the result palette.
+     * @param filters Set of filters to use in the quantization stage
+     * @param histogram population of each quantized color, of length {@link #HISTOGRAM_SIZE}.
+     *                  The populations of filtered colors are set to 0.
+     */
+    ColorCutQuantizer(int maxColors, @Nullable Palette.Filter[] filters, int[] histogram) {
         mFilters = filters;
 
-        final int[] hist = mHistogram = new int[1 << (QUANTIZE_WORD_WIDTH * 3)];
-        for (int i = 0; i < pixels.length; i++) {
-            final int quantizedColor = quantizeFromRgb888(pixels[i]);
-            // Now update the pixel value to the quantized value
-            pixels[i] = quantizedColor;
-            // And update the histogram
-            hist[quantizedColor]++;
-        }
+        final int[] hist = mHistogram = histogram;
 
         // Now let's count the number of distinct colors
         int distinctColorCount = 0;
@@ -109,6 +117,18 @@ final class ColorCutQuantizer {
         }
     }
 
+    private static int[] buildHistogram(int[] pixels) {
+        final int[] hist = new int[HISTOGRAM_SIZE];
+        for (int i = 0; i < pixels.length; i++) {
+            final int quantizedColor = quantizeFromRgb888(pixels[i]);
+            // Now update the pixel value to the quantized value
+            pixels[i] = quantizedColor;
+            // And update the histogram
+            hist[quantizedColor]++;
+        }
+        return hist;
+    }
+
     /**
      * @return the list of quantized colors
      */
@@ -426,7 +446,7 @@ final class ColorCutQuantizer {
     /**
      * Quantized a RGB888 value to have a word width of {@value #QUANTIZE_WORD_WIDTH}.
      */
-    private static int quantizeFromRgb888(int color) {
+    static int quantizeFromRgb888(int color) {
         int r = modifyWordWidth(Color.red(color), 8, QUANTIZE_WORD_WIDTH);
         int g = modifyWordWidth(Color.green(color), 8, QUANTIZE_WORD_WIDTH);
         int b = modifyWordWidth(Color.blue(color), 8, QUANTIZE_WORD_WIDTH);
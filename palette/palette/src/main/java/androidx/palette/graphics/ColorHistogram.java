@@ -0,0 +1,198 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package androidx.palette.graphics;
+
+import android.graphics.Bitmap;
+import android.graphics.Rect;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Builds the histogram of quantized colors used by {@link ColorCutQuantizer} straight from a
+ * {@link Bitmap}.
+ * <p>
+ * The bitmap is sampled at the scaled down size with nearest neighbor sampling, one row at a
+ * time, so neither a scaled bitmap nor a copy of all of its pixels is created. Rows are split in
+ * interleaved bands which can be counted in parallel on an {@link Executor}, then the band
+ * histograms are summed. The histogram and row buffers only live for the duration of a call.
+ */
+final class ColorHistogram {
+    private static final int MAX_BANDS = 4;
+    // Smallest number of sampled pixels worth counting on another thread. Each band clears and
+    // then sums a whole histogram, which costs about as much as counting as many pixels as it has
+    // entries, so a band must count several times that to pay for itself.
+    private static final int MIN_BAND_PIXELS = 4 * ColorCutQuantizer.HISTOGRAM_SIZE;
+
+    private ColorHistogram() {
+    }
+
+    /**
+     * Counts the quantized colors of the given regions of a bitmap, as if it was scaled to the
+     * given size.
+     *
+     * @param bitmap the bitmap to sample.
+     * @param width the width of the scaled bitmap, at most the width of the bitmap.
+     * @param height the height of the scaled bitmap, at most the height of the bitmap.
+     * @param regions the regions to sample, in bitmap coordinates and within its bounds. The
+     *                pixels of overlapping regions are counted once per region.
+     * @param executor the executor to count bands of rows on, or null to count all the rows on
+     *                 the calling thread.
+     * @return the histogram, of length {@link ColorCutQuantizer#HISTOGRAM_SIZE}.
+     */
+    @NonNull
+    static int[] build(@NonNull final Bitmap bitmap, int width, int height,
+            @NonNull List<Rect> regions, @Nullable Executor executor) {
+        final int srcWidth = bitmap.getWidth();
+        final int srcHeight = bitmap.getHeight();
+
+        // Map the regions to the scaled bitmap, and each of their columns back to the bitmap
+        final int regionCount = regions.size();
+        final int[] tops = new int[regionCount];
+        final int[] bottoms = new int[regionCount];
+        final int[][] columns = new int[regionCount][];
+        int totalRows = 0;
+        long totalPixels = 0;
+        int maxSpan = 0;
+        for (int i = 0; i < regionCount; i++) {
+            final Rect region = regions.get(i);
+            final int left = (int) Math.floor(region.left * width / (double) srcWidth);
+            final int right = Math.min((int) Math.ceil(region.right * width / (double) srcWidth),
+                    width);
+            tops[i] = (int) Math.floor(region.top * height / (double) srcHeight);
+            bottoms[i] = Math.min((int) Math.ceil(region.bottom * height / (double) srcHeight),
+                    height);
+            final int[] regionColumns = columns[i] = new int[Math.max(0, right - left)];
+            for (int x = left; x < right; x++) {
+                regionColumns[x - left] = sample(x, width, srcWidth);
+            }
+            if (regionColumns.length > 0) {
+                maxSpan = Math.max(maxSpan,
+                        regionColumns[regionColumns.length - 1] - regionColumns[0] + 1);
+            }
+            final int rows = Math.max(0, bottoms[i] - tops[i]);
+            totalRows += rows;
+            totalPixels += (long) rows * regionColumns.length;
+        }
+
+        final int bandCount = executor == null ? 1 : (int) Math.max(1,
+                Math.min(Math.min(MAX_BANDS, totalRows), totalPixels / MIN_BAND_PIXELS));
+
+        final int[][] histograms = new int[bandCount][ColorCutQuantizer.HISTOGRAM_SIZE];
+        final int[][] rows = new int[bandCount][maxSpan];
+
+        final AtomicInteger nextBand = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(bandCount);
+        final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        final Runnable worker = new Runnable() {
+            @Override
+            public void run() {
+                int band;
+                while ((band = nextBand.getAndIncrement()) < bandCount) {
+                    try {
+                        countBand(bitmap, height, srcHeight, tops, bottoms, columns, band,
+                                bandCount, histograms[band], rows[band]);
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }
+        };
+        if (executor != null) {
+            for (int i = 1; i < bandCount; i++) {
+                executor.execute(worker);
+            }
+        }
+        // The calling thread counts bands too, so only bands already being counted on other
+        // threads are waited for, even if the executor is busy.
+        worker.run();
+        awaitUninterruptibly(done);
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+
+        final int[] histogram = histograms[0];
+        for (int band = 1; band < bandCount; band++) {
+            final int[] bandHistogram = histograms[band];
+            for (int color = 0; color < histogram.length; color++) {
+                histogram[color] += bandHistogram[color];
+            }
+        }
+        return histogram;
+    }
+
+    /**
+     * Counts every {@code bandCount}th sampled row of the regions, starting at the
+     * {@code band}th.
+     */
+    private static void countBand(Bitmap bitmap, int height, int srcHeight, int[] tops,
+            int[] bottoms, int[][] columns, int band, int bandCount, int[] histogram, int[] row) {
+        int rowIndex = 0;
+        for (int i = 0; i < columns.length; i++) {
+            final int[] regionColumns = columns[i];
+            if (regionColumns.length == 0) {
+                continue;
+            }
+            final int srcLeft = regionColumns[0];
+            final int span = regionColumns[regionColumns.length - 1] - srcLeft + 1;
+            for (int y = tops[i]; y < bottoms[i]; y++, rowIndex++) {
+                if (rowIndex % bandCount != band) {
+                    continue;
+                }
+                bitmap.getPixels(row, 0, span, srcLeft, sample(y, height, srcHeight), span, 1);
+                for (int x = 0; x < regionColumns.length; x++) {
+                    histogram[ColorCutQuantizer.quantizeFromRgb888(
+                            row[regionColumns[x] - srcLeft])]++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Maps a coordinate of the scaled bitmap to the nearest coordinate of the bitmap.
+     */
+    private static int sample(int coordinate, int size, int srcSize) {
+        if (size == srcSize) {
+            return coordinate;
+        }
+        return Math.min((int) ((coordinate + 0.5) * srcSize / size), srcSize - 1);
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -34,6 +34,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A helper class to extract prominent colors from an image.
@@ -84,6 +86,19 @@ public final class Palette {
         void onGenerated(@Nullable Palette palette);
     }
 
+    /**
+     * Listener to be used with {@link #generateAll(List, Executor, PaletteBatchListener)}.
+     */
+    public interface PaletteBatchListener {
+
+        /**
+         * Called when all of the {@link Palette}s have been generated, with one palette per
+         * builder in the order of the builders. {@code null} is set for a palette when an error
+         * occurred during its generation.
+         */
+        void onGenerated(@NonNull List<Palette> palettes);
+    }
+
     static final int DEFAULT_RESIZE_BITMAP_AREA = 112 * 112;
     static final int DEFAULT_CALCULATE_NUMBER_COLORS = 16;
 
@@ -111,6 +126,48 @@ public final class Palette {
         return new Builder(swatches).generate();
     }
 
+    /**
+     * Generate the {@link Palette}s of many builders on an {@link Executor}. Palettes are
+     * generated independently, in parallel if the executor allows it. The provided listener's
+     * {@link PaletteBatchListener#onGenerated} method is called on the executor once all the
+     * palettes are generated.
+     * <p>
+     * The builders must not be modified until the listener is called.
+     */
+    public static void generateAll(@NonNull final List<Builder> builders,
+            @NonNull Executor executor, @NonNull final PaletteBatchListener listener) {
+        Preconditions.checkNotNull(listener);
+
+        final Palette[] palettes = new Palette[builders.size()];
+        if (palettes.length == 0) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    listener.onGenerated(Collections.<Palette>emptyList());
+                }
+            });
+            return;
+        }
+        final AtomicInteger remaining = new AtomicInteger(palettes.length);
+        for (int i = 0; i < palettes.length; i++) {
+            final int index = i;
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        palettes[index] = builders.get(index).generate();
+                    } catch (Exception e) {
+                        Log.e(LOG_TAG, "Exception thrown during batch generate", e);
+                    } finally {
+                        if (remaining.decrementAndGet() == 0) {
+                            listener.onGenerated(Arrays.asList(palettes));
+                        }
+                    }
+                }
+            });
+        }
+    }
+
     /**
      * @deprecated Use {@link Builder} to generate the Palette.
      */
@@ -601,6 +658,9 @@ public final class Palette {
 
         private final List<Filter> mFilters = new ArrayList<>();
         @Nullable private Rect mRegion;
+        private final List<Rect> mRegions = new ArrayList<>();
+
+        @Nullable private Executor mExecutor;
 
         /**
          * Construct a new {@link Builder} using a source {@link Bitmap}
@@ -738,11 +798,56 @@ public final class Palette {
         }
 
         /**
-         * Clear any previously region set via {@link #setRegion(int, int, int, int)}.
+         * Add a region of the bitmap to be used when calculating the palette. When regions are
+         * added, the palette is calculated from the pixels of all of them, as well as the region
+         * set via {@link #setRegion(int, int, int, int)} if any. Pixels of overlapping regions
+         * are counted once per region.
+         * <p>This only works when the original input is a {@link Bitmap}.</p>
+         *
+         * @param left The left side of the rectangle used for the region.
+         * @param top The top of the rectangle used for the region.
+         * @param right The right side of the rectangle used for the region.
+         * @param bottom The bottom of the rectangle used for the region.
+         */
+        @NonNull
+        public Builder addRegion(@Px int left, @Px int top, @Px int right, @Px int bottom) {
+            if (mBitmap != null) {
+                final Rect region = new Rect(0, 0, mBitmap.getWidth(), mBitmap.getHeight());
+                if (!region.intersect(left, top, right, bottom)) {
+                    throw new IllegalArgumentException("The given region must intersect with "
+                            + "the Bitmap's dimensions.");
+                }
+                mRegions.add(region);
+            }
+            return this;
+        }
+
+        /**
+         * Clear any previously region set via {@link #setRegion(int, int, int, int)} or added
+         * via {@link #addRegion(int, int, int, int)}.
          */
         @NonNull
         public Builder clearRegion() {
             mRegion = null;
+            mRegions.clear();
+            return this;
+        }
+
+        /**
+         * Set an {@link Executor} to sample the {@link Bitmap} on, in parallel with the thread
+         * calling {@link #generate()}.
+         * <p>
+         * When an executor is set or regions are added via {@link #addRegion(int, int, int, int)},
+         * the bitmap is sampled directly rather than being scaled down first. The resulting
+         * palette can differ slightly from the one generated from the scaled down bitmap. Small
+         * bitmaps are sampled on the calling thread only, as splitting them costs more than it
+         * saves.
+         *
+         * @param executor the executor, or {@code null} to sample on the calling thread only.
+         */
+        @NonNull
+        public Builder setExecutor(@Nullable Executor executor) {
+            mExecutor = executor;
             return this;
         }
 
@@ -778,7 +883,10 @@ public final class Palette {
         public Palette generate() {
             List<Swatch> swatches;
 
-            if (mBitmap != null) {
+            if (mBitmap != null && (mExecutor != null || !mRegions.isEmpty())) {
+                // Count the colors of the sampled bitmap directly into a histogram
+                swatches = quantizeFromHistogram(mBitmap).getQuantizedColors();
+            } else if (mBitmap != null) {
                 // We have a Bitmap so we need to use quantization to reduce the number of colors
 
                 // First we'll scale down the bitmap if needed
@@ -799,9 +907,7 @@ public final class Palette {
 
                 // Now generate a quantizer from the Bitmap
                 final ColorCutQuantizer quantizer = new ColorCutQuantizer(
-                        getPixelsFromBitmap(bitmap),
-                        mMaxColors,
-                        mFilters.isEmpty() ? null : mFilters.toArray(new Filter[mFilters.size()]));
+                        getPixelsFromBitmap(bitmap), mMaxColors, getFilters());
 
                 // If created a new bitmap, recycle it
                 if (bitmap != mBitmap) {
@@ -859,6 +965,32 @@ public final class Palette {
             }.executeOnExecutor(android.os.AsyncTask.THREAD_POOL_EXECUTOR, mBitmap);
         }
 
+        private ColorCutQuantizer quantizeFromHistogram(Bitmap bitmap) {
+            final double scaleRatio = getScaleRatio(bitmap);
+            final int width = scaleRatio > 0
+                    ? (int) Math.ceil(bitmap.getWidth() * scaleRatio) : bitmap.getWidth();
+            final int height = scaleRatio > 0
+                    ? (int) Math.ceil(bitmap.getHeight() * scaleRatio) : bitmap.getHeight();
+
+            final List<Rect> regions = new ArrayList<>(mRegions.size() + 1);
+            if (mRegion != null) {
+                regions.add(mRegion);
+            }
+            regions.addAll(mRegions);
+            if (regions.isEmpty()) {
+                regions.add(new Rect(0, 0, bitmap.getWidth(), bitmap.getHeight()));
+            }
+
+            final int[] histogram = ColorHistogram.build(bitmap, width, height, regions,
+                    mExecutor);
+            return new ColorCutQuantizer(mMaxColors, getFilters(), histogram);
+        }
+
+        @Nullable
+        private Filter[] getFilters() {
+            return mFilters.isEmpty() ? null : mFilters.toArray(new Filter[mFilters.size()]);
+        }
+
         private int[] getPixelsFromBitmap(Bitmap bitmap) {
             final int bitmapWidth = bitmap.getWidth();
             final int bitmapHeight = bitmap.getHeight();
@@ -888,6 +1020,23 @@ public final class Palette {
          * Scale the bitmap down as needed.
          */
         private Bitmap scaleBitmapDown(final Bitmap bitmap) {
+            final double scaleRatio = getScaleRatio(bitmap);
+
+            if (scaleRatio <= 0) {
+                // Scaling has been disabled or not needed so just return the Bitmap
+                return bitmap;
+            }
+
+            return Bitmap.createScaledBitmap(bitmap,
+                    (int) Math.ceil(bitmap.getWidth() * scaleRatio),
+                    (int) Math.ceil(bitmap.getHeight() * scaleRatio),
+                    false);
+        }
+
+        /**
+         * @return the ratio to scale the bitmap down by, or -1 if it should not be scaled.
+         */
+        private double getScaleRatio(final Bitmap bitmap) {
             double scaleRatio = -1;
 
             if (mResizeArea > 0) {
@@ -901,16 +1050,7 @@ public final class Palette {
                     scaleRatio = mResizeMaxDimension / (double) maxDimension;
                 }
             }
-
-            if (scaleRatio <= 0) {
-                // Scaling has been disabled or not needed so just return the Bitmap
-                return bitmap;
-            }
-
-            return Bitmap.createScaledBitmap(bitmap,
-                    (int) Math.ceil(bitmap.getWidth() * scaleRatio),
-                    (int) Math.ceil(bitmap.getHeight() * scaleRatio),
-                    false);
+            return scaleRatio;
         }
     }
 
@@ -23,18 +23,25 @@ import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
 
+import android.content.ComponentCallbacks2;
 import android.content.Context;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.FrameLayout;
 
 import androidx.annotation.NonNull;
 import androidx.test.core.app.ApplicationProvider;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import androidx.test.filters.SmallTest;
+import androidx.test.platform.app.InstrumentationRegistry;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
 @SmallTest
 @RunWith(AndroidJUnit4.class)
 public class RecycledViewPoolTest {
@@ -91,6 +98,182 @@ public class RecycledViewPoolTest {
         assertEquals(0, pool.getRecycledViewCount(3));
     }
 
+    @Test
+    public void adaptiveSizing_disabled_missesDoNotGrow() {
+        RecyclerView.RecycledViewPool pool = new RecyclerView.RecycledViewPool();
+        for (int i = 0; i < 10; i++) {
+            pool.getRecycledView(0);
+        }
+        assertEquals(5, pool.getMaxRecycledViews(0));
+    }
+
+    @Test
+    public void adaptiveSizing_cheapType_growsAfterRepeatedMisses() {
+        RecyclerView.RecycledViewPool pool = new RecyclerView.RecycledViewPool();
+        pool.setAdaptiveSizingEnabled(true);
+        for (int i = 0; i < 3; i++) {
+            pool.getRecycledView(0);
+        }
+        assertEquals(5, pool.getMaxRecycledViews(0));
+        pool.getRecycledView(0);
+        assertEquals(6, pool.getMaxRecycledViews(0));
+    }
+
+    @Test
+    public void adaptiveSizing_expensiveType_growsOnEachMissUpToLimit() {
+        RecyclerView.RecycledViewPool pool = new RecyclerView.RecycledViewPool();
+        pool.setAdaptiveSizingEnabled(true);
+        pool.setAdaptiveMaxScrapLimit(7);
+        pool.factorInCreateTime(0, 10_000_000);
+        for (int i = 0; i < 10; i++) {
+            pool.getRecycledView(0);
+        }
+        assertEquals(7, pool.getMaxRecycledViews(0));
+        for (int i = 0; i < 10; i++) {
+            pool.putRecycledView(makeHolder(0));
+        }
+        assertEquals(7, pool.getRecycledViewCount(0));
+    }
+
+    @Test
+    public void adaptiveSizing_trimMemory_shrinks() {
+        RecyclerView.RecycledViewPool pool = new RecyclerView.RecycledViewPool();
+        pool.setAdaptiveSizingEnabled(true);
+        pool.factorInCreateTime(0, 10_000_000);
+        for (int i = 0; i < 4; i++) {
+            pool.getRecycledView(0);
+        }
+        assertEquals(9, pool.getMaxRecycledViews(0));
+        for (int i = 0; i < 9; i++) {
+            pool.putRecycledView(makeHolder(0));
+        }
+
+        pool.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW);
+        assertEquals(7, pool.getMaxRecycledViews(0));
+        assertEquals(7, pool.getRecycledViewCount(0));
+
+        pool.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_BACKGROUND);
+        assertEquals(5, pool.getMaxRecycledViews(0));
+        assertEquals(5, pool.getRecycledViewCount(0));
+    }
+
+    @Test
+    public void adaptiveSizing_disable_dropsExtraCapacity() {
+        RecyclerView.RecycledViewPool pool = new RecyclerView.RecycledViewPool();
+        pool.setAdaptiveSizingEnabled(true);
+        pool.factorInCreateTime(0, 10_000_000);
+        pool.getRecycledView(0);
+        pool.getRecycledView(0);
+        for (int i = 0; i < 7; i++) {
+            pool.putRecycledView(makeHolder(0));
+        }
+        assertEquals(7, pool.getRecycledViewCount(0));
+
+        pool.setAdaptiveSizingEnabled(false);
+        assertEquals(5, pool.getMaxRecycledViews(0));
+        assertEquals(5, pool.getRecycledViewCount(0));
+    }
+
+    @Test
+    public void prewarm_fillsPoolUpToRequestedCount() {
+        final RecyclerView.RecycledViewPool pool = new RecyclerView.RecycledViewPool();
+        final CreatingAdapter adapter = new CreatingAdapter();
+        final ViewGroup parent = new FrameLayout(ApplicationProvider.getApplicationContext());
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                pool.setAdaptiveSizingEnabled(true);
+                pool.prewarm(adapter, parent, 2, 8, new Executor() {
+                    @Override
+                    public void execute(Runnable command) {
+                        command.run();
+                    }
+                });
+            }
+        });
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+
+        assertEquals(8, pool.getMaxRecycledViews(2));
+        assertEquals(8, pool.getRecycledViewCount(2));
+        assertEquals(8, adapter.mCreatedCount);
+    }
+
+    @Test
+    public void prewarm_dropsViewHoldersCreatedBeforeClear() {
+        final RecyclerView.RecycledViewPool pool = new RecyclerView.RecycledViewPool();
+        final CreatingAdapter adapter = new CreatingAdapter();
+        final ViewGroup parent = new FrameLayout(ApplicationProvider.getApplicationContext());
+        final List<Runnable> tasks = new ArrayList<>();
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                pool.prewarm(adapter, parent, 2, 3, new Executor() {
+                    @Override
+                    public void execute(Runnable command) {
+                        tasks.add(command);
+                    }
+                });
+                // e.g. the Adapter was swapped for an incompatible one
+                pool.clear();
+                tasks.get(0).run();
+            }
+        });
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+
+        assertEquals(3, adapter.mCreatedCount);
+        assertEquals(0, pool.getRecycledViewCount(2));
+
+        prewarm(pool, adapter, parent, 2, 3);
+        assertEquals(3, pool.getRecycledViewCount(2));
+    }
+
+    @Test
+    public void prewarm_createsAgainAfterFailure() {
+        final RecyclerView.RecycledViewPool pool = new RecyclerView.RecycledViewPool();
+        final CreatingAdapter adapter = new CreatingAdapter();
+        adapter.mFailures = 1;
+        final ViewGroup parent = new FrameLayout(ApplicationProvider.getApplicationContext());
+        final List<Throwable> failures = new ArrayList<>();
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                pool.prewarm(adapter, parent, 2, 3, new Executor() {
+                    @Override
+                    public void execute(Runnable command) {
+                        try {
+                            command.run();
+                        } catch (IllegalStateException e) {
+                            failures.add(e);
+                        }
+                    }
+                });
+            }
+        });
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+        assertEquals(1, failures.size());
+        assertEquals(0, pool.getRecycledViewCount(2));
+
+        prewarm(pool, adapter, parent, 2, 3);
+        assertEquals(3, pool.getRecycledViewCount(2));
+    }
+
+    private static void prewarm(final RecyclerView.RecycledViewPool pool,
+            final RecyclerView.Adapter<?> adapter, final ViewGroup parent, final int viewType,
+            final int count) {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                pool.prewarm(adapter, parent, viewType, count, new Executor() {
+                    @Override
+                    public void execute(Runnable command) {
+                        command.run();
+                    }
+                });
+            }
+        });
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+    }
+
     @Test
     public void onAdapterChanged_attachedToOneOldAdapterNotNullNotCompatWithPrev_clears() {
         onAdapterChanged(1, true, true, true);
@@ -144,6 +327,32 @@ public class RecycledViewPoolTest {
         }
     }
 
+    private static class CreatingAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+        int mCreatedCount;
+        int mFailures;
+
+        @NonNull
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            if (mFailures > 0) {
+                mFailures--;
+                throw new IllegalStateException("Failed to create");
+            }
+            mCreatedCount++;
+            return new MockViewHolder(parent.getContext());
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+
+        }
+
+        @Override
+        public int getItemCount() {
+            return 0;
+        }
+    }
+
     private class TestAdapter extends RecyclerView.Adapter {
 
         @NonNull
@@ -890,6 +890,75 @@ public class RecyclerViewCacheTest {
         CacheUtils.verifyCacheContainsPrefetchedPositions(innerView, 0, 1, 2, 3);
     }
 
+    /**
+     * Adapter whose items are RecyclerViews that themselves hold nested RecyclerViews.
+     */
+    class DeepOuterAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+        ArrayList<OuterAdapter> mAdapters = new ArrayList<>();
+
+        DeepOuterAdapter() {
+            for (int i = 0; i < 10; i++) {
+                mAdapters.add(new OuterAdapter());
+            }
+        }
+
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent,
+                int viewType) {
+            mRecyclerView.registerTimePassingMs(5);
+
+            RecyclerView rv = new RecyclerView(parent.getContext());
+            rv.setLayoutManager(new LinearLayoutManager(parent.getContext(),
+                    LinearLayoutManager.HORIZONTAL, false));
+            rv.setLayoutParams(new RecyclerView.LayoutParams(200, 100));
+            return new RecyclerView.ViewHolder(rv) {};
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+            mRecyclerView.registerTimePassingMs(5);
+            ((RecyclerView) holder.itemView).swapAdapter(mAdapters.get(position), true);
+        }
+
+        @Override
+        public int getItemCount() {
+            return mAdapters.size();
+        }
+    }
+
+    @Test
+    public void nestedPrefetchDeeperThanOneLevel() {
+        mRecyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
+        mRecyclerView.setAdapter(new DeepOuterAdapter());
+
+        layout(200, 200);
+        mRecyclerView.mPrefetchRegistry.setPrefetchVector(0, 1);
+
+        // without extended prefetch, only the first nesting level is prefetched
+        mRecyclerView.mGapWorker.prefetch(RecyclerView.FOREVER_NS);
+        RecyclerView.ViewHolder holder = CacheUtils.peekAtCachedViewForPosition(mRecyclerView, 2);
+        assertNotNull(holder);
+        assertNotNull(holder.mNestedRecyclerView);
+        RecyclerView middleView = holder.mNestedRecyclerView.get();
+        CacheUtils.verifyCacheContainsPrefetchedPositions(middleView, 0, 1);
+        RecyclerView.ViewHolder middleHolder =
+                CacheUtils.peekAtCachedViewForPosition(middleView, 0);
+        assertNotNull(middleHolder);
+        assertNotNull(middleHolder.mNestedRecyclerView);
+        assertEquals(0, middleHolder.mNestedRecyclerView.get().mRecycler.mCachedViews.size());
+
+        // with extended prefetch, RecyclerViews nested in prefetched items are prefetched too
+        mRecyclerView.setExtendedPrefetchEnabled(true);
+        mRecyclerView.mGapWorker.prefetch(RecyclerView.FOREVER_NS);
+        for (int position = 0; position < 2; position++) {
+            middleHolder = CacheUtils.peekAtCachedViewForPosition(middleView, position);
+            assertNotNull(middleHolder);
+            assertNotNull(middleHolder.mNestedRecyclerView);
+            CacheUtils.verifyCacheContainsPrefetchedPositions(
+                    middleHolder.mNestedRecyclerView.get(), 0, 1);
+        }
+    }
+
     @Test
     public void nestedPrefetchNotClearInnerStructureChangeFlag() {
         LinearLayoutManager llm = new LinearLayoutManager(getContext());
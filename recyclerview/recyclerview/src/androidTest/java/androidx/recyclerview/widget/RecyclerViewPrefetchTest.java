@@ -20,6 +20,10 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 
 import android.os.Build;
+import android.os.Looper;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
 
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import androidx.test.filters.LargeTest;
@@ -30,6 +34,8 @@ import org.junit.runner.RunWith;
 
 import java.util.ArrayList;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 @LargeTest
@@ -109,4 +115,95 @@ public class RecyclerViewPrefetchTest extends BaseRecyclerViewInstrumentationTes
         assertThat(cachedViews().size(), is(1));
         assertThat(cachedViews().get(0).getAbsoluteAdapterPosition(), is(6));
     }
+
+    @Test
+    public void extendedPrefetch_createsViewHoldersAhead() throws Throwable {
+        final RecyclerView recyclerView = new RecyclerView(getActivity());
+        recyclerView.setAdapter(new TestAdapter(50));
+        recyclerView.setExtendedPrefetchEnabled(true);
+        PrefetchLayoutManager layout = new PrefetchLayoutManager();
+        recyclerView.setLayoutManager(layout);
+
+        layout.expectLayouts(1);
+        setRecyclerView(recyclerView);
+        layout.waitForLayout(10);
+
+        mActivityRule.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                recyclerView.getRecycledViewPool().clear();
+                recyclerView.mPrefetchRegistry.setPrefetchVector(0, 10000);
+                recyclerView.mPrefetchRegistry.collectPrefetchPositionsFromView(recyclerView,
+                        false);
+                recyclerView.mGapWorker.prefetchLookAheadWithDeadline(recyclerView,
+                        RecyclerView.FOREVER_NS);
+            }
+        });
+
+        // Look ahead is bounded by the pool's capacity for the view type
+        assertThat(recyclerView.getRecycledViewPool().getRecycledViewCount(0), is(5));
+    }
+
+    @Test
+    public void extendedPrefetch_createsViewHoldersOffMainThread() throws Throwable {
+        final ArrayList<Thread> creationThreads = new ArrayList<>();
+        final RecyclerView recyclerView = new RecyclerView(getActivity());
+        recyclerView.setAdapter(new TestAdapter(50) {
+            @Override
+            public boolean canCreateViewHolderOffMainThread(int viewType) {
+                return true;
+            }
+
+            @Override
+            public TestViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+                synchronized (creationThreads) {
+                    creationThreads.add(Thread.currentThread());
+                }
+                return super.onCreateViewHolder(parent, viewType);
+            }
+        });
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        recyclerView.setExtendedPrefetchEnabled(true);
+        recyclerView.setPrefetchCreationExecutor(executor);
+        PrefetchLayoutManager layout = new PrefetchLayoutManager();
+        recyclerView.setLayoutManager(layout);
+
+        layout.expectLayouts(1);
+        setRecyclerView(recyclerView);
+        layout.waitForLayout(10);
+
+        mActivityRule.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                synchronized (creationThreads) {
+                    creationThreads.clear();
+                }
+                recyclerView.getRecycledViewPool().clear();
+                recyclerView.mPrefetchRegistry.setPrefetchVector(0, 10000);
+                recyclerView.mPrefetchRegistry.collectPrefetchPositionsFromView(recyclerView,
+                        false);
+                recyclerView.mGapWorker.prefetchLookAheadWithDeadline(recyclerView,
+                        RecyclerView.FOREVER_NS);
+                // Nothing is added to the pool until the executor has created the holders
+                assertThat(recyclerView.getRecycledViewPool().getRecycledViewCount(0), is(0));
+            }
+        });
+
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS), is(true));
+        // Drain the main thread posts that hand the created holders to the pool
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+            }
+        });
+
+        assertThat(recyclerView.getRecycledViewPool().getRecycledViewCount(0), is(5));
+        synchronized (creationThreads) {
+            assertThat(creationThreads.size(), is(5));
+            for (Thread thread : creationThreads) {
+                assertThat(thread == Looper.getMainLooper().getThread(), is(false));
+            }
+        }
+    }
 }
\ No newline at end of file
@@ -188,6 +188,11 @@ public final class ConcatAdapter extends Adapter<ViewHolder> {
         mController.onBindViewHolder(holder, position);
     }
 
+    @Override
+    public boolean canCreateViewHolderOffMainThread(int viewType) {
+        return mController.canCreateViewHolderOffMainThread(viewType);
+    }
+
     /**
      * Calling this method is an error and will result in an {@link UnsupportedOperationException}.
      * You should use the {@link Config} object passed into the ConcatAdapter to configure this
@@ -325,6 +325,11 @@ class ConcatAdapterController implements NestedAdapterWrapper.Callback {
         return wrapper.onCreateViewHolder(parent, globalViewType);
     }
 
+    public boolean canCreateViewHolderOffMainThread(int globalViewType) {
+        NestedAdapterWrapper wrapper = mViewTypeStorage.getWrapperForGlobalType(globalViewType);
+        return wrapper.canCreateViewHolderOffMainThread(globalViewType);
+    }
+
     /**
      * Always call {@link #releaseWrapperAndLocalPosition(WrapperAndLocalPosition)} when you are
      * done with it
@@ -16,11 +16,13 @@
 package androidx.recyclerview.widget;
 
 import android.annotation.SuppressLint;
+import android.util.SparseIntArray;
 import android.view.View;
 
 import androidx.annotation.Nullable;
 import androidx.core.os.TraceCompat;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -31,6 +33,23 @@ final class GapWorker implements Runnable {
 
     static final ThreadLocal<GapWorker> sGapWorker = new ThreadLocal<>();
 
+    /**
+     * Number of frames of scroll distance extended prefetch looks ahead of the positions the
+     * LayoutManager requested.
+     */
+    static final int EXTENDED_LOOK_AHEAD_FRAMES = 4;
+
+    /**
+     * Maximum number of positions extended prefetch looks ahead per RecyclerView and pass.
+     */
+    static final int EXTENDED_MAX_LOOK_AHEAD_ITEMS = 20;
+
+    /**
+     * Maximum depth of nested RecyclerViews prefetched in extended mode. Regular prefetch only
+     * goes one level deep.
+     */
+    static final int EXTENDED_MAX_NESTED_PREFETCH_DEPTH = 3;
+
     ArrayList<RecyclerView> mRecyclerViews = new ArrayList<>();
     long mPostTimeNs;
     long mFrameIntervalNs;
@@ -58,6 +77,12 @@ final class GapWorker implements Runnable {
      */
     private ArrayList<Task> mTasks = new ArrayList<>();
 
+    /**
+     * Temporary storage for the number of ViewHolders of each view type extended prefetch wants
+     * to find in the pool, cleared in between calls.
+     */
+    private final SparseIntArray mLookAheadTypeCounts = new SparseIntArray();
+
     /**
      * Prefetch information associated with a specific RecyclerView.
      */
@@ -308,7 +333,7 @@ final class GapWorker implements Runnable {
     }
 
     private void prefetchInnerRecyclerViewWithDeadline(@Nullable RecyclerView innerView,
-            long deadlineNs) {
+            long deadlineNs, int depth, boolean extended) {
         if (innerView == null) {
             return;
         }
@@ -332,7 +357,17 @@ final class GapWorker implements Runnable {
                     // Note that we ignore immediate flag for inner items because
                     // we have lower confidence they're needed next frame.
                     final int innerPosition = innerPrefetchRegistry.mPrefetchArray[i];
-                    prefetchPositionWithDeadline(innerView, innerPosition, deadlineNs);
+                    RecyclerView.ViewHolder holder = prefetchPositionWithDeadline(innerView,
+                            innerPosition, deadlineNs);
+                    if (extended
+                            && depth < EXTENDED_MAX_NESTED_PREFETCH_DEPTH
+                            && holder != null
+                            && holder.mNestedRecyclerView != null
+                            && holder.isBound()
+                            && !holder.isInvalid()) {
+                        prefetchInnerRecyclerViewWithDeadline(holder.mNestedRecyclerView.get(),
+                                deadlineNs, depth + 1, true);
+                    }
                 }
             } finally {
                 TraceCompat.endSection();
@@ -348,10 +383,108 @@ final class GapWorker implements Runnable {
                 && holder.mNestedRecyclerView != null
                 && holder.isBound()
                 && !holder.isInvalid()) {
-            prefetchInnerRecyclerViewWithDeadline(holder.mNestedRecyclerView.get(), deadlineNs);
+            prefetchInnerRecyclerViewWithDeadline(holder.mNestedRecyclerView.get(), deadlineNs,
+                    1, task.view.mExtendedPrefetchEnabled);
         }
     }
 
+    /**
+     * Makes sure the pool holds ViewHolders for the view types of the positions following the
+     * LayoutManager's prefetch positions in the scroll direction. The number of positions looked
+     * at scales with the fling velocity.
+     * <p>
+     * ViewHolders of types the Adapter can create off the main thread are created on the view's
+     * prefetch creation executor, other types are created here as long as the deadline allows.
+     */
+    void prefetchLookAheadWithDeadline(RecyclerView view, long deadlineNs) {
+        final LayoutPrefetchRegistryImpl prefetchRegistry = view.mPrefetchRegistry;
+        final RecyclerView.Adapter<?> adapter = view.mAdapter;
+        final int childCount = view.mChildHelper.getChildCount();
+        if (adapter == null || view.mLayout == null || prefetchRegistry.mCount == 0
+                || childCount == 0 || view.hasPendingAdapterUpdates()) {
+            return;
+        }
+
+        // Find the range of attached positions, to figure out which side is being prefetched
+        int minAttached = Integer.MAX_VALUE;
+        int maxAttached = Integer.MIN_VALUE;
+        for (int i = 0; i < childCount; i++) {
+            RecyclerView.ViewHolder holder =
+                    RecyclerView.getChildViewHolderInt(view.mChildHelper.getChildAt(i));
+            if (holder != null && !holder.isInvalid()) {
+                minAttached = Math.min(minAttached, holder.mPosition);
+                maxAttached = Math.max(maxAttached, holder.mPosition);
+            }
+        }
+        if (minAttached > maxAttached) {
+            return;
+        }
+        int start = -1;
+        int direction = 0;
+        for (int i = 0; i < prefetchRegistry.mCount * 2; i += 2) {
+            final int position = prefetchRegistry.mPrefetchArray[i];
+            if (position > maxAttached && direction >= 0) {
+                direction = 1;
+                start = Math.max(start, position);
+            } else if (position < minAttached && direction <= 0) {
+                direction = -1;
+                start = start == -1 ? position : Math.min(start, position);
+            }
+        }
+        if (direction == 0) {
+            return;
+        }
+
+        final boolean vertical = view.mLayout.canScrollVertically();
+        final int extent = vertical ? view.getHeight() : view.getWidth();
+        final int averageItemExtent = Math.max(1, extent / childCount);
+        final long flingDistance = (long) (view.getFlingVelocity() * mFrameIntervalNs
+                / TimeUnit.SECONDS.toNanos(1));
+        final long frameDistance = Math.max(flingDistance,
+                Math.abs(prefetchRegistry.mPrefetchDx) + Math.abs(prefetchRegistry.mPrefetchDy));
+        final int lookAheadCount = (int) Math.min(EXTENDED_MAX_LOOK_AHEAD_ITEMS,
+                frameDistance * EXTENDED_LOOK_AHEAD_FRAMES / averageItemExtent);
+
+        final int itemCount = adapter.getItemCount();
+        mLookAheadTypeCounts.clear();
+        for (int i = 1; i <= lookAheadCount; i++) {
+            final int position = start + direction * i;
+            if (position < 0 || position >= itemCount) {
+                break;
+            }
+            final int viewType = adapter.getItemViewType(position);
+            mLookAheadTypeCounts.put(viewType, mLookAheadTypeCounts.get(viewType) + 1);
+        }
+
+        final RecyclerView.RecycledViewPool pool = view.getRecycledViewPool();
+        for (int i = 0; i < mLookAheadTypeCounts.size(); i++) {
+            final int viewType = mLookAheadTypeCounts.keyAt(i);
+            final int count = mLookAheadTypeCounts.valueAt(i);
+            if (view.mPrefetchCreationExecutor != null
+                    && adapter.canCreateViewHolderOffMainThread(viewType)) {
+                pool.prewarm(adapter, view, viewType, count, view.mPrefetchCreationExecutor);
+                continue;
+            }
+            int pooled = pool.getRecycledViewCount(viewType);
+            while (pooled < count
+                    && pool.willCreateInTime(viewType, view.getNanoTime(), deadlineNs)) {
+                final long createStartNs = view.getNanoTime();
+                final RecyclerView.ViewHolder holder = adapter.createViewHolder(view, viewType);
+                final RecyclerView innerView = RecyclerView.findNestedRecyclerView(holder.itemView);
+                if (innerView != null) {
+                    holder.mNestedRecyclerView = new WeakReference<>(innerView);
+                }
+                pool.factorInCreateTime(viewType, view.getNanoTime() - createStartNs);
+                pool.putRecycledView(holder);
+                if (pool.getRecycledViewCount(viewType) == pooled) {
+                    break; // pool is full for this type
+                }
+                pooled++;
+            }
+        }
+        mLookAheadTypeCounts.clear();
+    }
+
     private void flushTasksWithDeadline(long deadlineNs) {
         for (int i = 0; i < mTasks.size(); i++) {
             final Task task = mTasks.get(i);
@@ -361,6 +494,20 @@ final class GapWorker implements Runnable {
             flushTaskWithDeadline(task, deadlineNs);
             task.clear();
         }
+
+        // Lowest priority: look further ahead than the LayoutManager asked for
+        for (int i = 0; i < mRecyclerViews.size(); i++) {
+            final RecyclerView view = mRecyclerViews.get(i);
+            if (view.mExtendedPrefetchEnabled
+                    && view.getWindowVisibility() == View.VISIBLE) {
+                try {
+                    TraceCompat.beginSection(RecyclerView.TRACE_EXTENDED_PREFETCH_TAG);
+                    prefetchLookAheadWithDeadline(view, deadlineNs);
+                } finally {
+                    TraceCompat.endSection();
+                }
+            }
+        }
     }
 
     void prefetch(long deadlineNs) {
@@ -153,6 +153,11 @@ class NestedAdapterWrapper {
         return adapter.onCreateViewHolder(parent, localType);
     }
 
+    boolean canCreateViewHolderOffMainThread(int globalViewType) {
+        int localType = mViewTypeLookup.globalToLocal(globalViewType);
+        return adapter.canCreateViewHolderOffMainThread(localType);
+    }
+
     void onBindViewHolder(ViewHolder viewHolder, int localPosition) {
         adapter.bindViewHolder(viewHolder, localPosition);
     }
@@ -25,6 +25,7 @@ import static androidx.core.view.ViewCompat.TYPE_TOUCH;
 
 import android.animation.LayoutTransition;
 import android.annotation.SuppressLint;
+import android.content.ComponentCallbacks2;
 import android.content.Context;
 import android.content.res.Resources;
 import android.content.res.TypedArray;
@@ -38,6 +39,8 @@ import android.graphics.drawable.Drawable;
 import android.graphics.drawable.StateListDrawable;
 import android.os.Build;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.os.Parcel;
 import android.os.Parcelable;
 import android.os.SystemClock;
@@ -93,6 +96,7 @@ import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 /**
  * A flexible view for providing a limited window into a large data set.
@@ -348,6 +352,12 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
      */
     static final String TRACE_NESTED_PREFETCH_TAG = "RV Nested Prefetch";
 
+    /**
+     * RecyclerView is creating ViewHolders for positions beyond the ones requested by the
+     * LayoutManager, as part of extended prefetch.
+     */
+    static final String TRACE_EXTENDED_PREFETCH_TAG = "RV Extended Prefetch";
+
     /**
      * RecyclerView is creating a new View.
      * If too many of these present in Systrace:
@@ -562,6 +572,9 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
     GapWorker mGapWorker;
     GapWorker.LayoutPrefetchRegistryImpl mPrefetchRegistry =
             ALLOW_THREAD_GAP_WORK ? new GapWorker.LayoutPrefetchRegistryImpl() : null;
+    boolean mExtendedPrefetchEnabled = false;
+    @Nullable
+    Executor mPrefetchCreationExecutor;
 
     final State mState = new State();
 
@@ -1593,6 +1606,77 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
         mRecycler.setViewCacheSize(size);
     }
 
+    /**
+     * Enables or disables extended item prefetch.
+     * <p>
+     * In addition to the positions the {@link LayoutManager} asks to prefetch, extended prefetch
+     * looks further ahead in the scroll direction based on the current fling velocity, and
+     * creates ViewHolders for the upcoming view types ahead of time so they can be taken from the
+     * {@link RecycledViewPool} instead of being inflated during the fling. If a
+     * {@link #setPrefetchCreationExecutor(Executor) creation executor} is set, view types for
+     * which {@link Adapter#canCreateViewHolderOffMainThread(int)} returns true are created on
+     * it.
+     * <p>
+     * Extended prefetch also prefetches nested RecyclerViews more than one level deep, so that
+     * for example the items of a carousel nested in a carousel are prefetched with their parent.
+     * <p>
+     * Extended prefetch only runs on devices that support item prefetch, and is disabled by
+     * default.
+     *
+     * @param enabled True to enable extended prefetch, false to only prefetch the positions
+     *                requested by the LayoutManager.
+     * @see LayoutManager#setItemPrefetchEnabled(boolean)
+     */
+    public void setExtendedPrefetchEnabled(boolean enabled) {
+        mExtendedPrefetchEnabled = enabled;
+    }
+
+    /**
+     * Returns whether extended item prefetch is enabled.
+     *
+     * @see #setExtendedPrefetchEnabled(boolean)
+     */
+    public boolean isExtendedPrefetchEnabled() {
+        return mExtendedPrefetchEnabled;
+    }
+
+    /**
+     * Sets the executor extended prefetch uses to create ViewHolders off the main thread.
+     * <p>
+     * Only view types for which {@link Adapter#canCreateViewHolderOffMainThread(int)} returns
+     * true are created on this executor; other types are created on the main thread in the idle
+     * time between frames.
+     *
+     * @param executor The executor to create ViewHolders on, or null to create all prefetched
+     *                 ViewHolders on the main thread.
+     * @see #setExtendedPrefetchEnabled(boolean)
+     */
+    public void setPrefetchCreationExecutor(@Nullable Executor executor) {
+        mPrefetchCreationExecutor = executor;
+    }
+
+    /**
+     * Returns the executor extended prefetch uses to create ViewHolders off the main thread, or
+     * null if none is set.
+     *
+     * @see #setPrefetchCreationExecutor(Executor)
+     */
+    @Nullable
+    public Executor getPrefetchCreationExecutor() {
+        return mPrefetchCreationExecutor;
+    }
+
+    /**
+     * Returns the absolute fling velocity in pixels per second if the RecyclerView is settling,
+     * 0 otherwise.
+     */
+    float getFlingVelocity() {
+        if (mScrollState != SCROLL_STATE_SETTLING) {
+            return 0;
+        }
+        return Math.abs(mViewFlinger.mOverScroller.getCurrVelocity());
+    }
+
     /**
      * Return the current scrolling state of the RecyclerView.
      *
@@ -5826,6 +5910,23 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
     public static class RecycledViewPool {
         private static final int DEFAULT_MAX_SCRAP = 5;
 
+        /**
+         * Default upper bound for the per-type capacity when adaptive sizing is enabled.
+         */
+        private static final int DEFAULT_ADAPTIVE_MAX_SCRAP_LIMIT = 20;
+
+        /**
+         * Average create time (in nanoseconds) above which a single pool miss is enough to grow
+         * the capacity of a view type when adaptive sizing is enabled. Cheaper types only grow
+         * once they accumulate {@link #ADAPTIVE_MISSES_TO_GROW} misses.
+         */
+        private static final long ADAPTIVE_EXPENSIVE_CREATE_NS = 2_000_000; // 2ms
+
+        /**
+         * Number of misses a cheap-to-create view type needs before its capacity grows by one.
+         */
+        private static final int ADAPTIVE_MISSES_TO_GROW = 4;
+
         /**
          * Tracks both pooled holders, as well as create/bind timing metadata for the given type.
          *
@@ -5845,12 +5946,29 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
             int mMaxScrap = DEFAULT_MAX_SCRAP;
             long mCreateRunningAverageNs = 0;
             long mBindRunningAverageNs = 0;
+            // Extra capacity on top of mMaxScrap granted by adaptive sizing.
+            int mAdaptiveExtraScrap = 0;
+            // Misses accumulated since the last adaptive growth step.
+            int mPendingMissCount = 0;
+            // ViewHolders being created by prewarm() that haven't been added to the heap yet.
+            int mPendingPrewarmCount = 0;
         }
 
         SparseArray<ScrapData> mScrap = new SparseArray<>();
 
         private int mAttachCount = 0;
 
+        private boolean mAdaptiveSizingEnabled = false;
+
+        private int mAdaptiveMaxScrapLimit = DEFAULT_ADAPTIVE_MAX_SCRAP_LIMIT;
+
+        // Posts ViewHolders created by prewarm() back to the main thread, created lazily.
+        private Handler mMainHandler;
+
+        // Incremented by clear(), so ViewHolders prewarmed before are dropped instead of being
+        // added to the pool, as they may come from a previous Adapter.
+        private int mGeneration = 0;
+
         /**
          * Discard all ViewHolders.
          */
@@ -5858,7 +5976,9 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
             for (int i = 0; i < mScrap.size(); i++) {
                 ScrapData data = mScrap.valueAt(i);
                 data.mScrapHeap.clear();
+                data.mPendingPrewarmCount = 0;
             }
+            mGeneration++;
         }
 
         /**
@@ -5870,12 +5990,191 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
         public void setMaxRecycledViews(int viewType, int max) {
             ScrapData scrapData = getScrapDataForType(viewType);
             scrapData.mMaxScrap = max;
-            final ArrayList<ViewHolder> scrapHeap = scrapData.mScrapHeap;
-            while (scrapHeap.size() > max) {
-                scrapHeap.remove(scrapHeap.size() - 1);
+            trimScrapHeap(scrapData);
+        }
+
+        /**
+         * Enables or disables adaptive sizing of the pool.
+         * <p>
+         * When enabled, the capacity of each view type grows beyond the value set via
+         * {@link #setMaxRecycledViews(int, int)} whenever RecyclerView has to create a new
+         * ViewHolder because the pool had none of that type. Types that are expensive to create
+         * grow on every miss, cheaper types grow more slowly. Capacity never exceeds
+         * {@link #setAdaptiveMaxScrapLimit(int)}, and the extra capacity is given back by
+         * {@link #onTrimMemory(int)} or by disabling adaptive sizing.
+         * <p>
+         * Adaptive sizing is disabled by default.
+         *
+         * @param enabled True to let the pool grow and shrink per view type, false to keep the
+         *                fixed per type maximum.
+         */
+        public void setAdaptiveSizingEnabled(boolean enabled) {
+            if (mAdaptiveSizingEnabled == enabled) {
+                return;
+            }
+            mAdaptiveSizingEnabled = enabled;
+            if (!enabled) {
+                for (int i = 0; i < mScrap.size(); i++) {
+                    ScrapData scrapData = mScrap.valueAt(i);
+                    scrapData.mAdaptiveExtraScrap = 0;
+                    scrapData.mPendingMissCount = 0;
+                    trimScrapHeap(scrapData);
+                }
             }
         }
 
+        /**
+         * Returns whether adaptive sizing is enabled for this pool.
+         *
+         * @see #setAdaptiveSizingEnabled(boolean)
+         */
+        public boolean isAdaptiveSizingEnabled() {
+            return mAdaptiveSizingEnabled;
+        }
+
+        /**
+         * Sets the upper bound of ViewHolders the pool may hold per view type when adaptive
+         * sizing is enabled. View types whose maximum was set above this limit via
+         * {@link #setMaxRecycledViews(int, int)} keep their maximum but won't grow further.
+         *
+         * @param limit Maximum number of ViewHolders per view type that adaptive sizing may grow
+         *              to.
+         */
+        public void setAdaptiveMaxScrapLimit(int limit) {
+            checkArgument(limit >= 0, "limit must be non-negative");
+            mAdaptiveMaxScrapLimit = limit;
+            for (int i = 0; i < mScrap.size(); i++) {
+                ScrapData scrapData = mScrap.valueAt(i);
+                scrapData.mAdaptiveExtraScrap = Math.min(scrapData.mAdaptiveExtraScrap,
+                        Math.max(0, limit - scrapData.mMaxScrap));
+                trimScrapHeap(scrapData);
+            }
+        }
+
+        /**
+         * Returns the number of ViewHolders of the given type the pool currently accepts before
+         * discarding, including any capacity granted by adaptive sizing.
+         */
+        public int getMaxRecycledViews(int viewType) {
+            final ScrapData scrapData = mScrap.get(viewType);
+            return scrapData == null ? DEFAULT_MAX_SCRAP : getCapacity(scrapData);
+        }
+
+        /**
+         * Releases capacity granted by adaptive sizing in response to memory pressure.
+         * <p>
+         * Forward {@link ComponentCallbacks2#onTrimMemory(int)} calls to this
+         * method to let the pool shrink. Levels from
+         * {@link ComponentCallbacks2#TRIM_MEMORY_RUNNING_LOW} up halve the capacity added by
+         * adaptive sizing, while {@link ComponentCallbacks2#TRIM_MEMORY_RUNNING_CRITICAL} and
+         * levels from {@link ComponentCallbacks2#TRIM_MEMORY_BACKGROUND} up drop it entirely and
+         * discard the extra ViewHolders. Lower levels, such as
+         * {@link ComponentCallbacks2#TRIM_MEMORY_RUNNING_MODERATE}, are ignored.
+         *
+         * @param level The trim level received in
+         *              {@link ComponentCallbacks2#onTrimMemory(int)}.
+         */
+        public void onTrimMemory(int level) {
+            final boolean dropAll =
+                    level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND
+                    || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL;
+            final boolean halve = dropAll
+                    || level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW;
+            if (!halve) {
+                return;
+            }
+            for (int i = 0; i < mScrap.size(); i++) {
+                ScrapData scrapData = mScrap.valueAt(i);
+                scrapData.mAdaptiveExtraScrap = dropAll ? 0 : scrapData.mAdaptiveExtraScrap / 2;
+                scrapData.mPendingMissCount = 0;
+                trimScrapHeap(scrapData);
+            }
+        }
+
+        /**
+         * Creates ViewHolders of the given type on a background executor and adds them to the
+         * pool, so that the first layout or a fling into a new section of content doesn't have to
+         * inflate them on the UI thread.
+         * <p>
+         * {@link Adapter#onCreateViewHolder(ViewGroup, int)} is invoked on the given executor, so
+         * the Adapter must be able to create ViewHolders of this type off the main thread. The
+         * created ViewHolders are added to the pool on the main thread. No more ViewHolders than
+         * the pool's capacity for the type are created; if adaptive sizing is enabled, the
+         * capacity is grown up to {@code count} first.
+         * <p>
+         * This method must be called on the main thread.
+         *
+         * @param adapter  The Adapter used to create the ViewHolders.
+         * @param parent   The parent the ViewHolders will be attached to, usually the RecyclerView
+         *                 that will use this pool.
+         * @param viewType The view type to create ViewHolders for.
+         * @param count    The number of ViewHolders of this type the pool should hold.
+         * @param executor The executor on which the ViewHolders are created.
+         */
+        public void prewarm(@NonNull final Adapter<?> adapter, @NonNull final ViewGroup parent,
+                final int viewType, int count, @NonNull Executor executor) {
+            final ScrapData scrapData = getScrapDataForType(viewType);
+            if (mAdaptiveSizingEnabled && count > getCapacity(scrapData)) {
+                scrapData.mAdaptiveExtraScrap = Math.max(scrapData.mAdaptiveExtraScrap,
+                        Math.min(count, mAdaptiveMaxScrapLimit) - scrapData.mMaxScrap);
+            }
+            final int toCreate = Math.min(count, getCapacity(scrapData))
+                    - scrapData.mScrapHeap.size() - scrapData.mPendingPrewarmCount;
+            if (toCreate <= 0) {
+                return;
+            }
+            scrapData.mPendingPrewarmCount += toCreate;
+            if (mMainHandler == null) {
+                mMainHandler = new Handler(Looper.getMainLooper());
+            }
+            final Handler mainHandler = mMainHandler;
+            final int generation = mGeneration;
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    int created = 0;
+                    try {
+                        for (; created < toCreate; created++) {
+                            final long start = System.nanoTime();
+                            final ViewHolder holder = adapter.createViewHolder(parent, viewType);
+                            final long duration = System.nanoTime() - start;
+                            final RecyclerView nestedView =
+                                    findNestedRecyclerView(holder.itemView);
+                            mainHandler.post(new Runnable() {
+                                @Override
+                                public void run() {
+                                    if (generation != mGeneration) {
+                                        return;
+                                    }
+                                    scrapData.mPendingPrewarmCount--;
+                                    factorInCreateTime(viewType, duration);
+                                    if (nestedView != null) {
+                                        holder.mNestedRecyclerView =
+                                                new WeakReference<>(nestedView);
+                                    }
+                                    putRecycledView(holder);
+                                }
+                            });
+                        }
+                    } finally {
+                        // Release the count of the ViewHolders that failed to be created, so
+                        // later calls can create them again.
+                        final int notCreated = toCreate - created;
+                        if (notCreated > 0) {
+                            mainHandler.post(new Runnable() {
+                                @Override
+                                public void run() {
+                                    if (generation == mGeneration) {
+                                        scrapData.mPendingPrewarmCount -= notCreated;
+                                    }
+                                }
+                            });
+                        }
+                    }
+                }
+            });
+        }
+
         /**
          * Returns the current number of Views held by the RecycledViewPool of the given view type.
          */
@@ -5902,9 +6201,42 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
                     }
                 }
             }
+            if (mAdaptiveSizingEnabled) {
+                onPoolMiss(scrapData != null ? scrapData : getScrapDataForType(viewType));
+            }
             return null;
         }
 
+        /**
+         * Grows the capacity of a view type after the pool failed to provide a ViewHolder for it.
+         */
+        private void onPoolMiss(ScrapData scrapData) {
+            if (getCapacity(scrapData) >= mAdaptiveMaxScrapLimit) {
+                return;
+            }
+            scrapData.mPendingMissCount++;
+            if (scrapData.mCreateRunningAverageNs >= ADAPTIVE_EXPENSIVE_CREATE_NS
+                    || scrapData.mPendingMissCount >= ADAPTIVE_MISSES_TO_GROW) {
+                scrapData.mAdaptiveExtraScrap++;
+                scrapData.mPendingMissCount = 0;
+            }
+        }
+
+        private int getCapacity(ScrapData scrapData) {
+            if (!mAdaptiveSizingEnabled) {
+                return scrapData.mMaxScrap;
+            }
+            return scrapData.mMaxScrap + scrapData.mAdaptiveExtraScrap;
+        }
+
+        private void trimScrapHeap(ScrapData scrapData) {
+            final int capacity = getCapacity(scrapData);
+            final ArrayList<ViewHolder> scrapHeap = scrapData.mScrapHeap;
+            while (scrapHeap.size() > capacity) {
+                scrapHeap.remove(scrapHeap.size() - 1);
+            }
+        }
+
         /**
          * Total number of ViewHolders held by the pool.
          *
@@ -5930,8 +6262,9 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
          */
         public void putRecycledView(ViewHolder scrap) {
             final int viewType = scrap.getItemViewType();
-            final ArrayList<ViewHolder> scrapHeap = getScrapDataForType(viewType).mScrapHeap;
-            if (mScrap.get(viewType).mMaxScrap <= scrapHeap.size()) {
+            final ScrapData scrapData = getScrapDataForType(viewType);
+            final ArrayList<ViewHolder> scrapHeap = scrapData.mScrapHeap;
+            if (getCapacity(scrapData) <= scrapHeap.size()) {
                 return;
             }
             if (DEBUG && scrapHeap.contains(scrap)) {
@@ -7367,6 +7700,26 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
             return 0;
         }
 
+        /**
+         * Returns whether ViewHolders of the given view type may be created off the main thread.
+         * <p>
+         * When {@link RecyclerView#setExtendedPrefetchEnabled(boolean) extended prefetch} is
+         * enabled and a {@link RecyclerView#setPrefetchCreationExecutor(Executor) creation
+         * executor} is set, RecyclerView calls {@link #onCreateViewHolder(ViewGroup, int)} for
+         * view types which return true here on that executor, ahead of the items being laid out.
+         * Only return true if creating the ViewHolder doesn't touch state that must be accessed
+         * from the main thread.
+         * <p>
+         * The default implementation returns false.
+         *
+         * @param viewType The view type of the ViewHolders to create.
+         * @return True if {@link #onCreateViewHolder(ViewGroup, int)} may be called for this view
+         * type on a background thread.
+         */
+        public boolean canCreateViewHolderOffMainThread(int viewType) {
+            return false;
+        }
+
         /**
          * Indicates whether each item in the data set can be represented with a unique identifier
          * of type {@link java.lang.Long}.
@@ -50,13 +50,24 @@ sealed class Section {
 }
 
 data class Table(val name: String, val alias: String)
+
+/**
+ * The ORDER BY clause that ends a SELECT query, when all of its terms are plain column references.
+ *
+ * @property text the text of the clause, from ORDER BY to the end of the query
+ */
+data class OrderBy(val text: String, val terms: List<OrderingTerm>)
+
+data class OrderingTerm(val table: String?, val column: String, val descending: Boolean)
+
 data class ParsedQuery(
     val original: String,
     val type: QueryType,
     val inputs: List<BindParameterNode>,
     val tables: Set<Table>, // pairs of table name and alias
     val syntaxErrors: List<String>,
-    val runtimeQueryPlaceholder: Boolean
+    val runtimeQueryPlaceholder: Boolean,
+    val orderBy: OrderBy? = null
 ) {
     companion object {
         val STARTS_WITH_NUMBER = "^\\?[0-9]".toRegex()
@@ -38,11 +38,17 @@ class QueryVisitor(
     private val tableNames = mutableSetOf<Table>()
     private val withClauseNames = mutableSetOf<String>()
     private val queryType: QueryType
+    private val orderBy: OrderBy?
 
     init {
         queryType = (0 until statement.childCount).map {
             findQueryType(statement.getChild(it))
         }.filterNot { it == QueryType.UNKNOWN }.firstOrNull() ?: QueryType.UNKNOWN
+        orderBy = (0 until statement.childCount).map {
+            statement.getChild(it)
+        }.filterIsInstance<SQLiteParser.Select_stmtContext>().firstOrNull()?.let {
+            findOrderBy(it)
+        }
         statement.accept(this)
     }
 
@@ -66,6 +72,36 @@ class QueryVisitor(
         }
     }
 
+    /**
+     * Returns the ORDER BY clause of a simple SELECT statement if it ends the statement and only
+     * orders by columns.
+     */
+    private fun findOrderBy(select: SQLiteParser.Select_stmtContext): OrderBy? {
+        val orderClause = select.order_clause() ?: return null
+        if (select.select_or_values().size != 1 || select.limit_clause() != null) {
+            return null
+        }
+        val terms = orderClause.ordering_term().map { term ->
+            val expr = term.expr()
+            val columnName = expr.column_name() ?: return null
+            val tableName = expr.table_name()?.text
+            val columnReference = listOfNotNull(
+                expr.schema_name()?.text, tableName, columnName.text
+            ).joinToString(".")
+            if (term.K_COLLATE() != null || expr.text != columnReference) {
+                return null
+            }
+            OrderingTerm(
+                table = tableName?.let { unescapeIdentifier(it) },
+                column = unescapeIdentifier(columnName.text),
+                descending = term.K_DESC() != null
+            )
+        }
+        // Token indices count code points.
+        val start = original.offsetByCodePoints(0, orderClause.start.startIndex)
+        return OrderBy(original.substring(start).trimEnd(), terms)
+    }
+
     override fun visitExpr(ctx: SQLiteParser.ExprContext): Void? {
         val bindParameter = ctx.BIND_PARAMETER()
         if (bindParameter != null) {
@@ -108,7 +144,8 @@ class QueryVisitor(
             inputs = bindingExpressions.sortedBy { it.sourceInterval.a },
             tables = tableNames,
             syntaxErrors = syntaxErrors,
-            runtimeQueryPlaceholder = forRuntimeQuery
+            runtimeQueryPlaceholder = forRuntimeQuery,
+            orderBy = orderBy
         )
     }
 
@@ -23,6 +23,7 @@ import androidx.room.parser.ParsedQuery
 import androidx.room.processor.Context
 import androidx.room.processor.ProcessorErrors
 import androidx.room.solver.QueryResultBinderProvider
+import androidx.room.solver.query.result.KeysetOrdering
 import androidx.room.solver.query.result.ListQueryResultAdapter
 import androidx.room.solver.query.result.PagingSourceQueryResultBinder
 import androidx.room.solver.query.result.PositionalDataSourceQueryResultBinder
@@ -46,8 +47,11 @@ class PagingSourceQueryResultBinderProvider(val context: Context) : QueryResultB
             (listAdapter?.accessedTableNames() ?: emptyList()) +
                 query.tables.map { it.name }
             ).toSet()
+        val keysetOrdering = KeysetOrdering.find(
+            query, context.databaseVerifier?.entitiesAndViews
+        )
         return PagingSourceQueryResultBinder(
-            PositionalDataSourceQueryResultBinder(listAdapter, tableNames)
+            PositionalDataSourceQueryResultBinder(listAdapter, tableNames, keysetOrdering)
         )
     }
 
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room.solver.query.result
+
+import androidx.room.parser.ParsedQuery
+import androidx.room.parser.SQLTypeAffinity
+import androidx.room.vo.Entity
+import androidx.room.vo.EntityOrView
+import androidx.room.vo.Field
+
+/**
+ * The ORDER BY of a query that can be paged by seeking from the key of the last loaded row
+ * instead of skipping rows with an offset.
+ *
+ * @property orderByClause the text of the ORDER BY clause that ends the query
+ * @property columns the ordering columns, which are all result columns of the query
+ * @property descending the direction of each ordering column
+ */
+data class KeysetOrdering(
+    val orderByClause: String,
+    val columns: List<String>,
+    val descending: List<Boolean>
+) {
+    companion object {
+        /**
+         * Returns the keyset ordering of a query, or null if it can not be paged by keys.
+         *
+         * A query can be paged by keys if it selects from a single entity, and ends with an ORDER
+         * BY whose columns are non null result columns, include the columns of the primary key
+         * or of a unique index so that the order is deterministic, and are a prefix of the
+         * columns of an index, all in the same direction, so that SQLite can seek in that index.
+         */
+        fun find(query: ParsedQuery, entitiesAndViews: List<EntityOrView>?): KeysetOrdering? {
+            val orderBy = query.orderBy ?: return null
+            val table = query.tables.singleOrNull() ?: return null
+            val entity = entitiesAndViews?.filterIsInstance<Entity>()?.firstOrNull {
+                it.tableName.equals(table.name, ignoreCase = true)
+            } ?: return null
+            val resultColumns = query.resultInfo?.columns?.map { it.name } ?: return null
+            if (orderBy.terms.map { it.descending }.distinct().size != 1) {
+                return null
+            }
+
+            val rowIdAlias = entity.primaryKey.fields.singleOrNull()?.takeIf {
+                it.affinity == SQLTypeAffinity.INTEGER
+            }
+            val fields = orderBy.terms.map { term ->
+                if (term.table != null &&
+                    !term.table.equals(table.alias, ignoreCase = true) &&
+                    !term.table.equals(table.name, ignoreCase = true)
+                ) {
+                    return null
+                }
+                val field = entity.fields.firstOrNull {
+                    it.columnName.equals(term.column, ignoreCase = true)
+                } ?: return null
+                if (resultColumns.count { it == field.columnName } != 1) {
+                    return null
+                }
+                if (!field.nonNull && field != rowIdAlias) {
+                    return null
+                }
+                field
+            }
+            if (fields.distinct().size != fields.size) {
+                return null
+            }
+
+            val uniqueKeys = listOf(entity.primaryKey.fields) +
+                entity.indices.filter { it.unique }.map { it.fields }
+            if (uniqueKeys.none { it.isNotEmpty() && fields.containsAll(it) }) {
+                return null
+            }
+
+            // Index entries end with the rowid, so a rowid alias can follow the indexed columns.
+            val indexedOrders: List<List<Field>> = listOf(entity.primaryKey.fields) +
+                entity.indices.map { it.fields + listOfNotNull(rowIdAlias) }
+            val indexed = indexedOrders.any {
+                it.size >= fields.size && it.subList(0, fields.size) == fields
+            }
+            if (!indexed) {
+                return null
+            }
+
+            return KeysetOrdering(
+                orderByClause = orderBy.text,
+                columns = fields.map { it.columnName },
+                descending = orderBy.terms.map { it.descending }
+            )
+        }
+    }
+}
@@ -21,7 +21,10 @@ import androidx.room.ext.CommonTypeNames
 import androidx.room.ext.L
 import androidx.room.ext.N
 import androidx.room.ext.RoomTypeNames
+import androidx.room.ext.S
+import androidx.room.ext.T
 import androidx.room.solver.CodeGenScope
+import com.squareup.javapoet.CodeBlock
 import com.squareup.javapoet.FieldSpec
 import com.squareup.javapoet.MethodSpec
 import com.squareup.javapoet.ParameterSpec
@@ -32,7 +35,12 @@ import javax.lang.model.element.Modifier
 
 class PositionalDataSourceQueryResultBinder(
     val listAdapter: ListQueryResultAdapter?,
-    val tableNames: Set<String>
+    val tableNames: Set<String>,
+    /**
+     * The ordering to page the query with a KeysetDataSource, or null to page it with a
+     * LimitOffsetDataSource.
+     */
+    val keysetOrdering: KeysetOrdering? = null
 ) : QueryResultBinder(listAdapter) {
     val itemTypeName: TypeName = listAdapter?.rowAdapter?.out?.typeName ?: TypeName.OBJECT
     val typeName: ParameterizedTypeName = ParameterizedTypeName.get(
@@ -49,11 +57,28 @@ class PositionalDataSourceQueryResultBinder(
         // we don't need a comma. If list is empty, this prevents generating bad code (it is still
         // an error to have empty list but that is already reported while item is processed)
         val tableNamesList = tableNames.joinToString("") { ", \"$it\"" }
-        val spec = TypeSpec.anonymousClassBuilder(
-            "$N, $L, $L $L",
-            dbField, roomSQLiteQueryVar, inTransaction, tableNamesList
-        ).apply {
-            superclass(typeName)
+        val spec = if (keysetOrdering == null) {
+            TypeSpec.anonymousClassBuilder(
+                "$N, $L, $L $L",
+                dbField, roomSQLiteQueryVar, inTransaction, tableNamesList
+            ).superclass(typeName)
+        } else {
+            val keyColumns = CodeBlock.builder().apply {
+                add("new $T[] {", String::class.java)
+                keysetOrdering.columns.forEachIndexed { index, column ->
+                    add(if (index == 0) "$S" else ", $S", column)
+                }
+                add("}")
+            }.build()
+            val descending = keysetOrdering.descending.joinToString(", ")
+            TypeSpec.anonymousClassBuilder(
+                "$N, $L, $L, $S, $L, new boolean[] {$L} $L",
+                dbField, roomSQLiteQueryVar, inTransaction, keysetOrdering.orderByClause,
+                keyColumns, descending, tableNamesList
+            ).superclass(
+                ParameterizedTypeName.get(RoomTypeNames.KEYSET_DATA_SOURCE, itemTypeName)
+            )
+        }.apply {
             addMethod(createConvertRowsMethod(scope))
         }.build()
         scope.builder().apply {
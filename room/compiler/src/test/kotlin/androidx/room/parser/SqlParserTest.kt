@@ -17,6 +17,7 @@ package androidx.room.parser
 
 import org.hamcrest.CoreMatchers.`is`
 import org.hamcrest.CoreMatchers.not
+import org.hamcrest.CoreMatchers.nullValue
 import org.hamcrest.MatcherAssert.assertThat
 import org.junit.Test
 import org.junit.runner.RunWith
@@ -125,6 +126,55 @@ class SqlParserTest {
         )
     }
 
+    @Test
+    fun extractOrderBy() {
+        assertThat(
+            SqlParser.parse(
+                "select * from users u where age > :age order by u.lastName desc, `id` DESC"
+            ).orderBy,
+            `is`(
+                OrderBy(
+                    "order by u.lastName desc, `id` DESC",
+                    listOf(
+                        OrderingTerm("u", "lastName", true),
+                        OrderingTerm(null, "id", true)
+                    )
+                )
+            )
+        )
+        assertThat(
+            SqlParser.parse("select * from users order by id").orderBy,
+            `is`(OrderBy("order by id", listOf(OrderingTerm(null, "id", false))))
+        )
+    }
+
+    @Test
+    fun extractOrderBy_notColumns() {
+        assertThat(SqlParser.parse("select * from users").orderBy, `is`(nullValue()))
+        assertThat(
+            SqlParser.parse("select * from users order by lower(name)").orderBy,
+            `is`(nullValue())
+        )
+        assertThat(
+            SqlParser.parse("select * from users order by name collate nocase").orderBy,
+            `is`(nullValue())
+        )
+        assertThat(
+            SqlParser.parse("select * from users order by id limit 10").orderBy,
+            `is`(nullValue())
+        )
+        assertThat(
+            SqlParser.parse(
+                "select * from users union select * from admins order by id"
+            ).orderBy,
+            `is`(nullValue())
+        )
+        assertThat(
+            SqlParser.parse("select * from (select * from users order by id)").orderBy,
+            `is`(nullValue())
+        )
+    }
+
     @Test
     fun unescapeTableNames() {
         assertThat(
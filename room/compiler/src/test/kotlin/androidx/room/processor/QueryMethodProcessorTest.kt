@@ -23,6 +23,7 @@ import androidx.room.ext.CommonTypeNames
 import androidx.room.ext.KotlinTypeNames
 import androidx.room.ext.LifecyclesTypeNames
 import androidx.room.ext.PagingTypeNames
+import androidx.room.ext.RoomTypeNames
 import androidx.room.ext.typeName
 import androidx.room.parser.QueryType
 import androidx.room.parser.Table
@@ -30,8 +31,10 @@ import androidx.room.compiler.processing.XType
 import androidx.room.ext.getTypeElementsAnnotatedWith
 import androidx.room.processor.ProcessorErrors.cannotFindQueryResultAdapter
 import androidx.room.solver.query.result.DataSourceFactoryQueryResultBinder
+import androidx.room.solver.query.result.KeysetOrdering
 import androidx.room.solver.query.result.ListQueryResultAdapter
 import androidx.room.solver.query.result.LiveDataQueryResultBinder
+import androidx.room.solver.query.result.PagingSourceQueryResultBinder
 import androidx.room.solver.query.result.PojoRowAdapter
 import androidx.room.solver.query.result.SingleEntityQueryResultAdapter
 import androidx.room.testing.TestInvocation
@@ -48,12 +51,14 @@ import com.google.testing.compile.JavaFileObjects
 import com.google.testing.compile.JavaSourcesSubjectFactory
 import com.squareup.javapoet.ArrayTypeName
 import com.squareup.javapoet.ClassName
+import com.squareup.javapoet.FieldSpec
 import com.squareup.javapoet.ParameterizedTypeName
 import com.squareup.javapoet.TypeName
 import com.squareup.javapoet.TypeVariableName
 import createVerifierFromEntitiesAndViews
 import mockElementAndType
 import org.hamcrest.CoreMatchers.`is`
+import org.hamcrest.CoreMatchers.containsString
 import org.hamcrest.CoreMatchers.hasItem
 import org.hamcrest.CoreMatchers.instanceOf
 import org.hamcrest.CoreMatchers.not
@@ -66,6 +71,7 @@ import org.junit.Test
 import org.junit.runner.RunWith
 import org.junit.runners.Parameterized
 import org.mockito.Mockito
+import testCodeGenScope
 import javax.tools.JavaFileObject
 
 @Suppress("PLATFORM_CLASS_MAPPED_TO_KOTLIN")
@@ -641,6 +647,80 @@ class QueryMethodProcessorTest(val enableVerification: Boolean) {
         }.compilesWithoutError()
     }
 
+    @Test
+    fun testKeysetPagingSourceQuery() {
+        singleQueryMethod<ReadQueryMethod>(
+            """
+                @Query("select * from user where ageColumn > :age order by uid desc")
+                abstract ${PagingTypeNames.PAGING_SOURCE}<Integer, User> loadUsers(int age);
+                """
+        ) { parsedQuery, _ ->
+            assertThat(
+                parsedQuery.queryResultBinder,
+                instanceOf(PagingSourceQueryResultBinder::class.java)
+            )
+            val binder = (parsedQuery.queryResultBinder as PagingSourceQueryResultBinder)
+                .positionalDataSourceQueryResultBinder
+            if (!enableVerification) {
+                // The result columns are only known from the database verifier
+                assertThat(binder.keysetOrdering, `is`(nullValue()))
+                return@singleQueryMethod
+            }
+            assertThat(
+                binder.keysetOrdering,
+                `is`(KeysetOrdering("order by uid desc", listOf("uid"), listOf(true)))
+            )
+
+            val scope = testCodeGenScope()
+            binder.convertAndReturn(
+                roomSQLiteQueryVar = "_statement",
+                canReleaseQuery = true,
+                dbField = FieldSpec.builder(RoomTypeNames.ROOM_DB, "__db").build(),
+                inTransaction = false,
+                scope = scope
+            )
+            assertThat(
+                scope.builder().build().toString(),
+                containsString(
+                    "new ${RoomTypeNames.KEYSET_DATA_SOURCE}<foo.bar.User>(__db, _statement, " +
+                        "false, \"order by uid desc\", new java.lang.String[] {\"uid\"}, " +
+                        "new boolean[] {true} , \"user\")"
+                )
+            )
+        }.compilesWithoutError()
+    }
+
+    @Test
+    fun testLimitOffsetPagingSourceQuery() {
+        singleQueryMethod<ReadQueryMethod>(
+            """
+                @Query("select * from user order by ageColumn")
+                abstract ${PagingTypeNames.PAGING_SOURCE}<Integer, User> loadUsers();
+                """
+        ) { parsedQuery, _ ->
+            val binder = (parsedQuery.queryResultBinder as PagingSourceQueryResultBinder)
+                .positionalDataSourceQueryResultBinder
+            // ageColumn isn't unique nor indexed
+            assertThat(binder.keysetOrdering, `is`(nullValue()))
+
+            val scope = testCodeGenScope()
+            binder.convertAndReturn(
+                roomSQLiteQueryVar = "_statement",
+                canReleaseQuery = true,
+                dbField = FieldSpec.builder(RoomTypeNames.ROOM_DB, "__db").build(),
+                inTransaction = false,
+                scope = scope
+            )
+            assertThat(
+                scope.builder().build().toString(),
+                containsString(
+                    "new ${RoomTypeNames.LIMIT_OFFSET_DATA_SOURCE}<foo.bar.User>(__db, " +
+                        "_statement, false , \"user\")"
+                )
+            )
+        }.compilesWithoutError()
+    }
+
     @Test
     fun testBadChannelReturnForQuery() {
         singleQueryMethod<QueryMethod>(
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room.solver.query.result
+
+import androidx.room.parser.SqlParser
+import androidx.room.testing.TestInvocation
+import com.google.testing.compile.JavaFileObjects
+import createVerifierFromEntitiesAndViews
+import org.hamcrest.CoreMatchers.`is`
+import org.hamcrest.CoreMatchers.nullValue
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.JUnit4
+import simpleRun
+
+@RunWith(JUnit4::class)
+class KeysetOrderingTest {
+
+    companion object {
+        const val PREFIX = """
+            package foo.bar;
+            import androidx.room.*;
+            import androidx.annotation.NonNull;
+        """
+
+        val ENTITIES = arrayOf(
+            JavaFileObjects.forSourceString(
+                "foo.bar.User",
+                PREFIX + """
+                    @Entity(indices = {@Index({"lastName", "firstName"}), @Index("age")})
+                    public class User {
+                        @PrimaryKey
+                        public int id;
+                        @NonNull
+                        public String firstName;
+                        @NonNull
+                        public String lastName;
+                        public int age;
+                    }
+                """
+            ),
+            JavaFileObjects.forSourceString(
+                "foo.bar.Account",
+                PREFIX + """
+                    @Entity(indices = {@Index(value = "email", unique = true),
+                            @Index(value = "nickname", unique = true)})
+                    public class Account {
+                        @PrimaryKey
+                        @NonNull
+                        public String accountId;
+                        @NonNull
+                        public String email;
+                        public String nickname;
+                        public int ownerId;
+                    }
+                """
+            )
+        )
+    }
+
+    @Test
+    fun primaryKey() {
+        find("SELECT * FROM User ORDER BY id") { ordering ->
+            assertThat(ordering, `is`(KeysetOrdering("ORDER BY id", listOf("id"), listOf(false))))
+        }
+    }
+
+    @Test
+    fun primaryKeyDescending() {
+        find("SELECT * FROM User u WHERE age > 3 ORDER BY u.id DESC") { ordering ->
+            assertThat(
+                ordering,
+                `is`(KeysetOrdering("ORDER BY u.id DESC", listOf("id"), listOf(true)))
+            )
+        }
+    }
+
+    @Test
+    fun indexFollowedByRowId() {
+        find("SELECT * FROM User ORDER BY lastName, firstName, id") { ordering ->
+            assertThat(
+                ordering,
+                `is`(
+                    KeysetOrdering(
+                        "ORDER BY lastName, firstName, id",
+                        listOf("lastName", "firstName", "id"),
+                        listOf(false, false, false)
+                    )
+                )
+            )
+        }
+    }
+
+    @Test
+    fun uniqueIndex() {
+        find("SELECT * FROM Account ORDER BY email DESC") { ordering ->
+            assertThat(
+                ordering,
+                `is`(KeysetOrdering("ORDER BY email DESC", listOf("email"), listOf(true)))
+            )
+        }
+    }
+
+    @Test
+    fun notUnique() {
+        find("SELECT * FROM User ORDER BY lastName, firstName") { ordering ->
+            assertThat(ordering, `is`(nullValue()))
+        }
+    }
+
+    @Test
+    fun notIndexed() {
+        find("SELECT * FROM User ORDER BY firstName, id") { ordering ->
+            assertThat(ordering, `is`(nullValue()))
+        }
+    }
+
+    @Test
+    fun mixedDirections() {
+        find("SELECT * FROM User ORDER BY lastName, firstName DESC, id") { ordering ->
+            assertThat(ordering, `is`(nullValue()))
+        }
+    }
+
+    @Test
+    fun nullableColumn() {
+        find("SELECT * FROM Account ORDER BY nickname") { ordering ->
+            assertThat(ordering, `is`(nullValue()))
+        }
+    }
+
+    @Test
+    fun columnNotInResult() {
+        find("SELECT firstName, lastName FROM User ORDER BY id") { ordering ->
+            assertThat(ordering, `is`(nullValue()))
+        }
+    }
+
+    @Test
+    fun noOrderBy() {
+        find("SELECT * FROM User") { ordering ->
+            assertThat(ordering, `is`(nullValue()))
+        }
+    }
+
+    @Test
+    fun multipleTables() {
+        val sql = "SELECT User.* FROM User JOIN Account ON User.id = Account.ownerId ORDER BY id"
+        find(sql) { ordering ->
+            assertThat(ordering, `is`(nullValue()))
+        }
+    }
+
+    @Test
+    fun withoutVerifier() {
+        simpleRun(*ENTITIES) {
+            val query = SqlParser.parse("SELECT * FROM User ORDER BY id")
+            assertThat(KeysetOrdering.find(query, null), `is`(nullValue()))
+        }.compilesWithoutError()
+    }
+
+    private fun find(sql: String, handler: (KeysetOrdering?) -> Unit) {
+        simpleRun(*ENTITIES) { invocation: TestInvocation ->
+            val verifier = createVerifierFromEntitiesAndViews(invocation)
+            val query = SqlParser.parse(sql)
+            query.resultInfo = verifier.analyze(query.original)
+            handler(KeysetOrdering.find(query, verifier.entitiesAndViews))
+        }.compilesWithoutError()
+    }
+}
@@ -0,0 +1,300 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room.integration.testapp.paging;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.hasItem;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.paging.PositionalDataSource;
+import androidx.room.Room;
+import androidx.room.RoomDatabase;
+import androidx.room.RoomSQLiteQuery;
+import androidx.room.integration.testapp.TestDatabase;
+import androidx.room.integration.testapp.test.TestUtil;
+import androidx.room.integration.testapp.vo.User;
+import androidx.room.paging.KeysetDataSource;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.MediumTest;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+@MediumTest
+@RunWith(AndroidJUnit4.class)
+public class KeysetDataSourceTest {
+    private static final int USER_COUNT = 30;
+    // Users share their age with others, so the id breaks ties in the order.
+    private static final int AGE_COUNT = 5;
+
+    private TestDatabase mDatabase;
+    private final List<String> mQueries = Collections.synchronizedList(new ArrayList<String>());
+
+    @Before
+    public void createDb() {
+        Context context = ApplicationProvider.getApplicationContext();
+        mDatabase = Room.inMemoryDatabaseBuilder(context, TestDatabase.class)
+                .setQueryCallback(new RoomDatabase.QueryCallback() {
+                    @Override
+                    public void onQuery(@NonNull String sqlQuery, @NonNull List<Object> bindArgs) {
+                        mQueries.add(sqlQuery);
+                    }
+                }, new Executor() {
+                    @Override
+                    public void execute(Runnable command) {
+                        command.run();
+                    }
+                })
+                .build();
+    }
+
+    @After
+    public void closeDb() {
+        mDatabase.close();
+    }
+
+    @Test
+    public void loadForward_seeksAfterPreviousPage() {
+        List<Integer> ids = createUsers();
+        KeysetDataSource<Integer> dataSource = loadIdsByAgeAndId();
+
+        assertThat(dataSource.loadRange(0, 10), is(ids.subList(0, 10)));
+        assertThat(lastQuery(), not(containsString("WHERE")));
+
+        // Positions 9 and 10 share an age, so the id decides where the page starts
+        assertThat(dataSource.loadRange(10, 10), is(ids.subList(10, 20)));
+        assertThat(lastQuery(), containsString("WHERE `mAge` >= ? AND (`mAge` > ? OR "
+                + "(`mAge` = ? AND `mId` > ?)) ORDER BY `mAge` ASC, `mId` ASC"));
+        assertThat(dataSource.loadRange(20, 10), is(ids.subList(20, 30)));
+        assertThat(lastQuery(), containsString("`mId` > ?"));
+        assertThat(dataSource.loadRange(30, 10).isEmpty(), is(true));
+    }
+
+    @Test
+    public void loadForward_seeksWithOffsetPastGap() {
+        List<Integer> ids = createUsers();
+        KeysetDataSource<Integer> dataSource = loadIdsByAgeAndId();
+
+        dataSource.loadRange(0, 5);
+        assertThat(dataSource.loadRange(8, 4), is(ids.subList(8, 12)));
+        assertThat(lastQuery(), containsString("`mId` > ?"));
+    }
+
+    @Test
+    public void loadBackward_seeksBeforeNextPageAndReversesRows() {
+        List<Integer> ids = createUsers();
+        KeysetDataSource<Integer> dataSource = loadIdsByAgeAndId();
+
+        assertThat(dataSource.loadRange(20, 10), is(ids.subList(20, 30)));
+        assertThat(dataSource.loadRange(10, 10), is(ids.subList(10, 20)));
+        assertThat(lastQuery(), containsString("WHERE `mAge` <= ? AND (`mAge` < ? OR "
+                + "(`mAge` = ? AND `mId` < ?)) ORDER BY `mAge` DESC, `mId` DESC"));
+
+        // The backward load recorded the key of its first row, at position 10
+        assertThat(dataSource.loadRange(5, 5), is(ids.subList(5, 10)));
+        assertThat(lastQuery(), containsString("`mId` < ?"));
+        assertThat(dataSource.loadRange(0, 5), is(ids.subList(0, 5)));
+    }
+
+    @Test
+    public void loadDescending() {
+        List<Integer> ids = createUsers();
+        Collections.reverse(ids);
+        KeysetDataSource<Integer> dataSource = loadIdsByAgeAndIdDesc();
+
+        assertThat(dataSource.loadRange(0, 12), is(ids.subList(0, 12)));
+        assertThat(dataSource.loadRange(12, 12), is(ids.subList(12, 24)));
+        assertThat(lastQuery(), containsString("`mId` < ?"));
+        assertThat(dataSource.loadRange(24, 12), is(ids.subList(24, 30)));
+    }
+
+    @Test
+    public void loadFarFromAnchors_usesOffset() {
+        List<Integer> ids = createUsers();
+        KeysetDataSource<Integer> dataSource = loadIdsByAgeAndId();
+
+        dataSource.loadRange(20, 5);
+        assertThat(dataSource.loadRange(2, 3), is(ids.subList(2, 5)));
+        assertThat(lastQuery(), not(containsString("WHERE")));
+        assertThat(lastQuery(), containsString("LIMIT ? OFFSET ?"));
+    }
+
+    @Test
+    public void loadInitialWithoutPlaceholders_doesNotCount() {
+        List<Integer> ids = createUsers();
+        KeysetDataSource<Integer> dataSource = loadIdsByAgeAndId();
+
+        InitialResult result = loadInitial(dataSource, 12, false);
+        assertThat(result.mData, is(ids.subList(10, 20)));
+        assertThat(result.mPosition, is(10));
+        assertThat(result.mTotalCount, is(-1));
+        for (String query : mQueries) {
+            assertThat(query, not(containsString("COUNT(*)")));
+        }
+
+        // Loading past the end falls back to counting the rows
+        result = loadInitial(loadIdsByAgeAndId(), 40, false);
+        assertThat(result.mData, is(ids.subList(20, 30)));
+        assertThat(result.mPosition, is(20));
+    }
+
+    @Test
+    public void loadInitialWithPlaceholders_counts() {
+        List<Integer> ids = createUsers();
+        KeysetDataSource<Integer> dataSource = loadIdsByAgeAndId();
+
+        InitialResult result = loadInitial(dataSource, 0, true);
+        assertThat(result.mData, is(ids.subList(0, 10)));
+        assertThat(result.mTotalCount, is(USER_COUNT));
+        assertThat(mQueries, hasItem(containsString("COUNT(*)")));
+    }
+
+    @Test
+    public void invalidation() {
+        List<Integer> ids = createUsers();
+        KeysetDataSource<Integer> dataSource = loadIdsByAgeAndId();
+        dataSource.loadRange(0, 10);
+        dataSource.loadRange(10, 10);
+
+        // A user inserted in the middle of the pages loaded so far shifts the following rows
+        User user = TestUtil.createUser(USER_COUNT);
+        user.setAge(0);
+        mDatabase.getUserDao().insert(user);
+        ids.add(USER_COUNT / AGE_COUNT, USER_COUNT);
+        mDatabase.getInvalidationTracker().refreshVersionsSync();
+        assertThat(dataSource.isInvalid(), is(true));
+
+        // The anchors of the invalidated data source are not reused
+        KeysetDataSource<Integer> newDataSource = loadIdsByAgeAndId();
+        assertThat(newDataSource.loadRange(10, 10), is(ids.subList(10, 20)));
+        assertThat(newDataSource.loadRange(20, 11), is(ids.subList(20, 31)));
+        assertThat(lastQuery(), containsString("`mId` > ?"));
+        assertThat(newDataSource.loadRange(5, 5), is(ids.subList(5, 10)));
+        assertThat(lastQuery(), containsString("`mId` < ?"));
+        assertThat(newDataSource.loadRange(0, 5), is(ids.subList(0, 5)));
+    }
+
+    /**
+     * Inserts users whose ages repeat, and returns their ids ordered by age then id.
+     */
+    private List<Integer> createUsers() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USER_COUNT; i++) {
+            User user = TestUtil.createUser(i);
+            user.setAge(i % AGE_COUNT);
+            users.add(user);
+        }
+        mDatabase.getUserDao().insertAll(users.toArray(new User[0]));
+        Collections.sort(users, new Comparator<User>() {
+            @Override
+            public int compare(User a, User b) {
+                if (a.getAge() != b.getAge()) {
+                    return a.getAge() - b.getAge();
+                }
+                return a.getId() - b.getId();
+            }
+        });
+        List<Integer> ids = new ArrayList<>();
+        for (User user : users) {
+            ids.add(user.getId());
+        }
+        mQueries.clear();
+        return ids;
+    }
+
+    private KeysetDataSource<Integer> loadIdsByAgeAndId() {
+        return loadIds("ORDER BY mAge, mId", false);
+    }
+
+    private KeysetDataSource<Integer> loadIdsByAgeAndIdDesc() {
+        return loadIds("ORDER BY mAge DESC, mId DESC", true);
+    }
+
+    private KeysetDataSource<Integer> loadIds(String orderBy, boolean descending) {
+        RoomSQLiteQuery query = RoomSQLiteQuery.acquire("SELECT * FROM User " + orderBy, 0);
+        return new KeysetDataSource<Integer>(mDatabase, query, false, orderBy,
+                new String[]{"mAge", "mId"}, new boolean[]{descending, descending}, "User") {
+            @Override
+            protected List<Integer> convertRows(Cursor cursor) {
+                int idIndex = cursor.getColumnIndexOrThrow("mId");
+                List<Integer> ids = new ArrayList<>(cursor.getCount());
+                while (cursor.moveToNext()) {
+                    ids.add(cursor.getInt(idIndex));
+                }
+                return ids;
+            }
+        };
+    }
+
+    /**
+     * Returns the last paging query, skipping the queries of the invalidation tracker.
+     */
+    private String lastQuery() {
+        synchronized (mQueries) {
+            for (int i = mQueries.size() - 1; i >= 0; i--) {
+                if (mQueries.get(i).contains("LIMIT ?")) {
+                    return mQueries.get(i);
+                }
+            }
+        }
+        throw new AssertionError("no paging query in " + mQueries);
+    }
+
+    private static InitialResult loadInitial(KeysetDataSource<Integer> dataSource,
+            int requestedStartPosition, boolean placeholdersEnabled) {
+        final InitialResult result = new InitialResult();
+        dataSource.loadInitial(new PositionalDataSource.LoadInitialParams(requestedStartPosition,
+                        10, 10, placeholdersEnabled),
+                new PositionalDataSource.LoadInitialCallback<Integer>() {
+                    @Override
+                    public void onResult(@NonNull List<Integer> data, int position,
+                            int totalCount) {
+                        result.mData = data;
+                        result.mPosition = position;
+                        result.mTotalCount = totalCount;
+                    }
+
+                    @Override
+                    public void onResult(@NonNull List<Integer> data, int position) {
+                        result.mData = data;
+                        result.mPosition = position;
+                    }
+                });
+        return result;
+    }
+
+    private static class InitialResult {
+        List<Integer> mData;
+        int mPosition;
+        int mTotalCount = -1;
+    }
+}
@@ -0,0 +1,322 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room.paging;
+
+import android.database.Cursor;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+import androidx.room.RoomDatabase;
+import androidx.room.RoomSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteQuery;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A data source implementation that pages the query by seeking from the ORDER BY key of rows that
+ * were already loaded, instead of skipping rows with an offset.
+ * <p>
+ * Room uses this data source for queries whose ORDER BY only references non null columns of an
+ * index and always yields the same order, such that the rows loaded so far can be found again
+ * through the index. The data source remembers the key of the first and last rows of every range
+ * it loads, so loading the range next to one that was already loaded, which is what happens while
+ * scrolling, only reads the rows of that range. Ranges away from any loaded row fall back to an
+ * offset from the closest one.
+ * <p>
+ * When placeholders are disabled, the initial load does not count the rows of the query either.
+ *
+ * @param <T> Data type returned by the data source.
+ *
+ * @hide
+ */
+@SuppressWarnings("deprecation")
+@RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX)
+public abstract class KeysetDataSource<T> extends LimitOffsetDataSource<T> {
+    private final String[] mKeyColumns;
+    // Index in the key of the value bound to each argument of the seek predicate.
+    private final int[] mSeekArgKeyIndices;
+    // Null if the ORDER BY clause could not be found in the query, which is then paged with an
+    // offset.
+    @Nullable
+    private final String mOffsetQuery;
+    @Nullable
+    private final String mSeekAfterQuery;
+    @Nullable
+    private final String mSeekBeforeQuery;
+
+    // Keys of the rows loaded so far, by position.
+    @GuardedBy("mAnchors")
+    private final TreeMap<Integer, Object[]> mAnchors = new TreeMap<>();
+
+    /**
+     * @param orderByClause the ORDER BY clause that ends the query, whose terms are the key
+     *                      columns.
+     * @param keyColumns    the columns of the ORDER BY clause, which are result columns.
+     * @param descending    whether each key column is sorted in descending order.
+     */
+    protected KeysetDataSource(RoomDatabase db, SupportSQLiteQuery query,
+            boolean inTransaction, String orderByClause, String[] keyColumns,
+            boolean[] descending, String... tables) {
+        this(db, RoomSQLiteQuery.copyFrom(query), inTransaction, orderByClause, keyColumns,
+                descending, tables);
+    }
+
+    /**
+     * @param orderByClause the ORDER BY clause that ends the query, whose terms are the key
+     *                      columns.
+     * @param keyColumns    the columns of the ORDER BY clause, which are result columns.
+     * @param descending    whether each key column is sorted in descending order.
+     */
+    protected KeysetDataSource(RoomDatabase db, RoomSQLiteQuery query,
+            boolean inTransaction, String orderByClause, String[] keyColumns,
+            boolean[] descending, String... tables) {
+        super(db, query, inTransaction, tables);
+        if (keyColumns.length == 0 || keyColumns.length != descending.length) {
+            throw new IllegalArgumentException("Each key column must have a direction.");
+        }
+        mKeyColumns = keyColumns;
+        List<Integer> seekArgKeyIndices = new ArrayList<>();
+        String seekAfterPredicate = buildSeekPredicate(keyColumns, descending, true,
+                seekArgKeyIndices);
+        String seekBeforePredicate = buildSeekPredicate(keyColumns, descending, false,
+                new ArrayList<Integer>());
+        mSeekArgKeyIndices = new int[seekArgKeyIndices.size()];
+        for (int i = 0; i < mSeekArgKeyIndices.length; i++) {
+            mSeekArgKeyIndices[i] = seekArgKeyIndices.get(i);
+        }
+
+        // The ORDER BY of the query is moved to the outer query: SQLite does not flatten a
+        // subquery into an outer query when both are ordered, which would prevent it from seeking
+        // in the index.
+        String sql = query.getSql().trim();
+        if (sql.endsWith(orderByClause)) {
+            String source = "SELECT * FROM ( "
+                    + sql.substring(0, sql.length() - orderByClause.length()) + " )";
+            String orderBy = buildOrderBy(keyColumns, descending, false);
+            mOffsetQuery = source + orderBy + " LIMIT ? OFFSET ?";
+            mSeekAfterQuery = source + " WHERE " + seekAfterPredicate + orderBy
+                    + " LIMIT ? OFFSET ?";
+            mSeekBeforeQuery = source + " WHERE " + seekBeforePredicate
+                    + buildOrderBy(keyColumns, descending, true) + " LIMIT ? OFFSET ?";
+        } else {
+            mOffsetQuery = null;
+            mSeekAfterQuery = null;
+            mSeekBeforeQuery = null;
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    @Override
+    public void loadInitial(@NonNull LoadInitialParams params,
+            @NonNull LoadInitialCallback<T> callback) {
+        if (params.placeholdersEnabled) {
+            super.loadInitial(params, callback);
+            return;
+        }
+        // Without placeholders the total count is not needed, so only count the rows if the
+        // requested position turns out to be past the end of the query.
+        int firstLoadPosition = Math.max(0,
+                params.requestedStartPosition / params.pageSize * params.pageSize);
+        List<T> rows = loadRange(firstLoadPosition, params.requestedLoadSize);
+        if (rows.isEmpty() && firstLoadPosition > 0) {
+            super.loadInitial(params, callback);
+            return;
+        }
+        callback.onResult(rows, firstLoadPosition);
+    }
+
+    @NonNull
+    @Override
+    List<T> queryRange(int startPosition, int loadCount) {
+        if (mOffsetQuery == null) {
+            return super.queryRange(startPosition, loadCount);
+        }
+        Map.Entry<Integer, Object[]> before;
+        Map.Entry<Integer, Object[]> after;
+        synchronized (mAnchors) {
+            before = mAnchors.floorEntry(startPosition - 1);
+            after = mAnchors.ceilingEntry(startPosition + loadCount);
+        }
+        int beforeOffset = before == null ? Integer.MAX_VALUE : startPosition - 1 - before.getKey();
+        int afterOffset = after == null ? Integer.MAX_VALUE
+                : after.getKey() - startPosition - loadCount;
+
+        final RoomSQLiteQuery sqLiteQuery;
+        final boolean backwards;
+        if (startPosition <= beforeOffset && startPosition <= afterOffset) {
+            sqLiteQuery = acquireQuery(mOffsetQuery, null, loadCount, startPosition);
+            backwards = false;
+        } else if (beforeOffset <= afterOffset) {
+            sqLiteQuery = acquireQuery(mSeekAfterQuery, before.getValue(), loadCount,
+                    beforeOffset);
+            backwards = false;
+        } else {
+            sqLiteQuery = acquireQuery(mSeekBeforeQuery, after.getValue(), loadCount,
+                    afterOffset);
+            backwards = true;
+        }
+
+        Cursor cursor = mDb.query(sqLiteQuery);
+        //noinspection TryFinallyCanBeTryWithResources
+        try {
+            if (backwards) {
+                recordAnchors(cursor, startPosition + loadCount - 1, -1);
+                List<T> rows = new ArrayList<>(convertRows(cursor));
+                Collections.reverse(rows);
+                return rows;
+            } else {
+                recordAnchors(cursor, startPosition, 1);
+                return convertRows(cursor);
+            }
+        } finally {
+            cursor.close();
+            sqLiteQuery.release();
+        }
+    }
+
+    private RoomSQLiteQuery acquireQuery(String sql, @Nullable Object[] key, int loadCount,
+            int offset) {
+        int seekArgCount = key == null ? 0 : mSeekArgKeyIndices.length;
+        final RoomSQLiteQuery sqLiteQuery = RoomSQLiteQuery.acquire(sql,
+                mSourceQuery.getArgCount() + seekArgCount + 2);
+        sqLiteQuery.copyArgumentsFrom(mSourceQuery);
+        int argIndex = mSourceQuery.getArgCount();
+        for (int i = 0; i < seekArgCount; i++) {
+            bindKeyValue(sqLiteQuery, ++argIndex, key[mSeekArgKeyIndices[i]]);
+        }
+        sqLiteQuery.bindLong(++argIndex, loadCount);
+        sqLiteQuery.bindLong(++argIndex, offset);
+        return sqLiteQuery;
+    }
+
+    /**
+     * Remembers the keys of the first and last rows of the cursor, then moves the cursor back
+     * before its first row.
+     */
+    private void recordAnchors(Cursor cursor, int firstRowPosition, int step) {
+        if (!cursor.moveToFirst()) {
+            return;
+        }
+        Object[] firstKey = readKey(cursor);
+        int lastRowPosition = firstRowPosition + step * (cursor.getCount() - 1);
+        Object[] lastKey = cursor.moveToLast() ? readKey(cursor) : null;
+        cursor.moveToPosition(-1);
+        synchronized (mAnchors) {
+            if (firstKey != null) {
+                mAnchors.put(firstRowPosition, firstKey);
+            }
+            if (lastKey != null) {
+                mAnchors.put(lastRowPosition, lastKey);
+            }
+        }
+    }
+
+    @Nullable
+    private Object[] readKey(Cursor cursor) {
+        Object[] key = new Object[mKeyColumns.length];
+        for (int i = 0; i < mKeyColumns.length; i++) {
+            int index = cursor.getColumnIndex(mKeyColumns[i]);
+            if (index < 0) {
+                return null;
+            }
+            switch (cursor.getType(index)) {
+                case Cursor.FIELD_TYPE_INTEGER:
+                    key[i] = cursor.getLong(index);
+                    break;
+                case Cursor.FIELD_TYPE_FLOAT:
+                    key[i] = cursor.getDouble(index);
+                    break;
+                case Cursor.FIELD_TYPE_STRING:
+                    key[i] = cursor.getString(index);
+                    break;
+                case Cursor.FIELD_TYPE_BLOB:
+                    key[i] = cursor.getBlob(index);
+                    break;
+                default:
+                    // Rows can not be found again from a null key.
+                    return null;
+            }
+        }
+        return key;
+    }
+
+    private static void bindKeyValue(RoomSQLiteQuery query, int index, Object value) {
+        if (value instanceof Long) {
+            query.bindLong(index, (Long) value);
+        } else if (value instanceof Double) {
+            query.bindDouble(index, (Double) value);
+        } else if (value instanceof String) {
+            query.bindString(index, (String) value);
+        } else {
+            query.bindBlob(index, (byte[]) value);
+        }
+    }
+
+    /**
+     * Builds the predicate selecting the rows after (or before) a key, in the form
+     * {@code a >= ? AND (a > ? OR (a = ? AND b > ?))} so that SQLite can seek in the index of the
+     * first column. The index in the key of the value bound to each argument is added to
+     * argKeyIndices.
+     */
+    private static String buildSeekPredicate(String[] columns, boolean[] descending,
+            boolean after, List<Integer> argKeyIndices) {
+        StringBuilder predicate = new StringBuilder();
+        if (columns.length > 1) {
+            predicate.append(quote(columns[0])).append(after != descending[0] ? " >= ?" : " <= ?")
+                    .append(" AND ");
+            argKeyIndices.add(0);
+        }
+        for (int i = 0; i < columns.length; i++) {
+            String column = quote(columns[i]);
+            String comparison = after != descending[i] ? " > ?" : " < ?";
+            if (i == columns.length - 1) {
+                predicate.append(column).append(comparison);
+                argKeyIndices.add(i);
+            } else {
+                predicate.append("(").append(column).append(comparison)
+                        .append(" OR (").append(column).append(" = ? AND ");
+                argKeyIndices.add(i);
+                argKeyIndices.add(i);
+            }
+        }
+        for (int i = 0; i < columns.length - 1; i++) {
+            predicate.append("))");
+        }
+        return predicate.toString();
+    }
+
+    private static String buildOrderBy(String[] columns, boolean[] descending, boolean reversed) {
+        StringBuilder orderBy = new StringBuilder(" ORDER BY ");
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                orderBy.append(", ");
+            }
+            orderBy.append(quote(columns[i])).append(descending[i] != reversed ? " DESC" : " ASC");
+        }
+        return orderBy.toString();
+    }
+
+    private static String quote(String column) {
+        return "`" + column + "`";
+    }
+}
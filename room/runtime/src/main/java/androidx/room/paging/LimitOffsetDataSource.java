@@ -45,10 +45,10 @@ import java.util.Set;
 @SuppressWarnings("deprecation")
 @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX)
 public abstract class LimitOffsetDataSource<T> extends androidx.paging.PositionalDataSource<T> {
-    private final RoomSQLiteQuery mSourceQuery;
+    final RoomSQLiteQuery mSourceQuery;
     private final String mCountQuery;
     private final String mLimitOffsetQuery;
-    private final RoomDatabase mDb;
+    final RoomDatabase mDb;
     @SuppressWarnings("FieldCanBeLocal")
     private final InvalidationTracker.Observer mObserver;
     private final boolean mInTransaction;
@@ -112,8 +112,6 @@ public abstract class LimitOffsetDataSource<T> extends androidx.paging.Positiona
         List<T> list = Collections.emptyList();
         int totalCount = 0;
         int firstLoadPosition = 0;
-        RoomSQLiteQuery sqLiteQuery = null;
-        Cursor cursor = null;
         mDb.beginTransaction();
         try {
             totalCount = countItems();
@@ -122,20 +120,12 @@ public abstract class LimitOffsetDataSource<T> extends androidx.paging.Positiona
                 firstLoadPosition = computeInitialLoadPosition(params, totalCount);
                 int firstLoadSize = computeInitialLoadSize(params, firstLoadPosition, totalCount);
 
-                sqLiteQuery = getSQLiteQuery(firstLoadPosition, firstLoadSize);
-                cursor = mDb.query(sqLiteQuery);
-                List<T> rows = convertRows(cursor);
+                List<T> rows = queryRange(firstLoadPosition, firstLoadSize);
                 mDb.setTransactionSuccessful();
                 list = rows;
             }
         } finally {
-            if (cursor != null) {
-                cursor.close();
-            }
             mDb.endTransaction();
-            if (sqLiteQuery != null) {
-                sqLiteQuery.release();
-            }
         }
 
         callback.onResult(list, firstLoadPosition, totalCount);
@@ -155,32 +145,34 @@ public abstract class LimitOffsetDataSource<T> extends androidx.paging.Positiona
     @SuppressWarnings("deprecation")
     @NonNull
     public List<T> loadRange(int startPosition, int loadCount) {
-        final RoomSQLiteQuery sqLiteQuery = getSQLiteQuery(startPosition, loadCount);
         if (mInTransaction) {
             mDb.beginTransaction();
-            Cursor cursor = null;
-            //noinspection TryFinallyCanBeTryWithResources
             try {
-                cursor = mDb.query(sqLiteQuery);
-                List<T> rows = convertRows(cursor);
+                List<T> rows = queryRange(startPosition, loadCount);
                 mDb.setTransactionSuccessful();
                 return rows;
             } finally {
-                if (cursor != null) {
-                    cursor.close();
-                }
                 mDb.endTransaction();
-                sqLiteQuery.release();
             }
         } else {
-            Cursor cursor = mDb.query(sqLiteQuery);
-            //noinspection TryFinallyCanBeTryWithResources
-            try {
-                return convertRows(cursor);
-            } finally {
-                cursor.close();
-                sqLiteQuery.release();
-            }
+            return queryRange(startPosition, loadCount);
+        }
+    }
+
+    /**
+     * Queries the rows from startPosition to startPosition + loadCount. Subclasses override this
+     * to page without skipping rows with an offset.
+     */
+    @NonNull
+    List<T> queryRange(int startPosition, int loadCount) {
+        final RoomSQLiteQuery sqLiteQuery = getSQLiteQuery(startPosition, loadCount);
+        Cursor cursor = mDb.query(sqLiteQuery);
+        //noinspection TryFinallyCanBeTryWithResources
+        try {
+            return convertRows(cursor);
+        } finally {
+            cursor.close();
+            sqLiteQuery.release();
         }
     }
 
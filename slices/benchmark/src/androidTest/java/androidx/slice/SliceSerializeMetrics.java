@@ -135,6 +135,58 @@ public class SliceSerializeMetrics {
         assertEquivalentRoot(before, after);
     }
 
+    @Test
+    public void testCompactSerialization() throws Exception {
+        final BenchmarkState state = mBenchmarkRule.getState();
+        Slice before = createSlice(mContext, Uri.parse("context://pkg/slice"), 3, 3, 6);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(1024 * 1024);
+        SliceUtils.SerializeOptions options = new SliceUtils.SerializeOptions()
+                .setImageMode(SliceUtils.SerializeOptions.MODE_CONVERT)
+                .setActionMode(SliceUtils.SerializeOptions.MODE_CONVERT)
+                .setCompactFormat(true);
+
+        while (state.keepRunning()) {
+            outputStream = new ByteArrayOutputStream(1024 * 1024);
+            SliceUtils.serializeSlice(before, mContext, outputStream, options);
+        }
+
+        SliceUtils.SliceActionListener listener = new SliceUtils.SliceActionListener() {
+            @Override
+            public void onSliceAction(Uri actionUri, Context context, Intent intent) {
+            }
+        };
+        Slice after = SliceUtils.parseSlice(mContext,
+                new ByteArrayInputStream(outputStream.toByteArray()), "UTF-8", listener);
+        assertEquivalentRoot(before, after);
+    }
+
+    @Test
+    public void testCompactDeserialization() throws IOException, SliceUtils.SliceParseException {
+        final BenchmarkState state = mBenchmarkRule.getState();
+        Slice before = createSlice(mContext, Uri.parse("context://pkg/slice"), 3, 3, 6);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(1024 * 1024);
+        SliceUtils.serializeSlice(before, mContext, outputStream,
+                new SliceUtils.SerializeOptions()
+                        .setImageMode(SliceUtils.SerializeOptions.MODE_CONVERT)
+                        .setActionMode(SliceUtils.SerializeOptions.MODE_CONVERT)
+                        .setCompactFormat(true));
+        InputStream inputStream = new ByteArrayInputStream(outputStream.toByteArray());
+        inputStream.mark(-1);
+
+        SliceUtils.SliceActionListener listener = new SliceUtils.SliceActionListener() {
+            @Override
+            public void onSliceAction(Uri actionUri, Context context, Intent intent) {
+            }
+        };
+        Slice after = SliceUtils.parseSlice(mContext, inputStream, "UTF-8", listener);
+        while (state.keepRunning()) {
+            inputStream.reset();
+            after = SliceUtils.parseSlice(mContext, inputStream, "UTF-8", listener);
+        }
+
+        assertEquivalentRoot(before, after);
+    }
+
     private static final int BUF_SIZE = 0x1000; // 4K
 
     public static long copy(InputStream from, OutputStream to) throws IOException {
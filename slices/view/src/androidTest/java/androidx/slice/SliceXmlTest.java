@@ -22,6 +22,7 @@ import static android.app.slice.SliceItem.FORMAT_SLICE;
 import static android.app.slice.SliceItem.FORMAT_TEXT;
 
 import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNull;
 import static junit.framework.Assert.assertTrue;
 
 import static org.mockito.ArgumentMatchers.eq;
@@ -173,6 +174,93 @@ public class SliceXmlTest {
                 (Context) eq(null), (Intent) eq(null));
     }
 
+    @Test
+    public void testCompactSerialization() throws Exception {
+        PendingIntent pi = PendingIntent.getActivity(mContext, 0, new Intent(), 0);
+        Bitmap b = Bitmap.createBitmap(50, 25, Bitmap.Config.ARGB_8888);
+        new Canvas(b).drawColor(0xffff0000);
+        // Create a slice containing all the types in a hierarchy.
+        Slice before = new Slice.Builder(Uri.parse("content://pkg/slice"))
+                .addSubSlice(new Slice.Builder(Uri.parse("content://pkg/slice/sub"))
+                        .addTimestamp(System.currentTimeMillis(), null, "Hint")
+                        .build())
+                .addIcon(IconCompat.createWithBitmap(b), null)
+                .addText("Some text < with markup", null)
+                .addAction(pi,
+                        new Slice.Builder(Uri.parse("content://pkg/slice/action"))
+                        .addText("Action text", null)
+                        .build(), null)
+                .addInt(0xff00ff00, "subtype")
+                .addIcon(IconCompat.createWithResource(mContext, R.drawable.abc_slice_see_more_bg),
+                        null)
+                .addHints("Hint 1", "Hint 2")
+                .build();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        SliceUtils.serializeSlice(before, mContext, outputStream,
+                new SliceUtils.SerializeOptions()
+                        .setImageMode(SliceUtils.SerializeOptions.MODE_CONVERT)
+                        .setActionMode(SliceUtils.SerializeOptions.MODE_CONVERT)
+                        .setCompactFormat(true));
+
+        byte[] bytes = outputStream.toByteArray();
+        ByteArrayInputStream inputStream = new ByteArrayInputStream(bytes);
+        SliceUtils.SliceActionListener listener = mock(SliceUtils.SliceActionListener.class);
+        Slice after = SliceUtils.parseSlice(mContext, inputStream, "UTF-8", listener);
+
+        assertEquivalentRoot(before, after);
+        assertEquivalent(before.getItems().get(0).getSlice(), after.getItems().get(0).getSlice());
+
+        SliceItem action = SliceQuery.find(after, FORMAT_ACTION);
+        action.fireAction(null, null);
+        verify(listener).onSliceAction(eq(Uri.parse("content://pkg/slice/action")),
+                (Context) eq(null), (Intent) eq(null));
+    }
+
+    @Test
+    public void testCompactSerializationRemovesItems() throws Exception {
+        PendingIntent pi = PendingIntent.getActivity(mContext, 0, new Intent(), 0);
+        Slice before = new Slice.Builder(Uri.parse("content://pkg/slice"))
+                .addAction(pi, new Slice.Builder(Uri.parse("content://pkg/slice/action"))
+                        .build(), null)
+                .addIcon(IconCompat.createWithResource(mContext,
+                        R.drawable.abc_slice_remote_input_bg), null)
+                .addText("Some text", null)
+                .build();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        SliceUtils.serializeSlice(before, mContext, outputStream,
+                new SliceUtils.SerializeOptions()
+                        .setImageMode(SliceUtils.SerializeOptions.MODE_REMOVE)
+                        .setActionMode(SliceUtils.SerializeOptions.MODE_REMOVE)
+                        .setCompactFormat(true));
+
+        Slice after = SliceUtils.parseSlice(mContext,
+                new ByteArrayInputStream(outputStream.toByteArray()), "UTF-8",
+                mock(SliceUtils.SliceActionListener.class));
+        assertEquals(1, after.getItems().size());
+        assertEquals("Some text", String.valueOf(after.getItems().get(0).getText()));
+    }
+
+    @Test
+    public void testCompactSerializationKeepsNullText() throws Exception {
+        Slice before = new Slice.Builder(Uri.parse("content://pkg/slice"))
+                .addText(null, null)
+                .addText("", null)
+                .build();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        SliceUtils.serializeSlice(before, mContext, outputStream,
+                new SliceUtils.SerializeOptions().setCompactFormat(true));
+
+        Slice after = SliceUtils.parseSlice(mContext,
+                new ByteArrayInputStream(outputStream.toByteArray()), "UTF-8",
+                mock(SliceUtils.SliceActionListener.class));
+        assertEquals(2, after.getItems().size());
+        assertNull(after.getItems().get(0).getText());
+        assertEquals("", String.valueOf(after.getItems().get(1).getText()));
+    }
+
     @Test
     public void testBackCompatSerialization() throws Exception {
         PendingIntent pi = PendingIntent.getActivity(mContext, 0, new Intent(), 0);
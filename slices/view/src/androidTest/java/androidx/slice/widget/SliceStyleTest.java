@@ -17,6 +17,7 @@
 package androidx.slice.widget;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertTrue;
 
@@ -55,6 +56,25 @@ public class SliceStyleTest {
         mSliceStyle = new SliceStyle(mContext, attributes, 0, R.style.Widget_SliceView);
     }
 
+    @Test
+    public void testCopy_hasSameVersionUntilModified() {
+        SliceStyle copy = new SliceStyle(mSliceStyle);
+        int version = mSliceStyle.getVersion();
+        assertEquals(version, copy.getVersion());
+
+        mSliceStyle.setRowStyleFactory(item -> R.style.CheckedSliceRowStyle);
+        assertNotEquals(version, mSliceStyle.getVersion());
+        assertEquals(version, copy.getVersion());
+
+        version = mSliceStyle.getVersion();
+        mSliceStyle.setTintColor(0xff00ff00);
+        assertNotEquals(version, mSliceStyle.getVersion());
+
+        version = mSliceStyle.getVersion();
+        mSliceStyle.setTintColor(0xff00ff00);
+        assertEquals(version, mSliceStyle.getVersion());
+    }
+
     @Test
     public void testGetRowStyle_noRowStyleFactory_noSliceItem_returnsDefaultRowStyle() {
         // RowStyle returns default colors.
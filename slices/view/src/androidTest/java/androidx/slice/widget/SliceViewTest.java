@@ -58,6 +58,7 @@ import org.junit.runner.RunWith;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 /**
  * Tests for {@link SliceView}.
@@ -109,6 +110,59 @@ public class SliceViewTest {
         assertNull(mSliceView.getSlice());
     }
 
+    @Test
+    public void testSetSliceWithPrecomputeExecutor() {
+        final List<Runnable> tasks = new ArrayList<>();
+        mSliceView.setPrecomputeExecutor(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                tasks.add(command);
+            }
+        });
+        Uri uri = Uri.parse("content://pkg/slice");
+        ListBuilder lb = new ListBuilder(mContext, uri, ListBuilder.INFINITY);
+        lb.addRow(new ListBuilder.RowBuilder()
+                .setTitle("Title")
+                .setSubtitle("Subtitle")
+                .setPrimaryAction(getAction("Action")));
+        Slice s = lb.build();
+
+        mSliceView.setSlice(s);
+        // Not displayed until precomputed.
+        assertNull(mSliceView.getSlice());
+        assertEquals(1, tasks.size());
+
+        tasks.get(0).run();
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+        assertEquals(s, mSliceView.getSlice());
+    }
+
+    @Test
+    public void testSetSliceWithPrecomputeExecutor_dropsStaleSlices() {
+        final List<Runnable> tasks = new ArrayList<>();
+        mSliceView.setPrecomputeExecutor(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                tasks.add(command);
+            }
+        });
+        Uri uri = Uri.parse("content://pkg/slice");
+        Slice first = new ListBuilder(mContext, uri, ListBuilder.INFINITY)
+                .addRow(new ListBuilder.RowBuilder().setTitle("First"))
+                .build();
+        Slice second = new ListBuilder(mContext, uri, ListBuilder.INFINITY)
+                .addRow(new ListBuilder.RowBuilder().setTitle("Second"))
+                .build();
+
+        mSliceView.setSlice(first);
+        mSliceView.setSlice(second);
+        // Complete out of order, the first slice must never be displayed.
+        tasks.get(1).run();
+        tasks.get(0).run();
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+        assertEquals(second, mSliceView.getSlice());
+    }
+
     @Test
     public void testSetScrollable() {
         Uri uri = Uri.parse("content://pkg/slice");
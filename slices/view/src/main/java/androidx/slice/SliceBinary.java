@@ -0,0 +1,455 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.slice;
+
+import android.annotation.SuppressLint;
+import android.content.ContentResolver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.pm.PackageManager;
+import android.content.res.Resources;
+import android.graphics.drawable.Icon;
+import android.net.Uri;
+import android.text.Spanned;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+import androidx.annotation.RestrictTo;
+import androidx.core.graphics.drawable.IconCompat;
+import androidx.core.text.HtmlCompat;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary encoding of a {@link Slice} tree.
+ * <p>
+ * The stream starts with {@link #MAGIC} and a version byte, followed by the root slice. Strings
+ * that repeat across the tree (formats, subtypes, hints, spec types, uris) are interned: the
+ * first occurrence is written inline and assigned the next index of a table that both sides
+ * build as they go, later occurrences are written as that index. This keeps both encoding and
+ * decoding single pass, so a slice can be decoded straight from the stream without buffering.
+ * Icons are written as length-prefixed blobs and are only decoded when they are drawn, text is
+ * only run through html when it carries spans.
+ * <p>
+ * Layout, all counts and indices are unsigned varints:
+ * <pre>
+ * slice  := uri:str spec:str [revision:varint] hints item* 0
+ * item   := format:str subtype:str hints payload
+ * hints  := count:varint str*
+ * str    := 0 (null) | index + 1 (interned) | table size + 1, length:varint, utf-8 bytes
+ * </pre>
+ *
+ * @hide
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY)
+@RequiresApi(19)
+class SliceBinary {
+
+    static final byte[] MAGIC = {'S', 'L', 'C', 'B'};
+    private static final int VERSION = 1;
+
+    private static final int ICON_TYPE_RES = 0;
+    private static final int ICON_TYPE_URI = 1;
+    private static final int ICON_TYPE_DATA = 2;
+
+    private static final int TEXT_TYPE_PLAIN = 0;
+    private static final int TEXT_TYPE_HTML = 1;
+    private static final int TEXT_TYPE_NULL = 2;
+
+    /**
+     * @return Whether the stream starts with a slice encoded by this class. The stream position
+     * is left unchanged.
+     */
+    static boolean isBinarySlice(BufferedInputStream input) throws IOException {
+        input.mark(MAGIC.length);
+        try {
+            for (byte b : MAGIC) {
+                if (input.read() != b) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            input.reset();
+        }
+    }
+
+    public static void serializeSlice(Slice s, Context context, OutputStream output,
+            SliceUtils.SerializeOptions options) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(output));
+        out.write(MAGIC);
+        out.writeByte(VERSION);
+        new Writer(out, context, options).writeSlice(s);
+        out.flush();
+    }
+
+    public static Slice parseSlice(Context context, InputStream input,
+            SliceUtils.SliceActionListener listener)
+            throws IOException, SliceUtils.SliceParseException {
+        DataInputStream in = new DataInputStream(input);
+        byte[] magic = new byte[MAGIC.length];
+        in.readFully(magic);
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (magic[i] != MAGIC[i]) {
+                throw new SliceUtils.SliceParseException("Not a binary slice");
+            }
+        }
+        int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new SliceUtils.SliceParseException("Unsupported version " + version);
+        }
+        try {
+            return new Reader(in, context, listener).readSlice();
+        } catch (EOFException e) {
+            throw new SliceUtils.SliceParseException("Truncated slice", e);
+        }
+    }
+
+    private static class Writer {
+        private final DataOutputStream mOut;
+        private final Context mContext;
+        private final SliceUtils.SerializeOptions mOptions;
+        private final Map<String, Integer> mStrings = new HashMap<>();
+
+        Writer(DataOutputStream out, Context context, SliceUtils.SerializeOptions options) {
+            mOut = out;
+            mContext = context;
+            mOptions = options;
+        }
+
+        void writeSlice(Slice s) throws IOException {
+            writeString(s.mUri);
+            SliceSpec spec = s.getSpec();
+            if (spec != null) {
+                writeString(spec.getType());
+                writeVarInt(spec.getRevision());
+            } else {
+                writeString(null);
+            }
+            writeHints(s.getHintArray());
+            for (SliceItem item : s.getItemArray()) {
+                writeItem(item);
+            }
+            // A null format terminates the item list, so removed items need no bookkeeping.
+            writeString(null);
+        }
+
+        private void writeItem(SliceItem item) throws IOException {
+            String format = item.getFormat();
+            mOptions.checkThrow(format);
+            switch (format) {
+                case android.app.slice.SliceItem.FORMAT_ACTION:
+                    if (mOptions.getActionMode() != SliceUtils.SerializeOptions.MODE_CONVERT) {
+                        return;
+                    }
+                    writeItemHeader(item);
+                    writeSlice(item.getSlice());
+                    break;
+                case android.app.slice.SliceItem.FORMAT_SLICE:
+                    writeItemHeader(item);
+                    writeSlice(item.getSlice());
+                    break;
+                case android.app.slice.SliceItem.FORMAT_IMAGE:
+                    if (mOptions.getImageMode() != SliceUtils.SerializeOptions.MODE_CONVERT) {
+                        return;
+                    }
+                    writeItemHeader(item);
+                    writeIcon(item.getIcon());
+                    break;
+                case android.app.slice.SliceItem.FORMAT_TEXT:
+                    writeItemHeader(item);
+                    CharSequence text = item.getText();
+                    if (text == null) {
+                        mOut.writeByte(TEXT_TYPE_NULL);
+                    } else if (text instanceof Spanned) {
+                        mOut.writeByte(TEXT_TYPE_HTML);
+                        writeUtf8(HtmlCompat.toHtml((Spanned) text,
+                                HtmlCompat.TO_HTML_PARAGRAPH_LINES_CONSECUTIVE));
+                    } else {
+                        // Plain text skips the html round trip on both sides.
+                        mOut.writeByte(TEXT_TYPE_PLAIN);
+                        writeUtf8(text.toString());
+                    }
+                    break;
+                case android.app.slice.SliceItem.FORMAT_INT:
+                    writeItemHeader(item);
+                    mOut.writeInt(item.getInt());
+                    break;
+                case android.app.slice.SliceItem.FORMAT_LONG:
+                    writeItemHeader(item);
+                    mOut.writeLong(item.getLong());
+                    break;
+                case android.app.slice.SliceItem.FORMAT_REMOTE_INPUT:
+                case android.app.slice.SliceItem.FORMAT_BUNDLE:
+                    // Nothing for now.
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unrecognized format " + format);
+            }
+        }
+
+        private void writeItemHeader(SliceItem item) throws IOException {
+            writeString(item.getFormat());
+            writeString(item.getSubType());
+            writeHints(item.getHintArray());
+        }
+
+        private void writeIcon(IconCompat icon) throws IOException {
+            switch (icon.getType()) {
+                case Icon.TYPE_RESOURCE:
+                    try {
+                        Resources res = mContext.getPackageManager().getResourcesForApplication(
+                                icon.getResPackage());
+                        int id = icon.getResId();
+                        mOut.writeByte(ICON_TYPE_RES);
+                        writeString(res.getResourcePackageName(id));
+                        writeString(res.getResourceTypeName(id));
+                        writeString(res.getResourceEntryName(id));
+                    } catch (PackageManager.NameNotFoundException e) {
+                        throw new IllegalArgumentException("Slice contains invalid icon", e);
+                    }
+                    return;
+                case Icon.TYPE_URI:
+                    Uri uri = icon.getUri();
+                    if (ContentResolver.SCHEME_FILE.equals(uri.getScheme())) {
+                        mOut.writeByte(ICON_TYPE_URI);
+                        writeUtf8(uri.toString());
+                        return;
+                    }
+                    break;
+            }
+            byte[] data = SliceXml.convertToBytes(icon, mContext, mOptions);
+            mOut.writeByte(ICON_TYPE_DATA);
+            writeVarInt(data.length);
+            mOut.write(data);
+        }
+
+        private void writeHints(String[] hints) throws IOException {
+            writeVarInt(hints.length);
+            for (String hint : hints) {
+                writeString(hint);
+            }
+        }
+
+        private void writeString(String s) throws IOException {
+            if (s == null) {
+                writeVarInt(0);
+                return;
+            }
+            Integer index = mStrings.get(s);
+            if (index != null) {
+                writeVarInt(index + 1);
+                return;
+            }
+            index = mStrings.size();
+            mStrings.put(s, index);
+            writeVarInt(index + 1);
+            writeUtf8(s);
+        }
+
+        private void writeUtf8(String s) throws IOException {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length);
+            mOut.write(bytes);
+        }
+
+        private void writeVarInt(int value) throws IOException {
+            while ((value & ~0x7f) != 0) {
+                mOut.writeByte((value & 0x7f) | 0x80);
+                value >>>= 7;
+            }
+            mOut.writeByte(value);
+        }
+    }
+
+    private static class Reader {
+        private final DataInputStream mIn;
+        private final Context mContext;
+        private final SliceItem.ActionHandler mActionHandler;
+        private final List<String> mStrings = new ArrayList<>();
+        private final Map<String, Resources> mResources = new HashMap<>();
+        private byte[] mBuffer = new byte[64];
+
+        Reader(DataInputStream in, Context context,
+                final SliceUtils.SliceActionListener listener) {
+            mIn = in;
+            mContext = context;
+            mActionHandler = new SliceItem.ActionHandler() {
+                @Override
+                public void onAction(SliceItem item, Context context, Intent intent) {
+                    listener.onSliceAction(item.getSlice().getUri(), context, intent);
+                }
+            };
+        }
+
+        @SuppressLint("WrongConstant")
+        Slice readSlice() throws IOException, SliceUtils.SliceParseException {
+            String uri = readString();
+            if (uri == null) {
+                throw new SliceUtils.SliceParseException("Slice without uri");
+            }
+            String specType = readString();
+            SliceSpec spec = specType != null ? new SliceSpec(specType, readVarInt()) : null;
+            String[] hints = readHints();
+            ArrayList<SliceItem> items = new ArrayList<>();
+            String format;
+            while ((format = readString()) != null) {
+                items.add(readItem(format));
+            }
+            return new Slice(items, hints, Uri.parse(uri), spec);
+        }
+
+        @SuppressLint("WrongConstant")
+        private SliceItem readItem(String format)
+                throws IOException, SliceUtils.SliceParseException {
+            String subType = readString();
+            String[] hints = readHints();
+            switch (format) {
+                case android.app.slice.SliceItem.FORMAT_ACTION:
+                    return new SliceItem(mActionHandler, readSlice(), format, subType, hints);
+                case android.app.slice.SliceItem.FORMAT_SLICE:
+                    return new SliceItem(readSlice(), format, subType, hints);
+                case android.app.slice.SliceItem.FORMAT_IMAGE:
+                    return new SliceItem(readIcon(), format, subType, hints);
+                case android.app.slice.SliceItem.FORMAT_TEXT:
+                    return new SliceItem(readText(), format, subType, hints);
+                case android.app.slice.SliceItem.FORMAT_INT:
+                    return new SliceItem(mIn.readInt(), format, subType, hints);
+                case android.app.slice.SliceItem.FORMAT_LONG:
+                    return new SliceItem(mIn.readLong(), format, subType, hints);
+                default:
+                    throw new SliceUtils.SliceParseException("Unrecognized format " + format);
+            }
+        }
+
+        private IconCompat readIcon() throws IOException, SliceUtils.SliceParseException {
+            int type = mIn.readUnsignedByte();
+            switch (type) {
+                case ICON_TYPE_RES:
+                    String pkg = readString();
+                    String resType = readString();
+                    String resName = readString();
+                    try {
+                        Resources r = mResources.get(pkg);
+                        if (r == null) {
+                            r = mContext.getPackageManager().getResourcesForApplication(pkg);
+                            mResources.put(pkg, r);
+                        }
+                        int id = r.getIdentifier(resName, resType, pkg);
+                        if (id == 0) {
+                            throw new SliceUtils.SliceParseException("Cannot find resource "
+                                    + pkg + ":" + resType + "/" + resName);
+                        }
+                        return IconCompat.createWithResource(r, pkg, id);
+                    } catch (PackageManager.NameNotFoundException e) {
+                        throw new SliceUtils.SliceParseException("Invalid icon package " + pkg, e);
+                    }
+                case ICON_TYPE_URI:
+                    return IconCompat.createWithContentUri(readUtf8());
+                case ICON_TYPE_DATA:
+                    byte[] data = new byte[readVarInt()];
+                    mIn.readFully(data);
+                    return IconCompat.createWithData(data, 0, data.length);
+                default:
+                    throw new SliceUtils.SliceParseException("Unrecognized icon type " + type);
+            }
+        }
+
+        @Nullable
+        private CharSequence readText() throws IOException, SliceUtils.SliceParseException {
+            int type = mIn.readUnsignedByte();
+            switch (type) {
+                case TEXT_TYPE_NULL:
+                    return null;
+                case TEXT_TYPE_PLAIN:
+                    return readUtf8();
+                case TEXT_TYPE_HTML:
+                    return HtmlCompat.fromHtml(readUtf8(), HtmlCompat.FROM_HTML_MODE_LEGACY);
+                default:
+                    throw new SliceUtils.SliceParseException("Unrecognized text type " + type);
+            }
+        }
+
+        private String[] readHints() throws IOException, SliceUtils.SliceParseException {
+            int count = readVarInt();
+            if (count == 0) {
+                return Slice.NO_HINTS;
+            }
+            String[] hints = new String[count];
+            for (int i = 0; i < count; i++) {
+                hints[i] = readString();
+            }
+            return hints;
+        }
+
+        private String readString() throws IOException, SliceUtils.SliceParseException {
+            int ref = readVarInt();
+            if (ref == 0) {
+                return null;
+            }
+            int index = ref - 1;
+            if (index < mStrings.size()) {
+                return mStrings.get(index);
+            }
+            if (index != mStrings.size()) {
+                throw new SliceUtils.SliceParseException("Invalid string reference " + ref);
+            }
+            String s = readUtf8();
+            mStrings.add(s);
+            return s;
+        }
+
+        private String readUtf8() throws IOException, SliceUtils.SliceParseException {
+            int length = readVarInt();
+            if (length > mBuffer.length) {
+                mBuffer = new byte[Math.max(length, mBuffer.length * 2)];
+            }
+            mIn.readFully(mBuffer, 0, length);
+            return new String(mBuffer, 0, length, StandardCharsets.UTF_8);
+        }
+
+        private int readVarInt() throws IOException, SliceUtils.SliceParseException {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                int b = mIn.readUnsignedByte();
+                value |= (b & 0x7f) << shift;
+                if ((b & 0x80) == 0) {
+                    if (value < 0) {
+                        throw new SliceUtils.SliceParseException("Invalid length " + value);
+                    }
+                    return value;
+                }
+            }
+            throw new SliceUtils.SliceParseException("Malformed varint");
+        }
+    }
+
+    private SliceBinary() {
+    }
+}
@@ -187,6 +187,14 @@ public class SliceUtils {
     public static void serializeSlice(@NonNull Slice s, @NonNull final Context context,
             @NonNull OutputStream output,
             @NonNull final SerializeOptions options) throws IllegalArgumentException {
+        if (options.isCompactFormat()) {
+            try {
+                SliceBinary.serializeSlice(s, context, output, options);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Unable to serialize slice", e);
+            }
+            return;
+        }
         synchronized (SliceItemHolder.sSerializeLock) {
             SliceItemHolder.sHandler = new SliceItemHolder.HolderHandler() {
                 @Override
@@ -268,6 +276,11 @@ public class SliceUtils {
             @NonNull InputStream input, @NonNull String encoding,
             @NonNull final SliceActionListener listener) throws IOException, SliceParseException {
         BufferedInputStream bufferedInputStream = new BufferedInputStream(input);
+        if (SliceBinary.isBinarySlice(bufferedInputStream)) {
+            Slice s = SliceBinary.parseSlice(context, bufferedInputStream, listener);
+            s.mHints = ArrayUtils.appendElement(String.class, s.mHints, SliceHints.HINT_CACHED);
+            return s;
+        }
         String parcelName = Slice.class.getName();
 
         bufferedInputStream.mark(parcelName.length() + 4);
@@ -375,6 +388,7 @@ public class SliceUtils {
 
         private Bitmap.CompressFormat mFormat = Bitmap.CompressFormat.PNG;
         private int mQuality = 100;
+        private boolean mCompactFormat = false;
 
         /**
          * @hide
@@ -443,6 +457,14 @@ public class SliceUtils {
             return mQuality;
         }
 
+        /**
+         * @hide
+         */
+        @RestrictTo(RestrictTo.Scope.LIBRARY)
+        public boolean isCompactFormat() {
+            return mCompactFormat;
+        }
+
         /**
          * Sets how {@link android.app.slice.SliceItem#FORMAT_ACTION} items should be handled.
          *
@@ -505,6 +527,20 @@ public class SliceUtils {
             mQuality = quality;
             return this;
         }
+
+        /**
+         * Sets whether slices should be serialized in a compact binary format.
+         * <p>
+         * The compact format is smaller and faster to parse, especially for slices with many
+         * repeated hints and subtypes, but it can only be read by {@link #parseSlice} from this
+         * version of the library onwards. The default is false.
+         *
+         * @param compactFormat Whether to use the compact format.
+         */
+        public SerializeOptions setCompactFormat(boolean compactFormat) {
+            mCompactFormat = compactFormat;
+            return this;
+        }
     }
 
     /**
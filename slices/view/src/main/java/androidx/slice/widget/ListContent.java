@@ -63,6 +63,13 @@ public class ListContent extends SliceContent {
     private ArrayList<SliceContent> mRowItems = new ArrayList<>();
     private List<SliceAction> mSliceActions;
 
+    // Results of precompute(), reused while the style and policy they were computed for apply.
+    private int mPrecomputedStyleVersion;
+    private SliceViewPolicy mPrecomputedPolicy;
+    private int mPrecomputedHeight;
+    private DisplayedListItems mPrecomputedItems;
+    private int mPrecomputedItemsHeight;
+
     public ListContent(@NonNull Slice slice) {
         super(slice);
         if (mSliceItem == null) {
@@ -129,9 +136,47 @@ public class ListContent extends SliceContent {
 
     @Override
     public int getHeight(SliceStyle style, SliceViewPolicy policy) {
+        if (isPrecomputedFor(style, policy)) {
+            return mPrecomputedHeight;
+        }
         return style.getListHeight(this, policy);
     }
 
+    /**
+     * Measures this list and picks the row items to display for the given configuration ahead
+     * of binding. This may be called off the UI thread, before the content is handed to a view.
+     * <p>
+     * Later calls to {@link #getHeight}, {@link #getRowItems(int, SliceStyle, SliceViewPolicy)}
+     * and {@link #getDisplayedItemsHeight} return the precomputed results as long as they are
+     * made with a style of the same {@link SliceStyle#getVersion() version} and an equivalent
+     * policy.
+     *
+     * @param style the style info that will be used to display the list, or a copy of it if the
+     *              style may be modified while this runs.
+     * @param policy a snapshot of the policy that will be used to display the list, it must not
+     *               be modified afterwards.
+     */
+    public void precompute(SliceStyle style, SliceViewPolicy policy) {
+        clearPrecomputed();
+        int height = style.getListHeight(this, policy);
+        DisplayedListItems items = getRowItems(height, style, policy);
+        mPrecomputedItemsHeight = getListHeight(items.getDisplayedItems(), style, policy);
+        mPrecomputedHeight = height;
+        mPrecomputedItems = items;
+        mPrecomputedStyleVersion = style.getVersion();
+        mPrecomputedPolicy = policy;
+    }
+
+    private boolean isPrecomputedFor(SliceStyle style, SliceViewPolicy policy) {
+        return mPrecomputedPolicy != null && mPrecomputedStyleVersion == style.getVersion()
+                && mPrecomputedPolicy.isEquivalentTo(policy);
+    }
+
+    private void clearPrecomputed() {
+        mPrecomputedPolicy = null;
+        mPrecomputedItems = null;
+    }
+
     /**
      * Gets the row items to display in this list.
      *
@@ -143,6 +188,9 @@ public class ListContent extends SliceContent {
      */
     public DisplayedListItems getRowItems(int availableHeight, SliceStyle style,
             SliceViewPolicy policy) {
+        if (availableHeight == mPrecomputedHeight && isPrecomputedFor(style, policy)) {
+            return mPrecomputedItems;
+        }
         if (policy.getMode() == MODE_SMALL) {
             return new DisplayedListItems(
                 new ArrayList<>(Arrays.asList(getHeader())),
@@ -154,6 +202,18 @@ public class ListContent extends SliceContent {
             style.getListItemsToDisplay(this), /* hiddenItemCount= */ 0);
     }
 
+    /**
+     * @return the total height of the provided displayed items, as returned by
+     * {@link #getRowItems(int, SliceStyle, SliceViewPolicy)}.
+     */
+    public int getDisplayedItemsHeight(DisplayedListItems items, SliceStyle style,
+            SliceViewPolicy policy) {
+        if (items == mPrecomputedItems && isPrecomputedFor(style, policy)) {
+            return mPrecomputedItemsHeight;
+        }
+        return getListHeight(items.getDisplayedItems(), style, policy);
+    }
+
     /**
      * @return whether this list has content that is valid to display.
      */
@@ -198,6 +258,7 @@ public class ListContent extends SliceContent {
      * Whether the first row should show title items on the start.
      */
     public void showTitleItems(boolean enabled) {
+        clearPrecomputed();
         if (mHeaderContent != null) {
             mHeaderContent.showTitleItems(enabled);
         }
@@ -207,6 +268,7 @@ public class ListContent extends SliceContent {
      * Whether the header row should show the bottom divider.
      */
     public void showHeaderDivider(boolean enabled) {
+        clearPrecomputed();
         if (mHeaderContent != null && mRowItems.size() > 1) {
             mHeaderContent.showBottomDivider(enabled);
         }
@@ -216,6 +278,7 @@ public class ListContent extends SliceContent {
      * Whether all the row contents should show action dividers.
      */
     public void showActionDividers(boolean enabled) {
+        clearPrecomputed();
         for (SliceContent item : mRowItems) {
             if (item instanceof RowContent) {
                 ((RowContent) item).showActionDivider(enabled);
@@ -37,6 +37,7 @@ import androidx.slice.view.R;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Holds style information shared between child views of a slice
@@ -46,6 +47,10 @@ import java.util.List;
 @RestrictTo(RestrictTo.Scope.LIBRARY)
 @RequiresApi(19)
 public class SliceStyle {
+    private static final AtomicInteger sNextVersion = new AtomicInteger();
+
+    // Identifies the values of the mutable fields below, see getVersion().
+    private int mVersion = sNextVersion.incrementAndGet();
     private int mTintColor = -1;
     private final int mTitleColor;
     private final int mSubtitleColor;
@@ -190,6 +195,69 @@ public class SliceStyle {
         mListLargeHeight = r.getDimensionPixelSize(R.dimen.abc_slice_large_height);
     }
 
+    /**
+     * Creates a copy of the given style, e.g. to measure a slice off the UI thread while the
+     * original may be modified. The copy has the same {@link #getVersion() version} as the
+     * original until either of them is modified.
+     */
+    public SliceStyle(@NonNull SliceStyle other) {
+        mVersion = other.mVersion;
+        mTintColor = other.mTintColor;
+        mTitleColor = other.mTitleColor;
+        mSubtitleColor = other.mSubtitleColor;
+        mHeaderTitleSize = other.mHeaderTitleSize;
+        mHeaderSubtitleSize = other.mHeaderSubtitleSize;
+        mVerticalHeaderTextPadding = other.mVerticalHeaderTextPadding;
+        mTitleSize = other.mTitleSize;
+        mSubtitleSize = other.mSubtitleSize;
+        mVerticalTextPadding = other.mVerticalTextPadding;
+        mGridTitleSize = other.mGridTitleSize;
+        mGridSubtitleSize = other.mGridSubtitleSize;
+        mVerticalGridTextPadding = other.mVerticalGridTextPadding;
+        mGridTopPadding = other.mGridTopPadding;
+        mGridBottomPadding = other.mGridBottomPadding;
+
+        mRowMaxHeight = other.mRowMaxHeight;
+        mRowTextWithRangeHeight = other.mRowTextWithRangeHeight;
+        mRowSingleTextWithRangeHeight = other.mRowSingleTextWithRangeHeight;
+        mRowMinHeight = other.mRowMinHeight;
+        mRowRangeHeight = other.mRowRangeHeight;
+        mRowSelectionHeight = other.mRowSelectionHeight;
+        mRowTextWithSelectionHeight = other.mRowTextWithSelectionHeight;
+        mRowSingleTextWithSelectionHeight = other.mRowSingleTextWithSelectionHeight;
+        mRowInlineRangeHeight = other.mRowInlineRangeHeight;
+
+        mGridBigPicMinHeight = other.mGridBigPicMinHeight;
+        mGridBigPicMaxHeight = other.mGridBigPicMaxHeight;
+        mGridAllImagesHeight = other.mGridAllImagesHeight;
+        mGridImageTextHeight = other.mGridImageTextHeight;
+        mGridRawImageTextHeight = other.mGridRawImageTextHeight;
+        mGridMaxHeight = other.mGridMaxHeight;
+        mGridMinHeight = other.mGridMinHeight;
+
+        mListMinScrollHeight = other.mListMinScrollHeight;
+        mListLargeHeight = other.mListLargeHeight;
+
+        mExpandToAvailableHeight = other.mExpandToAvailableHeight;
+        mHideHeaderRow = other.mHideHeaderRow;
+
+        // Row styles are cached lazily per instance, so the copy builds its own.
+        mDefaultRowStyleRes = other.mDefaultRowStyleRes;
+        mRowStyleFactory = other.mRowStyleFactory;
+
+        mContext = other.mContext;
+
+        mImageCornerRadius = other.mImageCornerRadius;
+    }
+
+    /**
+     * Returns a value that changes whenever this style is modified, so results computed with
+     * this style, or with a copy of it, can be reused as long as the version is the same.
+     */
+    public int getVersion() {
+        return mVersion;
+    }
+
     public int getRowMinHeight() {
         return mRowMinHeight;
     }
@@ -203,7 +271,10 @@ public class SliceStyle {
     }
 
     public void setTintColor(int tint) {
-        mTintColor = tint;
+        if (mTintColor != tint) {
+            mTintColor = tint;
+            mVersion = sNextVersion.incrementAndGet();
+        }
     }
 
     public int getTintColor() {
@@ -293,7 +364,10 @@ public class SliceStyle {
      * Sets the {@link RowStyleFactory} which allows multiple children to have different styles.
      */
     public void setRowStyleFactory(@Nullable RowStyleFactory rowStyleFactory) {
-        mRowStyleFactory = rowStyleFactory;
+        if (mRowStyleFactory != rowStyleFactory) {
+            mRowStyleFactory = rowStyleFactory;
+            mVersion = sNextVersion.incrementAndGet();
+        }
     }
 
     public int getRowRangeHeight() {
@@ -57,6 +57,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 /**
  * A view for displaying {@link Slice}s.
@@ -172,6 +173,10 @@ public class SliceView extends ViewGroup implements Observer<Slice>, View.OnClic
     private int mLargeHeight;
     private int mActionRowHeight;
 
+    @SuppressWarnings("WeakerAccess") /* synthetic access */
+    int mPrecomputeGeneration;
+    private Executor mPrecomputeExecutor;
+
     private SliceViewPolicy mViewPolicy;
     private SliceStyle mSliceStyle;
     private int mThemeTintColor = -1;
@@ -459,6 +464,69 @@ public class SliceView extends ViewGroup implements Observer<Slice>, View.OnClic
      * content see {@link SliceLiveData}.
      */
     public void setSlice(@Nullable Slice slice) {
+        // Any slice being precomputed is now stale.
+        mPrecomputeGeneration++;
+        if (slice != null && mPrecomputeExecutor != null) {
+            precomputeSlice(slice, mPrecomputeGeneration);
+            return;
+        }
+        applySlice(slice, slice != null ? SliceMetadata.from(getContext(), slice) : null, false);
+    }
+
+    /**
+     * Sets the executor used to parse slices passed to {@link #setSlice(Slice)} ahead of
+     * displaying them.
+     * <p>
+     * When an executor is set, building the display model of a slice, measuring its rows and
+     * picking the rows that fit the current height of this view happens on that executor. The
+     * slice is then displayed on the UI thread once ready, only if no other slice was set in the
+     * meantime. Until then {@link #getSlice()} keeps returning the previous slice.
+     * <p>
+     * This is useful when many slices update at the same time, such as in a list of live slices.
+     *
+     * @param executor The executor to precompute slices on, or null to parse slices on the UI
+     *                 thread when they are set, which is the default.
+     */
+    public void setPrecomputeExecutor(@Nullable Executor executor) {
+        mPrecomputeExecutor = executor;
+    }
+
+    private void precomputeSlice(@NonNull final Slice slice, final int generation) {
+        final Context context = getContext();
+        // Snapshots, as the style and policy may be modified on the UI thread meanwhile.
+        final SliceStyle style = new SliceStyle(mSliceStyle);
+        final SliceViewPolicy policy = mViewPolicy.copy();
+        final boolean showTitleItems = mShowTitleItems;
+        final boolean showHeaderDivider = mShowHeaderDivider;
+        final boolean showActionDividers = mShowActionDividers;
+        mPrecomputeExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final SliceMetadata sliceMetadata = SliceMetadata.from(context, slice);
+                ListContent listContent = sliceMetadata.getListContent();
+                if (listContent != null) {
+                    listContent.showTitleItems(showTitleItems);
+                    listContent.showHeaderDivider(showHeaderDivider);
+                    listContent.showActionDividers(showActionDividers);
+                    if (listContent.isValid() && policy.getMode() != MODE_SHORTCUT) {
+                        listContent.precompute(style, policy);
+                    }
+                }
+                mHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (generation == mPrecomputeGeneration) {
+                            applySlice(slice, sliceMetadata, true);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    @SuppressWarnings("WeakerAccess") /* synthetic access */
+    void applySlice(@Nullable Slice slice, @Nullable SliceMetadata sliceMetadata,
+            boolean precomputed) {
         LocationBasedViewTracker.trackInputFocused(this);
         LocationBasedViewTracker.trackA11yFocus(this);
         initSliceMetrics(slice);
@@ -466,8 +534,7 @@ public class SliceView extends ViewGroup implements Observer<Slice>, View.OnClic
                 && slice.getUri().equals(mCurrentSlice.getUri());
         SliceMetadata oldSliceData = mSliceMetadata;
         mCurrentSlice = slice;
-        mSliceMetadata = mCurrentSlice != null ? SliceMetadata.from(getContext(), mCurrentSlice)
-                : null;
+        mSliceMetadata = sliceMetadata;
         if (isUpdate) {
             // If its an update check the loading state
             SliceMetadata newSliceData = mSliceMetadata;
@@ -481,14 +548,16 @@ public class SliceView extends ViewGroup implements Observer<Slice>, View.OnClic
             mCurrentView.resetView();
         }
         mListContent = mSliceMetadata != null ? mSliceMetadata.getListContent() : null;
-        if (mShowTitleItems) {
-            showTitleItems(true);
-        }
-        if (mShowHeaderDivider) {
-            showHeaderDivider(true);
-        }
-        if (mShowActionDividers) {
-            showActionDividers(true);
+        if (!precomputed) {
+            if (mShowTitleItems) {
+                showTitleItems(true);
+            }
+            if (mShowHeaderDivider) {
+                showHeaderDivider(true);
+            }
+            if (mShowActionDividers) {
+                showActionDividers(true);
+            }
         }
         if (mListContent == null || !mListContent.isValid()) {
             mActions = null;
@@ -18,6 +18,7 @@ package androidx.slice.widget;
 
 import static androidx.slice.widget.SliceView.MODE_LARGE;
 
+import androidx.annotation.Nullable;
 import androidx.annotation.RequiresApi;
 import androidx.annotation.RestrictTo;
 
@@ -140,4 +141,27 @@ public class SliceViewPolicy {
             }
         }
     }
+
+    /**
+     * @return a copy of this policy without its listener, safe to read off the UI thread while
+     * this policy keeps changing.
+     */
+    public SliceViewPolicy copy() {
+        SliceViewPolicy copy = new SliceViewPolicy();
+        copy.mMaxHeight = mMaxHeight;
+        copy.mMaxSmallHeight = mMaxSmallHeight;
+        copy.mScrollable = mScrollable;
+        copy.mMode = mMode;
+        return copy;
+    }
+
+    /**
+     * @return whether the other policy presents slices the same way as this one.
+     */
+    public boolean isEquivalentTo(@Nullable SliceViewPolicy other) {
+        return other != null && mMaxHeight == other.mMaxHeight
+                && mMaxSmallHeight == other.mMaxSmallHeight
+                && mScrollable == other.mScrollable
+                && mMode == other.mMode;
+    }
 }
@@ -260,7 +260,7 @@ public class TemplateView extends SliceChildView implements
                 height, mSliceStyle, mViewPolicy);
         mDisplayedItems = response.getDisplayedItems();
         mHiddenItemCount = response.getHiddenItemCount();
-        mDisplayedItemsHeight = mListContent.getListHeight(mDisplayedItems, mSliceStyle,
+        mDisplayedItemsHeight = mListContent.getDisplayedItemsHeight(response, mSliceStyle,
                 mViewPolicy);
         mAdapter.setSliceItems(mDisplayedItems, mTintColor, mViewPolicy.getMode());
         updateOverscroll();
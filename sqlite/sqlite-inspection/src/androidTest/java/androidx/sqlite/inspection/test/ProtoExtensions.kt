@@ -18,7 +18,9 @@ package androidx.sqlite.inspection.test
 
 import androidx.sqlite.inspection.SqliteInspectorProtocol.CellValue
 import androidx.sqlite.inspection.SqliteInspectorProtocol.CellValue.OneOfCase
+import androidx.sqlite.inspection.SqliteInspectorProtocol.CloseCursorCommand
 import androidx.sqlite.inspection.SqliteInspectorProtocol.Command
+import androidx.sqlite.inspection.SqliteInspectorProtocol.FetchRowsCommand
 import androidx.sqlite.inspection.SqliteInspectorProtocol.GetSchemaCommand
 import androidx.sqlite.inspection.SqliteInspectorProtocol.GetSchemaResponse
 import androidx.sqlite.inspection.SqliteInspectorProtocol.KeepDatabasesOpenCommand
@@ -86,4 +88,33 @@ object MessageFactory {
                 }
                 .build()
         ).build()
+
+    fun createPagedQueryCommand(
+        databaseId: Int,
+        query: String,
+        pageSize: Int,
+        responseSizeLimitHint: Int = 0
+    ): Command =
+        Command.newBuilder().setQuery(
+            QueryCommand.newBuilder()
+                .setDatabaseId(databaseId)
+                .setQuery(query)
+                .setPageSize(pageSize)
+                .setResponseSizeLimitHint(responseSizeLimitHint)
+                .build()
+        ).build()
+
+    fun createFetchRowsCommand(cursorId: Int, startRow: Int, pageSize: Int): Command =
+        Command.newBuilder().setFetchRows(
+            FetchRowsCommand.newBuilder()
+                .setCursorId(cursorId)
+                .setStartRow(startRow)
+                .setPageSize(pageSize)
+                .build()
+        ).build()
+
+    fun createCloseCursorCommand(cursorId: Int): Command =
+        Command.newBuilder().setCloseCursor(
+            CloseCursorCommand.newBuilder().setCursorId(cursorId).build()
+        ).build()
 }
@@ -20,10 +20,14 @@ import android.database.Cursor
 import android.database.sqlite.SQLiteDatabase
 import androidx.sqlite.inspection.SqliteInspectorProtocol.CellValue
 import androidx.sqlite.inspection.SqliteInspectorProtocol.ErrorContent.ErrorCode.ERROR_ISSUE_WITH_PROCESSING_QUERY_VALUE
+import androidx.sqlite.inspection.SqliteInspectorProtocol.ErrorContent.ErrorCode.ERROR_NO_CURSOR_WITH_REQUESTED_ID_VALUE
 import androidx.sqlite.inspection.SqliteInspectorProtocol.ErrorContent.ErrorCode.ERROR_NO_OPEN_DATABASE_WITH_REQUESTED_ID_VALUE
 import androidx.sqlite.inspection.SqliteInspectorProtocol.QueryResponse
 import androidx.sqlite.inspection.SqliteInspectorProtocol.Row
+import androidx.sqlite.inspection.test.MessageFactory.createCloseCursorCommand
+import androidx.sqlite.inspection.test.MessageFactory.createFetchRowsCommand
 import androidx.sqlite.inspection.test.MessageFactory.createGetSchemaCommand
+import androidx.sqlite.inspection.test.MessageFactory.createPagedQueryCommand
 import androidx.sqlite.inspection.test.MessageFactory.createQueryCommand
 import androidx.sqlite.inspection.test.MessageFactory.createTrackDatabasesCommand
 import androidx.test.ext.junit.runners.AndroidJUnit4
@@ -547,6 +551,92 @@ class QueryTest {
         assertThat(queryTotalChanges(databaseId)).isEqualTo(expectedTotalChanges)
     }
 
+    @Test
+    fun test_paged_query() = runBlocking {
+        val databaseId = inspectDatabase(insertIds(count = 10))
+        val query = "select id from ${table2.name} order by id"
+
+        val firstPage = testEnvironment.sendCommand(
+            createPagedQueryCommand(databaseId, query, pageSize = 4)
+        ).query
+        assertThat(firstPage.columnNamesList).isEqualTo(listOf("id"))
+        assertThat(firstPage.ids()).isEqualTo(listOf(0L, 1L, 2L, 3L))
+        assertThat(firstPage.startRow).isEqualTo(0)
+        assertThat(firstPage.hasMoreRows).isTrue()
+        assertThat(firstPage.cursorId).isNotEqualTo(0)
+
+        val window = testEnvironment.sendCommand(
+            createFetchRowsCommand(firstPage.cursorId, startRow = 6, pageSize = 3)
+        ).fetchRows
+        assertThat(window.cursorId).isEqualTo(firstPage.cursorId)
+        assertThat(window.columnNamesList).isEqualTo(listOf("id"))
+        assertThat(window.ids()).isEqualTo(listOf(6L, 7L, 8L))
+        assertThat(window.startRow).isEqualTo(6)
+        assertThat(window.hasMoreRows).isTrue()
+
+        val lastPage = testEnvironment.sendCommand(
+            createFetchRowsCommand(firstPage.cursorId, startRow = 8, pageSize = 4)
+        ).fetchRows
+        assertThat(lastPage.ids()).isEqualTo(listOf(8L, 9L))
+        assertThat(lastPage.hasMoreRows).isFalse()
+    }
+
+    @Test
+    fun test_paged_query_all_rows_in_first_page() = runBlocking {
+        val databaseId = inspectDatabase(insertIds(count = 3))
+        val response = testEnvironment.sendCommand(
+            createPagedQueryCommand(databaseId, "select id from ${table2.name}", pageSize = 3)
+        ).query
+        assertThat(response.rowsCount).isEqualTo(3)
+        assertThat(response.hasMoreRows).isFalse()
+        assertThat(response.cursorId).isEqualTo(0) // nothing left to fetch
+    }
+
+    @Test
+    fun test_paged_query_response_size_limit() = runBlocking {
+        val databaseId = inspectDatabase(insertIds(count = 100))
+        val query = "select id, name from ${table2.name} order by id"
+        val unlimited = issueQuery(databaseId, query)
+        val rowSize = unlimited.getRows(0).serializedSize
+
+        val response = testEnvironment.sendCommand(
+            createPagedQueryCommand(databaseId, query, 0, responseSizeLimitHint = rowSize * 5)
+        ).query
+        assertThat(response.rowsCount).isAtLeast(1)
+        assertThat(response.rowsCount).isLessThan(unlimited.rowsCount)
+        assertThat(response.rowsList).isEqualTo(unlimited.rowsList.take(response.rowsCount))
+        assertThat(response.hasMoreRows).isTrue()
+
+        // a single row is returned even if it exceeds the limit
+        val tiny = testEnvironment.sendCommand(
+            createPagedQueryCommand(databaseId, query, 0, responseSizeLimitHint = 1)
+        ).query
+        assertThat(tiny.rowsCount).isEqualTo(1)
+    }
+
+    @Test
+    fun test_close_cursor() = runBlocking {
+        val databaseId = inspectDatabase(insertIds(count = 10))
+        val cursorId = testEnvironment.sendCommand(
+            createPagedQueryCommand(databaseId, "select id from ${table2.name}", pageSize = 2)
+        ).query.cursorId
+
+        assertThat(testEnvironment.sendCommand(createCloseCursorCommand(cursorId)).hasCloseCursor())
+            .isTrue()
+        listOf(
+            createFetchRowsCommand(cursorId, startRow = 2, pageSize = 2),
+            createCloseCursorCommand(cursorId)
+        ).forEach { command ->
+            testEnvironment.sendCommand(command).let { response ->
+                assertThat(response.hasErrorOccurred()).isTrue()
+                val error = response.errorOccurred.content
+                assertThat(error.message).contains("cursor id=$cursorId")
+                assertThat(error.recoverability.isRecoverable).isTrue()
+                assertThat(error.errorCodeValue).isEqualTo(ERROR_NO_CURSOR_WITH_REQUESTED_ID_VALUE)
+            }
+        }
+    }
+
     @Test
     fun test_int64() {
         test_value64(Long.MAX_VALUE, { s -> s.getLong(0) }, { c -> c.longValue })
@@ -601,6 +691,13 @@ class QueryTest {
         queryParams: List<String?>? = null
     ): QueryResponse = testEnvironment.issueQuery(databaseId, command, queryParams)
 
+    private fun insertIds(count: Int): SQLiteDatabase =
+        Database("db", table2).createInstance(temporaryFolder).also { database ->
+            repeat(count) { id -> database.insertValues(table2, "$id", "'name$id'") }
+        }
+
+    private fun QueryResponse.ids(): List<Long> = rowsList.map { it.getValues(0).longValue }
+
     private suspend fun querySchema(databaseId: Int): List<Table> =
         testEnvironment.sendCommand(createGetSchemaCommand(databaseId)).getSchema.toTableList()
 
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.sqlite.inspection;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps track of paged queries whose rows can be fetched with
+ * {@link SqliteInspectorProtocol.FetchRowsCommand}.
+ *
+ * A paged query only retains the query and its parameters. No cursor or database reference is
+ * held between commands, so the inspector never prevents the app from closing a database, and
+ * fetching rows always reflects the current content of the database.
+ *
+ * Thread safe.
+ */
+final class PagedQueryRegistry {
+    /**
+     * Maximum number of paged queries retained; the least recently used one is dropped first.
+     */
+    private static final int MAX_PAGED_QUERIES = 32;
+
+    private final Object mLock = new Object();
+
+    @GuardedBy("mLock")
+    private int mNextId = 1;
+
+    @GuardedBy("mLock")
+    private final LinkedHashMap<Integer, PagedQuery> mQueries =
+            new LinkedHashMap<Integer, PagedQuery>(MAX_PAGED_QUERIES, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, PagedQuery> eldest) {
+                    return size() > MAX_PAGED_QUERIES;
+                }
+            };
+
+    /**
+     * Registers a paged query.
+     *
+     * @return id of the paged query, used as cursor id in the protocol.
+     */
+    int register(int databaseId, @NonNull String query, @NonNull String[] params) {
+        synchronized (mLock) {
+            int id = mNextId++;
+            mQueries.put(id, new PagedQuery(databaseId, query, params));
+            return id;
+        }
+    }
+
+    @Nullable
+    PagedQuery get(int id) {
+        synchronized (mLock) {
+            return mQueries.get(id);
+        }
+    }
+
+    /**
+     * @return false if no paged query is registered with the given id.
+     */
+    boolean remove(int id) {
+        synchronized (mLock) {
+            return mQueries.remove(id) != null;
+        }
+    }
+
+    static final class PagedQuery {
+        final int mDatabaseId;
+        @NonNull final String mQuery;
+        @NonNull final String[] mParams;
+
+        PagedQuery(int databaseId, @NonNull String query, @NonNull String[] params) {
+            mDatabaseId = databaseId;
+            mQuery = query;
+            mParams = params;
+        }
+    }
+}
@@ -22,6 +22,7 @@ import static androidx.sqlite.inspection.DatabaseExtensions.isAttemptAtUsingClos
 import static androidx.sqlite.inspection.SqliteInspectorProtocol.ErrorContent.ErrorCode.ERROR_DB_CLOSED_DURING_OPERATION;
 import static androidx.sqlite.inspection.SqliteInspectorProtocol.ErrorContent.ErrorCode.ERROR_ISSUE_WITH_PROCESSING_NEW_DATABASE_CONNECTION;
 import static androidx.sqlite.inspection.SqliteInspectorProtocol.ErrorContent.ErrorCode.ERROR_ISSUE_WITH_PROCESSING_QUERY;
+import static androidx.sqlite.inspection.SqliteInspectorProtocol.ErrorContent.ErrorCode.ERROR_NO_CURSOR_WITH_REQUESTED_ID;
 import static androidx.sqlite.inspection.SqliteInspectorProtocol.ErrorContent.ErrorCode.ERROR_NO_OPEN_DATABASE_WITH_REQUESTED_ID;
 import static androidx.sqlite.inspection.SqliteInspectorProtocol.ErrorContent.ErrorCode.ERROR_UNKNOWN;
 import static androidx.sqlite.inspection.SqliteInspectorProtocol.ErrorContent.ErrorCode.ERROR_UNRECOGNISED_COMMAND;
@@ -49,7 +50,10 @@ import androidx.inspection.ArtTooling.ExitHook;
 import androidx.inspection.Connection;
 import androidx.inspection.Inspector;
 import androidx.inspection.InspectorEnvironment;
+import androidx.sqlite.inspection.PagedQueryRegistry.PagedQuery;
 import androidx.sqlite.inspection.SqliteInspectorProtocol.CellValue;
+import androidx.sqlite.inspection.SqliteInspectorProtocol.CloseCursorCommand;
+import androidx.sqlite.inspection.SqliteInspectorProtocol.CloseCursorResponse;
 import androidx.sqlite.inspection.SqliteInspectorProtocol.Column;
 import androidx.sqlite.inspection.SqliteInspectorProtocol.Command;
 import androidx.sqlite.inspection.SqliteInspectorProtocol.DatabaseClosedEvent;
@@ -61,6 +65,7 @@ import androidx.sqlite.inspection.SqliteInspectorProtocol.ErrorOccurredEvent;
 import androidx.sqlite.inspection.SqliteInspectorProtocol.ErrorOccurredResponse;
 import androidx.sqlite.inspection.SqliteInspectorProtocol.ErrorRecoverability;
 import androidx.sqlite.inspection.SqliteInspectorProtocol.Event;
+import androidx.sqlite.inspection.SqliteInspectorProtocol.FetchRowsCommand;
 import androidx.sqlite.inspection.SqliteInspectorProtocol.GetSchemaCommand;
 import androidx.sqlite.inspection.SqliteInspectorProtocol.GetSchemaResponse;
 import androidx.sqlite.inspection.SqliteInspectorProtocol.KeepDatabasesOpenCommand;
@@ -170,6 +175,7 @@ final class SqliteInspector extends Inspector {
     private final DatabaseRegistry mDatabaseRegistry;
     private final InspectorEnvironment mEnvironment;
     private final Executor mIOExecutor;
+    private final PagedQueryRegistry mPagedQueries = new PagedQueryRegistry();
 
     /**
      * Utility instance that handles communication with Room's InvalidationTracker instances.
@@ -218,6 +224,12 @@ final class SqliteInspector extends Inspector {
                 case KEEP_DATABASES_OPEN:
                     handleKeepDatabasesOpen(command.getKeepDatabasesOpen(), callback);
                     break;
+                case FETCH_ROWS:
+                    handleFetchRows(command.getFetchRows(), callback);
+                    break;
+                case CLOSE_CURSOR:
+                    handleCloseCursor(command.getCloseCursor(), callback);
+                    break;
                 default:
                     callback.reply(
                         createErrorOccurredResponse(
@@ -511,25 +523,91 @@ final class SqliteInspector extends Inspector {
         final SQLiteDatabase reference = acquireReference(command.getDatabaseId(), callback);
         if (reference == null) return;
 
+        final String[] params;
+        try {
+            params = parseQueryParameterValues(command);
+        } catch (IllegalArgumentException e) {
+            callback.reply(createErrorOccurredResponse(e, true,
+                    ERROR_ISSUE_WITH_PROCESSING_QUERY).toByteArray());
+            return;
+        }
+        // Paged queries are executed again to fetch more rows, which is only safe for reads.
+        final boolean isPaged =
+                (command.getPageSize() > 0 || command.getResponseSizeLimitHint() > 0)
+                && getSqlStatementType(command.getQuery()) == DatabaseUtils.STATEMENT_SELECT;
+        executeQuery(reference, command.getQuery(), params, callback, new CursorReader() {
+            @Override
+            public Response read(Cursor cursor, CancellationSignal cancellationSignal) {
+                QueryResponse.Builder response;
+                if (isPaged) {
+                    response = readPage(cursor, 0, command.getPageSize(),
+                            command.getResponseSizeLimitHint(), cancellationSignal);
+                    if (response.getHasMoreRows()) {
+                        response.setCursorId(mPagedQueries.register(command.getDatabaseId(),
+                                command.getQuery(), params));
+                    }
+                } else {
+                    response = QueryResponse.newBuilder().addAllRows(convert(cursor));
+                }
+                return Response.newBuilder()
+                        .setQuery(response.addAllColumnNames(
+                                Arrays.asList(cursor.getColumnNames())))
+                        .build();
+            }
+        });
+    }
+
+    private void handleFetchRows(final FetchRowsCommand command, final CommandCallback callback) {
+        PagedQuery pagedQuery = mPagedQueries.get(command.getCursorId());
+        if (pagedQuery == null) {
+            replyNoCursorWithId(callback, command.getCursorId());
+            return;
+        }
+        final SQLiteDatabase reference = acquireReference(pagedQuery.mDatabaseId, callback);
+        if (reference == null) return;
+
+        executeQuery(reference, pagedQuery.mQuery, pagedQuery.mParams, callback,
+                new CursorReader() {
+                    @Override
+                    public Response read(Cursor cursor, CancellationSignal cancellationSignal) {
+                        QueryResponse.Builder response = readPage(cursor,
+                                Math.max(command.getStartRow(), 0), command.getPageSize(),
+                                command.getResponseSizeLimitHint(), cancellationSignal);
+                        return Response.newBuilder()
+                                .setFetchRows(response
+                                        .setCursorId(command.getCursorId())
+                                        .addAllColumnNames(
+                                                Arrays.asList(cursor.getColumnNames())))
+                                .build();
+                    }
+                });
+    }
+
+    private void handleCloseCursor(CloseCursorCommand command, CommandCallback callback) {
+        if (!mPagedQueries.remove(command.getCursorId())) {
+            replyNoCursorWithId(callback, command.getCursorId());
+            return;
+        }
+        callback.reply(Response.newBuilder().setCloseCursor(
+                CloseCursorResponse.getDefaultInstance()
+        ).build().toByteArray());
+    }
+
+    /**
+     * Executes a query on {@link #mIOExecutor} and replies with the {@link Response} read from its
+     * cursor, or with an {@link ErrorOccurredResponse}. The query is cancelled if the command is.
+     */
+    private void executeQuery(final SQLiteDatabase reference, final String query,
+            final String[] params, final CommandCallback callback, final CursorReader reader) {
         final CancellationSignal cancellationSignal = new CancellationSignal();
         final Future<?> future = SqliteInspectionExecutors.submit(mIOExecutor, new Runnable() {
             @Override
             public void run() {
-                String[] params = parseQueryParameterValues(command);
                 Cursor cursor = null;
                 try {
-                    cursor = rawQuery(reference, command.getQuery(), params,
-                            cancellationSignal);
-                    List<String> columnNames = Arrays.asList(cursor.getColumnNames());
-                    callback.reply(Response.newBuilder()
-                            .setQuery(QueryResponse.newBuilder()
-                                    .addAllRows(convert(cursor))
-                                    .addAllColumnNames(columnNames)
-                                    .build())
-                            .build()
-                            .toByteArray()
-                    );
-                    triggerInvalidation(command.getQuery());
+                    cursor = rawQuery(reference, query, params, cancellationSignal);
+                    callback.reply(reader.read(cursor, cancellationSignal).toByteArray());
+                    triggerInvalidation(query);
                 } catch (SQLiteException | IllegalArgumentException e) {
                     callback.reply(createErrorOccurredResponse(e, true,
                             ERROR_ISSUE_WITH_PROCESSING_QUERY).toByteArray());
@@ -641,18 +719,52 @@ final class SqliteInspector extends Inspector {
 
     private static List<Row> convert(Cursor cursor) {
         List<Row> result = new ArrayList<>();
-        int columnCount = cursor.getColumnCount();
         while (cursor.moveToNext()) {
-            Row.Builder rowBuilder = Row.newBuilder();
-            for (int i = 0; i < columnCount; i++) {
-                CellValue value = readValue(cursor, i);
-                rowBuilder.addValues(value);
-            }
-            result.add(rowBuilder.build());
+            result.add(readRow(cursor));
         }
         return result;
     }
 
+    /**
+     * Reads the rows of a cursor starting at {@code startRow}, stopping after {@code pageSize}
+     * rows or before the rows exceed {@code sizeLimit} bytes, if they are positive.
+     * <p>
+     * Only the cursor window around the returned rows is filled, so memory use is bounded by the
+     * page rather than by the result set.
+     */
+    private static QueryResponse.Builder readPage(Cursor cursor, int startRow, int pageSize,
+            int sizeLimit, CancellationSignal cancellationSignal) {
+        QueryResponse.Builder response = QueryResponse.newBuilder().setStartRow(startRow);
+        if (startRow > 0) {
+            cursor.moveToPosition(startRow - 1);
+        }
+        int size = 0;
+        int count = 0;
+        while ((pageSize <= 0 || count < pageSize) && cursor.moveToNext()) {
+            cancellationSignal.throwIfCanceled();
+            Row row = readRow(cursor);
+            int rowSize = row.getSerializedSize();
+            if (count > 0 && sizeLimit > 0 && size + rowSize > sizeLimit) {
+                cursor.moveToPrevious();
+                break;
+            }
+            response.addRows(row);
+            size += rowSize;
+            count++;
+        }
+        return response.setHasMoreRows(cursor.moveToNext());
+    }
+
+    private static Row readRow(Cursor cursor) {
+        Row.Builder rowBuilder = Row.newBuilder();
+        int columnCount = cursor.getColumnCount();
+        for (int i = 0; i < columnCount; i++) {
+            CellValue value = readValue(cursor, i);
+            rowBuilder.addValues(value);
+        }
+        return rowBuilder.build();
+    }
+
     private static CellValue readValue(Cursor cursor, int index) {
         CellValue.Builder builder = CellValue.newBuilder();
 
@@ -677,6 +789,13 @@ final class SqliteInspector extends Inspector {
         return builder.build();
     }
 
+    private void replyNoCursorWithId(CommandCallback callback, int cursorId) {
+        String message = String.format("Unable to fetch rows of paged query (cursor id=%s)."
+                + " The cursor may have already been closed.", cursorId);
+        callback.reply(createErrorOccurredResponse(message, null, true,
+                ERROR_NO_CURSOR_WITH_REQUESTED_ID).toByteArray());
+    }
+
     private void replyNoDatabaseWithId(CommandCallback callback, int databaseId) {
         String message = String.format("Unable to perform an operation on database (id=%s)."
                 + " The database may have already been closed.", databaseId);
@@ -819,4 +938,10 @@ final class SqliteInspector extends Inspector {
         String path = file.getPath();
         return path.endsWith("-journal") || path.endsWith("-shm") || path.endsWith("-wal");
     }
+
+    /** Builds the response of a query from its cursor. */
+    private interface CursorReader {
+        @NonNull
+        Response read(@NonNull Cursor cursor, @NonNull CancellationSignal cancellationSignal);
+    }
 }
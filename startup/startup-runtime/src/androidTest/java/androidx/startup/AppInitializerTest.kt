@@ -28,6 +28,8 @@ import org.junit.Assert.fail
 import org.junit.Before
 import org.junit.Test
 import org.junit.runner.RunWith
+import java.util.concurrent.TimeUnit
+import kotlin.concurrent.thread
 
 @RunWith(AndroidJUnit4::class)
 @MediumTest
@@ -66,6 +68,98 @@ class AppInitializerTest {
         assertTrue(appInitializer.isEagerlyInitialized(InitializerNoDependencies::class.java))
     }
 
+    @Test
+    fun initializationTimes() {
+        appInitializer.initializeComponent(InitializerWithDependency::class.java)
+        assertTrue(
+            appInitializer.getInitializationTimeNanos(InitializerWithDependency::class.java) >= 0
+        )
+        assertTrue(
+            appInitializer.getInitializationTimeNanos(InitializerNoDependencies::class.java) >= 0
+        )
+        assertThat(
+            appInitializer.getInitializationTimeNanos(CyclicDependencyInitializer::class.java),
+            `is`(-1L)
+        )
+    }
+
+    @Test
+    fun parallelInitialization() {
+        val components = setOf<Class<out Initializer<*>>>(
+            BackgroundInitializerWithDependency::class.java,
+            InitializerWithDependency::class.java
+        )
+        ParallelInitialization(appInitializer, components, 2).run()
+        assertThat(appInitializer.mInitialized.size, `is`(3))
+        assertTrue(appInitializer.mInitialized.containsKey(InitializerNoDependencies::class.java))
+        assertTrue(appInitializer.mInitialized.containsKey(InitializerWithDependency::class.java))
+        val threadName =
+            appInitializer.mInitialized[BackgroundInitializerWithDependency::class.java] as String
+        assertThat(threadName, containsString("AppInitializer-"))
+        assertTrue(
+            appInitializer.getInitializationTimeNanos(
+                BackgroundInitializerWithDependency::class.java
+            ) >= 0
+        )
+    }
+
+    @Test
+    fun parallelInitializationSkipsInitialized() {
+        appInitializer.initializeComponent(InitializerNoDependencies::class.java)
+        val time = appInitializer.getInitializationTimeNanos(InitializerNoDependencies::class.java)
+        val components = setOf<Class<out Initializer<*>>>(
+            BackgroundInitializerWithDependency::class.java
+        )
+        ParallelInitialization(appInitializer, components, 2).run()
+        assertThat(appInitializer.mInitialized.size, `is`(2))
+        assertThat(
+            appInitializer.getInitializationTimeNanos(InitializerNoDependencies::class.java),
+            `is`(time)
+        )
+    }
+
+    @Test
+    fun initializeComponentWaitsForParallelInitialization() {
+        val components = setOf<Class<out Initializer<*>>>(
+            BlockingBackgroundInitializer::class.java
+        )
+        val parallel = thread { ParallelInitialization(appInitializer, components, 2).run() }
+        assertTrue(BlockingBackgroundInitializer.started.await(5, TimeUnit.SECONDS))
+
+        var result: Int? = null
+        val caller = thread {
+            result = appInitializer.initializeComponent(BlockingBackgroundInitializer::class.java)
+        }
+        // Wait until the caller blocks on the component being created in the background.
+        while (caller.state != Thread.State.WAITING) {
+            assertTrue(caller.isAlive)
+            Thread.sleep(1)
+        }
+        BlockingBackgroundInitializer.release.countDown()
+        caller.join()
+        parallel.join()
+
+        assertThat(BlockingBackgroundInitializer.created.get(), `is`(1))
+        assertThat(result, `is`(1))
+        assertThat(
+            appInitializer.mInitialized[BlockingBackgroundInitializer::class.java] as Int,
+            `is`(1)
+        )
+    }
+
+    @Test
+    fun parallelInitializationWithCyclicDependencies() {
+        try {
+            val components = setOf<Class<out Initializer<*>>>(
+                CyclicDependencyInitializer::class.java
+            )
+            ParallelInitialization(appInitializer, components, 2).run()
+            fail()
+        } catch (exception: StartupException) {
+            assertThat(exception.localizedMessage, containsString("Cycle detected."))
+        }
+    }
+
     @Test
     fun initializationWithCyclicDependencies() {
         try {
@@ -24,6 +24,7 @@ import android.content.pm.PackageManager;
 import android.content.pm.ProviderInfo;
 import android.os.Bundle;
 
+import androidx.annotation.GuardedBy;
 import androidx.annotation.NonNull;
 import androidx.tracing.Trace;
 
@@ -37,6 +38,12 @@ import java.util.Set;
  * An {@link AppInitializer} can be used to initialize all discovered [ComponentInitializer]s.
  * <br/>
  * The discovery mechanism is via `<meta-data>` entries in the merged `AndroidManifest.xml`.
+ * <br/>
+ * Discovered {@link Initializer}s are initialized serially on the main thread, unless the
+ * {@link InitializationProvider} has a `androidx.startup.parallelism` `<meta-data>` entry with an
+ * integer value greater than 1. In that case, {@link BackgroundInitializer}s are initialized on up
+ * to that many background threads, concurrently with the other {@link Initializer}s, as soon as
+ * their dependencies are initialized.
  */
 @SuppressWarnings("WeakerAccess")
 public final class AppInitializer {
@@ -44,6 +51,12 @@ public final class AppInitializer {
     // Tracing
     private static final String SECTION_NAME = "Startup";
 
+    /**
+     * The `<meta-data>` key enabling parallel initialization, with the number of background
+     * threads to use.
+     */
+    private static final String PARALLELISM_KEY = "androidx.startup.parallelism";
+
     /**
      * The {@link AppInitializer} instance.
      */
@@ -57,6 +70,16 @@ public final class AppInitializer {
     @NonNull
     final Map<Class<?>, Object> mInitialized;
 
+    @NonNull
+    final Map<Class<?>, Long> mInitializationTimes;
+
+    /**
+     * The components being created, mapped to the thread creating them.
+     */
+    @GuardedBy("sLock")
+    @NonNull
+    final Map<Class<?>, Thread> mInProgress;
+
     @NonNull
     final Set<Class<? extends Initializer<?>>> mDiscovered;
 
@@ -72,6 +95,8 @@ public final class AppInitializer {
         mContext = context.getApplicationContext();
         mDiscovered = new HashSet<>();
         mInitialized = new HashMap<>();
+        mInitializationTimes = new HashMap<>();
+        mInProgress = new HashMap<>();
     }
 
     /**
@@ -115,6 +140,91 @@ public final class AppInitializer {
         return mDiscovered.contains(component);
     }
 
+    /**
+     * Returns the time spent in {@link Initializer#create(Context)} for an {@link Initializer},
+     * excluding the time spent initializing its dependencies.
+     *
+     * @param component The {@link Initializer} class to check
+     * @return The time in nanoseconds, or <code>-1</code> if the {@link Initializer} was not
+     * initialized.
+     */
+    public long getInitializationTimeNanos(@NonNull Class<? extends Initializer<?>> component) {
+        synchronized (sLock) {
+            Long time = mInitializationTimes.get(component);
+            return time == null ? -1 : time;
+        }
+    }
+
+    boolean isInitialized(@NonNull Class<?> component) {
+        synchronized (sLock) {
+            return mInitialized.containsKey(component);
+        }
+    }
+
+    /**
+     * Creates the component of an instantiated {@link Initializer} whose dependencies are all
+     * initialized, and records it as initialized.
+     * <br/>
+     * If another thread is already creating the component, waits for it instead, and returns
+     * the existing component if it was already initialized.
+     */
+    @NonNull
+    Object create(@NonNull Class<?> component, @NonNull Initializer<?> initializer) {
+        synchronized (sLock) {
+            if (awaitInProgress(component)) {
+                return mInitialized.get(component);
+            }
+            mInProgress.put(component, Thread.currentThread());
+        }
+        try {
+            if (StartupLogger.DEBUG) {
+                StartupLogger.i(String.format("Initializing %s", component.getName()));
+            }
+            long start = System.nanoTime();
+            Object result = initializer.create(mContext);
+            long time = System.nanoTime() - start;
+            if (StartupLogger.DEBUG) {
+                StartupLogger.i(
+                        String.format("Initialized %s in %d ns", component.getName(), time));
+            }
+            synchronized (sLock) {
+                mInitialized.put(component, result);
+                mInitializationTimes.put(component, time);
+            }
+            return result;
+        } finally {
+            synchronized (sLock) {
+                mInProgress.remove(component);
+                sLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Waits until no other thread is creating the component.
+     *
+     * @return <code>true</code> if the component is initialized.
+     */
+    @GuardedBy("sLock")
+    private boolean awaitInProgress(@NonNull Class<?> component) {
+        Thread thread;
+        while ((thread = mInProgress.get(component)) != null) {
+            if (thread == Thread.currentThread()) {
+                String message = String.format(
+                        "Cannot initialize %s. Cycle detected.", component.getName()
+                );
+                throw new IllegalStateException(message);
+            }
+            try {
+                sLock.wait();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new StartupException(exception);
+            }
+        }
+        return mInitialized.containsKey(component);
+    }
+
     @NonNull
     @SuppressWarnings({"unchecked", "TypeParameterUnusedInFormals"})
     <T> T doInitialize(
@@ -134,7 +244,7 @@ public final class AppInitializer {
                     throw new IllegalStateException(message);
                 }
                 Object result;
-                if (!mInitialized.containsKey(component)) {
+                if (!awaitInProgress(component)) {
                     initializing.add(component);
                     try {
                         Object instance = component.getDeclaredConstructor().newInstance();
@@ -149,15 +259,8 @@ public final class AppInitializer {
                                 }
                             }
                         }
-                        if (StartupLogger.DEBUG) {
-                            StartupLogger.i(String.format("Initializing %s", component.getName()));
-                        }
-                        result = initializer.create(mContext);
-                        if (StartupLogger.DEBUG) {
-                            StartupLogger.i(String.format("Initialized %s", component.getName()));
-                        }
+                        result = create(component, initializer);
                         initializing.remove(component);
-                        mInitialized.put(component, result);
                     } catch (Throwable throwable) {
                         throw new StartupException(throwable);
                     }
@@ -182,9 +285,14 @@ public final class AppInitializer {
             Bundle metadata = providerInfo.metaData;
             String startup = mContext.getString(R.string.androidx_startup);
             if (metadata != null) {
+                int parallelism = metadata.getInt(PARALLELISM_KEY, 1);
                 Set<Class<?>> initializing = new HashSet<>();
+                Set<Class<? extends Initializer<?>>> components = new HashSet<>();
                 Set<String> keys = metadata.keySet();
                 for (String key : keys) {
+                    if (PARALLELISM_KEY.equals(key)) {
+                        continue;
+                    }
                     String value = metadata.getString(key, null);
                     if (startup.equals(value)) {
                         Class<?> clazz = Class.forName(key);
@@ -195,10 +303,17 @@ public final class AppInitializer {
                             if (StartupLogger.DEBUG) {
                                 StartupLogger.i(String.format("Discovered %s", key));
                             }
-                            doInitialize(component, initializing);
+                            if (parallelism > 1) {
+                                components.add(component);
+                            } else {
+                                doInitialize(component, initializing);
+                            }
                         }
                     }
                 }
+                if (!components.isEmpty()) {
+                    new ParallelInitialization(this, components, parallelism).run();
+                }
             }
         } catch (PackageManager.NameNotFoundException | ClassNotFoundException exception) {
             throw new StartupException(exception);
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.startup;
+
+/**
+ * An {@link Initializer} whose {@link Initializer#create(android.content.Context)} does not need
+ * to run on the main thread.
+ * <br/>
+ * When parallel initialization is enabled for the {@link InitializationProvider}, discovered
+ * {@link BackgroundInitializer}s are created on a background thread, concurrently with any other
+ * {@link Initializer} whose dependencies have been initialized. Other {@link Initializer}s keep
+ * running on the main thread.
+ * <br/>
+ * A {@link BackgroundInitializer} may be created concurrently with other {@link Initializer}s, so
+ * it should only call {@link AppInitializer#initializeComponent(Class)} for the
+ * {@link Initializer}s returned by {@link Initializer#dependencies()}.
+ *
+ * @param <T> The instance type being initialized
+ */
+public interface BackgroundInitializer<T> extends Initializer<T> {
+}
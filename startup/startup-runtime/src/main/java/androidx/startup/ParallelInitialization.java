@@ -0,0 +1,255 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.startup;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.tracing.Trace;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Initializes a set of {@link Initializer}s and their dependencies following their dependency
+ * graph.
+ * <br/>
+ * {@link BackgroundInitializer}s run on a bounded pool of background threads and other
+ * {@link Initializer}s run on the thread calling {@link #run()}, each as soon as all of its
+ * dependencies are initialized.
+ */
+final class ParallelInitialization {
+    private static final String THREAD_NAME_PREFIX = "AppInitializer-";
+
+    /**
+     * Posted to the calling thread's queue once all initializers ran, or one failed.
+     */
+    private static final Node DONE = new Node(Initializer.class, null);
+
+    @NonNull
+    private final AppInitializer mAppInitializer;
+
+    private final int mParallelism;
+
+    @NonNull
+    private final List<Node> mNodes = new ArrayList<>();
+
+    @NonNull
+    private final BlockingQueue<Node> mCallingThreadQueue = new LinkedBlockingQueue<>();
+
+    private final Object mLock = new Object();
+
+    @GuardedBy("mLock")
+    private int mRemaining;
+
+    @GuardedBy("mLock")
+    @Nullable
+    private Throwable mFailure;
+
+    private ExecutorService mExecutor;
+
+    /**
+     * Builds the dependency graph of the given {@link Initializer}s, skipping any
+     * {@link Initializer} already initialized by the {@link AppInitializer}. Components the
+     * {@link AppInitializer} initializes after the graph is built are not created again.
+     *
+     * @param appInitializer The {@link AppInitializer} the results are reported to
+     * @param components     The {@link Initializer}s to initialize
+     * @param parallelism    The maximum number of background threads used
+     */
+    ParallelInitialization(
+            @NonNull AppInitializer appInitializer,
+            @NonNull Set<Class<? extends Initializer<?>>> components,
+            int parallelism) {
+        mAppInitializer = appInitializer;
+        mParallelism = parallelism;
+        Map<Class<?>, Node> nodes = new HashMap<>();
+        Set<Class<?>> initializing = new HashSet<>();
+        for (Class<? extends Initializer<?>> component : components) {
+            if (!appInitializer.isInitialized(component)) {
+                addNode(component, nodes, initializing);
+            }
+        }
+        mRemaining = mNodes.size();
+    }
+
+    /**
+     * Initializes all {@link Initializer}s of the graph, blocking until they are all initialized.
+     *
+     * @throws StartupException if any {@link Initializer} fails.
+     */
+    void run() {
+        if (mNodes.isEmpty()) {
+            return;
+        }
+        mExecutor = Executors.newFixedThreadPool(mParallelism, new ThreadFactory() {
+            private final AtomicInteger mThreadId = new AtomicInteger(0);
+
+            @Override
+            public Thread newThread(@NonNull Runnable runnable) {
+                return new Thread(runnable, THREAD_NAME_PREFIX + mThreadId.getAndIncrement());
+            }
+        });
+        try {
+            for (Node node : mNodes) {
+                if (node.mPendingDependencies == 0) {
+                    schedule(node);
+                }
+            }
+            while (true) {
+                Node node = mCallingThreadQueue.take();
+                if (node == DONE) {
+                    break;
+                }
+                initialize(node);
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new StartupException(exception);
+        } finally {
+            mExecutor.shutdown();
+        }
+        synchronized (mLock) {
+            if (mFailure != null) {
+                throw new StartupException(mFailure);
+            }
+        }
+    }
+
+    private Node addNode(
+            @NonNull Class<? extends Initializer<?>> component,
+            @NonNull Map<Class<?>, Node> nodes,
+            @NonNull Set<Class<?>> initializing) {
+        Node node = nodes.get(component);
+        if (node != null) {
+            return node;
+        }
+        if (initializing.contains(component)) {
+            String message = String.format(
+                    "Cannot initialize %s. Cycle detected.", component.getName()
+            );
+            throw new StartupException(new IllegalStateException(message));
+        }
+        initializing.add(component);
+        Initializer<?> initializer;
+        try {
+            initializer = (Initializer<?>) component.getDeclaredConstructor().newInstance();
+        } catch (Throwable throwable) {
+            throw new StartupException(throwable);
+        }
+        node = new Node(component, initializer);
+        for (Class<? extends Initializer<?>> dependency : initializer.dependencies()) {
+            if (!mAppInitializer.isInitialized(dependency)) {
+                addNode(dependency, nodes, initializing).mDependents.add(node);
+                node.mPendingDependencies++;
+            }
+        }
+        initializing.remove(component);
+        nodes.put(component, node);
+        // Dependencies are added first, so nodes are in a valid initialization order.
+        mNodes.add(node);
+        return node;
+    }
+
+    private void schedule(@NonNull final Node node) {
+        if (node.mInitializer instanceof BackgroundInitializer) {
+            try {
+                mExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        initialize(node);
+                    }
+                });
+            } catch (RejectedExecutionException exception) {
+                // Another initializer failed and the calling thread stopped the executor.
+            }
+        } else {
+            mCallingThreadQueue.add(node);
+        }
+    }
+
+    private void initialize(@NonNull Node node) {
+        synchronized (mLock) {
+            if (mFailure != null) {
+                return;
+            }
+        }
+        boolean isTracingEnabled = Trace.isEnabled();
+        try {
+            if (isTracingEnabled) {
+                // Use the simpleName here because section names would get too big otherwise.
+                Trace.beginSection(node.mComponent.getSimpleName());
+            }
+            mAppInitializer.create(node.mComponent, node.mInitializer);
+        } catch (Throwable throwable) {
+            synchronized (mLock) {
+                if (mFailure == null) {
+                    mFailure = throwable;
+                    mCallingThreadQueue.add(DONE);
+                }
+            }
+            return;
+        } finally {
+            if (isTracingEnabled) {
+                Trace.endSection();
+            }
+        }
+        List<Node> ready = new ArrayList<>();
+        synchronized (mLock) {
+            if (mFailure != null) {
+                return;
+            }
+            for (Node dependent : node.mDependents) {
+                if (--dependent.mPendingDependencies == 0) {
+                    ready.add(dependent);
+                }
+            }
+            if (--mRemaining == 0) {
+                mCallingThreadQueue.add(DONE);
+            }
+        }
+        for (Node dependent : ready) {
+            schedule(dependent);
+        }
+    }
+
+    private static final class Node {
+        @NonNull
+        final Class<?> mComponent;
+        final Initializer<?> mInitializer;
+        @NonNull
+        final List<Node> mDependents = new ArrayList<>();
+        // Guarded by ParallelInitialization.mLock once the graph is built.
+        int mPendingDependencies;
+
+        Node(@NonNull Class<?> component, Initializer<?> initializer) {
+            mComponent = component;
+            mInitializer = initializer;
+        }
+    }
+}
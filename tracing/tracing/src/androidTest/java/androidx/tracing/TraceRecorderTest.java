@@ -0,0 +1,208 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.tracing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.os.Process;
+
+import androidx.annotation.NonNull;
+import androidx.test.filters.SmallTest;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@SmallTest
+public final class TraceRecorderTest {
+
+    @After
+    public void stopRecording() {
+        TraceRecorder.stop();
+    }
+
+    @Test
+    public void recordsEvents() throws Exception {
+        TraceRecorder.start(100);
+        assertTrue(TraceRecorder.isRecording());
+        assertTrue(Trace.isEnabled());
+        Trace.beginSection("section");
+        Trace.setCounter("counter", 42);
+        Trace.beginAsyncSection("async", 7);
+        Trace.endAsyncSection("async", 7);
+        Trace.endSection();
+        TraceRecorder.stop();
+        assertFalse(TraceRecorder.isRecording());
+        Trace.beginSection("notRecorded");
+        Trace.endSection();
+
+        List<JSONObject> events = recordedEvents();
+        assertEquals(Arrays.asList("B", "C", "b", "e", "E"), phases(events));
+        assertEquals("section", events.get(0).getString("name"));
+        assertEquals(42, events.get(1).getJSONObject("args").getLong("value"));
+        assertEquals("async", events.get(2).getString("name"));
+        assertEquals(7, events.get(2).getLong("id"));
+        assertEquals(7, events.get(3).getLong("id"));
+        double previousTimestamp = 0;
+        for (JSONObject event : events) {
+            assertTrue(event.getDouble("ts") >= previousTimestamp);
+            previousTimestamp = event.getDouble("ts");
+        }
+    }
+
+    @Test
+    public void keepsMostRecentEvents() throws Exception {
+        TraceRecorder.start(3);
+        Trace.beginSection("first");
+        Trace.endSection();
+        Trace.beginSection("second");
+        Trace.endSection();
+
+        // the end of "first" is dropped, as its beginning was overwritten
+        List<JSONObject> events = recordedEvents();
+        assertEquals(Arrays.asList("B", "E"), phases(events));
+        assertEquals("second", events.get(0).getString("name"));
+    }
+
+    @Test
+    public void dropsEndsOfOverwrittenSections() throws Exception {
+        TraceRecorder.start(4);
+        Trace.beginSection("outer");
+        Trace.beginSection("inner");
+        Trace.endSection();
+        Trace.endSection();
+        Trace.beginSection("last");
+        Trace.endSection();
+        TraceRecorder.stop();
+
+        // both ends of the nested sections are dropped, as their beginnings were overwritten
+        List<JSONObject> events = recordedEvents();
+        assertEquals(Arrays.asList("B", "E"), phases(events));
+        assertEquals("last", events.get(0).getString("name"));
+    }
+
+    @Test
+    public void recordsPerThread() throws Exception {
+        TraceRecorder.start(100);
+        Trace.beginSection("main");
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                Trace.beginSection("other");
+                Trace.endSection();
+            }
+        }, "OtherThread");
+        thread.start();
+        thread.join();
+        Trace.endSection();
+
+        JSONArray events = writeJson().getJSONArray("traceEvents");
+        List<String> threadNames = new ArrayList<>();
+        List<String> sections = new ArrayList<>();
+        for (int i = 0; i < events.length(); i++) {
+            JSONObject event = events.getJSONObject(i);
+            if (event.getString("ph").equals("M")) {
+                threadNames.add(event.getJSONObject("args").getString("name"));
+            } else if (event.getString("ph").equals("B")) {
+                sections.add(event.getString("name"));
+            }
+        }
+        assertTrue(threadNames.contains("OtherThread"));
+        assertTrue(sections.contains("main"));
+        assertTrue(sections.contains("other"));
+    }
+
+    @Test
+    public void keepsBuffersOfLastTerminatedThreads() throws Exception {
+        TraceRecorder.start(100);
+        int threadCount = TraceRecorder.MAX_TERMINATED_THREAD_BUFFERS * 4;
+        for (int i = 0; i < threadCount; i++) {
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Trace.beginSection("shortLived");
+                    Trace.endSection();
+                }
+            }, "ShortLivedThread" + i);
+            thread.start();
+            thread.join();
+        }
+
+        JSONArray events = writeJson().getJSONArray("traceEvents");
+        List<String> threadNames = new ArrayList<>();
+        for (int i = 0; i < events.length(); i++) {
+            JSONObject event = events.getJSONObject(i);
+            if (event.getString("ph").equals("M")) {
+                threadNames.add(event.getJSONObject("args").getString("name"));
+            }
+        }
+        // The buffers of terminated threads are only dropped when another thread starts recording
+        assertEquals(TraceRecorder.MAX_TERMINATED_THREAD_BUFFERS + 1, threadNames.size());
+        assertFalse(threadNames.contains("ShortLivedThread0"));
+        assertTrue(threadNames.contains("ShortLivedThread" + (threadCount - 1)));
+    }
+
+    @Test
+    public void startDiscardsPreviousEvents() throws Exception {
+        TraceRecorder.start(100);
+        Trace.beginSection("previous");
+        Trace.endSection();
+        TraceRecorder.start(100);
+
+        assertTrue(recordedEvents().isEmpty());
+    }
+
+    @NonNull
+    private static JSONObject writeJson() throws IOException, JSONException {
+        StringWriter writer = new StringWriter();
+        TraceRecorder.writeJson(writer);
+        return new JSONObject(writer.toString());
+    }
+
+    /** Returns the events recorded on the current thread, without metadata. */
+    @NonNull
+    private static List<JSONObject> recordedEvents() throws IOException, JSONException {
+        JSONArray events = writeJson().getJSONArray("traceEvents");
+        List<JSONObject> result = new ArrayList<>();
+        for (int i = 0; i < events.length(); i++) {
+            JSONObject event = events.getJSONObject(i);
+            if (event.getInt("tid") == Process.myTid() && !event.getString("ph").equals("M")) {
+                result.add(event);
+            }
+        }
+        return result;
+    }
+
+    @NonNull
+    private static List<String> phases(@NonNull List<JSONObject> events) throws JSONException {
+        List<String> phases = new ArrayList<>();
+        for (JSONObject event : events) {
+            phases.add(event.getString("ph"));
+        }
+        return phases;
+    }
+}
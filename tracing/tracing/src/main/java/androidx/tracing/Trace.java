@@ -30,6 +30,8 @@ import java.lang.reflect.Method;
  * Writes trace events to the system trace buffer.  These trace events can be
  * collected and visualized using the Systrace tool.
  *
+ * <p>Trace events are also recorded in memory while {@link TraceRecorder} is recording.
+ *
  * <p>This tracing mechanism is independent of the method tracing mechanism
  * offered by {@link android.os.Debug#startMethodTracing}.  In particular, it enables
  * tracing of events that occur across multiple processes.
@@ -53,10 +55,14 @@ public final class Trace {
      * recommended to use this to prevent creating any temporary objects that would then be
      * passed to those methods to reduce runtime cost when tracing isn't enabled.
      *
-     * @return true if tracing is currently enabled, false otherwise
+     * @return true if tracing is currently enabled or {@link TraceRecorder} is recording,
+     * false otherwise
      */
     @SuppressLint("NewApi")
     public static boolean isEnabled() {
+        if (TraceRecorder.isRecording()) {
+            return true;
+        }
         try {
             if (sIsTagEnabledMethod == null) {
                 return android.os.Trace.isEnabled();
@@ -77,6 +83,7 @@ public final class Trace {
      * @param label The name of the code section to appear in the trace.
      */
     public static void beginSection(@NonNull String label) {
+        TraceRecorder.record(TraceRecorder.BEGIN_SECTION, label, 0);
         if (Build.VERSION.SDK_INT >= 18) {
             TraceApi18Impl.beginSection(label);
         }
@@ -93,6 +100,7 @@ public final class Trace {
         if (Build.VERSION.SDK_INT >= 18) {
             TraceApi18Impl.endSection();
         }
+        TraceRecorder.record(TraceRecorder.END_SECTION, null, 0);
     }
 
     /**
@@ -107,6 +115,7 @@ public final class Trace {
      */
     @SuppressLint("NewApi")
     public static void beginAsyncSection(@NonNull String methodName, int cookie) {
+        TraceRecorder.record(TraceRecorder.BEGIN_ASYNC_SECTION, methodName, cookie);
         try {
             if (sAsyncTraceBeginMethod == null) {
                 TraceApi29Impl.beginAsyncSection(methodName, cookie);
@@ -127,6 +136,7 @@ public final class Trace {
      */
     @SuppressLint("NewApi")
     public static void endAsyncSection(@NonNull String methodName, int cookie) {
+        TraceRecorder.record(TraceRecorder.END_ASYNC_SECTION, methodName, cookie);
         try {
             if (sAsyncTraceEndMethod == null) {
                 TraceApi29Impl.endAsyncSection(methodName, cookie);
@@ -145,6 +155,7 @@ public final class Trace {
      */
     @SuppressLint("NewApi")
     public static void setCounter(@NonNull String counterName, int counterValue) {
+        TraceRecorder.record(TraceRecorder.COUNTER, counterName, counterValue);
         try {
             if (sTraceCounterMethod == null) {
                 TraceApi29Impl.setCounter(counterName, counterValue);
@@ -0,0 +1,307 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.tracing;
+
+import android.os.Process;
+import android.util.JsonWriter;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Records {@link Trace} events in memory, so they can be collected without systrace or perfetto
+ * attached to the device, for example to capture slow frames in production.
+ *
+ * <p>While recording, sections, async sections and counters written with {@link Trace} are
+ * recorded with their timestamp into a fixed size ring buffer per thread, keeping the most recent
+ * events. Recording an event doesn't allocate nor lock, only costing a few array writes.
+ *
+ * <p>Each thread gets its ring buffer when it records its first event, costing about 36 bytes per
+ * event of capacity. Buffers of threads which terminated are kept so their events can still be
+ * written, but only for the last 8 such threads to start recording. Buffers are released with their recording, when recording starts again.
+ *
+ * <p>Recorded events can be written at any time with {@link #writeJson(Writer)}, in the JSON trace
+ * event format that can be opened by the Perfetto UI (ui.perfetto.dev) and chrome://tracing.
+ * Timestamps use the same clock as systrace ({@link System#nanoTime()}).
+ *
+ * <pre>
+ * TraceRecorder.start(10_000);
+ * ...
+ * try (Writer writer = new FileWriter(file)) {
+ *     TraceRecorder.writeJson(writer);
+ * }
+ * </pre>
+ */
+public final class TraceRecorder {
+    static final byte BEGIN_SECTION = 'B';
+    static final byte END_SECTION = 'E';
+    static final byte BEGIN_ASYNC_SECTION = 'b';
+    static final byte END_ASYNC_SECTION = 'e';
+    static final byte COUNTER = 'C';
+
+    // Maximum number of buffers of terminated threads kept by a recording.
+    static final int MAX_TERMINATED_THREAD_BUFFERS = 8;
+
+    private static final Object sLock = new Object();
+
+    // Buffer of the current thread in the recording it last recorded to. Only the recording
+    // references its buffers strongly, so they aren't retained by threads outliving it.
+    private static final ThreadLocal<WeakReference<ThreadBuffer>> sThreadBuffer =
+            new ThreadLocal<>();
+
+    // Recording events are written to, null when not recording.
+    private static volatile Recording sActiveRecording;
+    // Most recent recording, kept after it stops to be written.
+    private static volatile Recording sLastRecording;
+
+    /**
+     * Starts recording trace events, discarding previously recorded ones.
+     *
+     * @param eventsPerThread capacity of the ring buffer of each thread. Once full, the oldest
+     *                        events of the thread are overwritten.
+     */
+    public static void start(int eventsPerThread) {
+        if (eventsPerThread <= 0) {
+            throw new IllegalArgumentException("eventsPerThread must be positive.");
+        }
+        synchronized (sLock) {
+            Recording recording = new Recording(eventsPerThread);
+            sLastRecording = recording;
+            sActiveRecording = recording;
+        }
+    }
+
+    /**
+     * Stops recording trace events. Events recorded so far can still be written with
+     * {@link #writeJson(Writer)}, until recording starts again.
+     */
+    public static void stop() {
+        synchronized (sLock) {
+            sActiveRecording = null;
+        }
+    }
+
+    /**
+     * @return true if trace events are being recorded.
+     */
+    public static boolean isRecording() {
+        return sActiveRecording != null;
+    }
+
+    /**
+     * Writes the recorded events in the JSON trace event format. This may be called while
+     * recording, in which case events recorded concurrently may be omitted.
+     *
+     * <p>Section ends whose beginning was already overwritten are omitted, while sections still
+     * in progress only have their beginning.
+     *
+     * @param writer destination of the JSON trace. It is flushed, but not closed.
+     */
+    public static void writeJson(@NonNull Writer writer) throws IOException {
+        Recording recording = sLastRecording;
+        JsonWriter json = new JsonWriter(writer);
+        json.beginObject();
+        json.name("traceEvents").beginArray();
+        if (recording != null) {
+            int pid = Process.myPid();
+            for (ThreadBuffer buffer : recording.mBuffers) {
+                buffer.writeJson(json, pid);
+            }
+        }
+        json.endArray();
+        json.name("displayTimeUnit").value("ns");
+        json.endObject();
+        json.flush();
+    }
+
+    /**
+     * Records an event on the current thread if recording.
+     */
+    static void record(byte type, @Nullable String name, long value) {
+        Recording recording = sActiveRecording;
+        if (recording != null) {
+            recording.getThreadBuffer().record(type, name, value);
+        }
+    }
+
+    private TraceRecorder() {
+    }
+
+    private static final class Recording {
+        final List<ThreadBuffer> mBuffers = new CopyOnWriteArrayList<>();
+        private final int mEventsPerThread;
+
+        Recording(int eventsPerThread) {
+            mEventsPerThread = eventsPerThread;
+        }
+
+        /**
+         * @return the buffer of the current thread, created on its first event.
+         */
+        @NonNull
+        ThreadBuffer getThreadBuffer() {
+            WeakReference<ThreadBuffer> reference = sThreadBuffer.get();
+            ThreadBuffer buffer = reference != null ? reference.get() : null;
+            if (buffer == null || buffer.mRecording != this) {
+                buffer = new ThreadBuffer(this, mEventsPerThread);
+                addBuffer(buffer);
+                sThreadBuffer.set(new WeakReference<>(buffer));
+            }
+            return buffer;
+        }
+
+        private void addBuffer(@NonNull ThreadBuffer buffer) {
+            synchronized (mBuffers) {
+                // Drop the buffers of the threads which terminated first, beyond the limit
+                int terminated = 0;
+                for (int i = mBuffers.size() - 1; i >= 0; i--) {
+                    if (!mBuffers.get(i).isThreadAlive()
+                            && ++terminated > MAX_TERMINATED_THREAD_BUFFERS) {
+                        mBuffers.remove(i);
+                    }
+                }
+                mBuffers.add(buffer);
+            }
+        }
+    }
+
+    /**
+     * Ring buffer of the events of a single thread.
+     *
+     * <p>Only the owning thread writes events, so readers can copy events without locking. Each
+     * slot has a sequence number, cleared while the slot is written and then set to the position
+     * of its event plus one. A reader keeps a copied event only if the sequence number matches
+     * its position both before and after copying it, so events overwritten while being copied
+     * are dropped.
+     *
+     * <p>Slots are written with ordered stores ({@code lazySet}), which keep the writes of a slot
+     * after its sequence number is cleared and before it is set again, without the cost of a
+     * full barrier per field.
+     */
+    private static final class ThreadBuffer {
+        final Recording mRecording;
+        private final WeakReference<Thread> mThread = new WeakReference<>(Thread.currentThread());
+        private final int mTid = Process.myTid();
+        private final String mThreadName = Thread.currentThread().getName();
+        private final int mCapacity;
+        private final AtomicLongArray mSequences;
+        private final AtomicLongArray mTimestamps;
+        private final AtomicIntegerArray mTypes;
+        private final AtomicReferenceArray<String> mNames;
+        private final AtomicLongArray mValues;
+        private final AtomicLong mWrittenCount = new AtomicLong();
+
+        ThreadBuffer(@NonNull Recording recording, int capacity) {
+            mRecording = recording;
+            mCapacity = capacity;
+            mSequences = new AtomicLongArray(capacity);
+            mTimestamps = new AtomicLongArray(capacity);
+            mTypes = new AtomicIntegerArray(capacity);
+            mNames = new AtomicReferenceArray<>(capacity);
+            mValues = new AtomicLongArray(capacity);
+        }
+
+        boolean isThreadAlive() {
+            Thread thread = mThread.get();
+            return thread != null && thread.isAlive();
+        }
+
+        void record(byte type, @Nullable String name, long value) {
+            long position = mWrittenCount.get();
+            int index = (int) (position % mCapacity);
+            mSequences.set(index, 0);
+            mTimestamps.lazySet(index, System.nanoTime());
+            mTypes.lazySet(index, type);
+            mNames.lazySet(index, name);
+            mValues.lazySet(index, value);
+            mSequences.lazySet(index, position + 1);
+            mWrittenCount.lazySet(position + 1);
+        }
+
+        void writeJson(@NonNull JsonWriter json, int pid) throws IOException {
+            long end = mWrittenCount.get();
+            long start = Math.max(0, end - mCapacity);
+            int length = (int) (end - start);
+            long[] timestamps = new long[length];
+            byte[] types = new byte[length];
+            String[] names = new String[length];
+            long[] values = new long[length];
+            int count = 0;
+            for (long position = start; position < end; position++) {
+                int index = (int) (position % mCapacity);
+                long sequence = position + 1;
+                if (mSequences.get(index) == sequence) {
+                    timestamps[count] = mTimestamps.get(index);
+                    types[count] = (byte) mTypes.get(index);
+                    names[count] = mNames.get(index);
+                    values[count] = mValues.get(index);
+                    if (mSequences.get(index) == sequence) {
+                        count++;
+                        continue;
+                    }
+                }
+                // Overwritten while copying. Older events are dropped too, so the remaining
+                // ones have no gap and sections can be matched.
+                count = 0;
+            }
+
+            json.beginObject()
+                    .name("ph").value("M")
+                    .name("name").value("thread_name")
+                    .name("pid").value(pid)
+                    .name("tid").value(mTid)
+                    .name("args").beginObject().name("name").value(mThreadName).endObject()
+                    .endObject();
+            int depth = 0;
+            for (int i = 0; i < count; i++) {
+                byte type = types[i];
+                if (type == END_SECTION) {
+                    if (depth == 0) {
+                        continue; // its beginning was overwritten
+                    }
+                    depth--;
+                } else if (type == BEGIN_SECTION) {
+                    depth++;
+                }
+                json.beginObject()
+                        .name("ph").value(String.valueOf((char) type))
+                        .name("ts").value(timestamps[i] / 1000.0)
+                        .name("pid").value(pid)
+                        .name("tid").value(mTid);
+                if (names[i] != null) {
+                    json.name("name").value(names[i]);
+                }
+                if (type == BEGIN_ASYNC_SECTION || type == END_ASYNC_SECTION) {
+                    json.name("cat").value("async").name("id").value(values[i]);
+                } else if (type == COUNTER) {
+                    json.name("args").beginObject().name("value").value(values[i]).endObject();
+                }
+                json.endObject();
+            }
+        }
+    }
+}
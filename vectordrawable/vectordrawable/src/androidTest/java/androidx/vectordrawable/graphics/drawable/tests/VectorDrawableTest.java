@@ -24,7 +24,10 @@ import static android.graphics.Color.green;
 import static android.graphics.Color.red;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -42,9 +45,11 @@ import android.graphics.Rect;
 import android.graphics.drawable.Drawable;
 import android.util.Log;
 
+import androidx.core.graphics.PathParser;
 import androidx.test.core.app.ApplicationProvider;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import androidx.test.filters.MediumTest;
+import androidx.test.filters.SdkSuppress;
 import androidx.vectordrawable.graphics.drawable.VectorDrawableCompat;
 import androidx.vectordrawable.test.R;
 
@@ -56,6 +61,7 @@ import org.xmlpull.v1.XmlPullParserException;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.lang.reflect.Method;
 import java.util.Arrays;
 
 @RunWith(AndroidJUnit4.class)
@@ -492,6 +498,101 @@ public class VectorDrawableTest {
         d2.setAlpha(originalAlpha);
     }
 
+    @Test
+    public void testCreateTwice() {
+        VectorDrawableCompat d1 = VectorDrawableCompat.create(mResources, TEST_ICON, mTheme);
+        VectorDrawableCompat d2 = VectorDrawableCompat.create(mResources, TEST_ICON, mTheme);
+
+        // Drawables created from the same resource draw the same, but don't share their state
+        assertNotSame(d1.getConstantState(), d2.getConstantState());
+        assertTrue(drawToBitmap(d1).sameAs(drawToBitmap(d2)));
+
+        int originalAlpha = d2.getAlpha();
+        d1.setAlpha(0x40);
+        assertEquals(0x40, d1.getAlpha());
+        assertEquals(originalAlpha, d2.getAlpha());
+    }
+
+    @Test
+    public void testCreateTwice_pathDataIsCopiedOnWrite() throws Exception {
+        // Parsed states are only cached when the drawable isn't delegated nor themed
+        Method create = VectorDrawableCompat.class.getDeclaredMethod("createWithoutDelegate",
+                Resources.class, int.class, Theme.class);
+        create.setAccessible(true);
+        Method getTargetByName = VectorDrawableCompat.class.getDeclaredMethod("getTargetByName",
+                String.class);
+        getTargetByName.setAccessible(true);
+
+        VectorDrawableCompat reference = (VectorDrawableCompat) create.invoke(null, mResources,
+                R.drawable.vector_icon_named_path, null);
+        Bitmap original = drawToBitmap(reference);
+        VectorDrawableCompat d1 = (VectorDrawableCompat) create.invoke(null, mResources,
+                R.drawable.vector_icon_named_path, null);
+        VectorDrawableCompat d2 = (VectorDrawableCompat) create.invoke(null, mResources,
+                R.drawable.vector_icon_named_path, null);
+
+        // Morph d1's path the way a pathData animator would, updating its nodes in place
+        Object path = getTargetByName.invoke(d1, "square");
+        Method setPathData = path.getClass().getMethod("setPathData",
+                PathParser.PathDataNode[].class);
+        setPathData.setAccessible(true);
+        setPathData.invoke(path,
+                (Object) PathParser.createNodesFromPathData("M2,2 L12,2 L12,12 L2,12 z"));
+
+        VectorDrawableCompat d3 = (VectorDrawableCompat) create.invoke(null, mResources,
+                R.drawable.vector_icon_named_path, null);
+        assertFalse(original.sameAs(drawToBitmap(d1)));
+        assertTrue(original.sameAs(drawToBitmap(d2)));
+        assertTrue(original.sameAs(drawToBitmap(d3)));
+    }
+
+    @Test
+    @SdkSuppress(minSdkVersion = 23)
+    public void testCreateTwiceWithTheme_sharesPathDataUntilMutated() throws Exception {
+        Method create = VectorDrawableCompat.class.getDeclaredMethod("createWithoutDelegate",
+                Resources.class, int.class, Theme.class);
+        create.setAccessible(true);
+        Method getTargetByName = VectorDrawableCompat.class.getDeclaredMethod("getTargetByName",
+                String.class);
+        getTargetByName.setAccessible(true);
+        Theme theme = mResources.newTheme();
+        theme.applyStyle(R.style.VectorDrawableTestTheme, true);
+
+        VectorDrawableCompat d1 = (VectorDrawableCompat) create.invoke(null, mResources,
+                R.drawable.vector_icon_named_path, theme);
+        VectorDrawableCompat d2 = (VectorDrawableCompat) create.invoke(null, mResources,
+                R.drawable.vector_icon_named_path, theme);
+        Object path1 = getTargetByName.invoke(d1, "square");
+        Object path2 = getTargetByName.invoke(d2, "square");
+        Method getPathData = path1.getClass().getMethod("getPathData");
+        getPathData.setAccessible(true);
+        Method setPathData = path1.getClass().getMethod("setPathData",
+                PathParser.PathDataNode[].class);
+        setPathData.setAccessible(true);
+
+        // The second drawable is copied from the state cached for the theme, without parsing
+        Object nodes = getPathData.invoke(path2);
+        assertSame(getPathData.invoke(path1), nodes);
+
+        setPathData.invoke(path1,
+                (Object) PathParser.createNodesFromPathData("M2,2 L12,2 L12,12 L2,12 z"));
+        assertNotSame(nodes, getPathData.invoke(path1));
+        assertSame(nodes, getPathData.invoke(path2));
+
+        // Modifying the theme invalidates the states parsed with it
+        theme.applyStyle(android.R.style.Theme_Material_Light, true);
+        VectorDrawableCompat d3 = (VectorDrawableCompat) create.invoke(null, mResources,
+                R.drawable.vector_icon_named_path, theme);
+        assertNotSame(nodes, getPathData.invoke(getTargetByName.invoke(d3, "square")));
+    }
+
+    private static Bitmap drawToBitmap(Drawable drawable) {
+        Bitmap bitmap = Bitmap.createBitmap(IMAGE_WIDTH, IMAGE_HEIGHT, ARGB_8888);
+        drawable.setBounds(0, 0, IMAGE_WIDTH, IMAGE_HEIGHT);
+        drawable.draw(new Canvas(bitmap));
+        return bitmap;
+    }
+
     @Test
     public void testBounds() {
         VectorDrawableCompat vectorDrawable =
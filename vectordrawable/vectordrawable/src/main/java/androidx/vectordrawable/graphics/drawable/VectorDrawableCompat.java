@@ -28,6 +28,7 @@ import static androidx.annotation.RestrictTo.Scope.LIBRARY_GROUP_PREFIX;
 
 import android.annotation.SuppressLint;
 import android.content.res.ColorStateList;
+import android.content.res.Configuration;
 import android.content.res.Resources;
 import android.content.res.Resources.Theme;
 import android.content.res.TypedArray;
@@ -53,11 +54,13 @@ import android.util.Xml;
 
 import androidx.annotation.ColorInt;
 import androidx.annotation.DrawableRes;
+import androidx.annotation.GuardedBy;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.RequiresApi;
 import androidx.annotation.RestrictTo;
 import androidx.collection.ArrayMap;
+import androidx.collection.LruCache;
 import androidx.core.content.res.ComplexColorCompat;
 import androidx.core.content.res.ResourcesCompat;
 import androidx.core.content.res.TypedArrayUtils;
@@ -69,8 +72,10 @@ import org.xmlpull.v1.XmlPullParser;
 import org.xmlpull.v1.XmlPullParserException;
 
 import java.io.IOException;
+import java.lang.ref.WeakReference;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.WeakHashMap;
 
 /**
  * For API 24 and above, this class delegates to the framework's {@link VectorDrawable}.
@@ -300,6 +305,17 @@ public class VectorDrawableCompat extends VectorDrawableCommon {
 
     private static final boolean DBG_VECTOR_DRAWABLE = false;
 
+    // The number of parsed states cached per Resources.
+    private static final int MAX_CACHED_STATES = 64;
+
+    private static final Object sStateCacheLock = new Object();
+
+    // Parsed states of the drawables created from resources, per resources, then per resource id
+    // and theme hash code. These states are only ever copied, never drawn nor mutated.
+    @GuardedBy("sStateCacheLock")
+    private static final WeakHashMap<Resources, LruCache<Long, CachedState>> sStateCache =
+            new WeakHashMap<>(0);
+
     private VectorDrawableCompatState mVectorState;
 
     private PorterDuffColorFilter mTintFilter;
@@ -653,6 +669,12 @@ public class VectorDrawableCompat extends VectorDrawableCommon {
             @DrawableRes int resId,
             @Nullable Theme theme
     ) {
+        final VectorDrawableCompatState cachedState = getCachedState(res, resId, theme);
+        if (cachedState != null) {
+            // Skip parsing, the copy shares the path data of the cached state until either
+            // of them changes it
+            return new VectorDrawableCompat(new VectorDrawableCompatState(cachedState));
+        }
         try {
             @SuppressLint("ResourceType") final XmlPullParser parser = res.getXml(resId);
             final AttributeSet attrs = Xml.asAttributeSet(parser);
@@ -664,7 +686,9 @@ public class VectorDrawableCompat extends VectorDrawableCommon {
             if (type != XmlPullParser.START_TAG) {
                 throw new XmlPullParserException("No start tag found");
             }
-            return createFromXmlInner(res, parser, attrs, theme);
+            final VectorDrawableCompat drawable = createFromXmlInner(res, parser, attrs, theme);
+            addCachedState(res, resId, theme, drawable.mVectorState);
+            return drawable;
         } catch (XmlPullParserException e) {
             Log.e(LOGTAG, "parser error", e);
         } catch (IOException e) {
@@ -673,6 +697,67 @@ public class VectorDrawableCompat extends VectorDrawableCommon {
         return null;
     }
 
+    @Nullable
+    private static VectorDrawableCompatState getCachedState(@NonNull Resources res,
+            @DrawableRes int resId, @Nullable Theme theme) {
+        if (!canCacheState(theme)) {
+            return null;
+        }
+        final int themeHash = theme != null ? theme.hashCode() : 0;
+        final Long key = getStateKey(resId, themeHash);
+        synchronized (sStateCacheLock) {
+            final LruCache<Long, CachedState> states = sStateCache.get(res);
+            if (states == null) {
+                return null;
+            }
+            final CachedState cachedState = states.get(key);
+            if (cachedState == null) {
+                return null;
+            }
+            if (!cachedState.mConfiguration.equals(res.getConfiguration())
+                    || !cachedState.isParsedWith(theme, themeHash)) {
+                // The resources were parsed for another configuration or theme
+                states.remove(key);
+                return null;
+            }
+            return cachedState.mState;
+        }
+    }
+
+    private static void addCachedState(@NonNull Resources res, @DrawableRes int resId,
+            @Nullable Theme theme, @NonNull VectorDrawableCompatState state) {
+        if (!canCacheState(theme)) {
+            return;
+        }
+        if (state.isStateful()) {
+            // Stateful colors are updated in place on state changes, so they can't be shared
+            return;
+        }
+        final int themeHash = theme != null ? theme.hashCode() : 0;
+        // Copy the state before the drawable can be mutated or animated
+        final CachedState cachedState = new CachedState(new VectorDrawableCompatState(state),
+                new Configuration(res.getConfiguration()), theme, themeHash);
+        synchronized (sStateCacheLock) {
+            LruCache<Long, CachedState> states = sStateCache.get(res);
+            if (states == null) {
+                states = new LruCache<>(MAX_CACHED_STATES);
+                sStateCache.put(res, states);
+            }
+            states.put(getStateKey(resId, themeHash), cachedState);
+        }
+    }
+
+    private static boolean canCacheState(@Nullable Theme theme) {
+        // Themes are modified in place by applyStyle() and rebase(). Starting with API 23 their
+        // hash code is computed from the styles applied to them, so a theme modified since a
+        // state was parsed with it can be told apart. Before that it is the identity hash code.
+        return theme == null || Build.VERSION.SDK_INT >= 23;
+    }
+
+    private static Long getStateKey(@DrawableRes int resId, int themeHash) {
+        return ((long) resId << 32) | (themeHash & 0xFFFFFFFFL);
+    }
+
     /**
      * Create a VectorDrawableCompat from inside an XML document using an optional
      * {@link Theme}. Called on a parser positioned at a tag in an XML
@@ -1012,6 +1097,33 @@ public class VectorDrawableCompat extends VectorDrawableCommon {
         }
     }
 
+    private static class CachedState {
+        final VectorDrawableCompatState mState;
+        final Configuration mConfiguration;
+        // Weak so that the cache doesn't keep the theme, nor the resources it belongs to, alive
+        @Nullable
+        final WeakReference<Theme> mTheme;
+        final int mThemeHash;
+
+        CachedState(VectorDrawableCompatState state, Configuration configuration,
+                @Nullable Theme theme, int themeHash) {
+            mState = state;
+            mConfiguration = configuration;
+            mTheme = theme != null ? new WeakReference<>(theme) : null;
+            mThemeHash = themeHash;
+        }
+
+        /**
+         * @return whether this state was parsed with the given theme, in its current state.
+         */
+        boolean isParsedWith(@Nullable Theme theme, int themeHash) {
+            if (theme == null) {
+                return mTheme == null;
+            }
+            return mTheme != null && mTheme.get() == theme && mThemeHash == themeHash;
+        }
+    }
+
     private static class VectorDrawableCompatState extends ConstantState {
         int mChangingConfigurations;
         VPathRenderer mVPathRenderer;
@@ -1688,6 +1800,9 @@ public class VectorDrawableCompat extends VectorDrawableCommon {
     private abstract static class VPath extends VObject {
         protected static final int FILL_TYPE_WINDING = 0;
         protected PathParser.PathDataNode[] mNodes = null;
+        // Whether mNodes may be shared with copies of this path, and must be copied before being
+        // updated in place.
+        boolean mNodesShared;
         String mPathName;
         // Default fill rule is winding, or as known as "non-zero".
         int mFillRule = FILL_TYPE_WINDING;
@@ -1722,7 +1837,10 @@ public class VectorDrawableCompat extends VectorDrawableCommon {
         VPath(VPath copy) {
             mPathName = copy.mPathName;
             mChangingConfigurations = copy.mChangingConfigurations;
-            mNodes = PathParser.deepCopyNodes(copy.mNodes);
+            // Share the nodes, they are only copied once either path updates them
+            mNodes = copy.mNodes;
+            mNodesShared = true;
+            copy.mNodesShared = true;
         }
 
         public void toPath(Path path) {
@@ -1758,7 +1876,12 @@ public class VectorDrawableCompat extends VectorDrawableCommon {
             if (!PathParser.canMorph(mNodes, nodes)) {
                 // This should not happen in the middle of animation.
                 mNodes = PathParser.deepCopyNodes(nodes);
+                mNodesShared = false;
             } else {
+                if (mNodesShared) {
+                    mNodes = PathParser.deepCopyNodes(mNodes);
+                    mNodesShared = false;
+                }
                 PathParser.updateNodes(mNodes, nodes);
             }
         }